@@ -0,0 +1,101 @@
+package benchmark;
+
+import grammar.gen.GenJez;
+import grammar.impl.ArrayJez;
+import grammar.impl.CFGCreator;
+import grammar.impl.CFGCreatorFactory;
+import grammar.impl.SLP;
+import grammar.impl.SLPOp;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the recompression on the primitive grammar representation i.e. GenArrayJez.isEquals() on two synthetic
+ * SLP-compressed words of the same length. The workloads are the same as the ones of JezBenchmark, such that the time
+ * and the allocation rate (-prof gc) of both representations can be compared. The construction benchmarks build the
+ * grammar representation of GenJez (a copy of the merged SLP consisting of symbol, node and production objects) and of
+ * GenArrayJez, the normalized allocation (gc.alloc.rate.norm of -prof gc) of them is the heap of both representations
+ * before the first phase.
+ *
+ * @author Benedikt Zoennchen
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArrayJezBenchmark {
+
+    /**
+     * The family of the generated SLPs.
+     */
+    @Param({"FIBONACCI", "POWER", "BALANCED"})
+    public SLPGenerator.Workload workload;
+
+    /**
+     * The (approximate) number of productions of each SLP.
+     */
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rules;
+
+    /**
+     * true => both words are equal, otherwise they are (most likely) different words of the same length.
+     */
+    @Param({"true"})
+    public boolean equal;
+
+    private CFGCreatorFactory<Character> factory;
+
+    private SLP<Character> slp1;
+
+    private SLP<Character> slp2;
+
+    private SLP<Character> merged;
+
+    /**
+     * Counts the phases of all recompressions of an iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PhaseCounter {
+        public long phases;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            phases = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void generate() {
+        factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPGenerator generator = new SLPGenerator(cfgCreator, 4);
+        slp1 = generator.generate(workload, rules, 42L);
+        slp2 = generator.generate(workload, rules, equal ? 42L : 43L);
+        merged = new SLPOp<Character>().merge(slp1, slp2, factory, false, true).a;
+    }
+
+    @Benchmark
+    public boolean isEquals(final PhaseCounter counter) {
+        // the recompression does not change the SLPs, there is no need for a copy.
+        ArrayJez<Character> jez = new ArrayJez<>(Arrays.asList(slp1, slp2));
+        boolean equals = jez.isEquals();
+        counter.phases += jez.getPhase();
+        return equals;
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public GenJez constructJez() {
+        return new GenJez(merged, factory);
+    }
+
+    @Benchmark
+    public ArrayJez<Character> constructArrayJez() {
+        return new ArrayJez<>(Arrays.asList(slp1, slp2));
+    }
+}
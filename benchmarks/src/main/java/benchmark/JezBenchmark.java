@@ -0,0 +1,139 @@
+package benchmark;
+
+import grammar.gen.GenJez;
+import grammar.impl.CFGCreator;
+import grammar.impl.CFGCreatorFactory;
+import grammar.impl.SLP;
+import grammar.impl.SLPOp;
+import org.openjdk.jmh.annotations.*;
+import utils.PhaseStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the recompression i.e. GenJez.execute() on two synthetic SLP-compressed words of the same length.
+ * The recompression destroys its grammar, therefore each measured call runs on a fresh GenJez which is built in the
+ * iteration setup, i.e. each iteration is a single shot. The number of executed phases, the time spent in the phases
+ * and in the stages of the phases (reported by a phase listener) are auxiliary counters, the average time of a phase
+ * is phaseNanos / phases. The allocation rate can be measured by running the benchmark with the GC profiler (-prof gc).
+ *
+ * @author Benedikt Zoennchen
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JezBenchmark {
+
+    /**
+     * The family of the generated SLPs.
+     */
+    @Param({"FIBONACCI", "POWER", "BALANCED"})
+    public SLPGenerator.Workload workload;
+
+    /**
+     * The (approximate) number of productions of each SLP.
+     */
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rules;
+
+    /**
+     * true => the recompression uses the greedy pair compression.
+     */
+    @Param({"false", "true"})
+    public boolean greedyPairCompression;
+
+    /**
+     * true => the pairs and blocks are gathered in parallel by fork/join tasks.
+     */
+    @Param({"false", "true"})
+    public boolean parallelGathering;
+
+    /**
+     * true => both words are equal, otherwise they are (most likely) different words of the same length.
+     */
+    @Param({"true"})
+    public boolean equal;
+
+    private CFGCreatorFactory<Character> factory;
+
+    private SLP<Character> merged;
+
+    private GenJez jez;
+
+    /**
+     * The statistics of the phases of the current iteration.
+     */
+    private List<PhaseStatistics> statistics;
+
+    /**
+     * Counts the phases of all recompressions of an iteration and the time spent in the phases and their stages.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PhaseCounter {
+        public long phases;
+        public long phaseNanos;
+        public long maxPhaseNanos;
+        public long blockCompressionNanos;
+        public long nonCrossingPairCompressionNanos;
+        public long crossingPairCompressionNanos;
+        public long renamingNanos;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            phases = 0;
+            phaseNanos = 0;
+            maxPhaseNanos = 0;
+            blockCompressionNanos = 0;
+            nonCrossingPairCompressionNanos = 0;
+            crossingPairCompressionNanos = 0;
+            renamingNanos = 0;
+        }
+
+        private void add(final PhaseStatistics phaseStatistics) {
+            phases++;
+            phaseNanos += phaseStatistics.getNanos();
+            maxPhaseNanos = Math.max(maxPhaseNanos, phaseStatistics.getNanos());
+            blockCompressionNanos += phaseStatistics.getBlockCompressionNanos();
+            nonCrossingPairCompressionNanos += phaseStatistics.getNonCrossingPairCompressionNanos();
+            crossingPairCompressionNanos += phaseStatistics.getCrossingPairCompressionNanos();
+            renamingNanos += phaseStatistics.getRenamingNanos();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void generate() {
+        factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPGenerator generator = new SLPGenerator(cfgCreator, 4);
+        SLP<Character> slp1 = generator.generate(workload, rules, 42L);
+        SLP<Character> slp2 = generator.generate(workload, rules, equal ? 42L : 43L);
+        merged = new SLPOp<Character>().merge(slp1, slp2, factory, false, true).a;
+        statistics = new ArrayList<>();
+    }
+
+    @Setup(Level.Iteration)
+    @SuppressWarnings("unchecked")
+    public void prepare() {
+        // the recompression destroys its grammar, the constructor works on a fresh copy of the merged SLP.
+        jez = new GenJez(merged, factory);
+        jez.setGreedyPairCompression(greedyPairCompression);
+        jez.setParallelGathering(parallelGathering);
+        statistics.clear();
+        jez.addPhaseListener(statistics::add);
+    }
+
+    @Benchmark
+    public GenJez execute(final PhaseCounter counter) {
+        jez.execute();
+        for(PhaseStatistics phaseStatistics : statistics) {
+            counter.add(phaseStatistics);
+        }
+        return jez;
+    }
+}
@@ -0,0 +1,103 @@
+package benchmark;
+
+import data.MyLinkedList;
+import data.Node;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the operations of MyLinkedList the recompression performs on right-hand sides: the computation of the grammar
+ * size (the sum of the lengths of all right-hand sides), the gathering of all pairs (each node and its successor) and the
+ * random access to a symbol of a right-hand side. The pairs are gathered once by the pointers (Node) and once by the
+ * elements of the unrolled chunks, which do not create any pointer.
+ *
+ * @author Benedikt Zoennchen
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MyLinkedListBenchmark {
+
+    /**
+     * The number of right-hand sides.
+     */
+    @Param({"10000"})
+    public int rules;
+
+    /**
+     * The length of each right-hand side.
+     */
+    @Param({"2", "16", "128"})
+    public int length;
+
+    private List<MyLinkedList<Integer>> rightHandSides;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42L);
+        rightHandSides = new ArrayList<>(rules);
+        for(int i = 0; i < rules; i++) {
+            MyLinkedList<Integer> right = new MyLinkedList<>();
+            for(int j = 0; j < length; j++) {
+                right.add(random.nextInt(26));
+            }
+            rightHandSides.add(right);
+        }
+    }
+
+    @Benchmark
+    public long grammarSize() {
+        long size = 0;
+        for(MyLinkedList<Integer> right : rightHandSides) {
+            size += right.size();
+        }
+        return size;
+    }
+
+    @Benchmark
+    public long pairGathering() {
+        long pairs = 0;
+        for(MyLinkedList<Integer> right : rightHandSides) {
+            for(Node<Integer> node = right.getHead(); node != null && node.hasNext(); node = node.getNext()) {
+                if(!node.getElement().equals(node.getNext().getElement())) {
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    @Benchmark
+    public long pairGatheringElements() {
+        long pairs = 0;
+        for(MyLinkedList<Integer> right : rightHandSides) {
+            Iterator<Integer> iterator = right.elementIterator();
+            Integer previous = iterator.hasNext() ? iterator.next() : null;
+            while (iterator.hasNext()) {
+                Integer element = iterator.next();
+                if(!previous.equals(element)) {
+                    pairs++;
+                }
+                previous = element;
+            }
+        }
+        return pairs;
+    }
+
+    @Benchmark
+    public long lastSymbol() {
+        long sum = 0;
+        for(MyLinkedList<Integer> right : rightHandSides) {
+            sum += right.get(length - 1).getElement();
+        }
+        return sum;
+    }
+}
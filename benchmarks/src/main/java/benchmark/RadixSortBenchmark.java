@@ -0,0 +1,86 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import utils.PrimitiveRadixSort;
+import utils.RadixSort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares RadixSort (boxed keys, copies of the list in each pass) with PrimitiveRadixSort (primitive keys, index permutation,
+ * reused buffers) by sorting records by two keys (a, b), like the pair records of the recompression.
+ * Both sorts work in place, therefore each measured call sorts a fresh copy of the records which is made in the iteration
+ * setup, i.e. each iteration is a single shot. Run with -prof gc to compare the allocation rates.
+ *
+ * @author Benedikt Zoennchen
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RadixSortBenchmark {
+
+    /**
+     * A record of two keys.
+     */
+    public static class Record {
+        final int a;
+        final int b;
+
+        Record(final int a, final int b) {
+            this.a = a;
+            this.b = b;
+        }
+    }
+
+    /**
+     * The number of records.
+     */
+    @Param({"1000000"})
+    public int size;
+
+    /**
+     * The keys are in [0;range).
+     */
+    @Param({"1000", "1000000"})
+    public int range;
+
+    private List<Record> records;
+
+    private List<Record> list;
+
+    private PrimitiveRadixSort sorter;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42L);
+        records = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {
+            records.add(new Record(random.nextInt(range), random.nextInt(range)));
+        }
+        sorter = new PrimitiveRadixSort();
+    }
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+        list = new ArrayList<>(records);
+    }
+
+    @Benchmark
+    public List<Record> radixSort() {
+        RadixSort.radixSort(list, record -> record.a);
+        RadixSort.radixSort(list, record -> record.a, record -> record.b);
+        return list;
+    }
+
+    @Benchmark
+    public List<Record> primitiveRadixSort() {
+        sorter.sort(list, record -> record.a, record -> record.b, false);
+        return list;
+    }
+}
@@ -0,0 +1,242 @@
+package benchmark;
+
+import grammar.impl.CFGCreator;
+import grammar.impl.Production;
+import grammar.impl.SLP;
+import symbol.IJezSymbol;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Generates synthetic SLP-compressed words of a given number of productions for the benchmarks.
+ *
+ * The exponential families (Fibonacci words and power towers) can not be arbitrary deep since the length of
+ * the generated word has to fit into a long. Therefore a family of k productions is build as a sequence of
+ * towers of depth d, where d is the largest depth such that the whole word is not longer than 2^62. The towers
+ * are concatenated by a balanced binary tree of productions.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class SLPGenerator {
+
+    /**
+     * The upper bound of the length of all generated words.
+     */
+    public static final long MAX_LENGTH = 1L << 62;
+
+    /**
+     * The different families of generated SLPs.
+     */
+    public enum Workload {
+        /**
+         * Towers of Fibonacci words X_k -> X_{k-1}X_{k-2}, i.e. a word with many crossing pairs.
+         */
+        FIBONACCI,
+
+        /**
+         * Towers of powers X_k -> X_{k-1}X_{k-1} of a single letter, i.e. a word consisting of long blocks.
+         */
+        POWER,
+
+        /**
+         * A balanced binary derivation tree over a random word, i.e. a grammar that does not compress at all.
+         */
+        BALANCED
+    }
+
+    /**
+     * The creator of all generated SLPs.
+     */
+    private final CFGCreator<Character> cfgCreator;
+
+    /**
+     * The terminal alphabet of the generated words.
+     */
+    private final List<IJezSymbol<Character>> alphabet;
+
+    /**
+     * Default constructor.
+     *
+     * @param cfgCreator    the creator of all generated SLPs
+     * @param alphabetSize  the number of distinct terminals starting from 'a'
+     */
+    public SLPGenerator(final CFGCreator<Character> cfgCreator, final int alphabetSize) {
+        this.cfgCreator = cfgCreator;
+        this.alphabet = new ArrayList<>(alphabetSize);
+        for(int i = 0; i < alphabetSize; i++) {
+            alphabet.add(cfgCreator.lookupSymbol((char)('a' + i), true));
+        }
+    }
+
+    /**
+     * Generates an SLP of the workload with approximately rules productions.
+     *
+     * @param workload  the family of the SLP
+     * @param rules     the (approximate) number of productions
+     * @param seed      the seed of the random choice of terminals
+     * @return an SLP of the workload with approximately rules productions
+     */
+    public SLP<Character> generate(final Workload workload, final int rules, final long seed) {
+        Random random = new Random(seed);
+        switch (workload) {
+            case FIBONACCI: return fibonacci(rules, random);
+            case POWER: return powerTower(rules, random);
+            case BALANCED: return balanced(rules, random);
+            default: throw new IllegalArgumentException("unsupported workload " + workload);
+        }
+    }
+
+    /**
+     * Generates a concatenation of Fibonacci words, each Fibonacci word uses two random letters.
+     *
+     * @param rules     the (approximate) number of productions
+     * @param random    the random number generator
+     * @return a concatenation of Fibonacci words
+     */
+    public SLP<Character> fibonacci(final int rules, final Random random) {
+        Map<IJezSymbol<Character>, Production<Character>> productions = new HashMap<>();
+        int depth = findDepth(rules, d -> fibonacciLength(d));
+        int towers = (rules + depth - 1) / depth;
+        List<IJezSymbol<Character>> roots = new ArrayList<>(towers);
+
+        for(int t = 0; t < towers; t++) {
+            IJezSymbol<Character> a = alphabet.get(random.nextInt(alphabet.size()));
+            IJezSymbol<Character> b = alphabet.get(random.nextInt(alphabet.size()));
+            IJezSymbol<Character> x1 = cfgCreator.createFreshNonTerminal();
+            IJezSymbol<Character> x2 = cfgCreator.createFreshNonTerminal();
+            productions.put(x1, cfgCreator.createProduction(x1, a));
+            productions.put(x2, cfgCreator.createProduction(x2, b));
+
+            for(int k = 3; k <= depth; k++) {
+                IJezSymbol<Character> x = cfgCreator.createFreshNonTerminal();
+                productions.put(x, cfgCreator.createProduction(x, x2, x1));
+                x1 = x2;
+                x2 = x;
+            }
+            roots.add(x2);
+        }
+
+        return cfgCreator.createSLP(productions, concatenate(roots, productions));
+    }
+
+    /**
+     * Generates a concatenation of powers a^(2^d), each power uses a random letter.
+     *
+     * @param rules     the (approximate) number of productions
+     * @param random    the random number generator
+     * @return a concatenation of powers of letters
+     */
+    public SLP<Character> powerTower(final int rules, final Random random) {
+        Map<IJezSymbol<Character>, Production<Character>> productions = new HashMap<>();
+        int depth = findDepth(rules, d -> 1L << (d - 1));
+        int towers = (rules + depth - 1) / depth;
+        List<IJezSymbol<Character>> roots = new ArrayList<>(towers);
+
+        for(int t = 0; t < towers; t++) {
+            IJezSymbol<Character> a = alphabet.get(random.nextInt(alphabet.size()));
+            IJezSymbol<Character> x = cfgCreator.createFreshNonTerminal();
+            productions.put(x, cfgCreator.createProduction(x, a));
+
+            for(int k = 2; k <= depth; k++) {
+                IJezSymbol<Character> next = cfgCreator.createFreshNonTerminal();
+                productions.put(next, cfgCreator.createProduction(next, x, x));
+                x = next;
+            }
+            roots.add(x);
+        }
+
+        return cfgCreator.createSLP(productions, concatenate(roots, productions));
+    }
+
+    /**
+     * Generates a balanced binary derivation tree of a random word of length rules + 1.
+     *
+     * @param rules     the number of productions
+     * @param random    the random number generator
+     * @return a balanced SLP of a random word
+     */
+    public SLP<Character> balanced(final int rules, final Random random) {
+        Map<IJezSymbol<Character>, Production<Character>> productions = new HashMap<>();
+        List<IJezSymbol<Character>> leaves = new ArrayList<>(rules + 1);
+        for(int i = 0; i <= rules; i++) {
+            leaves.add(alphabet.get(random.nextInt(alphabet.size())));
+        }
+        return cfgCreator.createSLP(productions, concatenate(leaves, productions));
+    }
+
+    /**
+     * Builds a balanced binary tree of productions deriving the concatenation of all symbols.
+     *
+     * @param symbols       the symbols that will be concatenated
+     * @param productions   the map the new productions will be added to
+     * @return the root of the balanced tree i.e. the axiom
+     */
+    private IJezSymbol<Character> concatenate(final List<IJezSymbol<Character>> symbols, final Map<IJezSymbol<Character>, Production<Character>> productions) {
+        List<IJezSymbol<Character>> level = symbols;
+
+        if(level.size() == 1 && level.get(0).isTerminal()) {
+            IJezSymbol<Character> axiom = cfgCreator.createFreshNonTerminal();
+            productions.put(axiom, cfgCreator.createProduction(axiom, level.get(0)));
+            return axiom;
+        }
+
+        while (level.size() > 1) {
+            List<IJezSymbol<Character>> nextLevel = new ArrayList<>((level.size() + 1) / 2);
+            for(int i = 0; i + 1 < level.size(); i += 2) {
+                IJezSymbol<Character> x = cfgCreator.createFreshNonTerminal();
+                productions.put(x, cfgCreator.createProduction(x, level.get(i), level.get(i + 1)));
+                nextLevel.add(x);
+            }
+
+            if(level.size() % 2 == 1) {
+                nextLevel.add(level.get(level.size() - 1));
+            }
+            level = nextLevel;
+        }
+
+        return level.get(0);
+    }
+
+    /**
+     * Returns the largest depth d such that ceil(rules / d) towers of depth d derive a word not longer than MAX_LENGTH.
+     *
+     * @param rules     the number of productions
+     * @param length    the length of a tower of depth d
+     * @return the largest possible depth of the towers
+     */
+    private static int findDepth(final int rules, final LongUnaryOperator length) {
+        int depth = 2;
+        while (depth < rules) {
+            int d = depth + 1;
+            long towers = (rules + d - 1) / d;
+            long len = length.applyAsLong(d);
+            if(len <= 0 || len > MAX_LENGTH / towers) {
+                break;
+            }
+            depth = d;
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the length of the k-th Fibonacci word (F_1 = F_2 = 1).
+     *
+     * @param k the index of the Fibonacci word
+     * @return the length of the k-th Fibonacci word
+     */
+    private static long fibonacciLength(final long k) {
+        long a = 1;
+        long b = 1;
+        for(long i = 2; i < k; i++) {
+            long c = a + b;
+            a = b;
+            b = c;
+        }
+        return b;
+    }
+}
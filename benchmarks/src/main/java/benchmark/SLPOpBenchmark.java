@@ -0,0 +1,80 @@
+package benchmark;
+
+import grammar.impl.CFGCreator;
+import grammar.impl.CFGCreatorFactory;
+import grammar.impl.SLP;
+import grammar.impl.SLPOp;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the operations of GenSLPOp on synthetic SLP-compressed words.
+ *
+ * Note: matchingAll does not enumerate the occurrences, the benchmark measures the recompression and the
+ * counting of all occurrences, which is linear in the size of the grammar even on the exponential workloads.
+ *
+ * @author Benedikt Zoennchen
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SLPOpBenchmark {
+
+    /**
+     * The family of the generated SLPs.
+     */
+    @Param({"BALANCED"})
+    public SLPGenerator.Workload workload;
+
+    /**
+     * The (approximate) number of productions of each SLP.
+     */
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int rules;
+
+    /**
+     * The number of productions of the pattern used for matchingAll.
+     */
+    @Param({"15"})
+    public int patternRules;
+
+    private CFGCreatorFactory<Character> factory;
+
+    private SLPOp<Character> slpOp;
+
+    private SLP<Character> slp1;
+
+    private SLP<Character> slp2;
+
+    private SLP<Character> pattern;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        factory = new CFGCreatorFactory<>();
+        slpOp = new SLPOp<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPGenerator generator = new SLPGenerator(cfgCreator, 4);
+        slp1 = generator.generate(workload, rules, 42L);
+        slp2 = generator.generate(workload, rules, 42L);
+        pattern = generator.generate(SLPGenerator.Workload.BALANCED, patternRules, 7L);
+    }
+
+    @Benchmark
+    public boolean equals() {
+        return slpOp.equals(slp1, slp2, factory);
+    }
+
+    @Benchmark
+    public long matchingAll() {
+        return slpOp.matchingAll(slp1, pattern, factory).count();
+    }
+
+    @Benchmark
+    public SLP<Character> concatenate() {
+        return slpOp.concatenate(slp1, slp2, factory);
+    }
+}
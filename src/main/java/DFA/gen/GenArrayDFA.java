@@ -0,0 +1,659 @@
+package DFA.gen;
+
+import DFA.inter.IDFA;
+import DFA.inter.IDFACreator;
+import DFA.inter.IDFARule;
+import symbol.INamedSymbol;
+
+import java.util.*;
+
+/**
+ * A DFA backend which maps the states and the symbols of a DFA to dense integers and stores the transition function
+ * as a flat array delta[q * k + a], where k is the number of symbols. A missing transition is represented by -1.
+ * The minimization is Hopcroft's algorithm on partition refinement arrays.
+ *
+ * A GenArrayDFA is immutable, each state of a minimized GenArrayDFA is represented by one of the original states
+ * of its equivalence class.
+ *
+ * @author Benedikt Zoennchen
+ *
+ * @param <N>   the type of the identifier of the letters of the input alphabet of the DFA
+ * @param <B>   the type of the identifier of the states of the DFA
+ * @param <F>   the type of the letter of the input alphabet of the DFA
+ * @param <Q>   the type of the states of the DFA
+ * @param <R>   the type of the transition rules of the DFA
+ */
+public class GenArrayDFA<N, B, F extends INamedSymbol<N>, Q extends INamedSymbol<B>, R extends IDFARule<N, B, F, Q>> {
+
+    /**
+     * state id -> state.
+     */
+    private final List<Q> states;
+
+    /**
+     * symbol id -> symbol.
+     */
+    private final List<F> symbols;
+
+    /**
+     * delta[q * k + a] = the destination of the state q and the symbol a or -1 if there is no such transition.
+     */
+    private final int[] delta;
+
+    /**
+     * final[q] = true if and only if q is a final state.
+     */
+    private final boolean[] finals;
+
+    /**
+     * the id of the initial state.
+     */
+    private final int initialState;
+
+    /**
+     * The maximal number of entries of a transition table, i.e. the maximal size of an array supported by common VMs.
+     */
+    private static final int MAX_TABLE_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Converts the DFA into its dense representation.
+     *
+     * Complexity: O(|Q| * |F| + |R|)
+     *
+     * @param dfa the DFA
+     */
+    public GenArrayDFA(final IDFA<N, B, F, Q, R> dfa) {
+        Map<Q, Integer> stateIds = new HashMap<>();
+        Map<F, Integer> symbolIds = new HashMap<>();
+        this.states = new ArrayList<>();
+        this.symbols = new ArrayList<>();
+
+        stateIds.put(dfa.getInitialState(), 0);
+        states.add(dfa.getInitialState());
+        Set<R> rules = dfa.getRules();
+        for(R rule : rules) {
+            for(Q state : Arrays.asList(rule.getSrcState(), rule.getDestState())) {
+                if(!stateIds.containsKey(state)) {
+                    stateIds.put(state, states.size());
+                    states.add(state);
+                }
+            }
+            if(!symbolIds.containsKey(rule.getSymbol())) {
+                symbolIds.put(rule.getSymbol(), symbols.size());
+                symbols.add(rule.getSymbol());
+            }
+        }
+
+        int k = symbols.size();
+        this.delta = new int[tableSize(states.size(), k)];
+        Arrays.fill(delta, -1);
+        for(R rule : rules) {
+            delta[stateIds.get(rule.getSrcState()) * k + symbolIds.get(rule.getSymbol())] = stateIds.get(rule.getDestState());
+        }
+
+        this.finals = new boolean[states.size()];
+        for(Q state : dfa.getFinalStates()) {
+            Integer id = stateIds.get(state);
+            if(id != null) {
+                finals[id] = true;
+            }
+        }
+        this.initialState = 0;
+    }
+
+    private GenArrayDFA(final List<Q> states, final List<F> symbols, final int[] delta, final boolean[] finals, final int initialState) {
+        this.states = states;
+        this.symbols = symbols;
+        this.delta = delta;
+        this.finals = finals;
+        this.initialState = initialState;
+    }
+
+    /**
+     * Returns the number of states.
+     *
+     * @return the number of states
+     */
+    public int getStateCount() {
+        return states.size();
+    }
+
+    /**
+     * Returns the number of symbols.
+     *
+     * @return the number of symbols
+     */
+    public int getSymbolCount() {
+        return symbols.size();
+    }
+
+    /**
+     * Returns the state of the id.
+     *
+     * @param q the id of the state
+     * @return the state of the id
+     */
+    public Q getState(final int q) {
+        return states.get(q);
+    }
+
+    /**
+     * Returns the symbol of the id.
+     *
+     * @param a the id of the symbol
+     * @return the symbol of the id
+     */
+    public F getSymbol(final int a) {
+        return symbols.get(a);
+    }
+
+    /**
+     * Returns the id of the initial state.
+     *
+     * @return the id of the initial state
+     */
+    public int getInitialState() {
+        return initialState;
+    }
+
+    /**
+     * Returns true if the state is a final state, false otherwise.
+     *
+     * @param q the id of the state
+     * @return true if the state is a final state, false otherwise
+     */
+    public boolean isFinal(final int q) {
+        return finals[q];
+    }
+
+    /**
+     * Returns the destination of the state and the symbol or -1 if there is no such transition.
+     *
+     * @param q the id of the state
+     * @param a the id of the symbol
+     * @return the destination of the state and the symbol or -1 if there is no such transition
+     */
+    public int getDestState(final int q, final int a) {
+        return delta[q * symbols.size() + a];
+    }
+
+    /**
+     * Converts this DFA back into a DFA of the creator, each state is represented by its (original) state.
+     *
+     * Complexity: O(|Q| * |F|)
+     *
+     * @param creator   the creator that creates the DFA
+     * @param <D>       the type of the DFA
+     * @return the DFA of the creator
+     */
+    public <D extends IDFA<N, B, F, Q, R>> D toDFA(final IDFACreator<N, B, F, Q, R, D> creator) {
+        int k = symbols.size();
+        Set<R> rules = new HashSet<>();
+        Set<Q> finalStates = new HashSet<>();
+        for(int q = 0; q < states.size(); q++) {
+            for(int a = 0; a < k; a++) {
+                int p = delta[q * k + a];
+                if(p >= 0) {
+                    rules.add(creator.createRule(states.get(q), states.get(p), symbols.get(a)));
+                }
+            }
+            if(finals[q]) {
+                finalStates.add(states.get(q));
+            }
+        }
+        return creator.create(rules, states.get(initialState), finalStates);
+    }
+
+    /**
+     * Computes the minimal DFA recognizing the same language. Unreachable states are removed, missing transitions are
+     * treated as transitions into a (virtual) sink state which is distinguished from all states, i.e. as in isEquals of
+     * GenDFAOp a missing transition is not equivalent to a transition into a dead state. The partition is refined by
+     * Hopcroft's algorithm, where the states of each block are stored consecutively in an array.
+     *
+     * Complexity: O(n * k * log(n)), where n is the number of states and k is the number of symbols
+     *
+     * @return the minimal DFA recognizing the same language
+     */
+    public GenArrayDFA<N, B, F, Q, R> minimize() {
+        int k = symbols.size();
+
+        // 1. renumber the reachable states by a breadth first search, the last state is the sink: O(n * k)
+        int[] ids = new int[states.size()];
+        Arrays.fill(ids, -1);
+        int[] reachables = new int[states.size()];
+        int n = 0;
+        ids[initialState] = n;
+        reachables[n++] = initialState;
+        for(int i = 0; i < n; i++) {
+            int q = reachables[i];
+            for(int a = 0; a < k; a++) {
+                int p = delta[q * k + a];
+                if(p >= 0 && ids[p] < 0) {
+                    ids[p] = n;
+                    reachables[n++] = p;
+                }
+            }
+        }
+        int sink = n;
+        int size = n + 1;
+
+        int[] transitions = new int[tableSize(size, k)];
+        for(int i = 0; i < n; i++) {
+            for(int a = 0; a < k; a++) {
+                int p = delta[reachables[i] * k + a];
+                transitions[i * k + a] = p >= 0 ? ids[p] : sink;
+            }
+        }
+        for(int a = 0; a < k; a++) {
+            transitions[sink * k + a] = sink;
+        }
+
+        // 2. the reverse transitions (a, p) -> {q | delta(q, a) = p} in compressed rows: O(n * k)
+        int[] reverseStart = new int[tableSize(size, k) + 1];
+        for(int q = 0; q < size; q++) {
+            for(int a = 0; a < k; a++) {
+                reverseStart[a * size + transitions[q * k + a] + 1]++;
+            }
+        }
+        for(int i = 1; i < reverseStart.length; i++) {
+            reverseStart[i] += reverseStart[i-1];
+        }
+        int[] reverse = new int[tableSize(size, k)];
+        int[] fill = Arrays.copyOf(reverseStart, reverseStart.length - 1);
+        for(int q = 0; q < size; q++) {
+            for(int a = 0; a < k; a++) {
+                reverse[fill[a * size + transitions[q * k + a]]++] = q;
+            }
+        }
+
+        // 3. the initial partition {final states, non-final states, sink}
+        Partition partition = new Partition(size);
+        boolean[] finalBlock = new boolean[size];
+        for(int i = 0; i < n; i++) {
+            finalBlock[i] = finals[reachables[i]];
+        }
+        partition.split(finalBlock);
+        partition.mark(sink);
+        partition.splitMarked((oldBlock, newBlock) -> {});
+
+        // 4. Hopcroft's refinement, all initial blocks except the largest one are splitters, later a block is added
+        // to the worklist only if it is the smaller part of a split block: O(n * k * log(n))
+        boolean[] inWorklist = new boolean[size];
+        Deque<Integer> worklist = new ArrayDeque<>();
+        int largest = 0;
+        for(int block = 1; block < partition.blockCount; block++) {
+            if(partition.size(block) > partition.size(largest)) {
+                largest = block;
+            }
+        }
+        for(int block = 0; block < partition.blockCount; block++) {
+            if(block != largest) {
+                worklist.push(block);
+                inWorklist[block] = true;
+            }
+        }
+
+        int[] splitter = new int[size];
+        while (!worklist.isEmpty()) {
+            int block = worklist.pop();
+            inWorklist[block] = false;
+
+            // the block may be split while we process its symbols, therefore we copy it
+            int splitterSize = partition.copy(block, splitter);
+            for(int a = 0; a < k; a++) {
+                for(int i = 0; i < splitterSize; i++) {
+                    int p = splitter[i];
+                    for(int j = reverseStart[a * size + p]; j < reverseStart[a * size + p + 1]; j++) {
+                        partition.mark(reverse[j]);
+                    }
+                }
+
+                partition.splitMarked((oldBlock, newBlock) -> {
+                    if(inWorklist[oldBlock]) {
+                        worklist.push(newBlock);
+                        inWorklist[newBlock] = true;
+                    }
+                    else {
+                        int smaller = partition.size(newBlock) <= partition.size(oldBlock) ? newBlock : oldBlock;
+                        worklist.push(smaller);
+                        inWorklist[smaller] = true;
+                    }
+                });
+            }
+        }
+
+        // 5. construct the quotient automaton without the sink block: O(n * k)
+        int sinkBlock = partition.blockOf[sink];
+        int[] blockIds = new int[partition.blockCount];
+        List<Q> newStates = new ArrayList<>();
+        for(int block = 0; block < partition.blockCount; block++) {
+            if(block == sinkBlock) {
+                blockIds[block] = -1;
+            }
+            else {
+                blockIds[block] = newStates.size();
+                newStates.add(states.get(reachables[partition.elements[partition.start[block]]]));
+            }
+        }
+
+        int[] newDelta = new int[tableSize(newStates.size(), k)];
+        boolean[] newFinals = new boolean[newStates.size()];
+        for(int block = 0; block < partition.blockCount; block++) {
+            int id = blockIds[block];
+            if(id >= 0) {
+                int representative = partition.elements[partition.start[block]];
+                for(int a = 0; a < k; a++) {
+                    newDelta[id * k + a] = blockIds[partition.blockOf[transitions[representative * k + a]]];
+                }
+                newFinals[id] = finalBlock[representative];
+            }
+        }
+
+        return new GenArrayDFA<>(newStates, symbols, newDelta, newFinals, blockIds[partition.blockOf[0]]);
+    }
+
+    /**
+     * Tests the equivalence of this DFA and the other DFA by the algorithm of Hopcroft and Karp: starting with the pair
+     * of initial states, each pair (p, q) of states which is not yet known to be equivalent is merged by union-find and
+     * the pairs of its successors are pushed onto a work stack. As in isEquals of GenDFAOp, a missing transition is only
+     * equivalent to a missing transition. The search stops at the first pair which distinguishes the DFAs.
+     *
+     * Complexity: O((n1 + n2) * k * alpha(n1 + n2)), where n1, n2 are the numbers of states and k is the size of the
+     * union of both alphabets
+     *
+     * @param other the other DFA
+     * @return a word w such that exactly one DFA accepts w or the run on w is defined in exactly one DFA, or empty if the
+     *         DFAs are equivalent
+     */
+    public Optional<List<F>> findDistinguishingWord(final GenArrayDFA<N, B, F, Q, R> other) {
+        // the common alphabet: common symbol id -> the local symbol id of both DFAs or -1
+        Map<F, Integer> commonIds = new HashMap<>();
+        List<F> commonSymbols = new ArrayList<>();
+        for(F symbol : symbols) {
+            commonIds.put(symbol, commonSymbols.size());
+            commonSymbols.add(symbol);
+        }
+        for(F symbol : other.symbols) {
+            if(!commonIds.containsKey(symbol)) {
+                commonIds.put(symbol, commonSymbols.size());
+                commonSymbols.add(symbol);
+            }
+        }
+        int k = commonSymbols.size();
+        int[] local1 = new int[k];
+        int[] local2 = new int[k];
+        Arrays.fill(local1, -1);
+        Arrays.fill(local2, -1);
+        for(int a = 0; a < symbols.size(); a++) {
+            local1[a] = a;
+        }
+        for(int a = 0; a < other.symbols.size(); a++) {
+            local2[commonIds.get(other.symbols.get(a))] = a;
+        }
+
+        // the states of this DFA are [0, n1), the states of the other DFA are [n1, n1 + n2)
+        int n1 = getStateCount();
+        UnionFind sets = new UnionFind(n1 + other.getStateCount());
+        PairTrace trace = new PairTrace();
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = trace.add(initialState, other.initialState, -1, -1);
+
+        while (top > 0) {
+            int pair = stack[--top];
+            int q1 = trace.first(pair);
+            int q2 = trace.second(pair);
+
+            if(!sets.union(q1, n1 + q2)) {
+                continue;
+            }
+
+            if(finals[q1] != other.finals[q2]) {
+                return Optional.of(trace.word(pair, -1, commonSymbols));
+            }
+
+            for(int a = 0; a < k; a++) {
+                int p1 = local1[a] >= 0 ? getDestState(q1, local1[a]) : -1;
+                int p2 = local2[a] >= 0 ? other.getDestState(q2, local2[a]) : -1;
+                if(p1 >= 0 && p2 >= 0) {
+                    if(sets.find(p1) != sets.find(n1 + p2)) {
+                        if(top == stack.length) {
+                            stack = Arrays.copyOf(stack, 2 * stack.length);
+                        }
+                        stack[top++] = trace.add(p1, p2, pair, a);
+                    }
+                }
+                else if(p1 >= 0 || p2 >= 0) {
+                    return Optional.of(trace.word(pair, a, commonSymbols));
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the number of entries n * k of a transition table of n states and k symbols, the product is computed
+     * without an int overflow.
+     *
+     * @param n the number of states
+     * @param k the number of symbols
+     * @return the number of entries of the transition table
+     * @throws IllegalArgumentException if the transition table does not fit into an array
+     */
+    private static int tableSize(final int n, final int k) {
+        long size = (long)n * k;
+        if(size > MAX_TABLE_SIZE) {
+            throw new IllegalArgumentException("the transition table of " + n + " states and " + k + " symbols exceeds " + MAX_TABLE_SIZE + " entries.");
+        }
+        return (int)size;
+    }
+
+    /**
+     * Union-find on the integers [0, n) with union by rank and path compression.
+     */
+    private static class UnionFind {
+        private final int[] parent;
+        private final byte[] rank;
+
+        private UnionFind(final int n) {
+            this.parent = new int[n];
+            this.rank = new byte[n];
+            for(int i = 0; i < n; i++) {
+                parent[i] = i;
+            }
+        }
+
+        private int find(final int x) {
+            int root = x;
+            while (parent[root] != root) {
+                root = parent[root];
+            }
+
+            // path compression
+            int y = x;
+            while (parent[y] != root) {
+                int next = parent[y];
+                parent[y] = root;
+                y = next;
+            }
+            return root;
+        }
+
+        /**
+         * Merges the sets of x and y.
+         *
+         * @return false if x and y are already in the same set, otherwise true
+         */
+        private boolean union(final int x, final int y) {
+            int rootX = find(x);
+            int rootY = find(y);
+            if(rootX == rootY) {
+                return false;
+            }
+
+            if(rank[rootX] < rank[rootY]) {
+                parent[rootX] = rootY;
+            }
+            else if(rank[rootX] > rank[rootY]) {
+                parent[rootY] = rootX;
+            }
+            else {
+                parent[rootY] = rootX;
+                rank[rootX]++;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The pushed pairs of states, each pair knows the pair and the symbol by which it was reached to reconstruct a
+     * distinguishing word. The entries are stored as (q1, q2, parent, symbol) in a flat array.
+     */
+    private static class PairTrace {
+        private int[] entries = new int[64];
+        private int size = 0;
+
+        private int add(final int q1, final int q2, final int parent, final int symbol) {
+            if(4 * size + 4 > entries.length) {
+                entries = Arrays.copyOf(entries, 2 * entries.length);
+            }
+            entries[4 * size] = q1;
+            entries[4 * size + 1] = q2;
+            entries[4 * size + 2] = parent;
+            entries[4 * size + 3] = symbol;
+            return size++;
+        }
+
+        private int first(final int pair) {
+            return entries[4 * pair];
+        }
+
+        private int second(final int pair) {
+            return entries[4 * pair + 1];
+        }
+
+        /**
+         * Returns the word leading to the pair followed by the last symbol (if it is not -1).
+         */
+        private <F> List<F> word(int pair, final int last, final List<F> symbols) {
+            LinkedList<F> word = new LinkedList<>();
+            if(last >= 0) {
+                word.addFirst(symbols.get(last));
+            }
+            while (entries[4 * pair + 2] >= 0) {
+                word.addFirst(symbols.get(entries[4 * pair + 3]));
+                pair = entries[4 * pair + 2];
+            }
+            return word;
+        }
+    }
+
+    /**
+     * A partition of the integers [0, n), the elements of each block are stored consecutively in elements.
+     * Marked elements are moved to the front of their block.
+     */
+    private static class Partition {
+        private final int[] elements;
+        private final int[] location;
+        private final int[] blockOf;
+        private final int[] start;
+        private final int[] end;
+        private final int[] marked;
+        private final int[] touched;
+        private int touchedCount;
+        private int blockCount;
+
+        private Partition(final int n) {
+            this.elements = new int[n];
+            this.location = new int[n];
+            this.blockOf = new int[n];
+            this.start = new int[n];
+            this.end = new int[n];
+            this.marked = new int[n];
+            this.touched = new int[n];
+            for(int i = 0; i < n; i++) {
+                elements[i] = i;
+                location[i] = i;
+            }
+            this.end[0] = n;
+            this.blockCount = 1;
+        }
+
+        private int size(final int block) {
+            return end[block] - start[block];
+        }
+
+        private int copy(final int block, final int[] target) {
+            System.arraycopy(elements, start[block], target, 0, size(block));
+            return size(block);
+        }
+
+        /**
+         * Splits the initial block by the predicate.
+         */
+        private void split(final boolean[] predicate) {
+            for(int q = 0; q < elements.length; q++) {
+                if(predicate[q]) {
+                    mark(q);
+                }
+            }
+            splitMarked((oldBlock, newBlock) -> {});
+        }
+
+        /**
+         * Marks the element by moving it into the marked prefix of its block.
+         *
+         * Complexity: O(1)
+         */
+        private void mark(final int q) {
+            int block = blockOf[q];
+            int position = location[q];
+            int target = start[block] + marked[block];
+            if(position < target) {
+                // already marked
+                return;
+            }
+
+            int other = elements[target];
+            elements[target] = q;
+            location[q] = target;
+            elements[position] = other;
+            location[other] = position;
+
+            if(marked[block] == 0) {
+                touched[touchedCount++] = block;
+            }
+            marked[block]++;
+        }
+
+        /**
+         * Splits each touched block into its marked prefix (the new block) and the rest (the old block) if both are non-empty.
+         *
+         * Complexity: O(number of marked elements)
+         */
+        private void splitMarked(final SplitConsumer consumer) {
+            for(int i = 0; i < touchedCount; i++) {
+                int block = touched[i];
+                int count = marked[block];
+                marked[block] = 0;
+                if(count < size(block)) {
+                    int newBlock = blockCount++;
+                    start[newBlock] = start[block];
+                    end[newBlock] = start[block] + count;
+                    start[block] = end[newBlock];
+                    for(int j = start[newBlock]; j < end[newBlock]; j++) {
+                        blockOf[elements[j]] = newBlock;
+                    }
+                    consumer.accept(block, newBlock);
+                }
+            }
+            touchedCount = 0;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SplitConsumer {
+        void accept(int oldBlock, int newBlock);
+    }
+}
@@ -32,6 +32,11 @@ public class GenDFA<N, B, F extends INamedSymbol<N>, Q extends INamedSymbol<B>,
      */
     private final Map<Pair<Q, F>, R> rules;
 
+    /**
+     * The set of transition rules, i.e. the values of rules.
+     */
+    private final Set<R> ruleSet;
+
     /**
      * The initial state.
      */
@@ -67,6 +72,7 @@ public class GenDFA<N, B, F extends INamedSymbol<N>, Q extends INamedSymbol<B>,
         }
 
 	    this.rules = Collections.unmodifiableMap(modifyableRules);
+        this.ruleSet = Collections.unmodifiableSet(new HashSet<>(modifyableRules.values()));
         this.initialStates = initialStates;
         this.finalStates = finalStates;
         this.hash = calcHash();
@@ -90,7 +96,7 @@ public class GenDFA<N, B, F extends INamedSymbol<N>, Q extends INamedSymbol<B>,
 
     @Override
     public Set<R> getRules() {
-        return new HashSet<>(rules.values());
+        return ruleSet;
     }
 
     @Override
@@ -9,10 +9,14 @@ import java.util.List;
  * We use this data structure to support the FIND and UNION operation used in the
  * equality test for deterministic word automaton.
  *
+ * @deprecated the equality test for deterministic word automaton no longer uses this class, it merges the states by
+ * the union-find of GenArrayDFA (see GenArrayDFA.findDistinguishingWord). This class will be removed in a future release.
+ *
  * @author Benedikt Zoennchen
  *
  * @param <E> the type of the element of this generic node
  */
+@Deprecated
 public class GenNode<E> {
 
     /**
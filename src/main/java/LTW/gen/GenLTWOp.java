@@ -11,7 +11,10 @@ import LTW.inter.ILTWCreator;
 import LTW.inter.IRankedSymbol;
 import symbol.IJezSymbol;
 import symbol.INamedSymbol;
+import utils.LongIndexSet;
 import utils.Pair;
+import utils.RuleIndex;
+import utils.StatePairs;
 
 import java.util.*;
 import java.util.function.Function;
@@ -140,49 +143,39 @@ public class GenLTWOp<N, A, B,
     }
 
     /**
-     * Returns the set of all co-reachable states of LTW m1 and LTW m2.
+     * Returns the set of all co-reachable states of LTW m1 and LTW m2. The states and the symbols are compiled to dense ids,
+     * the rules of each LTW are indexed by (state, symbol) and the rules of two states are joined by their symbols.
+     *
+     * Complexity: O(n * log(n) + |Q_1| + |Q_2| + c * d + k * j), where n is the number of rules, c <= |Q_1| * |Q_2| the
+     * number of co-reachable pairs, d the maximal number of rules of a state, k the maximal arity of a symbol and j the
+     * number of joined rule pairs. Only co-reachable pairs are visited, the pairs are hashed instead of stored in a table.
      *
      * @param m1    the first LTW
      * @param m2    the second LTW
      * @return  the set of all co-reachable stats of two LTW's
      */
-    public Set<Pair<Q, Q>> getCoreachableStates(final L m1, final L m2) {
-        Set<Pair<Q, Q>> coreachablePairs = new HashSet<>();
-        LinkedList<Pair<Q, Q>> heap = new LinkedList<>();
+    public StatePairs<Q> getCoreachableStates(final L m1, final L m2) {
+        StatePairs<Q> coreachablePairs = new StatePairs<>(m1.getStates(), m2.getStates());
+        Map<F, Integer> symbolIds = new HashMap<>();
+        RuleIndex<R> rules1 = new RuleIndex<>(m1.getRules(), coreachablePairs.numberOfStates1(), r -> coreachablePairs.id1(r.getSrcState()), r -> symbolIds.computeIfAbsent(r.getSymbol(), f -> symbolIds.size()));
+        RuleIndex<R> rules2 = new RuleIndex<>(m2.getRules(), coreachablePairs.numberOfStates2(), r -> coreachablePairs.id2(r.getSrcState()), r -> symbolIds.computeIfAbsent(r.getSymbol(), f -> symbolIds.size()));
 
         for(Q q01 : m1.getInitialStates()) {
             for(Q q02 : m2.getInitialStates()) {
-                Pair<Q, Q> coreachPair = new Pair<Q, Q>(q01, q02);
-                coreachablePairs.add(coreachPair);
-                heap.push(coreachPair);
+                coreachablePairs.add(q01, q02);
             }
         }
 
+        coreachablePairs.explore(rules1, rules2, (rule1, rule2) -> {
+            Function<Integer, Integer> sigma1 = rule1.getInputPermutation();
+            Function<Integer, Integer> sigma2 = rule2.getInputPermutation();
 
-        while (!heap.isEmpty()) {
-            Pair<Q, Q> coreachPair = heap.pop();
-            for(R rule1 : m1.getRules(coreachPair.a)) {
-                for(R rule2 : m2.getRules(coreachPair.b)) {
-                    if(rule1.getSymbol().equals(rule2.getSymbol())) {
-                        Function<Integer, Integer> sigma1 = rule1.getInputPermutation();
-                        Function<Integer, Integer> sigma2 = rule2.getInputPermutation();
-
-                        for(int i = 0; i < rule1.getSymbol().getArity(); i++) {
-                            int j1 = sigma1.apply(i);
-                            int j2 = sigma2.apply(i);
-
-                            Pair<Q, Q> newCoreachablePair = new Pair<Q, Q>(rule1.getDestStates().get(j1), rule2.getDestStates().get(j2));
-
-                            // avoid cycles!
-                            if(!coreachablePairs.contains(newCoreachablePair)) {
-                                coreachablePairs.add(newCoreachablePair);
-                                heap.add(newCoreachablePair);
-                            }
-                        }
-                    }
-                }
+            for(int i = 0; i < rule1.getSymbol().getArity(); i++) {
+                int j1 = sigma1.apply(i);
+                int j2 = sigma2.apply(i);
+                coreachablePairs.add(rule1.getDestStates().get(j1), rule2.getDestStates().get(j2));
             }
-        }
+        });
 
         return coreachablePairs;
     }
@@ -220,19 +213,52 @@ public class GenLTWOp<N, A, B,
     }
 
     /**
-     * Tests whether two LTWs have the same domain i.e. reads the same input.
+     * Tests whether two LTWs have the same domain i.e. reads the same input. The test is equivalent to the equality of
+     * the DFAs constructed by toDFA but explores the product of both LTWs on-the-fly: starting at the pair of (merged)
+     * initial states, both states of a visited pair have to read the same symbols and each pair of children is visited.
+     * The exploration stops at the first pair of states reading different symbols and only the visited pairs are stored.
+     *
+     * Complexity: O(|R1| + |R2| + p * d), where p is the number of visited pairs and d is the maximal number of
+     * children of a state
      *
      * @param ltw1          the first LTW
      * @param ltw2          the second LTW
-     * @param ltwCreator    the creator that creates both LTWs
      * @return true => the LTWs has the same domain, otherwise false
+     * @throws IllegalArgumentException if a visited state is not deterministic
      */
-    public boolean isEqualLTWDomain(final L ltw1, final L ltw2, final ILTWCreator<N, A, B, F, Q, R, L> ltwCreator) {
-        TreeDFACreator<F, B, Q> creator = new TreeDFACreator<F, B, Q>();
-        TreeDFAOp<F, B, Q> treeDFAOp = new TreeDFAOp<>();
-        TreeDFA<F, B, Q> dfa1 = toDFA(ltw1, creator, ltwCreator);
-        TreeDFA<F, B, Q> dfa2 = toDFA(ltw2, creator, ltwCreator);
-        return treeDFAOp.isEquals(dfa1, dfa2);
+    public boolean isEqualLTWDomain(final L ltw1, final L ltw2) {
+        // the DFAs of toDFA are only equal if they use the same symbols
+        Set<F> symbols1 = ltw1.getRules().stream().map(r -> r.getSymbol()).collect(Collectors.toSet());
+        Set<F> symbols2 = ltw2.getRules().stream().map(r -> r.getSymbol()).collect(Collectors.toSet());
+        if(!symbols1.equals(symbols2)) {
+            return false;
+        }
+
+        DomainStates states1 = new DomainStates(ltw1);
+        DomainStates states2 = new DomainStates(ltw2);
+
+        // pairs of state ids (id1, id2) encoded by id1 * 2^32 + id2, the merged initial states have the id 0
+        LongIndexSet visited = new LongIndexSet();
+        visited.add(0L);
+
+        for(int index = 0; index < visited.size(); index++) {
+            long pair = visited.get(index);
+            Map<F, int[]> children1 = states1.getChildren((int)(pair >>> 32));
+            Map<F, int[]> children2 = states2.getChildren((int)pair);
+
+            if(!children1.keySet().equals(children2.keySet())) {
+                return false;
+            }
+
+            for(Map.Entry<F, int[]> entry : children1.entrySet()) {
+                int[] ids1 = entry.getValue();
+                int[] ids2 = children2.get(entry.getKey());
+                for(int i = 0; i < ids1.length; i++) {
+                    visited.add(((long)ids1[i] << 32) | ids2[i]);
+                }
+            }
+        }
+        return true;
     }
 
     /**
@@ -388,4 +414,60 @@ public class GenLTWOp<N, A, B,
 
         return cfgCreator.createCFG(productions, axioms);
     }
+
+    /**
+     * The states of a LTW which are numbered on demand, where all initial states are merged into the state with the id 0
+     * (as in toDFA).
+     */
+    private class DomainStates {
+        private final Map<Q, List<R>> rulesBySrcState;
+        private final Set<Q> initialStates;
+        private final Map<Q, Integer> ids;
+        private final List<Q> states;
+
+        private DomainStates(final L ltw) {
+            this.rulesBySrcState = ltw.getRulesBySrcState();
+            this.initialStates = ltw.getInitialStates();
+            this.ids = new HashMap<>();
+            this.states = new ArrayList<>();
+            this.states.add(null);
+        }
+
+        private int id(final Q state) {
+            if(initialStates.contains(state)) {
+                return 0;
+            }
+            return ids.computeIfAbsent(state, q -> {
+                states.add(q);
+                return states.size() - 1;
+            });
+        }
+
+        /**
+         * Returns for each symbol read by the state the ids of the states reading the children of the symbol in the
+         * order of the input.
+         *
+         * @param id the id of the state
+         * @return for each symbol read by the state the ids of the states reading the children of the symbol
+         */
+        private Map<F, int[]> getChildren(final int id) {
+            Collection<Q> srcStates = id == 0 ? initialStates : Collections.singleton(states.get(id));
+            Map<F, int[]> children = new HashMap<>();
+
+            for(Q srcState : srcStates) {
+                for(R rule : rulesBySrcState.getOrDefault(srcState, Collections.emptyList())) {
+                    int[] childIds = new int[rule.getSymbol().getArity()];
+                    for(int i = 0; i < childIds.length; i++) {
+                        childIds[i] = id(rule.getDestStates().get(rule.getInputPermutation().apply(i)));
+                    }
+
+                    int[] other = children.putIfAbsent(rule.getSymbol(), childIds);
+                    if(other != null && !Arrays.equals(other, childIds)) {
+                        throw new IllegalArgumentException("the LTW is not deterministic.");
+                    }
+                }
+            }
+            return children;
+        }
+    }
 }
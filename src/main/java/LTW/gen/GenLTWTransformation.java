@@ -246,7 +246,7 @@ public abstract class GenLTWTransformation<I, N, A, B,
      * @return true => the LTWs have the same domain, otherwise false
      */
     public boolean isEqualLTWDomain(final L ltw1, final L ltw2) {
-        return genLTWOp.isEqualLTWDomain(ltw1, ltw2, ltwCreator);
+        return genLTWOp.isEqualLTWDomain(ltw1, ltw2);
     }
 
     public CFG<N> toCFG(final L ltw, final Map<Q, IJezSymbol<N>> ltwToCfgMap) {
@@ -760,7 +760,7 @@ public abstract class GenLTWTransformation<I, N, A, B,
         //allNewRules.addAll(productionsT);
         L ltwM_q = ltwCreator.createLTW(productionsM, stateMap.get(q));
 
-        assert genLTWOp.isEqualLTWDomain(ltwT_q, ltwM_q, ltwCreator);
+        assert genLTWOp.isEqualLTWDomain(ltwT_q, ltwM_q);
 
 
         // test if M_q == T_q, if so replace q by lcp(q)stateMap.get(q) but only if the quasi periodic test does not fail, otherwise undo everything!
@@ -5,10 +5,12 @@ import N2W.inter.IN2WTransducer;
 import N2W.inter.INestedLetter;
 import symbol.INamedSymbol;
 import utils.Pair;
+import utils.RuleIndex;
+import utils.StatePairs;
 import utils.Triple;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.ToIntFunction;
 
 /**
  * @author Benedikt Zoennchen
@@ -46,53 +48,35 @@ public class GenN2WOp
         return deterministic;
     }
 
-    public Set<Pair<Q, Q>> getCoreachableStates(final M n2wTransducer1, final M n2wTransducer2) {
-        Set<Pair<Q, Q>> coreachablePairs = new HashSet<>();
-        LinkedList<Pair<Q, Q>> heap = new LinkedList<>();
-
-        Map<Q, Set<R>> rules1 = n2wTransducer1.getRules().stream().collect(Collectors.groupingBy(r -> r.getStartState(), Collectors.toSet()));
-        Map<Pair<Q, B>, Set<R>> opening2 = n2wTransducer2.getOpeningRules().stream().collect(Collectors.groupingBy(r -> new Pair<>(r.getStartState(), r.getNestedWord().getElement()), Collectors.toSet()));
-        Map<Pair<Q, B>, Set<R>> closing2 = n2wTransducer2.getClosingRules().stream().collect(Collectors.groupingBy(r -> new Pair<>(r.getStartState(), r.getNestedWord().getElement()), Collectors.toSet()));
-
+    /**
+     * Returns the set of all co-reachable states of two N2W transducers. The states and the nested letters are compiled to
+     * dense ids, the rules of each transducer are indexed by (start state, nested letter) and the rules of two states are
+     * joined by their nested letters.
+     *
+     * Complexity: O(n * log(n) + |Q_1| + |Q_2| + c * d + j), where n is the number of rules, c <= |Q_1| * |Q_2| the number
+     * of co-reachable pairs, d the maximal number of rules of a state and j the number of joined rule pairs. Only co-reachable
+     * pairs are visited, the pairs are hashed instead of stored in a table.
+     *
+     * @param n2wTransducer1    the first N2W transducer
+     * @param n2wTransducer2    the second N2W transducer
+     * @return the set of all co-reachable states of the two N2W transducers
+     */
+    public StatePairs<Q> getCoreachableStates(final M n2wTransducer1, final M n2wTransducer2) {
+        StatePairs<Q> coreachablePairs = new StatePairs<>(n2wTransducer1.getStates(), n2wTransducer2.getStates());
+
+        // the key of an opening letter <b is 2 * id(b), the key of a closing letter b> is 2 * id(b) + 1
+        Map<B, Integer> letterIds = new HashMap<>();
+        ToIntFunction<R> key = r -> 2 * letterIds.computeIfAbsent(r.getNestedWord().getElement(), b -> letterIds.size()) + (r.getNestedWord().isOpening() ? 0 : 1);
+        RuleIndex<R> rules1 = new RuleIndex<>(n2wTransducer1.getRules(), coreachablePairs.numberOfStates1(), r -> coreachablePairs.id1(r.getStartState()), key);
+        RuleIndex<R> rules2 = new RuleIndex<>(n2wTransducer2.getRules(), coreachablePairs.numberOfStates2(), r -> coreachablePairs.id2(r.getStartState()), key);
 
         for(Q q01 : n2wTransducer1.getInitialStates()) {
             for(Q q02 : n2wTransducer2.getInitialStates()) {
-                Pair<Q, Q> coreachPair = new Pair<>(q01, q02);
-                coreachablePairs.add(coreachPair);
-                heap.push(coreachPair);
-            }
-        }
-
-        while (!heap.isEmpty()) {
-            Pair<Q, Q> coreachPair = heap.pop();
-            Set<R> ruleSet1 = rules1.get(coreachPair.a);
-
-            if(ruleSet1 != null) {
-                for(R rule1 : ruleSet1) {
-                    Set<R> ruleSet2;
-                    if(rule1.getNestedWord().isOpening()) {
-                        ruleSet2 = opening2.get(new Pair<>(coreachPair.b, rule1.getNestedWord().getElement()));
-                    }
-                    else {
-                        ruleSet2 = closing2.get(new Pair<>(coreachPair.b, rule1.getNestedWord().getElement()));
-                    }
-
-                    if(ruleSet2 != null) {
-
-                        for(R rule2 : ruleSet2) {
-                            Pair<Q,Q> newCoreachablePair = new Pair<>(rule1.getEndState(), rule2.getEndState());
-
-                            // avoid cycles!
-                            if(!coreachablePairs.contains(newCoreachablePair)) {
-                                coreachablePairs.add(newCoreachablePair);
-                                heap.add(newCoreachablePair);
-                            }
-                        }
-                    }
-                }
+                coreachablePairs.add(q01, q02);
             }
         }
 
+        coreachablePairs.explore(rules1, rules2, (rule1, rule2) -> coreachablePairs.add(rule1.getEndState(), rule2.getEndState()));
         return coreachablePairs;
     }
 
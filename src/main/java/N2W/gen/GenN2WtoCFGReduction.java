@@ -9,13 +9,18 @@ import morphismEq.morphisms.IMorphism;
 import morphismEq.gen.GenMorphismEQSolver;
 import symbol.IJezSymbol;
 import symbol.INamedSymbol;
+import utils.LongIndexSet;
 import utils.Pair;
 import utils.Quadrupel;
+import utils.ReductionStatistics;
+import utils.StatePairs;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Benedikt Zoennchen
@@ -43,6 +48,8 @@ public abstract class GenN2WtoCFGReduction
 {
 
     private final ICFGCreatorFactory<Object, S3, W3, P3, C3, Z3> cfgFactoryCreator;
+    private boolean parallel = false;
+    private ReductionStatistics statistics = null;
     private static Logger logger = LogManager.getLogger(GenN2WtoCFGReduction.class);
 
     public GenN2WtoCFGReduction(final ICFGCreatorFactory<Object, S3, W3, P3, C3, Z3> factory) {
@@ -95,7 +102,15 @@ public abstract class GenN2WtoCFGReduction
      * + T1 and T2 have to have the same domain
      *
      * Algorithm:
-     *
+     * The non-terminals (p1, q1, p2, q2) are pairs X = (a, b) of co-reachable pairs a = (p1, p2) and b = (q1, q2), i.e.
+     * parallel well-nested runs from p1 to q1 and from p2 to q2. Instead of generating all candidates, the productions are
+     * built by indexed joins:
+     * (1) the matching opening and closing rules of both transducers are joined by the co-reachable pairs,
+     * (2) the productive non-terminals (summaries) are saturated: (a, a), the wrapping (a, b) of a productive (a', b') by
+     * matching rules and the concatenation (a, c) of productive (a, b) and (b, c),
+     * (3) starting at the axiom, only productions of reachable and productive non-terminals are emitted, the
+     * concatenations X -> (a, m)(m, b) are found by joining the successors of a with the predecessors of b.
+     * If parallel is true, the joins of (3) are partitioned over the available cores.
      *
      * @param n2wTransducer1    T1
      * @param n2wTransducer2    T2
@@ -112,139 +127,430 @@ public abstract class GenN2WtoCFGReduction
         S3 initialState = cfgCreator.createFreshNonTerminal();
         axioms.add(initialState);
 
-        Set<R> openingRule1 = n2wTransducer1.getOpeningRules();
-        Set<R> openingRule2 = n2wTransducer2.getOpeningRules();
-        Set<R> closingRule1 = n2wTransducer1.getClosingRules();
-        Set<R> closingRule2 = n2wTransducer2.getClosingRules();
+        StatePairs<Q> coreachables = n2wOp.getCoreachableStates(n2wTransducer1, n2wTransducer2);
+
+        logger.info("start join of the productions containing terminals");
+        ProductGrammar product = new ProductGrammar(coreachables);
+        long terminalCandidates = product.joinTerminals(n2wTransducer1, n2wTransducer2);
+        logger.info("join of the productions containing terminals finished");
+
+        logger.info("start saturation of the productive non-terminals");
+        product.saturate();
+        logger.info("saturation of the productive non-terminals finished");
+
+        logger.info("start creation of the productions of reachable non-terminals");
+        Map<Integer, S3> nonTerminals = new HashMap<>();
+        Function<Integer, S3> lookupNonTerminal = summary -> nonTerminals.computeIfAbsent(summary, x -> cfgCreator.lookupSymbol(product.getQuadrupel(x), false));
+        boolean[] reached = new boolean[product.summaries.size()];
+        List<Integer> frontier = new ArrayList<>();
+        long terminalProductions = 0;
+        long betweenCandidates = 0;
+        long betweenProductions = 0;
+        long epsilonProductions = 0;
+
+        // (1) axiom rules
+        for(Terminal terminal : product.axiomTerminals) {
+            int inner = product.summaries.indexOf(product.key(terminal.innerLeft, terminal.innerRight));
+            if(inner >= 0) {
+                productions.add(cfgCreator.createProduction(initialState, terminal.createWord(cfgCreator, lookupNonTerminal.apply(inner))));
+                terminalProductions++;
+                if(!reached[inner]) {
+                    reached[inner] = true;
+                    frontier.add(inner);
+                }
+            }
+        }
+
+        while (!frontier.isEmpty()) {
+            List<Integer> nextFrontier = new ArrayList<>();
+
+            // the concatenations X -> (a, m)(m, b) are independent for each X of the frontier
+            Stream<Integer> stream = parallel ? frontier.parallelStream() : frontier.stream();
+            List<int[]> middles = stream.map(product::joinConcatenations).collect(Collectors.toList());
+
+            for(int i = 0; i < frontier.size(); i++) {
+                int summary = frontier.get(i);
+                S3 left = lookupNonTerminal.apply(summary);
+                int a = product.getLeft(summary);
+                int b = product.getRight(summary);
+
+                // (2) productions containing terminals
+                for(int t = product.terminalsByOuter.getHead(summary); t >= 0; t = product.terminalsByOuter.getNext(t)) {
+                    Terminal terminal = product.terminals.get(t);
+                    int inner = product.summaries.indexOf(product.key(terminal.innerLeft, terminal.innerRight));
+                    if(inner >= 0) {
+                        productions.add(cfgCreator.createProduction(left, terminal.createWord(cfgCreator, lookupNonTerminal.apply(inner))));
+                        terminalProductions++;
+                        if(!reached[inner]) {
+                            reached[inner] = true;
+                            nextFrontier.add(inner);
+                        }
+                    }
+                }
+
+                // (3) between productions
+                betweenCandidates += product.successors.size(a);
+                for(int m : middles.get(i)) {
+                    int first = product.summaries.indexOf(product.key(a, m));
+                    int second = product.summaries.indexOf(product.key(m, b));
+                    List<S3> word = new LinkedList<>();
+                    word.add(lookupNonTerminal.apply(first));
+                    word.add(lookupNonTerminal.apply(second));
+                    productions.add(cfgCreator.createProduction(left, cfgCreator.createWord(word)));
+                    betweenProductions++;
+                    for(int child : new int[]{first, second}) {
+                        if(!reached[child]) {
+                            reached[child] = true;
+                            nextFrontier.add(child);
+                        }
+                    }
+                }
+
+                // (4) epsilon productions
+                if(a == b) {
+                    productions.add(cfgCreator.createProduction(left, cfgCreator.createWord(new LinkedList<>())));
+                    epsilonProductions++;
+                }
+            }
+            frontier = nextFrontier;
+        }
+        logger.info("creation of the productions of reachable non-terminals finished");
+
+        statistics = new ReductionStatistics(coreachables.size(), product.summaries.size(), terminalCandidates, terminalProductions, betweenCandidates, betweenProductions, epsilonProductions);
+        logger.info(statistics);
+
+        logger.info("start transformation of G into wCNF");
+        productions = genCFGOp.toWeakCNF(productions, axioms, cfgCreator);
+        logger.info("transformation of G into wCNF finished");
+        ICFGCreator<Object, S3, W3, P3, C3, Z3> creator = cfgFactoryCreator.create();
+        C3 cfg = creator.createCFG(productions, axioms);
+        return cfg;
+    }
+
+    /**
+     * Returns the statistics of the last reduction, i.e. the number of candidates and emitted productions.
+     *
+     * @return the statistics of the last reduction or null if there was no reduction
+     */
+    public ReductionStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns true if the joins of the reduction are partitioned over the available cores.
+     *
+     * @return true if the joins of the reduction are partitioned over the available cores
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
 
-        Set<Q> initialStates1 = n2wTransducer1.getInitialStates();
-        Set<Q> initialStates2 = n2wTransducer2.getInitialStates();
+    /**
+     * Enables or disables the partition of the joins of the reduction over the available cores.
+     *
+     * @param parallel true => the joins are partitioned over the available cores
+     */
+    public void setParallel(final boolean parallel) {
+        this.parallel = parallel;
+    }
 
-        Set<Q> finalStates1 = n2wTransducer1.getFinalStates();
-        Set<Q> finalStates2 = n2wTransducer2.getFinalStates();
+    /**
+     * A combination of an opening and a closing rule of T1 and of T2 with the same letter and the same stack symbols,
+     * i.e. the production (outerLeft, outerRight) -> (op1, op2) (innerLeft, innerRight) (cl1, cl2), where the components
+     * are the indices of co-reachable pairs.
+     */
+    private class Terminal {
+        private final R opening1;
+        private final R closing1;
+        private final R opening2;
+        private final R closing2;
+        private final int outerLeft;
+        private final int outerRight;
+        private final int innerLeft;
+        private final int innerRight;
+
+        private Terminal(final R opening1, final R closing1, final R opening2, final R closing2, final int outerLeft, final int outerRight, final int innerLeft, final int innerRight) {
+            this.opening1 = opening1;
+            this.closing1 = closing1;
+            this.opening2 = opening2;
+            this.closing2 = closing2;
+            this.outerLeft = outerLeft;
+            this.outerRight = outerRight;
+            this.innerLeft = innerLeft;
+            this.innerRight = innerRight;
+        }
 
-        Set<Q> states1 = n2wTransducer1.getStates();
-        Set<Q> states2 = n2wTransducer2.getStates();
+        private W3 createWord(final ICFGCreator<Object, S3, W3, P3, C3, Z3> cfgCreator, final S3 nonTerminal) {
+            List<S3> word = new LinkedList<>();
+            word.add(cfgCreator.lookupSymbol(new Pair<R, R>(opening1, opening2), true));
+            word.add(nonTerminal);
+            word.add(cfgCreator.lookupSymbol(new Pair<R, R>(closing1, closing2), true));
+            return cfgCreator.createWord(word);
+        }
+    }
 
+    /**
+     * The indices of the relations of the product grammar. All states, co-reachable pairs and summaries are dense ids.
+     */
+    private class ProductGrammar {
+        private final StatePairs<Q> coreachables;
 
         /**
-         * (1) axiom rules
+         * The productive non-terminals (a, b) of co-reachable pairs a and b, keyed by a * |C| + b.
          */
-        Map<Pair<B, G>, List<R>> grpedOpeningRules1 = openingRule1.stream().filter(r -> r.getNestedWord().isOpening()).collect(Collectors.groupingBy(r -> new Pair<B, G>(r.getNestedWord().getElement(), r.getStackSymbol())));
-        Map<B, List<R>> grpedOpeningRules2 = openingRule2.stream().filter(r -> r.getNestedWord().isOpening()).collect(Collectors.groupingBy(r -> r.getNestedWord().getElement()));
+        private final LongIndexSet summaries;
 
-        Map<Pair<B, G>, List<R>> grpedClosingRules1 = closingRule1.stream().filter(r -> r.getNestedWord().isClosing()).collect(Collectors.groupingBy(r -> new Pair<B, G>(r.getNestedWord().getElement(), r.getStackSymbol())));
-        Map<Pair<B, G>, List<R>> grpedClosingRules2 = closingRule2.stream().filter(r -> r.getNestedWord().isClosing()).collect(Collectors.groupingBy(r -> new Pair<B, G>(r.getNestedWord().getElement(), r.getStackSymbol())));
+        /**
+         * a -> the summaries (a, b).
+         */
+        private final IntLists successors;
 
+        /**
+         * b -> the summaries (a, b).
+         */
+        private final IntLists predecessors;
 
-        closingRule1.stream().filter(r -> finalStates1.contains(r.getEndState()));
-        closingRule2.stream().filter(r -> finalStates2.contains(r.getEndState()));
-        Set<S3> nonTerminals = new HashSet<>();
-        Set<Quadrupel<Q, Q, Q, Q>> quadrupels = new HashSet<>();
+        private final List<Terminal> terminals;
+        private final List<Terminal> axiomTerminals;
 
-        Set<Pair<Q,Q>> coreachables = n2wOp.getCoreachableStates(n2wTransducer1, n2wTransducer2);
+        /**
+         * summary (innerLeft, innerRight) -> the terminals wrapping it, keyed by the index of the inner key.
+         */
+        private final LongIndexSet innerKeys;
+        private IntLists terminalsByInner;
 
-        logger.info("start creation of productions containing terminals");
-        for(Pair<B, G> pair : grpedOpeningRules1.keySet()) {
-            List<R> opening1Rules = grpedOpeningRules1.get(pair);
-            if(grpedClosingRules1.containsKey(pair)) {
-                List<R> closing1Rules = grpedClosingRules1.get(pair);
+        /**
+         * summary (outerLeft, outerRight) -> the terminals, built after the saturation.
+         */
+        private IntLists terminalsByOuter;
+
+        private ProductGrammar(final StatePairs<Q> coreachables) {
+            this.coreachables = coreachables;
+            this.summaries = new LongIndexSet();
+            this.successors = new IntLists();
+            this.predecessors = new IntLists();
+            this.terminals = new ArrayList<>();
+            this.axiomTerminals = new ArrayList<>();
+            this.innerKeys = new LongIndexSet();
+        }
 
-                for(R opR1 : opening1Rules) {
-                    for(R clR1 : closing1Rules) {
-                        if(grpedOpeningRules2.containsKey(pair.a)) {
-                            for(R opR2 : grpedOpeningRules2.get(pair.a)) {
-                                if(grpedClosingRules2.containsKey(new Pair<>(pair.a, opR2.getStackSymbol()))) {
-                                    for(R clR2 : grpedClosingRules2.get(new Pair<>(pair.a, opR2.getStackSymbol()))) {
+        private long key(final int left, final int right) {
+            return (long)left * coreachables.size() + right;
+        }
+
+        private int getLeft(final int summary) {
+            return (int)(summaries.get(summary) / coreachables.size());
+        }
+
+        private int getRight(final int summary) {
+            return (int)(summaries.get(summary) % coreachables.size());
+        }
 
-                                        // changed!
-                                        if(coreachables.contains(new Pair<>(opR1.getEndState(), opR2.getEndState()))
-                                                && coreachables.contains(new Pair<>(clR1.getStartState(), clR2.getStartState()))){
+        private Quadrupel<Q, Q, Q, Q> getQuadrupel(final int summary) {
+            int a = getLeft(summary);
+            int b = getRight(summary);
+            return new Quadrupel<>(
+                    coreachables.getFirst(a),
+                    coreachables.getFirst(b),
+                    coreachables.getSecond(a),
+                    coreachables.getSecond(b));
+        }
 
-                                            Quadrupel<Q, Q, Q, Q> quadrupel = new Quadrupel<>(opR1.getEndState(), clR1.getStartState(), opR2.getEndState(), clR2.getStartState());
-                                            S3 t1 = cfgCreator.lookupSymbol(new Pair<R, R>(opR1, opR2), true);
-                                            S3 nt = cfgCreator.lookupSymbol(quadrupel, false);
-                                            S3 t2 = cfgCreator.lookupSymbol(new Pair<R, R>(clR1, clR2), true);
+        /**
+         * Joins the matching opening and closing rules of T1 with the ones of T2 by the co-reachable pairs of their start
+         * states, i.e. only combinations starting in co-reachable pairs are probed.
+         *
+         * @return the number of probed candidates
+         */
+        private long joinTerminals(final M n2wTransducer1, final M n2wTransducer2) {
+            Set<Q> initialStates1 = n2wTransducer1.getInitialStates();
+            Set<Q> initialStates2 = n2wTransducer2.getInitialStates();
+            Set<Q> finalStates1 = n2wTransducer1.getFinalStates();
+            Set<Q> finalStates2 = n2wTransducer2.getFinalStates();
+
+            Map<Pair<B, G>, List<R>> grpedOpeningRules1 = n2wTransducer1.getOpeningRules().stream().filter(r -> r.getNestedWord().isOpening()).collect(Collectors.groupingBy(r -> new Pair<B, G>(r.getNestedWord().getElement(), r.getStackSymbol())));
+            Map<Pair<B, G>, List<R>> grpedClosingRules1 = n2wTransducer1.getClosingRules().stream().filter(r -> r.getNestedWord().isClosing()).collect(Collectors.groupingBy(r -> new Pair<B, G>(r.getNestedWord().getElement(), r.getStackSymbol())));
+            Map<Pair<B, G>, List<R>> grpedClosingRules2 = n2wTransducer2.getClosingRules().stream().filter(r -> r.getNestedWord().isClosing()).collect(Collectors.groupingBy(r -> new Pair<B, G>(r.getNestedWord().getElement(), r.getStackSymbol())));
+
+            // (letter, start state of opening rule of T2) -> matching pairs (opening rule, closing rule) of T2
+            int numberOfStates2 = coreachables.numberOfStates2();
+            Map<B, Integer> letterIds = new HashMap<>();
+            LongIndexSet groupKeys = new LongIndexSet();
+            List<List<Pair<R, R>>> groups2 = new ArrayList<>();
+            for(R opR2 : n2wTransducer2.getOpeningRules()) {
+                if(opR2.getNestedWord().isOpening() && grpedClosingRules2.containsKey(new Pair<>(opR2.getNestedWord().getElement(), opR2.getStackSymbol()))) {
+                    int letter = letterIds.computeIfAbsent(opR2.getNestedWord().getElement(), b -> letterIds.size());
+                    int group = groupKeys.add((long)letter * numberOfStates2 + coreachables.id2(opR2.getStartState()));
+                    if(group == groups2.size()) {
+                        groups2.add(new ArrayList<>());
+                    }
+                    for(R clR2 : grpedClosingRules2.get(new Pair<>(opR2.getNestedWord().getElement(), opR2.getStackSymbol()))) {
+                        groups2.get(group).add(new Pair<>(opR2, clR2));
+                    }
+                }
+            }
 
-                                            List<S3> word = new LinkedList<>();
-                                            word.add(t1);
-                                            word.add(nt);
-                                            word.add(t2);
+            // state of T1 -> the co-reachable pairs starting with it
+            IntLists partners = new IntLists();
+            for(int c = 0; c < coreachables.size(); c++) {
+                partners.add(coreachables.getFirstId(c), c);
+            }
 
-                                            if(initialStates1.contains(opR1.getStartState()) && finalStates1.contains(clR1.getEndState())
-                                                    && initialStates2.contains(opR2.getStartState()) && finalStates2.contains(clR2.getEndState())) {
-                                                productions.add(cfgCreator.createProduction(initialState, cfgCreator.createWord(word)));
-                                            }
+            long candidates = 0;
+            for(Map.Entry<Pair<B, G>, List<R>> entry : grpedOpeningRules1.entrySet()) {
+                List<R> closing1Rules = grpedClosingRules1.get(entry.getKey());
+                Integer letter = letterIds.get(entry.getKey().a);
+                if(closing1Rules == null || letter == null) {
+                    continue;
+                }
 
-                                            // changed!
-                                            if(coreachables.contains(new Pair<>(opR1.getStartState(), opR2.getStartState()))
-                                                    && coreachables.contains(new Pair<>(clR1.getEndState(), clR2.getEndState()))){
+                for(R opR1 : entry.getValue()) {
+                    for(R clR1 : closing1Rules) {
+                        for(int outerLeft = partners.getHead(coreachables.id1(opR1.getStartState())); outerLeft >= 0; outerLeft = partners.getNext(outerLeft)) {
+                            int group = groupKeys.indexOf((long)letter * numberOfStates2 + coreachables.getSecondId(outerLeft));
+                            if(group < 0) {
+                                continue;
+                            }
 
-                                                S3 left = cfgCreator.lookupSymbol(new Quadrupel<>(opR1.getStartState(), clR1.getEndState(), opR2.getStartState(), clR2.getEndState()), false);
-                                                productions.add(cfgCreator.createProduction(left, cfgCreator.createWord(word)));
+                            for(Pair<R, R> rules2 : groups2.get(group)) {
+                                candidates++;
+                                R opR2 = rules2.a;
+                                R clR2 = rules2.b;
+                                int innerLeft = coreachables.indexOf(coreachables.id1(opR1.getEndState()), coreachables.id2(opR2.getEndState()));
+                                int innerRight = coreachables.indexOf(coreachables.id1(clR1.getStartState()), coreachables.id2(clR2.getStartState()));
+                                if(innerLeft < 0 || innerRight < 0) {
+                                    continue;
+                                }
 
-                                                nonTerminals.add(nt);
-                                                nonTerminals.add(left);
-                                                quadrupels.add(quadrupel);
+                                int outerRight = coreachables.indexOf(coreachables.id1(clR1.getEndState()), coreachables.id2(clR2.getEndState()));
+                                Terminal terminal = new Terminal(opR1, clR1, opR2, clR2, outerLeft, outerRight, innerLeft, innerRight);
 
-                                            }
-                                        }
+                                if(initialStates1.contains(opR1.getStartState()) && finalStates1.contains(clR1.getEndState())
+                                        && initialStates2.contains(opR2.getStartState()) && finalStates2.contains(clR2.getEndState())) {
+                                    axiomTerminals.add(terminal);
+                                }
 
-                                    }
+                                if(outerRight >= 0) {
+                                    terminals.add(terminal);
                                 }
                             }
                         }
                     }
                 }
             }
+
+            terminalsByInner = new IntLists();
+            for(int t = 0; t < terminals.size(); t++) {
+                terminalsByInner.add(innerKeys.add(key(terminals.get(t).innerLeft, terminals.get(t).innerRight)), t);
+            }
+            return candidates;
         }
-        logger.info("creation of productions containing terminals finished");
 
-        //productions = genCFGOp.eliminateUnreachables(productions, axioms);
+        /**
+         * Saturates the productive non-terminals, each new summary is combined with all summaries found so far, i.e. each
+         * pair of summaries is combined once.
+         */
+        private void saturate() {
+            for(int c = 0; c < coreachables.size(); c++) {
+                addSummary(c, c);
+            }
 
-        logger.info("start creation of 'between productions'");
+            for(int next = 0; next < summaries.size(); next++) {
+                int a = getLeft(next);
+                int b = getRight(next);
 
-        for(Pair<Q, Q> coreach1 : coreachables) {
-            for(Pair<Q, Q> coreach2 : coreachables) {
-                for(Pair<Q, Q> coreach3 : coreachables) {
-                    Q p1 = coreach1.a;
-                    Q p2 = coreach1.b;
+                // (a', b') is wrapped by matching rules
+                int inner = innerKeys.indexOf(key(a, b));
+                if(inner >= 0) {
+                    for(int t = terminalsByInner.getHead(inner); t >= 0; t = terminalsByInner.getNext(t)) {
+                        addSummary(terminals.get(t).outerLeft, terminals.get(t).outerRight);
+                    }
+                }
 
-                    Q q1 = coreach2.a;
-                    Q q2 = coreach2.b;
+                // (a, b)(b, c)
+                for(int s = successors.getHead(b); s >= 0; s = successors.getNext(s)) {
+                    addSummary(a, getRight(s));
+                }
 
-                    Q p1_ = coreach3.a;
-                    Q p2_ = coreach3.b;
+                // (z, a)(a, b)
+                for(int s = predecessors.getHead(a); s >= 0; s = predecessors.getNext(s)) {
+                    addSummary(getLeft(s), b);
+                }
+            }
 
-                    S3 left = cfgCreator.lookupSymbol(new Quadrupel<>(p1, q1, p2, q2), false);
-                    S3 nt1 = cfgCreator.lookupSymbol(new Quadrupel<>(p1, p1_, p2, p2_), false);
-                    S3 nt2 = cfgCreator.lookupSymbol(new Quadrupel<>(p1_, q1, p2_, q2), false);
-                    List<S3> word = new LinkedList<>();
-                    word.add(nt1);
-                    word.add(nt2);
-                    productions.add(cfgCreator.createProduction(left, cfgCreator.createWord(word)));
+            terminalsByOuter = new IntLists();
+            for(int t = 0; t < terminals.size(); t++) {
+                int outer = summaries.indexOf(key(terminals.get(t).outerLeft, terminals.get(t).outerRight));
+                if(outer >= 0) {
+                    terminalsByOuter.add(outer, t);
                 }
             }
         }
-        logger.info("creation of 'between productions' finished");
 
-
-        for(Q q1 : states1) {
-            for(Q q2 : states2) {
-                S3 left = cfgCreator.lookupSymbol(new Quadrupel<>(q1, q1, q2, q2), false);
-                productions.add(cfgCreator.createProduction(left, cfgCreator.createWord(new LinkedList<>())));
+        private void addSummary(final int a, final int b) {
+            int size = summaries.size();
+            int summary = summaries.add(key(a, b));
+            if(summary == size) {
+                successors.add(a, summary);
+                predecessors.add(b, summary);
             }
         }
 
-        logger.info("start transformation of G into wCNF");
-        productions = genCFGOp.toWeakCNF(productions, axioms, cfgCreator);
-        logger.info("transformation of G into wCNF finished");
-        ICFGCreator<Object, S3, W3, P3, C3, Z3> creator = cfgFactoryCreator.create();
-        C3 cfg = creator.createCFG(productions, axioms);
-        return cfg;
+        /**
+         * Returns all m such that (a, m) and (m, b) are summaries, where (a, b) is the summary. This method only reads.
+         */
+        private int[] joinConcatenations(final int summary) {
+            int a = getLeft(summary);
+            int b = getRight(summary);
+            int[] middles = new int[successors.size(a)];
+            int size = 0;
+            for(int s = successors.getHead(a); s >= 0; s = successors.getNext(s)) {
+                int m = getRight(s);
+                if(summaries.contains(key(m, b))) {
+                    middles[size++] = m;
+                }
+            }
+            return Arrays.copyOf(middles, size);
+        }
     }
 
+    /**
+     * Singly linked lists of int values for the keys 0, 1, 2, ..., stored in arrays. The value of a list element is
+     * equal to its element id, i.e. the values have to be distinct non-negative ints.
+     */
+    private static class IntLists {
+        private int[] heads = new int[0];
+        private int[] sizes = new int[0];
+        private int[] next = new int[0];
+
+        private void add(final int key, final int value) {
+            if(key >= heads.length) {
+                int length = Math.max(key + 1, 2 * heads.length);
+                int oldLength = heads.length;
+                heads = Arrays.copyOf(heads, length);
+                sizes = Arrays.copyOf(sizes, length);
+                Arrays.fill(heads, oldLength, length, -1);
+            }
+            if(value >= next.length) {
+                next = Arrays.copyOf(next, Math.max(value + 1, 2 * next.length));
+            }
+            next[value] = heads[key];
+            heads[key] = value;
+            sizes[key]++;
+        }
 
+        private int getHead(final int key) {
+            return key >= 0 && key < heads.length ? heads[key] : -1;
+        }
+
+        private int getNext(final int value) {
+            return next[value];
+        }
+
+        private int size(final int key) {
+            return key >= 0 && key < sizes.length ? sizes[key] : 0;
+        }
+    }
 
     /**
      * Transforms a base SLP that represents the shortest word of the CFG that was created by
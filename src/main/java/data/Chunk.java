@@ -0,0 +1,287 @@
+package data;
+
+import java.util.Arrays;
+
+/**
+ * A chunk of the unrolled MyLinkedList, i.e. an array of at most CAPACITY consecutive elements of the list. The pointers
+ * (i.e. Node) of the elements are created lazily and replace the element inside of the array, such that a pointer stays
+ * the same object as long as its element is part of the list, even if the element is moved inside the chunk or into
+ * another chunk.
+ *
+ * @author Benedikt Zoennchen
+ *
+ * @param <E> the type of the elements contained in the chunk
+ */
+class Chunk<E> {
+
+    /**
+     * The maximal number of elements of a chunk. Two neighbouring chunks are merged if they contain at most CAPACITY / 2
+     * elements together.
+     */
+    static final int CAPACITY = 32;
+
+    /**
+     * The initial length of the element array, the array grows up to CAPACITY.
+     */
+    private static final int INITIAL_CAPACITY = 2;
+
+    /**
+     * The Linked List, this chunk is part of (changed by a split of the list).
+     */
+    MyLinkedList<E> list;
+
+    /**
+     * The elements of the chunk or their pointers if a pointer was requested, only the first size entries are used.
+     */
+    private Object[] elements;
+
+    /**
+     * The number of elements of the chunk.
+     */
+    int size;
+
+    /**
+     * The chunk right to this chunk (possibly null).
+     */
+    Chunk<E> next;
+
+    /**
+     * The chunk left to this chunk (possibly null).
+     */
+    Chunk<E> prev;
+
+    /**
+     * Initialize a new empty chunk that will be part of the list.
+     *
+     * @param list the Linked List this chunk is part of
+     */
+    Chunk(final MyLinkedList<E> list) {
+        this(list, INITIAL_CAPACITY);
+    }
+
+    private Chunk(final MyLinkedList<E> list, final int capacity) {
+        this.list = list;
+        this.elements = new Object[capacity];
+    }
+
+    /**
+     * Returns the element at the index.
+     *
+     * @param index the index inside of the chunk
+     * @return the element at the index
+     */
+    @SuppressWarnings("unchecked")
+    E get(final int index) {
+        Object element = elements[index];
+        return element instanceof Node ? ((Node<E>)element).element : (E)element;
+    }
+
+    /**
+     * Replaces the element at the index.
+     *
+     * @param index     the index inside of the chunk
+     * @param element   the element that replaces the element at the index
+     */
+    @SuppressWarnings("unchecked")
+    void set(final int index, final E element) {
+        if(elements[index] instanceof Node) {
+            ((Node<E>)elements[index]).element = element;
+        }
+        else {
+            elements[index] = element;
+        }
+    }
+
+    /**
+     * Returns the pointer of the element at the index, the pointer will be created if it does not exist.
+     *
+     * @param index the index inside of the chunk
+     * @return the pointer of the element at the index
+     */
+    @SuppressWarnings("unchecked")
+    Node<E> pointer(final int index) {
+        if(!(elements[index] instanceof Node)) {
+            elements[index] = new Node<>(this, index, (E)elements[index]);
+        }
+        return (Node<E>)elements[index];
+    }
+
+    /**
+     * Returns a copy of the chunk that will be part of the list. The pointers of the list move into the copy and are
+     * replaced by their elements inside of this chunk, the pointers of other lists are not copied.
+     *
+     * @param list the Linked List the copy is part of
+     * @return the copy of the chunk
+     */
+    @SuppressWarnings("unchecked")
+    Chunk<E> copy(final MyLinkedList<E> list) {
+        Chunk<E> copy = new Chunk<>(list, Math.max(INITIAL_CAPACITY, size));
+        for(int i = 0; i < size; i++) {
+            if(elements[i] instanceof Node) {
+                Node<E> node = (Node<E>)elements[i];
+                if(this.list == list) {
+                    node.chunk = copy;
+                    copy.elements[i] = node;
+                    elements[i] = node.element;
+                }
+                else {
+                    copy.elements[i] = node.element;
+                }
+            }
+            else {
+                copy.elements[i] = elements[i];
+            }
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Returns the number of elements of the chunk whose pointer was created.
+     *
+     * @return the number of pointers of the chunk
+     */
+    int pointerCount() {
+        int count = 0;
+        for(int i = 0; i < size; i++) {
+            if(elements[i] instanceof Node) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Inserts the element at the index and shifts all following elements to the right.
+     * Requirement: size < CAPACITY.
+     *
+     * @param index     the index inside of the chunk
+     * @param element   the element that will be inserted
+     */
+    void insert(final int index, final E element) {
+        if(size == elements.length) {
+            elements = Arrays.copyOf(elements, Math.min(CAPACITY, 2 * elements.length));
+        }
+
+        move(this, index, this, index + 1, size - index);
+        elements[index] = element;
+        size++;
+    }
+
+    /**
+     * Removes the element at the index and shifts all following elements to the left. A pointer of the removed element
+     * keeps the element but is no longer part of the list.
+     *
+     * @param index the index inside of the chunk
+     */
+    void remove(final int index) {
+        detach(index, index + 1);
+        move(this, index + 1, this, index, size - index - 1);
+        size--;
+        elements[size] = null;
+    }
+
+    /**
+     * Removes the first count elements of the chunk.
+     *
+     * @param count the number of removed elements
+     */
+    void removeFirst(final int count) {
+        detach(0, count);
+        move(this, count, this, 0, size - count);
+        Arrays.fill(elements, size - count, size, null);
+        size -= count;
+    }
+
+    /**
+     * Removes the last count elements of the chunk.
+     *
+     * @param count the number of removed elements
+     */
+    void removeLast(final int count) {
+        detach(size - count, size);
+        Arrays.fill(elements, size - count, size, null);
+        size -= count;
+    }
+
+    /**
+     * Moves the elements [from, size) into a new chunk that will be linked right to this chunk.
+     *
+     * @param from the index of the first moved element
+     * @return the new chunk
+     */
+    Chunk<E> split(final int from) {
+        Chunk<E> chunk = new Chunk<>(list, Math.max(INITIAL_CAPACITY, size - from));
+        move(this, from, chunk, 0, size - from);
+        chunk.size = size - from;
+        Arrays.fill(elements, from, size, null);
+        size = from;
+
+        chunk.prev = this;
+        chunk.next = next;
+        if(next != null) {
+            next.prev = chunk;
+        }
+        else {
+            list.last = chunk;
+        }
+        next = chunk;
+        return chunk;
+    }
+
+    /**
+     * Moves all elements of the chunk right to this chunk into this chunk and removes the right chunk.
+     * Requirement: size + next.size <= CAPACITY.
+     */
+    void absorbNext() {
+        Chunk<E> chunk = next;
+        if(size + chunk.size > elements.length) {
+            elements = Arrays.copyOf(elements, Math.min(CAPACITY, Math.max(2 * elements.length, size + chunk.size)));
+        }
+
+        move(chunk, 0, this, size, chunk.size);
+        size += chunk.size;
+
+        next = chunk.next;
+        if(next != null) {
+            next.prev = this;
+        }
+        else {
+            list.last = this;
+        }
+    }
+
+    /**
+     * Detaches the pointers of the elements in [from, to) from the list.
+     *
+     * @param from  the inclusive begin of the range
+     * @param to    the exclusive end of the range
+     */
+    @SuppressWarnings("unchecked")
+    private void detach(final int from, final int to) {
+        for(int i = from; i < to; i++) {
+            if(elements[i] instanceof Node) {
+                ((Node<E>)elements[i]).chunk = null;
+            }
+        }
+    }
+
+    /**
+     * Moves length elements from source[from] to target[to], the pointers of the moved elements are updated.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> void move(final Chunk<E> source, final int from, final Chunk<E> target, final int to, final int length) {
+        if(length <= 0) {
+            return;
+        }
+
+        System.arraycopy(source.elements, from, target.elements, to, length);
+        for(int i = to; i < to + length; i++) {
+            if(target.elements[i] instanceof Node) {
+                Node<E> node = (Node<E>)target.elements[i];
+                node.chunk = target;
+                node.index = i;
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package data;
+
+import java.util.Iterator;
+
+/**
+ * An Iterator of the elements of a MyLinkedList from left to right that does not create pointers (i.e. Node) except
+ * for the elements whose pointer is requested by pointer().
+ *
+ * @author Benedikt Zoennchen
+ *
+ * @param <E> the type of the elements of the list
+ */
+public interface ElementIterator<E> extends Iterator<E> {
+
+    /**
+     * Returns the next element without moving the iterator.
+     * Requirement: hasNext().
+     *
+     * @return the next element
+     */
+    E peek();
+
+    /**
+     * Returns the pointer of the element returned by the last call of next(), the pointer will be created if it does not exist.
+     *
+     * @return the pointer of the element returned by the last call of next()
+     */
+    Node<E> pointer();
+
+    /**
+     * Replaces the element returned by the last call of next() without creating its pointer.
+     *
+     * @param element the element that replaces the element returned by the last call of next()
+     */
+    void set(final E element);
+}
@@ -1,7 +1,9 @@
 package data;
 
+import utils.Pair;
+
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -9,6 +11,11 @@ import java.util.stream.StreamSupport;
 
 /**
  * A implementation of a Linked List that supports accessible pointers (i.e. Node) to the elements of the Linked List.
+ * The list is unrolled, i.e. it is a doubly linked list of chunks each containing an array of at most Chunk.CAPACITY
+ * consecutive elements. The pointers are created lazily, therefore traversals of the elements (e.g. elementIterator(),
+ * findAll, equals) do not create any pointer and a list without requested pointers consists of O(n / Chunk.CAPACITY) objects.
+ * A requested pointer stays the same object as long as its element is part of the list.
+ * The list keeps track of its size, therefore size() is in O(1) and get(k) walks the chunks from the nearer end of the list.
  *
  * @author Benedikt Zoennchen
  *
@@ -17,14 +24,24 @@ import java.util.stream.StreamSupport;
 public class MyLinkedList<E> implements Iterable<Node<E>> {
 
     /**
-     * the head of the list
+     * the first chunk of the list
+     */
+    Chunk<E> first;
+
+    /**
+     * the last chunk of the list
+     */
+    Chunk<E> last;
+
+    /**
+     * the number of elements of the list
      */
-    Node<E> head;
+    int size;
 
     /**
-     * the tail of the list
+     * the counter of the lists sharing the chunks of this list (copy-on-write), null if the chunks are not shared
      */
-    Node<E> tail;
+    private AtomicInteger sharing;
 
     /**
      * Default constructor, initialize a new empty list.
@@ -60,21 +77,24 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return
      */
     public List<E> toList() {
-        List<E> list = new ArrayList<>();
-        for(Node<E> node : this) {
-            list.add(node.getElement());
-        }
-        return list;
+        return findAll(e -> true);
     }
 
     /**
-     * Copy constructor.
+     * Copy constructor, the copy shares the chunks of the list until one of both lists is changed.
      *
      * @param list the orignal Linked List.
      */
     private MyLinkedList(final MyLinkedList<E> list) {
-        for(Node<E> node : list) {
-            add(node.getElement());
+        if(list.first != null) {
+            if(list.sharing == null) {
+                list.sharing = new AtomicInteger(1);
+            }
+            list.sharing.incrementAndGet();
+            sharing = list.sharing;
+            first = list.first;
+            last = list.last;
+            size = list.size;
         }
     }
 
@@ -95,8 +115,9 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @param tailList the elements
      */
     public void append(final MyLinkedList<E> tailList) {
-        for(Node<E> node : tailList) {
-            add(node.getElement());
+        Iterator<E> iterator = tailList.elementIterator();
+        while (iterator.hasNext()) {
+            add(iterator.next());
         }
     }
 
@@ -120,9 +141,9 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @param headList the elements
      */
     public void suspend(final MyLinkedList<E> headList) {
-        Iterator<Node<E>> descendingIterator = headList.descendingIterator();
+        Iterator<E> descendingIterator = headList.descendingElementIterator();
         while (descendingIterator.hasNext()) {
-            addFirst(descendingIterator.next().getElement());
+            addFirst(descendingIterator.next());
         }
     }
 
@@ -132,7 +153,8 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return the pointer to the head of the Linked List
      */
     public Node<E> getHead() {
-        return head;
+        ensureOwned();
+        return first != null ? first.pointer(0) : null;
     }
 
     /**
@@ -141,7 +163,8 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return the pointer to the tail of the Linked List
      */
     public Node<E> getTail() {
-        return tail;
+        ensureOwned();
+        return last != null ? last.pointer(last.size - 1) : null;
     }
 
     /**
@@ -150,32 +173,62 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return true, if the Linked List is empty, otherwise false
      */
     public boolean isEmpty() {
-        return head == null;
+        return size == 0;
     }
 
     /**
      * Returns a pointer to the k^th element of the Linked List (from the left).
+     * Complexity: O(min(k, n-k) / Chunk.CAPACITY), where n is the numbers of elements inside the list.
      *
      * @param k, the number of the element
      * @return a pointer to the k^th element of the Linked List (from the left)
      */
     public Node<E> get(final int k) {
+        ensureOwned();
+        Pair<Chunk<E>, Integer> position = locate(k);
+        return position.a.pointer(position.b);
+    }
+
+    /**
+     * Returns the k^th element of the Linked List (from the left) without creating its pointer.
+     * Complexity: O(min(k, n-k) / Chunk.CAPACITY), where n is the numbers of elements inside the list.
+     *
+     * @param k, the number of the element
+     * @return the k^th element of the Linked List (from the left)
+     */
+    public E getElement(final int k) {
+        Pair<Chunk<E>, Integer> position = locate(k);
+        return position.a.get(position.b);
+    }
+
+    /**
+     * Returns the chunk and the index inside of the chunk of the k^th element of the Linked List (from the left).
+     */
+    private Pair<Chunk<E>, Integer> locate(final int k) {
         if(k < 0) {
            throw new IndexOutOfBoundsException("index < 0.");
         }
+        else if(k >= size) {
+            throw new IndexOutOfBoundsException("i >= size of the list.");
+        }
+        else if(k <= size / 2) {
+            int index = k;
+            Chunk<E> chunk = first;
+            while (index >= chunk.size) {
+                index -= chunk.size;
+                chunk = chunk.next;
+            }
+            return new Pair<>(chunk, index);
+        }
         else {
-            int i = 0;
-            for(Node<E> node : this) {
-                if(i == k) {
-                    return node;
-                }
-                i++;
-                if(i > k) {
-                    throw new IndexOutOfBoundsException("i >= size of the list.");
-                }
+            int index = size - 1 - k;
+            Chunk<E> chunk = last;
+            while (index >= chunk.size) {
+                index -= chunk.size;
+                chunk = chunk.prev;
             }
+            return new Pair<>(chunk, chunk.size - 1 - index);
         }
-        throw new RuntimeException("this should never happen!");
     }
 
     /**
@@ -184,13 +237,12 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @param element the element which will be inserted
      */
     public void addFirst(final E element) {
-        if(head == null) {
-            tail = new Node<E>(this, element);
-            head = tail;
-        }
-        else {
-            head = insertPrevious(element, head);
+        ensureOwned();
+        if(first == null) {
+            first = new Chunk<>(this);
+            last = first;
         }
+        insert(first, 0, element);
     }
 
     /**
@@ -199,11 +251,12 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @param element the element which will be inserted
      */
     public void addLast(E element) {
-        if(head == null) {
+        ensureOwned();
+        if(last == null) {
             addFirst(element);
         }
         else {
-            tail = insertNext(element, tail);
+            insert(last, last.size, element);
         }
     }
 
@@ -225,20 +278,9 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return the pointer that points to the element
      */
     public Node<E> insertNext(final E element, final Node<E> anchor) {
-        Node<E> node = new Node<>(this, element);
-        if(anchor.hasNext()) {
-            anchor.next.prev = node;
-        }
-
-        node.next = anchor.next;
-        node.prev = anchor;
-        anchor.next = node;
-
-        if(anchor.identical(tail)) {
-            tail = node;
-        }
-
-        return node;
+        ensureOwned();
+        insert(anchor.chunk, anchor.index + 1, element);
+        return anchor.getNext();
     }
 
     /**
@@ -250,19 +292,76 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return the pointer that points to the element
      */
     public Node<E> insertPrevious(final E element, final Node<E> anchor) {
-        Node<E> node = new Node<>(this, element);
-        if(anchor.hasPrev()) {
-            anchor.prev.next = node;
+        ensureOwned();
+        insert(anchor.chunk, anchor.index, element);
+        return anchor.getPrev();
+    }
+
+    /**
+     * Inserts the element at the index of the chunk, a full chunk will be split.
+     * Complexity: O(Chunk.CAPACITY)
+     *
+     * @param chunk     a chunk of this list
+     * @param index     the index inside of the chunk
+     * @param element   the element that will be inserted
+     */
+    void insert(final Chunk<E> chunk, final int index, final E element) {
+        Chunk<E> target = chunk;
+        int position = index;
+        if(chunk.size == Chunk.CAPACITY) {
+            // appending at the end (or the beginning) of a full chunk starts a new chunk, otherwise the chunk is halved
+            int from = index == chunk.size ? chunk.size : (index == 0 ? 0 : chunk.size / 2);
+            Chunk<E> upper = chunk.split(from);
+            if(index > from || index == Chunk.CAPACITY) {
+                target = upper;
+                position = index - from;
+            }
         }
+        target.insert(position, element);
+        size++;
+    }
 
-        node.prev = anchor.prev;
-        node.next = anchor;
-        anchor.prev = node;
+    /**
+     * Removes the element at the index of the chunk, the chunk will be removed if it is empty or merged with a neighbour
+     * if both contain at most Chunk.CAPACITY / 2 elements together.
+     * Complexity: O(Chunk.CAPACITY)
+     *
+     * @param chunk a chunk of this list
+     * @param index the index inside of the chunk
+     */
+    void remove(final Chunk<E> chunk, final int index) {
+        chunk.remove(index);
+        size--;
+        if(chunk.size == 0) {
+            unlink(chunk);
+        }
+        else if(chunk.next != null && chunk.size + chunk.next.size <= Chunk.CAPACITY / 2) {
+            chunk.absorbNext();
+        }
+        else if(chunk.prev != null && chunk.prev.size + chunk.size <= Chunk.CAPACITY / 2) {
+            chunk.prev.absorbNext();
+        }
+    }
 
-        if(anchor.identical(head)) {
-            head = node;
+    /**
+     * Removes the (empty) chunk from the list of chunks.
+     *
+     * @param chunk a chunk of this list
+     */
+    private void unlink(final Chunk<E> chunk) {
+        if(chunk.prev != null) {
+            chunk.prev.next = chunk.next;
+        }
+        else {
+            first = chunk.next;
+        }
+
+        if(chunk.next != null) {
+            chunk.next.prev = chunk.prev;
+        }
+        else {
+            last = chunk.prev;
         }
-        return node;
     }
 
     /**
@@ -274,20 +373,35 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return the first part of the split (a new Linked List)
      */
     public MyLinkedList<E> split(final Predicate<E> predicate) {
+        ensureOwned();
         MyLinkedList<E> firstPart = new MyLinkedList<E>();
-        Optional<Node<E>> optFind = findFirst(predicate);
-        if(optFind.isPresent()) {
-            firstPart.head = head;
-            firstPart.tail = optFind.get();
-            if(firstPart.tail.hasNext()) {
-                head = firstPart.tail.getNext();
-                firstPart.tail.next = null;
-                head.prev = null;
-            }
-            else {
-                head = null;
-                tail = null;
+        int firstSize = 0;
+        for(Chunk<E> chunk = first; chunk != null; chunk = chunk.next) {
+            for(int i = 0; i < chunk.size; i++) {
+                if(predicate.test(chunk.get(i))) {
+                    if(i + 1 < chunk.size) {
+                        chunk.split(i + 1);
+                    }
+
+                    for(Chunk<E> c = first; c != chunk.next; c = c.next) {
+                        c.list = firstPart;
+                    }
+                    firstPart.first = first;
+                    firstPart.last = chunk;
+                    firstPart.size = firstSize + i + 1;
+                    size -= firstPart.size;
+                    first = chunk.next;
+                    chunk.next = null;
+                    if(first != null) {
+                        first.prev = null;
+                    }
+                    else {
+                        last = null;
+                    }
+                    return firstPart;
+                }
             }
+            firstSize += chunk.size;
         }
         return firstPart;
     }
@@ -298,9 +412,12 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return the first element (from the left) that satisfy the predicate condition
      */
     public Optional<Node<E>> findFirst(final Predicate<E> predicate) {
-        for(Node<E> node : this) {
-            if(predicate.test(node.getElement())) {
-                return Optional.of(node);
+        ensureOwned();
+        for(Chunk<E> chunk = first; chunk != null; chunk = chunk.next) {
+            for(int i = 0; i < chunk.size; i++) {
+                if(predicate.test(chunk.get(i))) {
+                    return Optional.of(chunk.pointer(i));
+                }
             }
         }
         return Optional.empty();
@@ -313,13 +430,12 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return the first element (from the left) that satisfy the predicate condition
      */
     public Optional<Node<E>> findLast(final Predicate<E> predicate) {
-        Node<E> node = tail;
-        while(node != null) {
-            if(predicate.test(node.getElement())) {
-                return Optional.of(node);
-            }
-            else {
-                node = node.prev;
+        ensureOwned();
+        for(Chunk<E> chunk = last; chunk != null; chunk = chunk.prev) {
+            for(int i = chunk.size - 1; i >= 0; i--) {
+                if(predicate.test(chunk.get(i))) {
+                    return Optional.of(chunk.pointer(i));
+                }
             }
         }
         return Optional.empty();
@@ -333,9 +449,11 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      */
     public Set<E> findAllDistinct(final Predicate<E> predicate) {
         Set<E> set = new HashSet<>();
-        for(Node<E> node : this) {
-            if(predicate.test(node.getElement())) {
-                set.add(node.getElement());
+        Iterator<E> iterator = elementIterator();
+        while (iterator.hasNext()) {
+            E element = iterator.next();
+            if(predicate.test(element)) {
+                set.add(element);
             }
         }
         return set;
@@ -350,9 +468,11 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      */
     public List<E> findAll(final Predicate<E> predicate) {
         List<E> list = new ArrayList<>();
-        for(Node<E> node : this) {
-            if(predicate.test(node.getElement())) {
-                list.add(node.getElement());
+        Iterator<E> iterator = elementIterator();
+        while (iterator.hasNext()) {
+            E element = iterator.next();
+            if(predicate.test(element)) {
+                list.add(element);
             }
         }
         return list;
@@ -365,10 +485,13 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return a list containing all pointers to elements satisfying the predicate
      */
     public List<Node<E>> findAllPointers(final Predicate<E> predicate) {
+        ensureOwned();
         List<Node<E>> list = new ArrayList<>();
-        for(Node<E> node : this) {
-            if(predicate.test(node.getElement())) {
-                list.add(node);
+        for(Chunk<E> chunk = first; chunk != null; chunk = chunk.next) {
+            for(int i = 0; i < chunk.size; i++) {
+                if(predicate.test(chunk.get(i))) {
+                    list.add(chunk.pointer(i));
+                }
             }
         }
         return list;
@@ -401,15 +524,18 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return the number of deleted elements
      */
     public int removeAll(final Predicate<E> predicate) {
-        Iterator<Node<E>> iterator = iterator();
+        ensureOwned();
         int count = 0;
-        while(iterator.hasNext()) {
-            Node<E> node = iterator.next();
-            if(predicate.test(node.getElement())) {
-                iterator.remove();
-                count++;
+        for(Chunk<E> chunk = first; chunk != null; chunk = chunk.next) {
+            for(int i = chunk.size - 1; i >= 0; i--) {
+                if(predicate.test(chunk.get(i))) {
+                    chunk.remove(i);
+                    count++;
+                }
             }
         }
+        size -= count;
+        compact();
         return count;
     }
 
@@ -421,20 +547,13 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return a List of pointers pointing to the replaced (new) elements
      */
     public List<Node<E>> replaceAll(final Predicate<E> predicate, final E replacement) {
+        ensureOwned();
         List<Node<E>> pointers = new LinkedList<>();
-        if(!isEmpty()) {
-            Node<E> current = null;
-            while((!isEmpty() && current == null) || current.hasNext()) {
-                if(current == null) {
-                    current = head;
-                }
-                else {
-                    current = current.getNext();
-                }
-
-                if(predicate.test(current.getElement())) {
-                    current.setElement(replacement);
-                    pointers.add(current);
+        for(Chunk<E> chunk = first; chunk != null; chunk = chunk.next) {
+            for(int i = 0; i < chunk.size; i++) {
+                if(predicate.test(chunk.get(i))) {
+                    chunk.set(i, replacement);
+                    pointers.add(chunk.pointer(i));
                 }
             }
         }
@@ -449,7 +568,7 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return the length of the prefix defined by the Function counter
      */
     public long prefixLen(final Predicate<E> predicate, final Function<E, Long> counter) {
-        return prefixLen(predicate, iterator(), counter);
+        return prefix(predicate, elementIterator(), counter).b;
     }
 
     /**
@@ -460,7 +579,7 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return the length of the suffix defined by the Function counter
      */
     public long suffixLen(final Predicate<E> predicate, final Function<E, Long> counter) {
-        return prefixLen(predicate, descendingIterator(), counter);
+        return prefix(predicate, descendingElementIterator(), counter).b;
     }
 
     /**
@@ -472,7 +591,20 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return the length of the prefix defined by the Function counter
      */
     public long removePrefix(final Predicate<E> predicate, final Function<E, Long> counter) {
-        return removePrefix(predicate, iterator(), counter);
+        ensureOwned();
+        Pair<Integer, Long> prefix = prefix(predicate, elementIterator(), counter);
+        int count = prefix.a;
+        while (count > 0) {
+            int removed = Math.min(count, first.size);
+            first.removeFirst(removed);
+            if(first.size == 0) {
+                unlink(first);
+            }
+            size -= removed;
+            count -= removed;
+        }
+        compact();
+        return prefix.b;
     }
 
     /**
@@ -484,38 +616,67 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
      * @return the length of the suffix defined by the Function counter
      */
     public long removeSuffix(final Predicate<E> predicate, final Function<E, Long> counter) {
-        return removePrefix(predicate, descendingIterator(), counter);
+        ensureOwned();
+        Pair<Integer, Long> suffix = prefix(predicate, descendingElementIterator(), counter);
+        int count = suffix.a;
+        while (count > 0) {
+            int removed = Math.min(count, last.size);
+            last.removeLast(removed);
+            if(last.size == 0) {
+                unlink(last);
+            }
+            size -= removed;
+            count -= removed;
+        }
+        compact();
+        return suffix.b;
     }
 
     /**
      * Returns the pointer to the head of the Linked List.
      */
     public void removeHead() {
-        Node<E> tmp = head;
-        head.remove();
+        ensureOwned();
+        remove(first, 0);
     }
 
     /**
      * Returns the pointer to the tail of the Linked List.
      */
     public void removeTail() {
-        tail.remove();
+        ensureOwned();
+        remove(last, last.size - 1);
     }
 
     /**
-     * Computes and returns the size of the linked list.
-     * Complexity: O(|n|), where n is the numbers of elements inside the list.
+     * Returns the size of the linked list.
+     * Complexity: O(1)
      *
      * @return the size of the list, i.e. the numbers of elements contained in this list
      */
     public int size() {
-        int size = 0;
-        for(Node<E> node : this) {
-            size++;
-        }
         return size;
     }
 
+    /**
+     * Returns the number of pointers that were requested for elements of the list and are still part of it.
+     * Complexity: O(n)
+     *
+     * @return the number of pointers of the list
+     */
+    public int pointerCount() {
+        // shared chunks of another list do not contain pointers of this list
+        if(first != null && first.list != this) {
+            return 0;
+        }
+
+        int count = 0;
+        for(Chunk<E> chunk = first; chunk != null; chunk = chunk.next) {
+            count += chunk.pointerCount();
+        }
+        return count;
+    }
+
     /**
      * Returns a stream of pointers that point to elements of the Linked List.
      *
@@ -527,6 +688,9 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
 
     /**
      * Returns a clone of the Linked List. Only the pointers will be cloned not th elements.
+     * The clone shares the chunks with this list (copy-on-write), i.e. the chunks are copied by the first list
+     * that is changed or requests a pointer. The pointers of this list are not part of the clone.
+     * Complexity: O(1)
      *
      * @return a (soft) clone of the Linked List
      */
@@ -534,27 +698,77 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
         return new MyLinkedList<>(this);
     }
 
+    /**
+     * Copies the chunks of this list if they are shared with another list, i.e. if this list is a clone
+     * or was cloned. The copy keeps the layout of the chunks and the pointers of this list move into the copy.
+     * Complexity: O(n) if the chunks are shared, otherwise O(1)
+     */
+    void ensureOwned() {
+        if(sharing != null) {
+            if(sharing.get() > 1 || first.list != this) {
+                Chunk<E> previous = null;
+                for(Chunk<E> chunk = first; chunk != null; chunk = chunk.next) {
+                    Chunk<E> copy = chunk.copy(this);
+                    copy.prev = previous;
+                    if(previous != null) {
+                        previous.next = copy;
+                    }
+                    else {
+                        first = copy;
+                    }
+                    previous = copy;
+                }
+                last = previous;
+            }
+            sharing.decrementAndGet();
+            sharing = null;
+        }
+    }
+
     /**
      * Returns an Iterator of pointers that iterates pointers in descending order, i.e. from right to left.
      * @return an Iterator of pointers that iterates pointers in descending order
      */
     public Iterator<Node<E>> descendingIterator () {
+        ensureOwned();
         return new NodeDescendingIterator();
     }
 
     /**
-     * Returns an Iterator of pointers that iterates pointers in ascending order, i.e. from left to right.
-     * @return an Iterator of pointers that iterates pointers in ascending order
+     * Returns an Iterator of elements that iterates elements in ascending order, i.e. from left to right.
+     * No pointer will be created unless it is requested by ElementIterator.pointer().
+     *
+     * @return an Iterator of elements that iterates elements in ascending order
+     */
+    public ElementIterator<E> elementIterator() {
+        return new ChunkElementIterator();
+    }
+
+    /**
+     * Returns an Iterator of elements that iterates elements in descending order, i.e. from right to left.
+     * No pointer will be created.
+     *
+     * @return an Iterator of elements that iterates elements in descending order
+     */
+    public Iterator<E> descendingElementIterator() {
+        return new DescendingElementIterator();
+    }
+
+    /**
+     * Returns a stream of the elements of the Linked List. No pointer will be created.
+     *
+     * @return a stream of the elements of the Linked List
      */
-    public Iterator<E> elementIterator() {
-        return new ElementIterator();
+    public Stream<E> elementStream() {
+        return StreamSupport.stream(Spliterators.spliterator(elementIterator(), size, Spliterator.ORDERED | Spliterator.SIZED), false);
     }
 
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
-        for(Node<E> node : this) {
-            builder.append(node.getElement());
+        Iterator<E> iterator = elementIterator();
+        while (iterator.hasNext()) {
+            builder.append(iterator.next());
         }
         return builder.toString();
     }
@@ -569,13 +783,17 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
         }
         else {
             MyLinkedList other = (MyLinkedList)obj;
-            Iterator<Node<E>> it = this.iterator();
-            Iterator<Node> otherIt = other.iterator();
+            if(size != other.size) {
+                return false;
+            }
+
+            Iterator<E> it = this.elementIterator();
+            Iterator otherIt = other.elementIterator();
 
             while (it.hasNext() && otherIt.hasNext()) {
-                Node<E> node = it.next();
-                Node otherNode = otherIt.next();
-                if(!node.equals(otherNode)) {
+                E element = it.next();
+                Object otherElement = otherIt.next();
+                if(!(element == null ? otherElement == null : element.equals(otherElement))) {
                     return false;
                 }
             }
@@ -586,36 +804,45 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
 
     @Override
     public Iterator<Node<E>> iterator() {
+        ensureOwned();
         return new NodeIterator();
     }
 
-    private long removePrefix(final Predicate<E> predicate, final Iterator<Node<E>> iterator) {
-        return removePrefix(predicate, iterator, e -> 1L);
-    }
-
-    private long removePrefix(final Predicate<E> predicate, final Iterator<Node<E>> iterator, final Function<E, Long> counter) {
-        return prefix(predicate, iterator, counter, it -> it.remove());
-    }
-
-    private long prefixLen(final Predicate<E> predicate, final Iterator<Node<E>> iterator, final Function<E, Long> counter) {
-        return prefix(predicate, iterator, counter, it -> {
-        });
-    }
-
-    private long prefix(final Predicate<E> predicate, final Iterator<Node<E>> iterator, final Function<E, Long> counter, final Consumer<Iterator> consumer) {
+    /**
+     * Returns the number of elements and their length of the prefix of elements satisfying the predicate condition.
+     */
+    private Pair<Integer, Long> prefix(final Predicate<E> predicate, final Iterator<E> iterator, final Function<E, Long> counter) {
+        int elements = 0;
         long count = 0;
         while(iterator.hasNext()) {
-            Node<E> node = iterator.next();
-            if(predicate.test(node.getElement())) {
-                consumer.accept(iterator);
-                //iterator.remove();
-                count += counter.apply(node.getElement());
+            E element = iterator.next();
+            if(predicate.test(element)) {
+                elements++;
+                count += counter.apply(element);
             }
             else {
                 break;
             }
         }
-        return count;
+        return new Pair<>(elements, count);
+    }
+
+    /**
+     * Removes empty chunks and merges neighbouring chunks containing at most Chunk.CAPACITY / 2 elements together.
+     * Complexity: O(n)
+     */
+    private void compact() {
+        Chunk<E> chunk = first;
+        while (chunk != null) {
+            if(chunk.size == 0) {
+                unlink(chunk);
+            }
+            else if(chunk.next != null && chunk.size + chunk.next.size <= Chunk.CAPACITY / 2) {
+                chunk.absorbNext();
+                continue;
+            }
+            chunk = chunk.next;
+        }
     }
 
     /**
@@ -640,7 +867,7 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
         @Override
         public boolean hasNext() {
             if(!started) {
-                return tail != null;
+                return last != null;
             }
             else {
                 return prev != null || (current != null && current.hasPrev());
@@ -651,7 +878,7 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
         public Node<E> next() {
             if(!started) {
                 started = true;
-                current = tail;
+                current = getTail();
             }
             else if(prev != null) {
                 current = prev;
@@ -666,24 +893,92 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
     }
 
     /**
-     * Iterator iterating over all elements of the Linked List from left to right.
+     * Iterator iterating over all elements of the Linked List from left to right without creating pointers except for
+     * the requested ones.
      */
-    private class ElementIterator implements Iterator<E> {
+    private class ChunkElementIterator implements ElementIterator<E> {
 
-        private Iterator<Node<E>> nodeIterator;
+        private Chunk<E> chunk;
+        private int index;
+        private int chunkIndex;
 
-        private ElementIterator() {
-            nodeIterator = iterator();
+        private ChunkElementIterator() {
+            chunk = first;
+            index = 0;
+            chunkIndex = 0;
         }
 
         @Override
         public boolean hasNext() {
-            return nodeIterator.hasNext();
+            return chunk != null && (index < chunk.size || chunk.next != null);
         }
 
         @Override
         public E next() {
-            return nodeIterator.next().getElement();
+            if(index >= chunk.size) {
+                chunk = chunk.next;
+                index = 0;
+                chunkIndex++;
+            }
+            return chunk.get(index++);
+        }
+
+        @Override
+        public E peek() {
+            return index < chunk.size ? chunk.get(index) : chunk.next.get(0);
+        }
+
+        @Override
+        public Node<E> pointer() {
+            own();
+            return chunk.pointer(index - 1);
+        }
+
+        @Override
+        public void set(final E element) {
+            own();
+            chunk.set(index - 1, element);
+        }
+
+        /**
+         * Moves the iterator to the copied chunks if the chunks of the list were shared.
+         */
+        private void own() {
+            if(sharing != null) {
+                ensureOwned();
+                chunk = first;
+                for(int i = 0; i < chunkIndex; i++) {
+                    chunk = chunk.next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Iterator iterating over all elements of the Linked List from right to left without creating pointers.
+     */
+    private class DescendingElementIterator implements Iterator<E> {
+
+        private Chunk<E> chunk;
+        private int index;
+
+        private DescendingElementIterator() {
+            chunk = last;
+            index = last != null ? last.size - 1 : -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return chunk != null && (index >= 0 || chunk.prev != null);
+        }
+
+        @Override
+        public E next() {
+            if(index < 0) {
+                chunk = chunk.prev;
+                index = chunk.size - 1;
+            }
+            return chunk.get(index--);
         }
     }
 
@@ -710,7 +1005,7 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
         @Override
         public boolean hasNext() {
             if(!started) {
-                return head != null;
+                return first != null;
             }
             else {
                 return next != null || (current != null && current.hasNext());
@@ -721,7 +1016,7 @@ public class MyLinkedList<E> implements Iterable<Node<E>> {
         public Node<E> next() {
             if(!started) {
                 started = true;
-                current = head;
+                current = getHead();
             }
             else if(next != null) {
                 current = next;
@@ -4,7 +4,8 @@ import java.util.Iterator;
 import java.util.function.Predicate;
 
 /**
- * A pointer of MyLinkedList.
+ * A pointer of MyLinkedList. The pointer is created lazily and replaces its element inside of the chunk of the list,
+ * it stays the same object as long as the element is part of the list.
  *
  * @author Benedikt Zoennchen
  *
@@ -13,34 +14,31 @@ import java.util.function.Predicate;
 public class Node<E> {
 
     /**
-     * The element the pointer point to.
-     */
-    private E element;
-
-    /**
-     * The pointer right to this pointer (possibly null).
+     * The chunk containing the element the pointer point to, null if the element was removed from its list.
      */
-    Node<E> next;
+    Chunk<E> chunk;
 
     /**
-     * The pointer left to this pointer (possibly null).
+     * The index of the element inside of the chunk.
      */
-    Node<E> prev;
+    int index;
 
     /**
-     * The Linked List, this pointer is part of.
+     * The element the pointer point to.
      */
-    private final MyLinkedList list;
+    E element;
 
     /**
-     * Initialize a new pointer that will be part of the list and point to element
+     * Initialize a new pointer that points to the element at the index of the chunk.
      *
-     * @param list      the Linked List this pointer is part of
+     * @param chunk     the chunk containing the element
+     * @param index     the index of the element inside of the chunk
      * @param element   the element the pointer pointing at
      */
-    Node(final MyLinkedList list, final E element) {
+    Node(final Chunk<E> chunk, final int index, final E element) {
+        this.chunk = chunk;
+        this.index = index;
         this.element = element;
-        this.list = list;
     }
 
     /**
@@ -58,27 +56,25 @@ public class Node<E> {
      * @param element the element that replaces the element the pointer pointing at
      */
     public void setElement(final E element) {
+        own();
         this.element = element;
     }
 
+    /**
+     * Returns true if the element of the pointer was removed from its list, otherwise false.
+     *
+     * @return true if the element of the pointer was removed from its list, otherwise false
+     */
+    public boolean isRemoved() {
+        return chunk == null;
+    }
+
     /**
      * Removes the pointer from its list (and the element).
      */
     public void remove() {
-        if(prev != null) {
-            prev.next = next;
-        }
-        else {
-            list.head = next;
-        }
-
-        if(next != null) {
-            next.prev = prev;
-        }
-        else {
-            list.tail = prev;
-        }
-        disconnect();
+        own();
+        chunk.list.remove(chunk, index);
     }
 
     /**
@@ -101,7 +97,8 @@ public class Node<E> {
      * @param element the element that will be inserted
      */
     public void insertPrevious(final E element) {
-        list.insertPrevious(element, this);
+        own();
+        chunk.list.insert(chunk, index, element);
     }
 
     /**
@@ -112,9 +109,9 @@ public class Node<E> {
      * @param elements the list that will be suspend to this list.
      */
     public void insertPrevious(final MyLinkedList<E> elements) {
-        Iterator<Node<E>> iterator = elements.iterator();
+        Iterator<E> iterator = elements.elementIterator();
         while (iterator.hasNext()) {
-            insertPrevious(iterator.next().getElement());
+            insertPrevious(iterator.next());
         }
     }
 
@@ -124,7 +121,8 @@ public class Node<E> {
      * @param element the element that will be inserted
      */
     public void insertNext(final E element) {
-        list.insertNext(element, this);
+        own();
+        chunk.list.insert(chunk, index + 1, element);
     }
 
     /**
@@ -135,9 +133,9 @@ public class Node<E> {
      * @param elements the list that will be suspend to this list.
      */
     public void insertNext(final MyLinkedList<E> elements) {
-        Iterator<Node<E>> descendingIterator = elements.descendingIterator();
+        Iterator<E> descendingIterator = elements.descendingElementIterator();
         while (descendingIterator.hasNext()) {
-            insertNext(descendingIterator.next().getElement());
+            insertNext(descendingIterator.next());
         }
     }
 
@@ -147,7 +145,15 @@ public class Node<E> {
      * @return the pointer next to this pointer
      */
     public Node<E> getNext() {
-        return next;
+        if(chunk == null) {
+            return null;
+        }
+        else if(index + 1 < chunk.size) {
+            return chunk.pointer(index + 1);
+        }
+        else {
+            return chunk.next != null ? chunk.next.pointer(0) : null;
+        }
     }
 
     /**
@@ -156,7 +162,63 @@ public class Node<E> {
      * @return the pointer left to this pointer
      */
     public Node<E> getPrev() {
-        return prev;
+        if(chunk == null) {
+            return null;
+        }
+        else if(index > 0) {
+            return chunk.pointer(index - 1);
+        }
+        else {
+            return chunk.prev != null ? chunk.prev.pointer(chunk.prev.size - 1) : null;
+        }
+    }
+
+    /**
+     * Returns the element next to this pointer without creating its pointer.
+     *
+     * @return the element next to this pointer or null if there is none
+     */
+    public E getNextElement() {
+        if(chunk == null) {
+            return null;
+        }
+        else if(index + 1 < chunk.size) {
+            return chunk.get(index + 1);
+        }
+        else {
+            return chunk.next != null ? chunk.next.get(0) : null;
+        }
+    }
+
+    /**
+     * Returns the element left to this pointer without creating its pointer.
+     *
+     * @return the element left to this pointer or null if there is none
+     */
+    public E getPrevElement() {
+        if(chunk == null) {
+            return null;
+        }
+        else if(index > 0) {
+            return chunk.get(index - 1);
+        }
+        else {
+            return chunk.prev != null ? chunk.prev.get(chunk.prev.size - 1) : null;
+        }
+    }
+
+    /**
+     * Removes the element next to this pointer without creating its pointer.
+     * Requirement: hasNext().
+     */
+    public void removeNext() {
+        own();
+        if(index + 1 < chunk.size) {
+            chunk.list.remove(chunk, index + 1);
+        }
+        else {
+            chunk.list.remove(chunk.next, 0);
+        }
     }
 
     /**
@@ -165,7 +227,7 @@ public class Node<E> {
      * @return true if there is a pointer next to this pointer, otherwise false
      */
     public boolean hasNext() {
-        return next != null;
+        return chunk != null && (index + 1 < chunk.size || chunk.next != null);
     }
 
     /**
@@ -174,15 +236,17 @@ public class Node<E> {
      * @return true if there is a pointer left to this pointer, otherwise false
      */
     public boolean hasPrev() {
-        return prev != null;
+        return chunk != null && (index > 0 || chunk.prev != null);
     }
 
     /**
-     * Removes the pointer from its Linked List.
+     * Copies the chunks of the list of this pointer if they are shared with another list (copy-on-write),
+     * the pointer moves into the copy.
      */
-    private void disconnect() {
-        this.next = null;
-        this.prev = null;
+    private void own() {
+        if(chunk != null) {
+            chunk.list.ensureOwned();
+        }
     }
 
     @Override
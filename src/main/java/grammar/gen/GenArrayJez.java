@@ -0,0 +1,1344 @@
+package grammar.gen;
+
+import grammar.inter.IPatternOccurrences;
+import grammar.inter.IProduction;
+import grammar.inter.IReferencedWord;
+import grammar.inter.ISLP;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import symbol.IJezSymbol;
+
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An implementation of the recompression algorithm described in the Jez-Paper (Dio:10.1145/2631920) for the word equality
+ * problem working on a primitive representation of the grammar. All right-hand sides are packed into one flat int-array (the arena),
+ * the non-terminals are dense ids in topological order (the children of a non-terminal have larger ids) and the exponents of blocks
+ * are stored in a parallel long-array. A symbol s of the arena is a terminal (letter) iff s >= 0, the non-terminal X is stored as ~X.
+ * The letters of a phase are dense as well i.e. they are in [0;alphabetSize).
+ *
+ * In contrast to GenJez the SLPs will not be copied or changed and no symbol, node or collection objects are created during the phases.
+ * Each compression is done by exactly one bottom-up pass over the grammar which pops the letters, writes the new right-hand sides
+ * into a second arena and compresses the new right-hand sides on the fly.
+ *
+ * For the pattern matching (see GenArrayJez(text, pattern)) the ends of the pattern are fixed in each phase: if the pattern
+ * is a^l w b^r, each block a^k with k >= l of the grammar is replaced by a^(k-l) A_L and each block b^k with k >= r
+ * is prefixed by B_R, where A_L and B_R are fresh letters of length l resp. 0, while the pattern becomes A_L w' B_R.
+ * The following pair compression puts A_L into the left and B_R into the right set of the partition. Therefore each
+ * occurrence of the pattern is compressed exactly like the pattern itself and the pattern shrinks in each phase.
+ *
+ * @author Benedikt Zoennchen
+ *
+ * @param <N>   the type of the identifier of terminal and non-terminal symbols of the grammar
+ * @param <S>   the type of the terminal and non-terminal symbols of the grammar
+ * @param <W>   the type of the right-hand side of the grammar
+ * @param <P>   the type of the grammar production
+ */
+public class GenArrayJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>, P extends IProduction<N, S, W>> {
+
+    private static Logger logger = LogManager.getLogger(GenArrayJez.class);
+
+    /**
+     * marks that there is no popped letter.
+     */
+    private static final int NONE = Integer.MIN_VALUE;
+
+    /**
+     * the number of root non-terminals i.e. the non-terminals [0;rootCount), root i derives the word of the i-th axiom.
+     */
+    private final int rootCount;
+
+    /**
+     * the number of non-terminals (including the roots).
+     */
+    private final int nonTerminalCount;
+
+    /**
+     * the arena containing all right-hand sides.
+     */
+    private int[] symbols;
+
+    /**
+     * the exponents of the symbols of the arena, a non-terminal has always exponent 1.
+     */
+    private long[] exponents;
+
+    /**
+     * the arena the next compression writes into.
+     */
+    private int[] nextSymbols;
+
+    /**
+     * the exponents of the arena the next compression writes into.
+     */
+    private long[] nextExponents;
+
+    /**
+     * X -> the start index of the right-hand side of X in the arena.
+     */
+    private final int[] begin;
+
+    /**
+     * X -> the number of symbols of the right-hand side of X.
+     */
+    private final int[] size;
+
+    /**
+     * X -> true iff X derives the empty word i.e. X was removed from the grammar.
+     */
+    private final boolean[] eliminated;
+
+    /**
+     * X -> the letter (block) popped to the left of X during the current compression, or NONE.
+     */
+    private final int[] leftPop;
+
+    /**
+     * X -> the exponent of the letter popped to the left of X.
+     */
+    private final long[] leftPopExponent;
+
+    /**
+     * X -> the letter (block) popped to the right of X during the current compression, or NONE.
+     */
+    private final int[] rightPop;
+
+    /**
+     * X -> the exponent of the letter popped to the right of X.
+     */
+    private final long[] rightPopExponent;
+
+    /**
+     * X -> the first letter of val(X).
+     */
+    private final int[] first;
+
+    /**
+     * X -> the last letter of val(X).
+     */
+    private final int[] last;
+
+    /**
+     * X -> |val(X)|.
+     */
+    private final long[] lengths;
+
+    /**
+     * X -> the number of occurrences of X in the derivation trees of all roots.
+     */
+    private final long[] appearances;
+
+    /**
+     * the occurrences of pairs (left letter, right letter, weight) used to compute the partition of the alphabet.
+     */
+    private int[] pairLeft;
+    private int[] pairRight;
+    private long[] pairWeight;
+    private int[] pairOrder;
+
+    /**
+     * letter -> true iff the letter is in the right partition of the alphabet.
+     */
+    private boolean[] rightPartition;
+
+    /**
+     * the open addressing hash table used to name the blocks (a, l) and pairs (a, b) of the current compression.
+     */
+    private int[] tableKeys;
+    private long[] tableValues;
+    private int[] tableLetters;
+    private int tableSize;
+
+    /**
+     * the letters of the current phase are in [0;alphabetSize).
+     */
+    private int alphabetSize;
+
+    /**
+     * the next fresh letter.
+     */
+    private int nextLetter;
+
+    /**
+     * The current phase of the recompression algorithm.
+     */
+    private int phase;
+
+    /**
+     * true => the setting is pattern matching, the root 0 derives the text and the root 1 the pattern.
+     */
+    private final boolean matching;
+
+    /**
+     * letter -> the length of the input word the letter represents (only maintained for pattern matching).
+     */
+    private long[] letterWeights;
+
+    /**
+     * for pattern matching: the letter a if the pattern became a block a^l, otherwise NONE.
+     */
+    private int blockLetter;
+
+    /**
+     * for pattern matching: the exponent l if the pattern became a block a^l.
+     */
+    private long blockLength;
+
+    /**
+     * Constructs a recompression instance for solving the equality word problem of all words derived by the axioms of the SLPs.
+     * The non-terminals of different SLPs are treated as distinct non-terminals even if they are equal. Productions
+     * not reachable from an axiom are ignored.
+     *
+     * @param slps the SLPs defining two or more words we want to check equality for
+     */
+    public GenArrayJez(final List<? extends ISLP<N, S, W, P>> slps) {
+        this(slps, false);
+    }
+
+    /**
+     * Constructs a recompression instance for the fully compressed pattern matching, see getPatternOccurrences.
+     *
+     * Requirement: both SLPs are singletons and the pattern is not the empty word.
+     *
+     * @param text      the SLP of the text
+     * @param pattern   the SLP of the pattern
+     */
+    public GenArrayJez(final ISLP<N, S, W, P> text, final ISLP<N, S, W, P> pattern) {
+        this(Arrays.asList(text, pattern), true);
+        if(rootCount != 2) {
+            throw new IllegalArgumentException("the pattern matching requires two singleton SLPs.");
+        }
+        if(lengths[1] == 0) {
+            throw new IllegalArgumentException("the pattern is the empty word.");
+        }
+    }
+
+    private GenArrayJez(final List<? extends ISLP<N, S, W, P>> slps, final boolean matching) {
+        int roots = 0;
+        int arenaSize = 0;
+        List<List<P>> orders = new ArrayList<>(slps.size());
+        for(ISLP<N, S, W, P> slp : slps) {
+            List<P> order = getOrder(slp);
+            orders.add(order);
+            roots += slp.getAxioms().size();
+            arenaSize += slp.getAxioms().size();
+            for(P production : order) {
+                arenaSize += production.getRight().length();
+            }
+        }
+
+        this.rootCount = roots;
+        this.nonTerminalCount = roots + orders.stream().mapToInt(order -> order.size()).sum();
+        this.phase = 0;
+        this.symbols = new int[arenaSize];
+        this.exponents = new long[arenaSize];
+        this.nextSymbols = new int[0];
+        this.nextExponents = new long[0];
+        this.begin = new int[nonTerminalCount];
+        this.size = new int[nonTerminalCount];
+        this.eliminated = new boolean[nonTerminalCount];
+        this.leftPop = new int[nonTerminalCount];
+        this.leftPopExponent = new long[nonTerminalCount];
+        this.rightPop = new int[nonTerminalCount];
+        this.rightPopExponent = new long[nonTerminalCount];
+        this.first = new int[nonTerminalCount];
+        this.last = new int[nonTerminalCount];
+        this.lengths = new long[nonTerminalCount];
+        this.appearances = new long[nonTerminalCount];
+        this.pairLeft = new int[0];
+        this.pairRight = new int[0];
+        this.pairWeight = new long[0];
+        this.pairOrder = new int[0];
+        this.rightPartition = new boolean[0];
+        this.tableKeys = new int[16];
+        this.tableValues = new long[16];
+        this.tableLetters = new int[16];
+        this.tableSize = 0;
+        this.matching = matching;
+        this.blockLetter = NONE;
+        this.blockLength = 0;
+        Arrays.fill(leftPop, NONE);
+        Arrays.fill(rightPop, NONE);
+
+        // the children of a non-terminal get larger ids than the non-terminal itself
+        Map<S, Integer> terminals = new HashMap<>();
+        int root = 0;
+        int position = 0;
+        int maxId = nonTerminalCount - 1;
+        for(int i = 0; i < slps.size(); i++) {
+            ISLP<N, S, W, P> slp = slps.get(i);
+            List<P> order = orders.get(i);
+            Map<S, Integer> ids = new HashMap<>();
+            for(P production : order) {
+                ids.put(production.getLeft(), maxId--);
+            }
+
+            for(S axiom : slp.getAxioms()) {
+                begin[root] = position;
+                size[root] = 1;
+                symbols[position] = ~ids.get(axiom);
+                exponents[position++] = 1;
+                root++;
+            }
+
+            for(P production : order) {
+                int nonTerminal = ids.get(production.getLeft());
+                begin[nonTerminal] = position;
+                for(S symbol : production.getRight()) {
+                    if(symbol.isTerminal()) {
+                        Integer letter = terminals.get(symbol);
+                        if(letter == null) {
+                            letter = terminals.size();
+                            terminals.put(symbol, letter);
+                        }
+                        symbols[position] = letter;
+                    }
+                    else {
+                        symbols[position] = ~ids.get(symbol);
+                    }
+                    exponents[position++] = 1;
+                }
+                size[nonTerminal] = position - begin[nonTerminal];
+            }
+        }
+
+        this.alphabetSize = terminals.size();
+        this.nextLetter = alphabetSize;
+        this.letterWeights = new long[matching ? Math.max(16, alphabetSize) : 0];
+        Arrays.fill(letterWeights, 1);
+        analyse();
+    }
+
+    /**
+     * Returns the productions of the SLP reachable from its axioms such that the production of a non-terminal is listed after
+     * the productions of all non-terminals of its right-hand side.
+     *
+     * @param slp the SLP
+     * @return the reachable productions of the SLP in reverse topological order
+     */
+    private List<P> getOrder(final ISLP<N, S, W, P> slp) {
+        List<P> order = new ArrayList<>();
+        Set<S> visited = new HashSet<>();
+        Deque<P> productionStack = new ArrayDeque<>();
+        Deque<Iterator<S>> iteratorStack = new ArrayDeque<>();
+
+        for(S axiom : slp.getAxioms()) {
+            if(visited.add(axiom)) {
+                P production = getProduction(slp, axiom);
+                productionStack.push(production);
+                iteratorStack.push(production.getRight().iterator());
+            }
+
+            while (!iteratorStack.isEmpty()) {
+                Iterator<S> iterator = iteratorStack.peek();
+                if(iterator.hasNext()) {
+                    S symbol = iterator.next();
+                    if(!symbol.isTerminal() && visited.add(symbol)) {
+                        P production = getProduction(slp, symbol);
+                        productionStack.push(production);
+                        iteratorStack.push(production.getRight().iterator());
+                    }
+                }
+                else {
+                    iteratorStack.pop();
+                    order.add(productionStack.pop());
+                }
+            }
+        }
+        return order;
+    }
+
+    private P getProduction(final ISLP<N, S, W, P> slp, final S nonTerminal) {
+        P production = slp.getProduction(nonTerminal);
+        if(production == null) {
+            throw new IllegalArgumentException("there is no production for the non-terminal " + nonTerminal + ".");
+        }
+        return production;
+    }
+
+    /**
+     * Returns the current phase of the recompression algorithm.
+     *
+     * @return the current phase of the recompression algorithm
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * Returns the number of symbols of all right-hand sides of the current grammar.
+     *
+     * @return the number of symbols of all right-hand sides of the current grammar
+     */
+    public long getGrammarSize() {
+        long grammarSize = 0;
+        for(int x = 0; x < nonTerminalCount; x++) {
+            if(!eliminated[x]) {
+                grammarSize += size[x];
+            }
+        }
+        return grammarSize;
+    }
+
+    /**
+     * Executes the recompression until the words are compressed into single letters or until it is clear that the words are
+     * not equal and returns true if and only if all words are equal.
+     *
+     * Complexity: O(n log(N)), where n is the size of the grammar and N is the length of the longest word.
+     *
+     * @return true if all words are equal, false otherwise
+     */
+    public boolean isEquals() {
+        while (!hasFinished()) {
+            phase(this::hasFinished);
+        }
+
+        for(int x = 1; x < rootCount; x++) {
+            if(lengths[x] != lengths[0] || (lengths[0] > 0 && first[x] != first[0])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Executes the recompression until each word is compressed into a single letter and returns the equality classes of the words.
+     * Equal words are compressed identically and a letter derives exactly one word, therefore two words are equal if and only if
+     * they are compressed into the same letter (or both are empty).
+     *
+     * Complexity: O(n log(N)), where n is the size of the grammar and N is the length of the longest word.
+     *
+     * @return i -> the smallest index j such that the j-th word is equal to the i-th word, where the words are ordered by the
+     *         SLPs and their axioms
+     */
+    public int[] getEqualityClasses() {
+        while (!isCompressed()) {
+            phase(this::isCompressed);
+        }
+
+        int[] classes = new int[rootCount];
+        int emptyClass = -1;
+        int[] letterClass = new int[alphabetSize];
+        Arrays.fill(letterClass, -1);
+        for(int x = 0; x < rootCount; x++) {
+            if(lengths[x] == 0) {
+                emptyClass = emptyClass == -1 ? x : emptyClass;
+                classes[x] = emptyClass;
+            }
+            else {
+                letterClass[first[x]] = letterClass[first[x]] == -1 ? x : letterClass[first[x]];
+                classes[x] = letterClass[first[x]];
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Executes the recompression until the pattern is compressed into a single letter (or a block of a single letter) and
+     * returns the occurrences of the pattern in the text. The occurrences are not enumerated in advance, see PatternOccurrences.
+     *
+     * Complexity: O(n+m) for each phase, where n, m are the sizes of the grammars, the pattern shrinks in each phase.
+     * Requirement: the instance was constructed for the pattern matching.
+     *
+     * @return the occurrences of the pattern in the text
+     */
+    public PatternOccurrences getPatternOccurrences() {
+        if(!matching) {
+            throw new IllegalArgumentException("the recompression was not constructed for the pattern matching.");
+        }
+
+        while (!isPatternCompressed()) {
+            phase(this::isPatternCompressed);
+        }
+        return new PatternOccurrences();
+    }
+
+    /**
+     * Executes one phase, i.e. a block compression followed by a pair compression.
+     *
+     * @param finished true => there is no need for the pair compression after the block compression
+     */
+    private void phase(final BooleanSupplier finished) {
+        phase++;
+        compressBlocks();
+        analyse();
+        if(!finished.getAsBoolean()) {
+            compressPairs();
+        }
+        renameLetters();
+        analyse();
+        logger.info("phase " + phase + ": |G| = " + getGrammarSize() + ", |Sigma| = " + alphabetSize);
+    }
+
+    /**
+     * Returns true if the pattern is compressed into a single letter or into a block of a single letter.
+     *
+     * @return true if the pattern is compressed, false otherwise
+     */
+    private boolean isPatternCompressed() {
+        return blockLetter != NONE || lengths[1] <= 1;
+    }
+
+    /**
+     * Returns true if each word is compressed into a single letter (or is empty).
+     *
+     * @return true if each word is compressed into a single letter, false otherwise
+     */
+    private boolean isCompressed() {
+        for(int x = 0; x < rootCount; x++) {
+            if(lengths[x] > 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the lengths of the words differ or if one word is compressed into a single letter, i.e. equal words
+     * are compressed identically so there is nothing left to do.
+     *
+     * @return true if the recompression has to stop, false otherwise
+     */
+    private boolean hasFinished() {
+        if(rootCount <= 1) {
+            return true;
+        }
+
+        for(int x = 0; x < rootCount; x++) {
+            if(lengths[x] != lengths[0] || lengths[x] <= 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the first letter, the last letter and the length of each non-terminal bottom-up.
+     *
+     * Complexity: O(n)
+     */
+    private void analyse() {
+        for(int x = nonTerminalCount - 1; x >= 0; x--) {
+            if(eliminated[x]) {
+                continue;
+            }
+
+            long length = 0;
+            for(int i = begin[x], end = begin[x] + size[x]; i < end; i++) {
+                int symbol = symbols[i];
+                long symbolLength = symbol >= 0 ? exponents[i] : lengths[~symbol];
+
+                // ignore non-terminals deriving the empty word, they are removed by the next compression
+                if(symbolLength > 0) {
+                    if(length == 0) {
+                        first[x] = symbol >= 0 ? symbol : first[~symbol];
+                    }
+                    last[x] = symbol >= 0 ? symbol : last[~symbol];
+                    length += symbolLength;
+                }
+            }
+            lengths[x] = length;
+        }
+    }
+
+    /**
+     * Pops the leftmost and rightmost block out of each non-terminal and replaces each maximal block a^l with l > 1 by a fresh letter.
+     * After popping, each block occurs explicitly in some right-hand side, adjacent blocks of the same letter are merged
+     * while the right-hand side is written.
+     *
+     * Complexity: O(n)
+     */
+    private void compressBlocks() {
+        ensureCapacity();
+        clearTable();
+        int position = 0;
+        for(int x = nonTerminalCount - 1; x >= 0; x--) {
+            if(eliminated[x]) {
+                continue;
+            }
+
+            int start = position;
+            for(int i = begin[x], end = begin[x] + size[x]; i < end; i++) {
+                int symbol = symbols[i];
+                if(symbol >= 0) {
+                    position = appendBlock(start, position, symbol, exponents[i]);
+                }
+                else {
+                    int y = ~symbol;
+                    if(leftPop[y] != NONE) {
+                        position = appendBlock(start, position, leftPop[y], leftPopExponent[y]);
+                    }
+                    if(!eliminated[y]) {
+                        nextSymbols[position] = symbol;
+                        nextExponents[position++] = 1;
+                    }
+                    if(rightPop[y] != NONE) {
+                        position = appendBlock(start, position, rightPop[y], rightPopExponent[y]);
+                    }
+                }
+            }
+            begin[x] = start;
+            size[x] = position - start;
+            leftPop[x] = NONE;
+            rightPop[x] = NONE;
+
+            if(x >= rootCount) {
+                if(size[x] > 0 && nextSymbols[begin[x]] >= 0) {
+                    leftPop[x] = nextSymbols[begin[x]];
+                    leftPopExponent[x] = nextExponents[begin[x]];
+                    begin[x]++;
+                    size[x]--;
+                }
+                if(size[x] > 0 && nextSymbols[begin[x] + size[x] - 1] >= 0) {
+                    rightPop[x] = nextSymbols[begin[x] + size[x] - 1];
+                    rightPopExponent[x] = nextExponents[begin[x] + size[x] - 1];
+                    size[x]--;
+                }
+                eliminated[x] = size[x] == 0;
+            }
+
+            if(!matching) {
+                for(int i = begin[x], end = begin[x] + size[x]; i < end; i++) {
+                    if(nextSymbols[i] >= 0 && nextExponents[i] > 1) {
+                        nextSymbols[i] = lookupBlock(nextSymbols[i], nextExponents[i]);
+                        nextExponents[i] = 1;
+                    }
+                }
+            }
+        }
+
+        if(!matching) {
+            swapArena();
+        }
+        else if(size[1] == 1) {
+            // the pattern is a block a^l, its occurrences are the suffixes of length l of all blocks a^k with k >= l
+            blockLetter = nextSymbols[begin[1]];
+            blockLength = nextExponents[begin[1]];
+            swapArena();
+        }
+        else {
+            fixEnds(position);
+        }
+        alphabetSize = nextLetter;
+    }
+
+    /**
+     * Replaces the blocks of the next arena by letters and fixes the ends of the pattern a^l w b^r: each block a^k with
+     * k >= l is replaced by a^(k-l) A_L and each block b^k with k >= r is prefixed by B_R, while the first block of the
+     * pattern is replaced by A_L and its last block by B_R. The result is written into the current arena.
+     *
+     * Complexity: O(n)
+     *
+     * @param position the number of used symbols of the next arena
+     */
+    private void fixEnds(final int position) {
+        int a = nextSymbols[begin[1]];
+        long l = nextExponents[begin[1]];
+        int b = nextSymbols[begin[1] + size[1] - 1];
+        long r = nextExponents[begin[1] + size[1] - 1];
+        int aL = createLetter(l * letterWeights[a]);
+        int bR = createLetter(0);
+
+        if(symbols.length < 3 * position) {
+            symbols = new int[3 * position];
+            exponents = new long[3 * position];
+        }
+
+        int write = 0;
+        for(int x = 0; x < nonTerminalCount; x++) {
+            if(eliminated[x]) {
+                continue;
+            }
+
+            int start = write;
+            for(int i = begin[x], end = begin[x] + size[x]; i < end; i++) {
+                int symbol = nextSymbols[i];
+                long exponent = nextExponents[i];
+                if(x == 1 && i == begin[x]) {
+                    write = appendLetter(symbols, exponents, write, aL);
+                }
+                else if(x == 1 && i == end - 1) {
+                    write = appendLetter(symbols, exponents, write, bR);
+                }
+                else if(symbol < 0) {
+                    write = appendLetter(symbols, exponents, write, symbol);
+                }
+                else {
+                    if(symbol == b && exponent >= r) {
+                        write = appendLetter(symbols, exponents, write, bR);
+                    }
+                    long rest = symbol == a && exponent >= l ? exponent - l : exponent;
+                    if(rest > 0) {
+                        write = appendLetter(symbols, exponents, write, rest == 1 ? symbol : lookupBlock(symbol, rest));
+                    }
+                    if(symbol == a && exponent >= l) {
+                        write = appendLetter(symbols, exponents, write, aL);
+                    }
+                }
+            }
+            begin[x] = start;
+            size[x] = write - start;
+        }
+    }
+
+    /**
+     * Appends the block letter^exponent to the right-hand side starting at start and merges it with its left neighbour if possible.
+     *
+     * @param start     the start of the right-hand side in the next arena
+     * @param position  the next free position of the next arena
+     * @param letter    the letter of the block
+     * @param exponent  the length of the block
+     * @return the next free position of the next arena
+     */
+    private int appendBlock(final int start, final int position, final int letter, final long exponent) {
+        if(position > start && nextSymbols[position - 1] == letter) {
+            nextExponents[position - 1] += exponent;
+            return position;
+        }
+        nextSymbols[position] = letter;
+        nextExponents[position] = exponent;
+        return position + 1;
+    }
+
+    /**
+     * Computes a partition of the alphabet into a left and a right set and compresses all pairs ab such that a is in the left and
+     * b in the right set. The partition is computed greedily such that at least 1/4 of all pair occurrences of the words are covered.
+     * Letters of the right set are popped to the left and letters of the left set are popped to the right of a non-terminal,
+     * afterwards there are no crossing pairs of the partition.
+     *
+     * Complexity: O(n + |Sigma|)
+     */
+    private void compressPairs() {
+        computeAppearances();
+        computePartition();
+        ensureCapacity();
+        clearTable();
+
+        int position = 0;
+        for(int x = nonTerminalCount - 1; x >= 0; x--) {
+            if(eliminated[x]) {
+                continue;
+            }
+
+            int start = position;
+            for(int i = begin[x], end = begin[x] + size[x]; i < end; i++) {
+                int symbol = symbols[i];
+                if(symbol >= 0) {
+                    position = appendLetter(position, symbol);
+                }
+                else {
+                    int y = ~symbol;
+                    if(leftPop[y] != NONE) {
+                        position = appendLetter(position, leftPop[y]);
+                    }
+                    if(!eliminated[y]) {
+                        position = appendLetter(position, symbol);
+                    }
+                    if(rightPop[y] != NONE) {
+                        position = appendLetter(position, rightPop[y]);
+                    }
+                }
+            }
+            begin[x] = start;
+            size[x] = position - start;
+            leftPop[x] = NONE;
+            rightPop[x] = NONE;
+
+            if(x >= rootCount) {
+                if(size[x] > 0 && nextSymbols[begin[x]] >= 0 && rightPartition[nextSymbols[begin[x]]]) {
+                    leftPop[x] = nextSymbols[begin[x]];
+                    begin[x]++;
+                    size[x]--;
+                }
+                if(size[x] > 0 && nextSymbols[begin[x] + size[x] - 1] >= 0 && !rightPartition[nextSymbols[begin[x] + size[x] - 1]]) {
+                    rightPop[x] = nextSymbols[begin[x] + size[x] - 1];
+                    size[x]--;
+                }
+                eliminated[x] = size[x] == 0;
+            }
+
+            int write = begin[x];
+            for(int i = begin[x], end = begin[x] + size[x]; i < end; i++) {
+                int symbol = nextSymbols[i];
+                if(symbol >= 0 && i + 1 < end && nextSymbols[i + 1] >= 0 && !rightPartition[symbol] && rightPartition[nextSymbols[i + 1]]) {
+                    nextSymbols[write++] = lookupPair(symbol, nextSymbols[i + 1]);
+                    i++;
+                }
+                else {
+                    nextSymbols[write++] = symbol;
+                }
+            }
+            size[x] = write - begin[x];
+        }
+
+        swapArena();
+    }
+
+    private int appendLetter(final int position, final int symbol) {
+        return appendLetter(nextSymbols, nextExponents, position, symbol);
+    }
+
+    private static int appendLetter(final int[] symbols, final long[] exponents, final int position, final int symbol) {
+        symbols[position] = symbol;
+        exponents[position] = 1;
+        return position + 1;
+    }
+
+    /**
+     * Computes the number of occurrences of each non-terminal in the derivation trees of the roots top-down.
+     * The numbers might be exponential in the size of the grammar, they saturate at Long.MAX_VALUE.
+     *
+     * Complexity: O(n)
+     */
+    private void computeAppearances() {
+        Arrays.fill(appearances, 0);
+        for(int x = 0; x < nonTerminalCount; x++) {
+            // for the pattern matching only the compression of the pattern matters
+            if(x < rootCount && (!matching || x == 1)) {
+                appearances[x] = 1;
+            }
+            if(eliminated[x]) {
+                continue;
+            }
+
+            for(int i = begin[x], end = begin[x] + size[x]; i < end; i++) {
+                if(symbols[i] < 0) {
+                    appearances[~symbols[i]] = saturatedAdd(appearances[~symbols[i]], appearances[x]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the partition of the alphabet by the greedy algorithm: the letters are assigned in increasing order, when the letter c
+     * is assigned all letters of pairs containing c and a smaller letter are already assigned, c is put into the set which
+     * separates more occurrences of these pairs, i.e. at least half of all pair occurrences are separated. Finally the sets are
+     * swapped if the pairs ba with b of the right and a of the left set occur more often than the pairs ab.
+     *
+     * Complexity: O(n + |Sigma|)
+     */
+    private void computePartition() {
+        // gather all pair occurrences, each occurrence is counted at the lowest non-terminal containing it
+        int pairCount = 0;
+        for(int x = 0; x < nonTerminalCount; x++) {
+            if(!eliminated[x] && size[x] > 1) {
+                pairCount += size[x] - 1;
+            }
+        }
+
+        if(pairLeft.length < pairCount) {
+            pairLeft = new int[pairCount];
+            pairRight = new int[pairCount];
+            pairWeight = new long[pairCount];
+            pairOrder = new int[pairCount];
+        }
+
+        int pair = 0;
+        for(int x = 0; x < nonTerminalCount; x++) {
+            if(eliminated[x]) {
+                continue;
+            }
+            for(int i = begin[x], end = begin[x] + size[x] - 1; i < end; i++) {
+                pairLeft[pair] = symbols[i] >= 0 ? symbols[i] : last[~symbols[i]];
+                pairRight[pair] = symbols[i + 1] >= 0 ? symbols[i + 1] : first[~symbols[i + 1]];
+                pairWeight[pair] = appearances[x];
+                pair++;
+            }
+        }
+
+        // counting sort of the pair occurrences by their larger letter
+        int[] bucketStart = new int[alphabetSize + 1];
+        for(int k = 0; k < pairCount; k++) {
+            bucketStart[Math.max(pairLeft[k], pairRight[k]) + 1]++;
+        }
+        for(int c = 0; c < alphabetSize; c++) {
+            bucketStart[c + 1] += bucketStart[c];
+        }
+        int[] next = Arrays.copyOf(bucketStart, alphabetSize);
+        for(int k = 0; k < pairCount; k++) {
+            pairOrder[next[Math.max(pairLeft[k], pairRight[k])]++] = k;
+        }
+
+        if(rightPartition.length < alphabetSize) {
+            rightPartition = new boolean[alphabetSize];
+        }
+
+        for(int c = 0; c < alphabetSize; c++) {
+            // the weight of the pairs {c, b} (in both orders) with b in the left resp. right set
+            long toLeft = 0;
+            long toRight = 0;
+            for(int j = bucketStart[c]; j < bucketStart[c + 1]; j++) {
+                int k = pairOrder[j];
+                int other = pairLeft[k] == c ? pairRight[k] : pairLeft[k];
+                if(rightPartition[other]) {
+                    toRight = saturatedAdd(toRight, pairWeight[k]);
+                }
+                else {
+                    toLeft = saturatedAdd(toLeft, pairWeight[k]);
+                }
+            }
+            // put c into the set which separates more pair occurrences
+            rightPartition[c] = toLeft > toRight;
+        }
+
+        // the pattern starts with a letter of the left and ends with a letter of the right set, i.e. the pattern contains
+        // one more pair from the left to the right set than vice versa and there is no need to swap the sets.
+        if(matching) {
+            rightPartition[first[1]] = false;
+            rightPartition[last[1]] = true;
+            return;
+        }
+
+        long leftRight = 0;
+        long rightLeft = 0;
+        for(int k = 0; k < pairCount; k++) {
+            if(!rightPartition[pairLeft[k]] && rightPartition[pairRight[k]]) {
+                leftRight = saturatedAdd(leftRight, pairWeight[k]);
+            }
+            else if(rightPartition[pairLeft[k]] && !rightPartition[pairRight[k]]) {
+                rightLeft = saturatedAdd(rightLeft, pairWeight[k]);
+            }
+        }
+
+        if(rightLeft > leftRight) {
+            for(int c = 0; c < alphabetSize; c++) {
+                rightPartition[c] = !rightPartition[c];
+            }
+        }
+    }
+
+    /**
+     * Renames the letters such that the letters of the next phase are in [0;alphabetSize) again.
+     *
+     * Complexity: O(n + |Sigma|)
+     */
+    private void renameLetters() {
+        int[] rename = new int[nextLetter];
+        Arrays.fill(rename, -1);
+        int letters = 0;
+        for(int x = 0; x < nonTerminalCount; x++) {
+            if(eliminated[x]) {
+                continue;
+            }
+            for(int i = begin[x], end = begin[x] + size[x]; i < end; i++) {
+                int symbol = symbols[i];
+                if(symbol >= 0) {
+                    if(rename[symbol] == -1) {
+                        rename[symbol] = letters++;
+                    }
+                    symbols[i] = rename[symbol];
+                }
+            }
+        }
+        if(matching) {
+            long[] weights = new long[Math.max(16, letters)];
+            for(int letter = 0; letter < nextLetter; letter++) {
+                if(rename[letter] != -1) {
+                    weights[rename[letter]] = letterWeights[letter];
+                }
+            }
+            letterWeights = weights;
+            blockLetter = blockLetter != NONE ? rename[blockLetter] : NONE;
+        }
+        alphabetSize = letters;
+        nextLetter = letters;
+    }
+
+    /**
+     * Makes sure that the next arena is large enough for the next compression, i.e. each right-hand side might grow by
+     * two symbols for each non-terminal occurrence.
+     */
+    private void ensureCapacity() {
+        int capacity = 0;
+        for(int x = 0; x < nonTerminalCount; x++) {
+            if(eliminated[x]) {
+                continue;
+            }
+            for(int i = begin[x], end = begin[x] + size[x]; i < end; i++) {
+                capacity += symbols[i] >= 0 ? 1 : 3;
+            }
+        }
+
+        if(nextSymbols.length < capacity) {
+            nextSymbols = new int[capacity];
+            nextExponents = new long[capacity];
+        }
+    }
+
+    private void swapArena() {
+        int[] tmpSymbols = symbols;
+        long[] tmpExponents = exponents;
+        symbols = nextSymbols;
+        exponents = nextExponents;
+        nextSymbols = tmpSymbols;
+        nextExponents = tmpExponents;
+    }
+
+    /**
+     * Returns the letter of the block letter^exponent of the current compression.
+     *
+     * @param letter    the letter
+     * @param exponent  the length of the block
+     * @return the letter of the block
+     */
+    private int lookupBlock(final int letter, final long exponent) {
+        return lookupLetter(letter, exponent, matching ? exponent * letterWeights[letter] : 0);
+    }
+
+    /**
+     * Returns the letter of the pair (left, right) of the current compression.
+     *
+     * @param left  the left letter
+     * @param right the right letter
+     * @return the letter of the pair
+     */
+    private int lookupPair(final int left, final int right) {
+        return lookupLetter(left, right, matching ? letterWeights[left] + letterWeights[right] : 0);
+    }
+
+    /**
+     * Returns a fresh letter.
+     *
+     * @param weight the length of the input word the letter represents
+     * @return a fresh letter
+     */
+    private int createLetter(final long weight) {
+        int letter = nextLetter++;
+        if(matching) {
+            if(letter >= letterWeights.length) {
+                letterWeights = Arrays.copyOf(letterWeights, 2 * letterWeights.length);
+            }
+            letterWeights[letter] = weight;
+        }
+        return letter;
+    }
+
+    /**
+     * Returns the letter of the block (letter, exponent) or the pair (letter, right letter) of the current compression,
+     * a fresh letter will be created if there is none.
+     *
+     * @param key       the letter
+     * @param value     the length of the block or the right letter of the pair
+     * @param weight    the length of the input word the block or pair represents
+     * @return the letter of the block or pair
+     */
+    private int lookupLetter(final int key, final long value, final long weight) {
+        int mask = tableKeys.length - 1;
+        int index = hash(key, value) & mask;
+        while (tableLetters[index] != -1) {
+            if(tableKeys[index] == key && tableValues[index] == value) {
+                return tableLetters[index];
+            }
+            index = (index + 1) & mask;
+        }
+
+        int letter = createLetter(weight);
+        tableKeys[index] = key;
+        tableValues[index] = value;
+        tableLetters[index] = letter;
+        tableSize++;
+
+        if(2 * tableSize > tableKeys.length) {
+            resizeTable();
+        }
+        return letter;
+    }
+
+    private void resizeTable() {
+        int[] oldKeys = tableKeys;
+        long[] oldValues = tableValues;
+        int[] oldLetters = tableLetters;
+        tableKeys = new int[2 * oldKeys.length];
+        tableValues = new long[2 * oldKeys.length];
+        tableLetters = new int[2 * oldKeys.length];
+        Arrays.fill(tableLetters, -1);
+
+        int mask = tableKeys.length - 1;
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldLetters[i] != -1) {
+                int index = hash(oldKeys[i], oldValues[i]) & mask;
+                while (tableLetters[index] != -1) {
+                    index = (index + 1) & mask;
+                }
+                tableKeys[index] = oldKeys[i];
+                tableValues[index] = oldValues[i];
+                tableLetters[index] = oldLetters[i];
+            }
+        }
+    }
+
+    private void clearTable() {
+        Arrays.fill(tableLetters, -1);
+        tableSize = 0;
+    }
+
+    private static int hash(final int key, final long value) {
+        long h = key * 0x9E3779B97F4A7C15L + value;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static long ceilDiv(final long a, final long b) {
+        return (a + b - 1) / b;
+    }
+
+    private static long saturatedAdd(final long a, final long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     * The occurrences of the pattern in the text after the recompression for the pattern matching has finished, i.e. the
+     * pattern is a single letter c or a block c^l. The structure stores for each non-terminal X the length |val(X)| of the
+     * input word and the number of occurrences in val(X), the positions are computed by descending the derivation tree of
+     * the text (as GenPatternOccurrences does for GenJez). A block c^k of the text with k >= l contains k - l + 1 occurrences.
+     *
+     * The structure is a read-only list of the positions (starting from 0) in ascending order, get(i) costs O(h * r),
+     * where h is the height of the grammar and r is the length of the longest right-hand side.
+     */
+    public class PatternOccurrences extends AbstractList<Long> implements IPatternOccurrences {
+
+        /**
+         * The letter of the pattern.
+         */
+        private final int letter;
+
+        /**
+         * The number of letters of a block of the pattern letter which contains one occurrence.
+         */
+        private final long minExponent;
+
+        /**
+         * X -> |val(X)|, measured in the letters of the input.
+         */
+        private final long[] weights;
+
+        /**
+         * X -> the number of occurrences of the pattern in val(X).
+         */
+        private final long[] counts;
+
+        /**
+         * Computes the lengths and the number of occurrences bottom-up.
+         *
+         * Complexity: O(n+m)
+         */
+        private PatternOccurrences() {
+            this.letter = blockLetter != NONE ? blockLetter : first[1];
+            this.minExponent = blockLetter != NONE ? blockLength : 1;
+            this.weights = new long[nonTerminalCount];
+            this.counts = new long[nonTerminalCount];
+
+            for(int x = nonTerminalCount - 1; x >= 0; x--) {
+                if(eliminated[x]) {
+                    continue;
+                }
+                for(int i = begin[x], end = begin[x] + size[x]; i < end; i++) {
+                    weights[x] += weight(i);
+                    counts[x] = saturatedAdd(counts[x], count(i));
+                }
+            }
+        }
+
+        /**
+         * Returns the number of occurrences of the pattern in the text.
+         *
+         * Complexity: O(1)
+         *
+         * @return the number of occurrences of the pattern in the text
+         */
+        public long count() {
+            return counts[0];
+        }
+
+        /**
+         * Returns the position of the (index+1)-th occurrence.
+         *
+         * Complexity: O(h * r)
+         *
+         * @param index the 0-based index of the occurrence
+         * @return the position of the (index+1)-th occurrence
+         */
+        public long getPosition(long index) {
+            if(index < 0 || index >= count()) {
+                throw new IndexOutOfBoundsException("there is no occurrence with the index " + index + ".");
+            }
+
+            long position = 0;
+            int x = 0;
+            int i = begin[x];
+            while (true) {
+                long count = count(i);
+                if(index < count) {
+                    if(symbols[i] >= 0) {
+                        return position + index * letterWeights[letter];
+                    }
+                    x = ~symbols[i];
+                    i = begin[x];
+                }
+                else {
+                    index -= count;
+                    position += weight(i);
+                    i++;
+                }
+            }
+        }
+
+        @Override
+        public Long get(final int index) {
+            return getPosition(index);
+        }
+
+        @Override
+        public int size() {
+            return (int)Math.min(Integer.MAX_VALUE, count());
+        }
+
+        /**
+         * Returns the number of occurrences of the pattern starting in the range [from, to) of the text.
+         *
+         * Complexity: O(h * r)
+         *
+         * @param from  the inclusive begin of the range
+         * @param to    the exclusive end of the range
+         * @return the number of occurrences of the pattern starting in the range [from, to)
+         */
+        @Override
+        public long count(final long from, final long to) {
+            long last = Math.min(to, weights[0]);
+            return last <= from ? 0 : countBefore(last) - countBefore(from);
+        }
+
+        /**
+         * Returns the number of occurrences starting in front of the bound, only the path to the bound is descended.
+         */
+        private long countBefore(final long bound) {
+            long result = 0;
+            long position = 0;
+            int x = 0;
+            while (x != NONE) {
+                int next = NONE;
+                for(int i = begin[x], end = begin[x] + size[x]; i < end && position < bound; i++) {
+                    long weight = weight(i);
+                    if(symbols[i] >= 0) {
+                        result += Math.min(count(i), ceilDiv(bound - position, letterWeights[letter]));
+                    }
+                    else if(position + weight <= bound) {
+                        result += counts[~symbols[i]];
+                    }
+                    else {
+                        next = ~symbols[i];
+                        break;
+                    }
+                    position += weight;
+                }
+                x = next;
+            }
+            return result;
+        }
+
+        /**
+         * Returns a lazy iterator over all positions in ascending order. The iterator descends the derivation tree of the
+         * text by an explicit stack of depth O(h) and skips all subtrees without any occurrence.
+         *
+         * @return a lazy iterator over all positions in ascending order
+         */
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return iterator(0, weights[0]);
+        }
+
+        /**
+         * Returns a lazy iterator over all positions of the range [from, to) in ascending order. In addition to the subtrees
+         * without any occurrence, the subtrees in front of the range are skipped and the iteration stops at the end of the range.
+         *
+         * @param from  the inclusive begin of the range
+         * @param to    the exclusive end of the range
+         * @return a lazy iterator over all positions of the range [from, to) in ascending order
+         */
+        @Override
+        public PrimitiveIterator.OfLong iterator(final long from, final long to) {
+            final long last = Math.min(to, weights[0]);
+            return new PrimitiveIterator.OfLong() {
+                private int[] stack = new int[16];
+                private int depth = counts[0] > 0 && from < last ? 1 : 0;
+                private long position = 0;
+                private long next = 0;
+                private long remaining = 0;
+
+                {
+                    stack[0] = begin[0];
+                }
+
+                @Override
+                public boolean hasNext() {
+                    while (remaining == 0 && depth > 0) {
+                        int i = stack[depth - 1];
+                        int x = depth == 1 ? 0 : ~symbols[stack[depth - 2] - 1];
+                        if(position >= last) {
+                            depth = 0;
+                            continue;
+                        }
+                        if(i == begin[x] + size[x]) {
+                            depth--;
+                            continue;
+                        }
+
+                        stack[depth - 1]++;
+                        long count = count(i);
+                        long weight = weight(i);
+                        if(count == 0 || position + weight <= from) {
+                            position += weight;
+                        }
+                        else if(symbols[i] < 0) {
+                            if(depth == stack.length) {
+                                stack = Arrays.copyOf(stack, 2 * stack.length);
+                            }
+                            stack[depth++] = begin[~symbols[i]];
+                        }
+                        else {
+                            // the occurrences position + k * |letter| for k in [skip, count) starting in the range
+                            long step = letterWeights[letter];
+                            long skip = from > position ? ceilDiv(from - position, step) : 0;
+                            next = position + skip * step;
+                            remaining = Math.max(0, Math.min(count, ceilDiv(last - position, step)) - skip);
+                            position += weight;
+                        }
+                    }
+                    return remaining > 0;
+                }
+
+                @Override
+                public long nextLong() {
+                    if(!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    long result = next;
+                    next += letterWeights[letter];
+                    remaining--;
+                    return result;
+                }
+            };
+        }
+
+        /**
+         * Returns the length of the input word the symbol at the arena position i derives.
+         */
+        private long weight(final int i) {
+            return symbols[i] >= 0 ? exponents[i] * letterWeights[symbols[i]] : weights[~symbols[i]];
+        }
+
+        /**
+         * Returns the number of occurrences of the pattern in the word the symbol at the arena position i derives.
+         */
+        private long count(final int i) {
+            if(symbols[i] < 0) {
+                return counts[~symbols[i]];
+            }
+            return symbols[i] == letter && exponents[i] >= minExponent ? exponents[i] - minExponent + 1 : 0;
+        }
+    }
+}
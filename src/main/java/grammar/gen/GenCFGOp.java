@@ -431,10 +431,13 @@ public class GenCFGOp<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S
             if(productionList.size() > 1) {
 
                 for(int i = 0; i < productionList.size()-1; i++) {
-                    Map<S, P> copy1 = creator.copyProductions(slpProductionMap);
-                    Map<S, P> copy2 = creator.copyProductions(slpProductionMap);
-                    copy1.put(productionList.get(i).getLeft(), productionList.get(i));
-                    copy2.put(productionList.get(i+1).getLeft(), productionList.get(i+1));
+                    // the equality test destroys the productions, therefore the alternatives of left are copied as well.
+                    Map<S, P> productions1 = new HashMap<>(slpProductionMap);
+                    Map<S, P> productions2 = new HashMap<>(slpProductionMap);
+                    productions1.put(left, productionList.get(i));
+                    productions2.put(left, productionList.get(i+1));
+                    Map<S, P> copy1 = creator.copyProductions(productions1);
+                    Map<S, P> copy2 = creator.copyProductions(productions2);
 
                     Z slp1 = creator.createSLP(copy1, left);
                     Z slp2 = creator.createSLP(copy2, left);
@@ -0,0 +1,590 @@
+package grammar.gen;
+
+import grammar.inter.IPatternOccurrences;
+import grammar.inter.IProduction;
+import grammar.inter.IReferencedWord;
+import grammar.inter.ISLP;
+import symbol.IJezSymbol;
+import utils.PositionRange;
+
+import java.util.*;
+
+/**
+ * Computes all occurrences of a dictionary of (short) patterns in a SLP-compressed text by one bottom-up pass over
+ * the text grammar, i.e. the work on the text is shared by all patterns. The patterns are combined into an Aho-Corasick
+ * automaton over the names of the terminals. For each production X -> Y_1 ... Y_k the local occurrences of X are the
+ * occurrences in val(X) which are not contained in any val(Y_i). Each local occurrence overlaps the begin of some Y_i
+ * or it contains a terminal Y_i, therefore it is found by running the automaton over the prefixes of length m-1 of the
+ * Y_i, where m is the maximal length of a pattern. After a long Y_i the state of the automaton is restored from the
+ * suffix of length m-1 of val(Y_i). The occurrences are not enumerated in advance: the occurrences of a pattern count
+ * the occurrences in each non-terminal bottom-up when they are accessed for the first time, afterwards the positions are
+ * computed by descending the derivation tree, non-terminals whose subtree does not contain any occurrence are skipped.
+ * The empty pattern occurs at each position 0, 1, ..., |val(axiom)|.
+ *
+ * Complexity: O(|G| * m + d) for the pass, O(|G|) for the first access to the occurrences of a pattern and O(h * (r + l))
+ * for each position, where d is the total length of the patterns, h is the height of the grammar, r is the length of the
+ * longest right-hand side and l is the maximal number of local occurrences of the pattern in a non-terminal.
+ *
+ * @author Benedikt Zoennchen
+ *
+ * @param <N>   the type of the identifier of terminal and non-terminal symbols of the grammar
+ * @param <S>   the type of the terminal and non-terminal symbols of the grammar
+ * @param <W>   the type of the right-hand side of the grammar
+ * @param <P>   the type of the grammar production
+ */
+public class GenDictionaryMatching<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>, P extends IProduction<N, S, W>> {
+
+    /**
+     * The trie of the automaton: node -> (terminal name -> child node), the root is the node 0.
+     */
+    private final List<Map<N, Integer>> children;
+
+    /**
+     * The depth of each node, i.e. the length of the pattern prefix of the node.
+     */
+    private final List<Integer> depths;
+
+    /**
+     * node -> indices of the patterns ending in the node.
+     */
+    private final List<List<Integer>> patternsOfNode;
+
+    /**
+     * node -> the node of the longest proper suffix which is contained in the trie.
+     */
+    private int[] failure;
+
+    /**
+     * node -> the next node with at least one pattern on the failure path, or -1.
+     */
+    private int[] outputLink;
+
+    /**
+     * The maximal length of all patterns.
+     */
+    private int maxLength;
+
+    /**
+     * The indices of the empty patterns.
+     */
+    private final List<Integer> emptyPatterns;
+
+    /**
+     * The number of patterns.
+     */
+    private final int numberOfPatterns;
+
+    /**
+     * Default constructor.
+     *
+     * @param patterns the patterns, each pattern is a list of terminal names
+     */
+    public GenDictionaryMatching(final List<List<N>> patterns) {
+        this.children = new ArrayList<>();
+        this.depths = new ArrayList<>();
+        this.patternsOfNode = new ArrayList<>();
+        this.maxLength = 0;
+        this.emptyPatterns = new ArrayList<>();
+        this.numberOfPatterns = patterns.size();
+        newNode(0);
+
+        for(int i = 0; i < patterns.size(); i++) {
+            List<N> pattern = patterns.get(i);
+            if(pattern.isEmpty()) {
+                emptyPatterns.add(i);
+                continue;
+            }
+            int node = 0;
+            for(N name : pattern) {
+                Integer child = children.get(node).get(name);
+                if(child == null) {
+                    child = newNode(depths.get(node) + 1);
+                    children.get(node).put(name, child);
+                }
+                node = child;
+            }
+            patternsOfNode.get(node).add(i);
+            maxLength = Math.max(maxLength, pattern.size());
+        }
+        computeFailures();
+    }
+
+    /**
+     * Computes the occurrences of each pattern in val(axiom), the positions (starting from 0) are not enumerated.
+     *
+     * Complexity: O(|G| * m)
+     *
+     * @param slp   the SLP of the text
+     * @param axiom the non-terminal of the text
+     * @return a list containing for each pattern its occurrences
+     */
+    public List<IPatternOccurrences> matchingAll(final ISLP<N, S, W, P> slp, final S axiom) {
+        Map<S, NonTerminalInfo> infos = new HashMap<>();
+        Iterator<P> productions = slp.getOrderedProductions().descendingIterator();
+        while (productions.hasNext()) {
+            P production = productions.next();
+            infos.put(production.getLeft(), computeInfo(production, infos));
+        }
+
+        List<IPatternOccurrences> occurrences = new ArrayList<>(Collections.nCopies(numberOfPatterns, null));
+        for(int node = 0; node < children.size(); node++) {
+            if(!patternsOfNode.get(node).isEmpty()) {
+                // patterns of the same node are equal, i.e. they share their occurrences
+                Occurrences occurrencesOfNode = new Occurrences(slp, axiom, infos, node);
+                for(int pattern : patternsOfNode.get(node)) {
+                    occurrences.set(pattern, occurrencesOfNode);
+                }
+            }
+        }
+
+        for(int pattern : emptyPatterns) {
+            occurrences.set(pattern, new PositionRange(0, infos.get(axiom).length + 1));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Computes the length, the prefix, the suffix and the local occurrences of the left-hand side of the production.
+     *
+     * Complexity: O(|rhs| * m + number of local occurrences)
+     */
+    private NonTerminalInfo computeInfo(final P production, final Map<S, NonTerminalInfo> infos) {
+        NonTerminalInfo info = new NonTerminalInfo();
+        Deque<N> suffix = new ArrayDeque<>();
+        int state = 0;
+        long length = 0;
+
+        for(S symbol : production.getRight()) {
+            if(symbol.isTerminal()) {
+                state = step(state, symbol.getName());
+                length++;
+                // every occurrence ending at a terminal is a local occurrence
+                addLocalOccurrences(info, state, length, length);
+                if(info.prefix.size() < maxLength - 1) {
+                    info.prefix.add(symbol.getName());
+                }
+                append(suffix, symbol.getName());
+            }
+            else {
+                NonTerminalInfo childInfo = infos.get(symbol);
+                long position = length;
+                for(N name : childInfo.prefix) {
+                    state = step(state, name);
+                    position++;
+                    // occurrences starting in front of the child
+                    addLocalOccurrences(info, state, position, length);
+                }
+
+                // the child is longer than m-1, i.e. its suffix is the suffix of the current prefix of val(X)
+                if(childInfo.length > childInfo.prefix.size()) {
+                    state = childInfo.suffixState;
+                    suffix.clear();
+                    suffix.addAll(childInfo.suffix);
+                }
+                else {
+                    childInfo.prefix.forEach(name -> append(suffix, name));
+                }
+
+                for(Iterator<N> names = childInfo.prefix.iterator(); names.hasNext() && info.prefix.size() < maxLength - 1;) {
+                    info.prefix.add(names.next());
+                }
+                length += childInfo.length;
+                info.containsOccurrence |= childInfo.containsOccurrence;
+            }
+        }
+
+        info.length = length;
+        info.containsOccurrence |= !info.localNodes.isEmpty();
+        info.suffix = new ArrayList<>(suffix);
+        info.suffixState = 0;
+        for(N name : info.suffix) {
+            info.suffixState = step(info.suffixState, name);
+        }
+        return info;
+    }
+
+    /**
+     * Appends the name to the suffix and keeps at most m-1 names.
+     */
+    private void append(final Deque<N> suffix, final N name) {
+        suffix.addLast(name);
+        if(suffix.size() > maxLength - 1) {
+            suffix.removeFirst();
+        }
+    }
+
+    /**
+     * Adds all occurrences ending at the position which start in front of the bound. The output path is ordered by
+     * decreasing pattern lengths, i.e. by increasing start positions.
+     */
+    private void addLocalOccurrences(final NonTerminalInfo info, final int state, final long end, final long bound) {
+        for(int node = patternsOfNode.get(state).isEmpty() ? outputLink[state] : state; node != -1; node = outputLink[node]) {
+            long start = end - depths.get(node);
+            if(start >= bound) {
+                break;
+            }
+            info.localNodes.add(node);
+            info.localPositions.add(start);
+        }
+    }
+
+    private int step(int state, final N name) {
+        while (true) {
+            Integer child = children.get(state).get(name);
+            if(child != null) {
+                return child;
+            }
+            if(state == 0) {
+                return 0;
+            }
+            state = failure[state];
+        }
+    }
+
+    private int newNode(final int depth) {
+        children.add(new HashMap<>());
+        depths.add(depth);
+        patternsOfNode.add(new ArrayList<>());
+        return children.size() - 1;
+    }
+
+    /**
+     * Computes the failure links and the output links by a breadth first traversal of the trie.
+     */
+    private void computeFailures() {
+        failure = new int[children.size()];
+        outputLink = new int[children.size()];
+        outputLink[0] = -1;
+
+        Deque<Integer> queue = new ArrayDeque<>();
+        for(int child : children.get(0).values()) {
+            failure[child] = 0;
+            outputLink[child] = -1;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for(Map.Entry<N, Integer> entry : children.get(node).entrySet()) {
+                int child = entry.getValue();
+                int fail = step(failure[node], entry.getKey());
+                failure[child] = fail;
+                outputLink[child] = patternsOfNode.get(fail).isEmpty() ? outputLink[fail] : fail;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * The occurrences of the pattern(s) of a node of the trie. For each non-terminal X the number of occurrences in val(X)
+     * and the sorted local occurrences of X are computed on the first access. Since all occurrences have the same length,
+     * the local occurrences of X starting inside of Y_i follow all occurrences inside of Y_i, therefore the positions are
+     * computed in ascending order by visiting each Y_i before its local occurrences.
+     */
+    private class Occurrences extends AbstractList<Long> implements IPatternOccurrences {
+        private final ISLP<N, S, W, P> slp;
+        private final S axiom;
+        private final Map<S, NonTerminalInfo> infos;
+        private final int node;
+
+        /**
+         * X -> the number of occurrences in val(X), only non-terminals with at least one occurrence are contained.
+         */
+        private Map<S, Long> counts;
+
+        /**
+         * X -> the positions of the local occurrences of X (relative to X) in ascending order.
+         */
+        private Map<S, long[]> localPositions;
+
+        private Occurrences(final ISLP<N, S, W, P> slp, final S axiom, final Map<S, NonTerminalInfo> infos, final int node) {
+            this.slp = slp;
+            this.axiom = axiom;
+            this.infos = infos;
+            this.node = node;
+        }
+
+        /**
+         * Counts the occurrences bottom-up, non-terminals without any local occurrence in their subtree are skipped.
+         *
+         * Complexity: O(|G|)
+         */
+        private void init() {
+            if(counts != null) {
+                return;
+            }
+            counts = new HashMap<>();
+            localPositions = new HashMap<>();
+
+            Iterator<P> productions = slp.getOrderedProductions().descendingIterator();
+            while (productions.hasNext()) {
+                P production = productions.next();
+                NonTerminalInfo info = infos.get(production.getLeft());
+                if(!info.containsOccurrence) {
+                    continue;
+                }
+
+                long[] positions = new long[info.localNodes.size()];
+                int size = 0;
+                for(int i = 0; i < info.localNodes.size(); i++) {
+                    if(info.localNodes.get(i) == node) {
+                        positions[size++] = info.localPositions.get(i);
+                    }
+                }
+                positions = Arrays.copyOf(positions, size);
+                Arrays.sort(positions);
+
+                long count = size;
+                for(S symbol : production.getRight()) {
+                    count += count(symbol);
+                }
+                if(count > 0) {
+                    counts.put(production.getLeft(), count);
+                    localPositions.put(production.getLeft(), positions);
+                }
+            }
+        }
+
+        private long count(final S symbol) {
+            return symbol.isTerminal() ? 0 : counts.getOrDefault(symbol, 0L);
+        }
+
+        private long length(final S symbol) {
+            return symbol.isTerminal() ? 1 : infos.get(symbol).length;
+        }
+
+        @Override
+        public long count() {
+            init();
+            return counts.getOrDefault(axiom, 0L);
+        }
+
+        /**
+         * Returns the position of the (index+1)-th occurrence.
+         *
+         * Complexity: O(h * (r + l))
+         *
+         * @param index the 0-based index of the occurrence
+         * @return the position of the (index+1)-th occurrence
+         */
+        @Override
+        public long getPosition(long index) {
+            if(index < 0 || index >= count()) {
+                throw new IndexOutOfBoundsException("there is no occurrence with the index " + index + ".");
+            }
+
+            long position = 0;
+            S left = axiom;
+            while (true) {
+                long offset = position;
+                long[] local = localPositions.get(left);
+                int k = 0;
+                boolean descended = false;
+                for(S symbol : slp.getProduction(left).getRight()) {
+                    long count = count(symbol);
+                    if(index < count) {
+                        left = symbol;
+                        descended = true;
+                        break;
+                    }
+                    index -= count;
+                    position += length(symbol);
+
+                    // the local occurrences starting inside of the symbol
+                    for(; k < local.length && offset + local[k] < position; k++, index--) {
+                        if(index == 0) {
+                            return offset + local[k];
+                        }
+                    }
+                }
+
+                if(!descended) {
+                    throw new IllegalStateException("the occurrence counts are inconsistent.");
+                }
+            }
+        }
+
+        @Override
+        public Long get(final int index) {
+            return getPosition(index);
+        }
+
+        @Override
+        public int size() {
+            return (int)Math.min(Integer.MAX_VALUE, count());
+        }
+
+        /**
+         * Returns the number of occurrences starting in the range [begin, end) of the text.
+         *
+         * Complexity: O(h * (r + log(l)))
+         *
+         * @param begin the inclusive begin of the range
+         * @param end   the exclusive end of the range
+         * @return the number of occurrences starting in the range [begin, end)
+         */
+        @Override
+        public long count(final long begin, final long end) {
+            return end <= begin ? 0 : countBefore(end) - countBefore(begin);
+        }
+
+        /**
+         * Returns the number of occurrences starting in front of the bound, only the path to the bound is descended.
+         */
+        private long countBefore(final long bound) {
+            long result = 0;
+            long position = 0;
+            S left = count() > 0 ? axiom : null;
+            while (left != null) {
+                // the local occurrences of X starting in front of the bound
+                result += lowerBound(localPositions.get(left), bound - position);
+
+                S next = null;
+                for(S symbol : slp.getProduction(left).getRight()) {
+                    if(position >= bound) {
+                        break;
+                    }
+                    long length = length(symbol);
+                    if(position + length <= bound) {
+                        result += count(symbol);
+                    }
+                    else {
+                        next = count(symbol) > 0 ? symbol : null;
+                        break;
+                    }
+                    position += length;
+                }
+                left = next;
+            }
+            return result;
+        }
+
+        /**
+         * Returns a lazy iterator over all positions in ascending order. The iterator descends the derivation tree of the
+         * text by an explicit stack of depth O(h) and skips all subtrees without any occurrence.
+         *
+         * @return a lazy iterator over all positions in ascending order
+         */
+        @Override
+        public PrimitiveIterator.OfLong iterator() {
+            return iterator(0, Long.MAX_VALUE);
+        }
+
+        /**
+         * Returns a lazy iterator over all positions of the range [begin, end) in ascending order. In addition to the subtrees
+         * without any occurrence, the subtrees in front of the range are skipped and the iteration stops at the end of the range.
+         *
+         * @param begin the inclusive begin of the range
+         * @param end   the exclusive end of the range
+         * @return a lazy iterator over all positions of the range [begin, end) in ascending order
+         */
+        @Override
+        public PrimitiveIterator.OfLong iterator(final long begin, final long end) {
+            return new PrimitiveIterator.OfLong() {
+                private final Deque<Frame> stack = new ArrayDeque<>();
+                private long next = -1;
+
+                {
+                    if(count() > 0 && begin < end) {
+                        stack.push(new Frame(axiom, 0, begin));
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    while (next < 0 && !stack.isEmpty()) {
+                        Frame frame = stack.peek();
+                        if(frame.k < frame.local.length && frame.offset + frame.local[frame.k] < frame.end) {
+                            long position = frame.offset + frame.local[frame.k++];
+                            if(position < end) {
+                                next = position;
+                            }
+                            else {
+                                // all following occurrences start behind the range
+                                stack.clear();
+                            }
+                        }
+                        else if(!frame.symbols.hasNext() || frame.end >= end) {
+                            stack.pop();
+                        }
+                        else {
+                            S symbol = frame.symbols.next();
+                            long symbolBegin = frame.end;
+                            frame.end += length(symbol);
+                            if(count(symbol) > 0 && frame.end > begin) {
+                                stack.push(new Frame(symbol, symbolBegin, begin));
+                            }
+                        }
+                    }
+                    return next >= 0;
+                }
+
+                @Override
+                public long nextLong() {
+                    if(!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    long result = next;
+                    next = -1;
+                    return result;
+                }
+            };
+        }
+
+        /**
+         * A non-terminal X on the stack of the iterator: the symbols of X not visited so far, the end of the last visited
+         * symbol and the local occurrences of X not returned so far, the local occurrences in front of the range are skipped.
+         */
+        private class Frame {
+            private final Iterator<S> symbols;
+            private final long offset;
+            private final long[] local;
+            private long end;
+            private int k;
+
+            private Frame(final S left, final long offset, final long begin) {
+                this.symbols = slp.getProduction(left).getRight().iterator();
+                this.offset = offset;
+                this.local = localPositions.get(left);
+                this.end = offset;
+                this.k = lowerBound(local, begin - offset);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of values which are smaller than the bound.
+     * Complexity: O(log(|values|))
+     *
+     * @param values    values in ascending order
+     * @param bound     the exclusive bound
+     * @return the number of values which are smaller than the bound
+     */
+    private static int lowerBound(final long[] values, final long bound) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if(values[middle] < bound) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The information of a non-terminal X gathered bottom-up.
+     */
+    private class NonTerminalInfo {
+        private long length;
+        private List<N> prefix = new ArrayList<>();
+        private List<N> suffix;
+        private int suffixState;
+        private boolean containsOccurrence;
+        private List<Integer> localNodes = new ArrayList<>();
+        private List<Long> localPositions = new ArrayList<>();
+    }
+}
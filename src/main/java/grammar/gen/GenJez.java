@@ -1,5 +1,6 @@
 package grammar.gen;
 
+import data.ElementIterator;
 import data.MyLinkedList;
 import data.Node;
 import grammar.inter.*;
@@ -8,6 +9,8 @@ import org.apache.log4j.LogManager;
 import utils.*;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.*;
 import java.util.stream.Collectors;
 
@@ -45,15 +48,35 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
      */
     private boolean matchingBlocks = false;
 
+    /**
+     * The letter a of the pattern a^l if the pattern is a block (see matchingBlocks).
+     */
+    private S blockLetter = null;
+
+    /**
+     * for pattern matching: the fresh letter A_L of the current phase replacing the first block of the pattern (see fixEnds).
+     */
+    private S fixedBegin = null;
+
+    /**
+     * for pattern matching: the fresh letter B_R of the current phase replacing the last block of the pattern (see fixEnds).
+     */
+    private S fixedEnd = null;
+
     /**
      * true => the algorithm uses the greedy pair compression, otherwise the algorithm uses the compression for compressing all pairs.
      */
     private boolean greedyPairCompression = false;
 
     /**
-     *  mapping X -> list of pointers to X
+     * true => the pairs and blocks of the productions are gathered in parallel by fork/join tasks, the result is equal to the sequential gathering.
+     */
+    private boolean parallelGathering = false;
+
+    /**
+     * the number of productions gathered by one fork/join task.
      */
-    private final Map<S, List<Node<S>>> occurrences;
+    private static final int GATHERING_CHUNK_SIZE = 1024;
 
     /**
      * X -> appearances of X in the the word i.e. val(axiom)
@@ -85,11 +108,15 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
      */
     private final int maxNonTerminal;
 
+    /**
+     * the sorter of all pair and block records, its buffers are reused in each phase.
+     */
+    private final PrimitiveRadixSort sorter;
 
     /**
-     * the comparator to compare block record entries i.e. tuples of (a, l, ...), where a is the letter and l is the length of a block.
+     * the listeners which will be informed at the end of each phase.
      */
-    private final BlockRecordComparator blockComparator;
+    private final List<IPhaseListener> phaseListeners;
 
     /**
      * a function used to identify if the recompression algorithm should do a left-pop.
@@ -139,8 +166,8 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         this.patter = replacementMap.get(pattern);
 
         this.maxNonTerminal = terminalAlphabet.getMaxNonterminal();
-        this.blockComparator = new BlockRecordComparator();
-        this.occurrences = getAllOccurrences();
+        this.sorter = new PrimitiveRadixSort();
+        this.phaseListeners = new ArrayList<>();
         this.appearances = getAppearances();
         this.wordProperties = new ReferencedWordProperties();
     }
@@ -154,6 +181,70 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         return slp;
     }
 
+    /**
+     * Returns the number of phases the recompression has executed so far.
+     *
+     * @return the number of phases the recompression has executed so far
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * Returns true if the greedy pair compression is used to compress crossing pairs, otherwise false.
+     *
+     * @return true if the greedy pair compression is used, otherwise false
+     */
+    public boolean isGreedyPairCompression() {
+        return greedyPairCompression;
+    }
+
+    /**
+     * Chooses the strategy for the compression of crossing pairs. This has to be set before the recompression starts.
+     *
+     * @param greedyPairCompression true => use the greedy pair compression, otherwise compress crossing pairs by partitions
+     */
+    public void setGreedyPairCompression(final boolean greedyPairCompression) {
+        this.greedyPairCompression = greedyPairCompression;
+    }
+
+    /**
+     * Returns true if the pairs and blocks are gathered in parallel, false otherwise.
+     *
+     * @return true if the pairs and blocks are gathered in parallel, false otherwise
+     */
+    public boolean isParallelGathering() {
+        return parallelGathering;
+    }
+
+    /**
+     * Sets the parallel gathering of pairs and blocks, the fork/join tasks run in the common pool.
+     *
+     * @param parallelGathering true => the pairs and blocks are gathered in parallel, false => they are gathered sequentially
+     */
+    public void setParallelGathering(final boolean parallelGathering) {
+        this.parallelGathering = parallelGathering;
+    }
+
+    /**
+     * Adds a listener which will be informed about the statistics of each following phase. The statistics are only
+     * gathered if there is at least one listener.
+     *
+     * @param listener the listener
+     */
+    public void addPhaseListener(final IPhaseListener listener) {
+        phaseListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener which was added before.
+     *
+     * @param listener the listener
+     */
+    public void removePhaseListener(final IPhaseListener listener) {
+        phaseListeners.remove(listener);
+    }
+
     /**
      * Returns the axiom of the pattern.
      *
@@ -201,15 +292,9 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         execute();
 
         S otherSymbol = null;
-        boolean first = true;
 
         // 3. chech now if for all axioms X : |val(X)| = 1 and all val(X) are equals.
         for(S left : slp.getAxioms()) {
-            if(first) {
-                slp.length(left, true);
-                first = false;
-            }
-
             if(slp.length(left) != 1) {
                 return false;
             }
@@ -252,39 +337,60 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
     /**
      * Calculate one phase of Jéz-algorithm. This will change the grammar. Complexity: O(|G| + (n+m)log(n+m)) and we need O(log(M)) phases.
      * Overall complexity: O((n+m)^2 log(n+m)), since |G| = O((n+m)log(n+m)).
+     * At the end of the phase all phase listeners are informed about the statistics of the phase.
      */
     public void phase() {
         int size = terminalAlphabet.getMax(phase) + 1;
         this.phase++;
         terminalAlphabet.nextPhase();
 
-        // for pattern matchingAll
-        if(matching && !hasFinished()) {
-            // fix the beginning and the end
-            Map<S, Pair<S, S>> firstLastMap = getFirstLastMap();
-            Pair<S, S> pair = firstLastMap.get(patter);
+        long compressedBlocks = 0;
+        long crossingPairOccurrences = 0;
+        long nonCrossingPairOccurrences = 0;
+        long blockCompressionNanos = 0;
+        long nonCrossingPairCompressionNanos = 0;
+        long crossingPairCompressionNanos = 0;
+        long renamingNanos = 0;
+        long start;
 
-            if(pair.a == pair.b) {
-                fixEndsSame(firstLastMap, patter, text);
-            }
-            else {
-                fixEndsDifferent(firstLastMap, patter, text);
-                matchingBlocks = false;
+        // for pattern matchingAll: fix the beginning and the end of the pattern, the pops of the blocks uncross all pairs
+        if(matching && !hasFinished()) {
+            if(!phaseListeners.isEmpty()) {
+                Pair<Long, Long> pairOccurrences = countPairOccurrences();
+                nonCrossingPairOccurrences = pairOccurrences.a;
+                crossingPairOccurrences = pairOccurrences.b;
             }
+            fixEnds();
         }
 
         // 1. compress blocks: O(|G| + (n+m)log(n+m))
         if(!hasFinished()) {
-            compressBlocks(phase);
+            start = System.nanoTime();
+            compressedBlocks = compressBlocks(phase);
+            blockCompressionNanos = System.nanoTime() - start;
         }
 
-        if(!hasFinished()) {
+        // compress the pairs of a partition respecting the fixed ends of the pattern: O(|G|)
+        if(matching && !hasFinished()) {
+            start = System.nanoTime();
+            compressPartitionPairs();
+            nonCrossingPairCompressionNanos = System.nanoTime() - start;
+        }
+        else if(!hasFinished()) {
             // get all pairs: O(|G|)
             List<GPairRecord<S, S>> pairRecords = getPairs(p -> p.a.getPhaseId() < phase && p.b.getPhaseId() < phase);
 
+            if(!phaseListeners.isEmpty()) {
+                crossingPairOccurrences = pairRecords.stream().filter(GPairRecord::isCrossingPair).count();
+                nonCrossingPairOccurrences = pairRecords.size() - crossingPairOccurrences;
+            }
+
             // compress non-crossing pairs: O(|G|)
+            start = System.nanoTime();
             compressNonCrossingPairs(pairRecords);
+            nonCrossingPairCompressionNanos = System.nanoTime() - start;
 
+            start = System.nanoTime();
             // compress all crossing pairs: O(|G|)
             if(greedyPairCompression) {
                 compressEnoughPairs(pairRecords, size);
@@ -293,70 +399,75 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
             else {
                 compressCrossingPairs(pairRecords, phase, size);
             }
+            crossingPairCompressionNanos = System.nanoTime() - start;
         }
 
         // renumber the alphabet: O(|G|)
         if(!hasFinished()) {
+            start = System.nanoTime();
             renameTerminalsFromLastPhase();
+            renamingNanos = System.nanoTime() - start;
+        }
+
+        if(!phaseListeners.isEmpty()) {
+            long grammarSize = slp.getProductions().stream().mapToLong(rule -> rule.getRight().length()).sum();
+            PhaseStatistics statistics = new PhaseStatistics(phase, grammarSize, size, crossingPairOccurrences, nonCrossingPairOccurrences, compressedBlocks,
+                    blockCompressionNanos, nonCrossingPairCompressionNanos, crossingPairCompressionNanos, renamingNanos);
+            phaseListeners.forEach(listener -> listener.onPhase(statistics));
         }
     }
 
     /**
-     * Returns a list of all positions of occurrences of a terminal symbol.
-     * This could take exponential running time.
+     * Returns the occurrences of the pattern in the text. The occurrences are not enumerated, the structure computes
+     * the number of occurrences in each non-terminal and enumerates the positions lazily in ascending order.
      *
-     * Complexity: O(2^(|G|))
+     * Complexity: O(|G|)
+     * Requirement: the recompression is complete.
      *
-     * @return          A list containing all positions of occurrences of the terminal
+     * @return the occurrences of the pattern in the text
      */
-    public List<Long> getPatternOccurrencePositions() {
+    public GenPatternOccurrences<N, S, W, P> getPatternOccurrences() {
         if(!hasFinished()) {
             throw new IllegalArgumentException("the recompression is not jet ready.");
         }
         S terminal = slp.get(getPattern().getLeft(), 1);
-        if(matchingBlocks) {
-            return getBlockOccurrencePositions(terminal);
-        }
-        else {
-            return getNonBlockOccurrencePositions(terminal);
-        }
+        return new GenPatternOccurrences<>(slp, text, terminal, matchingBlocks ? blockLetter : null);
+    }
+
+    /**
+     * Returns a list of all positions of occurrences of the pattern in ascending order. The list is a lazy view,
+     * see getPatternOccurrences.
+     *
+     * Complexity: O(|G|)
+     *
+     * @return          A list containing all positions of occurrences of the pattern
+     */
+    public List<Long> getPatternOccurrencePositions() {
+        return getPatternOccurrences();
     }
 
     /**
      * Returns the number of occurrences of the pattern in val(S) i.e. the text.
      *
+     * Complexity: O(|G|)
      * Requirement: the recompression is complete.
      *
      * @return the number of occurrences of the pattern in the text
      */
     public long getNumberOfPatternOccurrences() {
-        if(!hasFinished()) {
-            throw new IllegalArgumentException("the recompression is not jet ready.");
-        }
-
-        S terminal = slp.get(getPattern().getLeft(), 1);
-        return getPatternOccurrence(terminal).get(getText());
+        return getPatternOccurrences().count();
     }
 
     /**
-     * Returns the position of the k-th occurrence of the terminal in the text, if there is one.
+     * Returns the position of the k-th occurrence of the pattern in the text, if there is one.
      * Complexity: O(|G|)
      *
      * @param k         number of occurrence
      * @return k-th occurrence of the terminal in the text, if there is one
      */
     public Optional<Long> getPatternOccurrencePosition(final long k) {
-        if(!hasFinished()) {
-            throw new IllegalArgumentException("the recompression is not jet ready.");
-        }
-        S terminal = slp.get(getPattern().getLeft(), 1);
-
-        if(matchingBlocks) {
-            return getBlockOccurrencePosition(terminal, k);
-        }
-        else {
-            return getNonBlockOccurrencePosition(terminal, k);
-        }
+        GenPatternOccurrences<N, S, W, P> occurrences = getPatternOccurrences();
+        return k >= 1 && k <= occurrences.count() ? Optional.of(occurrences.getPosition(k - 1)) : Optional.empty();
     }
 
     /**
@@ -549,123 +660,270 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
      * Complexity: O(|G|)
      */
     private void firstRenameTerminals() {
-        renameTerminals(node -> true);
+        renameTerminals(letter -> true);
     }
 
     /**
      * Renames all uncomressed terminals such that all terminals define a closed interval of integer numbers starting from 0.
      */
     private void renameTerminalsFromLastPhase() {
-        renameTerminals(node -> node.getElement().getPhaseId() < phase);
+        renameTerminals(letter -> letter.getPhaseId() < phase);
     }
 
     /**
      * Renames all uncompressed letters of this phase.
      * Complexity: O(|G|)
      */
-    private void renameTerminals(final Predicate<Node<S>> pred) {
-        // gather letters
-        List<Node<S>> terminals = slp.getSLPProductions().values().stream().flatMap(p -> p.getRight().nodeStream())
-                .filter(pred)
-                .filter(node -> node.getElement().isTerminal()).collect(Collectors.toList());
+    private void renameTerminals(final Predicate<S> pred) {
+        // gather the distinct letters and the productions containing them without creating pointers
+        Map<S, S> replacement = new HashMap<>();
+        List<P> renamedProductions = new ArrayList<>();
+        for(P production : slp.getSLPProductions().values()) {
+            boolean renamed = false;
+            for(S symbol : production.getRight()) {
+                if(symbol.isTerminal() && pred.test(symbol)) {
+                    replacement.putIfAbsent(symbol, symbol);
+                    renamed = true;
+                }
+            }
+            if(renamed) {
+                renamedProductions.add(production);
+            }
+        }
 
         // sort letters
-        RadixSort.radixSort(terminals, node -> node.getElement().getId());
+        List<S> terminals = new ArrayList<>(replacement.keySet());
+        sorter.sort(terminals, terminal -> terminal.getId());
+        for(S terminal : terminals) {
+            replacement.put(terminal, terminalAlphabet.createTerminal(phase, terminal.getLength(), terminal.getWeight(), terminal));
+        }
 
         // replace letters
-        S current = null;
-        S fresh = null;
-        for (Node<S> node : terminals) {
-            if(current == null || current.getId() != node.getElement().getId()) {
-                fresh = terminalAlphabet.createTerminal(phase, node.getElement().getLength(), node.getElement().getWeight(), node.getElement());
-                current = node.getElement();
+        for(P production : renamedProductions) {
+            ElementIterator<S> iterator = production.getRight().elementIterator();
+            while (iterator.hasNext()) {
+                S symbol = iterator.next();
+                if(symbol.isTerminal() && pred.test(symbol)) {
+                    iterator.set(replacement.get(symbol));
+                }
             }
-            node.setElement(fresh);
+            slp.invalidate(production.getLeft());
         }
-
-        /*Map<S, S> replacement = new HashMap<>();
-        slp.getSLPProductions().values().stream().flatMap(p -> p.getRight().nodeStream())
-                .filter(node -> node.getElement().getPhaseId() < phase)
-                .filter(node -> node.getElement().isTerminal()).forEach(node -> {
-            if (!replacement.containsKey(node.getElement())) {
-                replacement.put(node.getElement(), terminalAlphabet.createTerminal(phase, node.getElement().getLength(), node.getElement().getWeight(), node.getElement()));
-            }
-            node.setElement(replacement.get(node.getElement()));
-        });*/
     }
 
     /**
-     * The FixEndsDifferent from Jéz-Paper
+     * The FixEnds from the Jez-Paper for the pattern a^l w b^r, where a^l is the first and b^r the last block of the pattern.
+     * After all blocks are uncrossed each block a^k with k >= l is replaced by a^(k-l) A_L and each block b^k with k >= r
+     * is prefixed by B_R, where A_L and B_R are fresh letters of weight l*|a| and 0, while the pattern becomes A_L w' B_R.
+     * Each occurrence of the pattern starts with the suffix a^l of some block and ends with the prefix b^r of some block,
+     * i.e. the occurrences of the pattern are exactly the occurrences of A_L w' B_R and they start at the same positions.
+     * If the pattern is a single block a^l, the ends are not fixed, the following block compression compresses the pattern
+     * into a single letter whose occurrences are the suffixes of all blocks a^k with k >= l (see matchingBlocks).
      *
-     * @param pairs     first and last letter of each non-terminal
-     * @param pattern   the non-terminal of the pattern
-     * @param text      the non-terminal of the text
+     * Complexity: O(|G|)
      */
-    private void fixEndsDifferent(final Map<S, Pair<S, S>> pairs, final S pattern, final S text) {
-        P production = slp.getProduction(pattern);
-        Pair<S, S> pair = pairs.get(pattern);
-        W patternRhs = production.getRight();
+    private void fixEnds() {
+        // uncross all blocks: afterwards the first and the last block of the pattern are explicit in the right-hand side of the pattern.
+        popBlocks(head -> head.isTerminal() && head.getPhaseId() < phase, tail -> tail.isTerminal() && tail.getPhaseId() < phase);
 
-        if(slp.length(pattern, true) > 1) {
-            // get b <-- p[2]
-            S b = slp.get(pattern, 2);
-            Pair<S, S> prefixAB = new Pair<>(pair.a, b);
-            fixPrefix(prefixAB, pattern, text);
+        List<BlockRecord<N, S>> patternBlocks = new ArrayList<>();
+        consumeBlocks(slp.getProduction(patter), patternBlocks::add, letter -> letter.isTerminal(), true);
+        BlockRecord<N, S> first = patternBlocks.get(0);
+        BlockRecord<N, S> last = patternBlocks.get(patternBlocks.size() - 1);
 
-            Map<S, Pair<S, S>> firstLastMap = getFirstLastMap();
+        if(patternBlocks.size() == 1) {
+            matchingBlocks = true;
+            blockLetter = first.block.getLetter();
+            fixedBegin = null;
+            fixedEnd = null;
+            return;
+        }
 
-            // get a <-- != p[m-1]
-            //if(firstLastMap.get(patter).b.equals(pair.b) && slp.length(pattern) > 1) {
-            long len = slp.length(pattern, true);
-            if(len > 1) {
-                S a = slp.get(pattern, len - 1);
-                b = firstLastMap.get(patter).b;
-                // update pairs!
+        S a = first.block.getLetter();
+        S b = last.block.getLetter();
+        long l = first.block.getLength();
+        long r = last.block.getLength();
+        matchingBlocks = false;
+        fixedBegin = terminalAlphabet.createTerminal(phase, 1L, l * a.getWeight());
+        fixedEnd = terminalAlphabet.createTerminal(phase, 1L, 0L);
 
-                Pair<S, S> suffixAB = new Pair<>(a, b);
-                fixSuffix(suffixAB, pattern, text);
+        // all blocks of a and b including blocks of length 1, the remaining blocks are unchanged: O(|G|)
+        List<BlockRecord<N, S>> blockRecords = gather(slp.getProductions(),
+                (rule, consumer) -> consumeBlocks(rule, consumer, letter -> letter.equals(a) || letter.equals(b), true));
+
+        for(BlockRecord<N, S> record : blockRecords) {
+            S letter = record.block.getLetter();
+            long length = record.block.getLength();
+
+            if(record.node == first.node) {
+                replaceBlock(record, null, 0, fixedBegin);
+            }
+            else if(record.node == last.node) {
+                replaceBlock(record, fixedEnd, 0, null);
+            }
+            else {
+                S prefix = letter.equals(b) && length >= r ? fixedEnd : null;
+                S suffix = letter.equals(a) && length >= l ? fixedBegin : null;
+                if(prefix != null || suffix != null) {
+                    replaceBlock(record, prefix, suffix != null ? length - l : length, suffix);
+                }
             }
         }
     }
 
-    private void fixSuffix(final Pair<S, S> pair, final S pattern, final S text) {
+    /**
+     * Replaces the uncrossed block of the record by prefix letter^length suffix, where prefix and suffix
+     * might be null and length might be zero.
+     * Complexity: O(length of the block)
+     *
+     * @param record    the record of the block
+     * @param prefix    the letter in front of the block or null
+     * @param length    the new length of the block
+     * @param suffix    the letter behind the block or null
+     */
+    private void replaceBlock(final BlockRecord<N, S> record, final S prefix, final long length, final S suffix) {
+        Node<S> node = record.node;
+        while (wordProperties.isNonCompressedBlockAt(node)) {
+            node.removeNext();
+        }
 
-        if(pair.a != pair.b) {
-            // compress the single pair (p[1],p[2])
-            compressPairAll(pair);
+        if(prefix != null) {
+            node.insertPrevious(prefix);
+        }
 
+        if(suffix != null) {
+            node.insertNext(suffix);
+        }
+
+        if(length > 0) {
+            node.setElement(terminalAlphabet.createTerminal(record.block.getLetter(), length));
         }
         else {
-            popBlocks(prefix -> prefix.equals(pair.a), suffix -> suffix.equals(pair.a));
-            W patternRhs = slp.getProduction(pattern).getRight();
-            W wordRhs = slp.getProduction(text).getRight();
-
-            long len = patternRhs.getSuffixLenPrefix(pair.b);
-            S a_l = fixBlock(pair, len, pattern);
-            // if t ends with a_l then remove this a_l
-            if(wordRhs.getFirst().equals(a_l)) {
-                wordRhs.deleteFirst();
-            }
+            node.remove();
         }
+        slp.invalidate(record.left);
     }
 
-    private void fixPrefix(final Pair<S, S> pair, final S pattern, final S text) {
+    /**
+     * Compresses the pairs of a partition of the alphabet for the pattern matching, i.e. all pairs ab with a in the left and
+     * b in the right set are compressed. The fixed begin A_L of the pattern is in the left set, its fixed end B_R in the right set
+     * and the remaining letters are partitioned greedily such that many pair appearances of the pattern are covered. Two such pairs never overlap, therefore each occurrence A_L w' B_R of the pattern in the
+     * text is compressed exactly like the pattern and the pattern shrinks in each phase.
+     *
+     * Complexity: O(|G| + (n+m)log(n+m))
+     *
+     * @return the number of compressed pair occurrences in the right-hand sides
+     */
+    private long compressPartitionPairs() {
+        // 1. the number of appearances of each pair of terminals in the pattern: O(|G|)
+        Map<S, Long> patternAppearances = getPatternAppearances();
+        Pair<S, S>[] firstLastMap = getFirstLastMappingArray();
+        Map<Pair<S, S>, Long> pairAppearances = new HashMap<>();
+        for(P production : slp.getProductions()) {
+            Long appearance = patternAppearances.get(production.getLeft());
+            if(appearance != null) {
+                Iterator<S> iterator = production.getRight().iterator();
+                S a = iterator.hasNext() ? iterator.next() : null;
+                while (iterator.hasNext()) {
+                    S b = iterator.next();
+                    Optional<Pair<S, S>> optPair = wordProperties.isPair(a, b) ? Optional.of(new Pair<>(a, b)) : getCrossingPair(a, b, firstLastMap);
+                    optPair.filter(pair -> pair.a.isTerminal() && pair.b.isTerminal())
+                            .ifPresent(pair -> pairAppearances.merge(pair, appearance, Long::sum));
+                    a = b;
+                }
+            }
+        }
+
+        // 2. greedy partition: each letter joins the set opposite to the one containing more of its appearances: O(n+m)
+        Map<S, List<Pair<S, Long>>> neighbours = new HashMap<>();
+        pairAppearances.forEach((pair, appearance) -> {
+            neighbours.computeIfAbsent(pair.a, letter -> new ArrayList<>()).add(new Pair<>(pair.b, appearance));
+            neighbours.computeIfAbsent(pair.b, letter -> new ArrayList<>()).add(new Pair<>(pair.a, appearance));
+        });
+        List<S> letters = new ArrayList<>(neighbours.keySet());
+        letters.sort(Comparator.comparingInt(letter -> letter.getId()));
 
-        if(pair.a != pair.b) {
-            // compress the single pair (p[1],p[2])
-            compressPairAll(pair);
+        Set<S> left = new HashSet<>();
+        Set<S> right = new HashSet<>();
+        left.add(fixedBegin);
+        right.add(fixedEnd);
+        for(S letter : letters) {
+            if(left.contains(letter) || right.contains(letter)) {
+                continue;
+            }
+
+            long countLeft = 0;
+            long countRight = 0;
+            for(Pair<S, Long> neighbour : neighbours.get(letter)) {
+                if(left.contains(neighbour.a)) {
+                    countLeft += neighbour.b;
+                }
+                else if(right.contains(neighbour.a)) {
+                    countRight += neighbour.b;
+                }
+            }
+            (countRight >= countLeft ? left : right).add(letter);
         }
-        else {
-            popBlocks(prefix -> prefix.equals(pair.a), suffix -> suffix.equals(pair.a));
-            W patternRhs = slp.getProduction(pattern).getRight();
-            W wordRhs = slp.getProduction(text).getRight();
-            long len = patternRhs.getPrefixLenPrefix(pair.a);
-            S a_l = fixBlock(pair, len, pattern);
-            // if t ends with a_l then remove this a_l
-            if(wordRhs.getLast().equals(a_l)) {
-                wordRhs.deleteLast();
+
+        long sumLeftRight = 0;
+        long sumRightLeft = 0;
+        for(Map.Entry<Pair<S, S>, Long> entry : pairAppearances.entrySet()) {
+            if(left.contains(entry.getKey().a) && right.contains(entry.getKey().b)) {
+                sumLeftRight += entry.getValue();
+            }
+            else if(right.contains(entry.getKey().a) && left.contains(entry.getKey().b)) {
+                sumRightLeft += entry.getValue();
+            }
+        }
+
+        // the fixed ends stay in their sets, only the remaining letters are swapped
+        if(sumRightLeft > sumLeftRight) {
+            Set<S> swap = left;
+            left = right;
+            right = swap;
+            right.remove(fixedBegin);
+            left.remove(fixedEnd);
+            left.add(fixedBegin);
+            right.add(fixedEnd);
+        }
+        Set<S> leftSigma = left;
+        Set<S> rightSigma = right;
+
+        // 3. uncross all pairs of the partition: O(n+m)
+        pop(nonTerminal -> doLeftPop(nonTerminal, head -> head.isTerminal() && rightSigma.contains(head)),
+                nonTerminal -> doRightPop(nonTerminal, tail -> tail.isTerminal() && leftSigma.contains(tail)));
+
+        // 4. compress all pairs of the partition, they are explicit now: O(|G|)
+        List<GPairRecord<S, S>> records = gather(slp.getProductions(), (rule, consumer) -> consumePairs(rule.getRight(),
+                (a, b) -> wordProperties.isPair(a, b) && leftSigma.contains(a) && rightSigma.contains(b),
+                (pair, node) -> consumer.accept(new GPairRecord<>(pair, node, false, 0L, rule.getLeft()))));
+
+        Map<Pair<S, S>, S> pairLetters = new HashMap<>();
+        for(GPairRecord<S, S> record : records) {
+            S letter = pairLetters.computeIfAbsent(record.pair, pair -> terminalAlphabet.createTerminal(phase, 1L, pair.a.getWeight() + pair.b.getWeight(), pair));
+            compressNonCrossingPair(record, letter);
+        }
+        return records.size();
+    }
+
+    /**
+     * Computes the number of appearances of non-terminals in the pattern.
+     * Complexity: O(|G|)
+     *
+     * @return a mapping X -> appearances of X in val(pattern), non-terminals which do not appear are not contained
+     */
+    private Map<S, Long> getPatternAppearances() {
+        Map<S, Long> patternAppearances = new HashMap<>();
+        patternAppearances.put(patter, 1L);
+        for(P production : slp.getOrderedProductions()) {
+            Long appearance = patternAppearances.get(production.getLeft());
+            if(appearance != null) {
+                for(S nonTerminal : production.getRight().findAll(s -> !s.isTerminal())) {
+                    patternAppearances.merge(nonTerminal, appearance, Long::sum);
+                }
             }
         }
+        return patternAppearances;
     }
 
     /**
@@ -676,17 +934,15 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
     public boolean hasFinished() {
 
         if(!matching) {
-            boolean first = true;
             for(S left : slp.getAxioms()) {
-                if(slp.length(left, first) == 1) {
+                if(slp.length(left) == 1) {
                     return true;
                 }
-                first = false;
             }
         }
 
         if(matching) {
-            long patternLen = slp.length(patter, true);
+            long patternLen = slp.length(patter);
             if(patternLen == 1) {
                 return true;
             }
@@ -788,101 +1044,26 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         return appearences;
     }
 
-    /**
-     * Computes a mapping X -> list of pointers to X.
-     * Complexity: O(|G|)
-     *
-     * @return a mapping X -> list of pointers to X
-     */
-    private Map<S, List<Node<S>>> getAllOccurrences() {
-        List<P> productions = slp.getOrderedProductions();
-        Map<S, List<Node<S>>> predecessorMap = new HashMap<>();
-        slp.getProductions().stream().map(p -> p.getLeft()).forEach(symbol -> predecessorMap.put(symbol, new ArrayList<>()));
-
-        // gather all occurrence
-        productions.stream()
-                .map(rule -> rule.getRight())
-                .flatMap(word -> word.nodeStream())
-                .filter(node -> !node.getElement().isTerminal())
-                .forEach(node -> predecessorMap.get(node.getElement()).add(node));
-
-        return predecessorMap;
-    }
-
-    /**
-     * Compress all pairs of the form (a,x) where x is in the current alphabet without a.
-     * Complexity: O(|G| + n + m)
-     *
-     * @param a the letter that specifies the singleton.
-     */
-    private void compressLeftSingleTonPairs(final S a) {
-        Function<Pair<S, S>, Consumer<GPairRecord<S, S>>> consumerFunction = p -> new ArrayList<>()::add;
-        Predicate<S> leftPredicate = nonTerminal -> doLeftPop(nonTerminal, head -> head.isTerminal() && !head.equals(a));
-        Predicate<S> rightPredicate = nonTerminal -> doRightPop(nonTerminal, tail -> tail.isTerminal() && tail.equals(a));
-        pop(phase + 1, leftPredicate, rightPredicate, consumerFunction);
-        List<GPairRecord<S, S>> records = getPairs(p -> p.a.equals(a) && !p.b.equals(a));
-        sortPairs(records);
-        compressNonCrossingPairs(records);
-    }
-
-    /**
-     * Compress all pairs of the form (x,a) where x is in the current alphabet without a.
-     * Complexity: O(|G| + n + m)
-     *
-     * @param a the letter that specifies the singleton.
-     */
-    private void compressRightSingleTonPairs(final S a) {
-        Function<Pair<S, S>, Consumer<GPairRecord<S, S>>> consumerFunction = p -> new ArrayList<>()::add;
-        Predicate<S> leftPredicate = nonTerminal -> doLeftPop(nonTerminal, head -> head.isTerminal() && head.equals(a));
-        Predicate<S> rightPredicate = nonTerminal -> doRightPop(nonTerminal, tail -> tail.isTerminal() && !tail.equals(a));
-        pop(phase + 1, leftPredicate, rightPredicate, consumerFunction);
-        List<GPairRecord<S, S>> records = getPairs(p -> !p.a.equals(a) && p.b.equals(a));
-        sortPairs(records);
-        compressNonCrossingPairs(records);
-    }
-
-    /**
-     * Compresses a single pair (all crossing and non-crossing pairs).
-     * Complexity: O(|G| + n)
-     *
-     * @param pair the pair that should be compressed
-     */
-    private void compressPairAll(final Pair<S, S> pair) {
-        Function<Pair<S, S>, Consumer<GPairRecord<S, S>>> consumerFunction = p -> new ArrayList<>()::add;
-        Predicate<S> leftPredicate = nonTerminal -> doLeftPop(nonTerminal, head -> head.isTerminal() && head.equals(pair.b));
-        Predicate<S> rightPredicate = nonTerminal -> doRightPop(nonTerminal, tail -> tail.isTerminal() && tail.equals(pair.a));
-        pop(phase + 1, leftPredicate, rightPredicate, consumerFunction);
-        List<GPairRecord<S, S>> records = getPairs(p -> p.equals(pair));
-        sortPairs(records);
-        compressNonCrossingPairs(records);
-    }
-
     /**
      * Compresses all blocks of letters of not new introduced letters by popping the
      * prefix and the suffix of each rule X_i.
-     * Complexity: O(|G| + (n+m)log(n+m))
+     * Complexity: O(|G|)
      *
      * NOTE: This may destroy pointers to uncrossed pairs, so you have to gather pairs after this operation!
      *
      * @param phaseId the largest letter of the not new introduced letters.
+     * @return the number of compressed block occurrences
      */
-    private void compressBlocks(final int phaseId) {
+    private long compressBlocks(final int phaseId) {
         // 1. uncross all crossing blocks: O(|G|)
         popBlocks(head -> head.isTerminal() && head.getPhaseId() < phaseId,
                 tail -> tail.isTerminal() && tail.getPhaseId() < phaseId);
 
-        List<BlockRecord<N, S>> shortBlockRecords = new ArrayList<>();
-        List<BlockRecord<N, S>> longBlockRecords = new ArrayList<>();
-
         // 2. get all blocks: O(|G|)
-        slp.getProductions().stream().forEach(rule -> consumeBlocks(rule.getRight(), shortBlockRecords::add, longBlockRecords::add, letter -> true));
-
-        // 3.1 sort short blocks using RadixSort: O(|G|)
-        sortBlocks(shortBlockRecords);
+        List<BlockRecord<N, S>> blockRecords = gather(slp.getProductions(), (rule, consumer) -> consumeBlocks(rule, consumer, letter -> true));
 
-        // 3.2 sort long blocks O((n+m) log(n+m))
-        Collections.sort(longBlockRecords, blockComparator);
-        List<BlockRecord<N, S>> blockRecords = mergeBlocks(shortBlockRecords, longBlockRecords);
+        // 3. sort all blocks (short and long) using RadixSort over the long block lengths: O(|G|)
+        sortBlocks(blockRecords);
 
         // compress blocks
         BlockRecord<N, S> lastRecord = null;
@@ -893,11 +1074,12 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
 
             // check when it is the correct time to introduce a fresh letter
             if(lastRecord == null || !lastRecord.equals(record)) {
-                letter = terminalAlphabet.createTerminal(phase, 1L, record.node.getElement().getLength() * record.block.getLength(), record.block);
+                letter = terminalAlphabet.createTerminal(phase, 1L, record.block.getLetter().getWeight() * record.block.getLength(), record.block);
                 lastRecord = record;
             }
             replaceBlock(record, letter);
         }
+        return blockRecords.size();
     }
 
     /**
@@ -916,9 +1098,7 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         // case : [c b^l b^t d] or [c bbb...bbb d]
         if(wordProperties.isNonCompressedBlockAt(node)) {
             while(wordProperties.isNonCompressedBlockAt(node)) {
-                Node<S> removal = node;
-                node = node.getNext();
-                removal.remove();
+                node.removeNext();
             }
             node.setElement(letter);
         } // case : [c b^l d]
@@ -928,6 +1108,7 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         else if(record.block.getLength() == 1 && node.getElement().equals(record.block.getLetter())) {
             node.setElement(letter);
         }
+        slp.invalidate(record.left);
 
         return node;
     }
@@ -963,12 +1144,13 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
 
                         final S blockLetter = blockLength > 1 ? terminalAlphabet.createTerminal(head, blockLength) : head;
 
-                        List<Node<S>> pointers = occurrences.get(production.getLeft());
+                        List<Node<S>> pointers = slp.getOccurrences(production.getLeft());
                         // O(number of non-terminals)
                         for(Node<S> pointer : pointers) {
                             pointer.insertPrevious(blockLetter);
                             if (right.isEmpty()) pointer.remove();
                         }
+                        slp.invalidate(left);
                     }
 
                     S tail = optTail;
@@ -979,12 +1161,13 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
 
                         final S blockLetter = blockLength > 1 ? terminalAlphabet.createTerminal(tail, blockLength) : tail;
 
-                        List<Node<S>> pointers = occurrences.get(production.getLeft());
+                        List<Node<S>> pointers = slp.getOccurrences(production.getLeft());
                         // O(number of non-terminals)
                         for(Node<S> pointer : pointers) {
                             pointer.insertNext(blockLetter);
                             if (right.isEmpty()) pointer.remove();
                         }
+                        slp.invalidate(left);
                     }
                 }
             }
@@ -1004,9 +1187,7 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
      * @return all non-crossing pairs of the grammar.
      */
     private List<GPairRecord<S, S>> getNonCrossingPairs(final Predicate<Pair<S, S>> predicate) {
-        List<GPairRecord<S, S>> recordList = new ArrayList<>();
-        slp.getOrderedProductions().stream().map(p -> p.getLeft()).forEach(nonTerminal -> consumeNonCrossingPairs(nonTerminal, recordList::add, predicate));
-        return recordList;
+        return gather(slp.getOrderedProductions(), (production, consumer) -> consumeNonCrossingPairs(production.getLeft(), consumer, predicate));
     }
 
     /**
@@ -1021,11 +1202,58 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         P production = slp.getProduction(nonTerminal);
         W right = production.getRight();
 
-        right.nodeStream()
-                .filter(node -> wordProperties.isNonCrossingPair(node))
-                .map(node -> new GPairRecord<>(new Pair<>(node.getElement(), node.getNext().getElement()), node, false, appearances.get(nonTerminal)))
-                .filter(record -> predicate.test(record.pair))
-                .forEach(record -> consumer.accept(record));
+        consumePairs(right,
+                (a, b) -> wordProperties.isPair(a, b) && predicate.test(new Pair<>(a, b)),
+                (pair, node) -> consumer.accept(new GPairRecord<>(pair, node, false, appearances.get(nonTerminal), nonTerminal)));
+    }
+
+    /**
+     * Consumes each pair ab of neighbouring symbols of the word satisfying the predicate together with the pointer to a.
+     * Only the pointers of the consumed pairs are created.
+     * Complexity: O(|word|)
+     *
+     * @param word      the word
+     * @param predicate the predicate that a consumed pair has to be satisfied
+     * @param consumer  the consumer that consumes the pairs and their pointers
+     */
+    private void consumePairs(final W word, final BiPredicate<S, S> predicate, final BiConsumer<Pair<S, S>, Node<S>> consumer) {
+        ElementIterator<S> iterator = word.elementIterator();
+        while (iterator.hasNext()) {
+            S a = iterator.next();
+            if(iterator.hasNext()) {
+                S b = iterator.peek();
+                if(predicate.test(a, b)) {
+                    consumer.accept(new Pair<>(a, b), iterator.pointer());
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the occurrences of non-crossing and crossing pairs in the right-hand sides without creating any pointer.
+     * Complexity: O(|G|)
+     *
+     * @return the number of occurrences of non-crossing pairs and of crossing pairs in the right-hand sides
+     */
+    private Pair<Long, Long> countPairOccurrences() {
+        Pair<S, S>[] firstLastMap = getFirstLastMappingArray();
+        long nonCrossingPairs = 0;
+        long crossingPairs = 0;
+        for(P production : slp.getProductions()) {
+            Iterator<S> iterator = production.getRight().iterator();
+            S a = iterator.hasNext() ? iterator.next() : null;
+            while (iterator.hasNext()) {
+                S b = iterator.next();
+                if(wordProperties.isPair(a, b)) {
+                    nonCrossingPairs++;
+                }
+                else if((!a.isTerminal() || !b.isTerminal()) && getCrossingPair(a, b, firstLastMap).isPresent()) {
+                    crossingPairs++;
+                }
+                a = b;
+            }
+        }
+        return new Pair<>(nonCrossingPairs, crossingPairs);
     }
 
     /**
@@ -1041,46 +1269,48 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         P production = slp.getProduction(nonTerminal);
         W right = production.getRight();
 
-        right.nodeStream()
-                .map(node -> getCrossingPair(node, pairs))
-                .filter(optPair -> optPair.isPresent())
-                .map(optPair -> optPair.get())
-                .filter(pair -> predicate.test(pair))
-                .map(pair -> new GPairRecord<>(pair, null, true, appearances.get(nonTerminal)))
-                .forEach(record -> consumer.accept(record));
+        // crossing pairs are not bound to a position, i.e. no pointer is required
+        Iterator<S> iterator = right.iterator();
+        S a = iterator.hasNext() ? iterator.next() : null;
+        while (iterator.hasNext()) {
+            S b = iterator.next();
+            getCrossingPair(a, b, pairs)
+                    .filter(pair -> predicate.test(pair))
+                    .ifPresent(pair -> consumer.accept(new GPairRecord<>(pair, null, true, appearances.get(nonTerminal))));
+            a = b;
+        }
     }
 
     /**
      * Returns the crossing pair if it is still present, otherwise the optional is not present.
      * Complexity: O(1)
      *
-     * @param node the pointer starting at the left of the pair
-     * @param map  the a mapping X -> (first(X), last(X))
+     * @param left    the left symbol of the neighbouring symbols
+     * @param right   the right symbol of the neighbouring symbols
+     * @param map     the a mapping X -> (first(X), last(X))
      *
      * @return the the crossing pair if it is still present, otherwise the optional is not present
      */
-    private Optional<Pair<S, S>> getCrossingPair(final Node<S> node, final Pair<S, S>[] map) {
+    private Optional<Pair<S, S>> getCrossingPair(final S left, final S right, final Pair<S, S>[] map) {
         Pair<S, S> result = null;
-        if(node.hasNext()) {
-            //aX ?
-            if(node.getElement().isTerminal()) {
-                // ab
-                if(!node.getNext().getElement().isTerminal()) {
-                    S a = node.getElement();
-                    S b = map[node.getNext().getElement().getId()].a;
-                    result = !a.equals(b) ? new Pair<S, S>(a,b) : null;
-                }
-            } // Ax or AX
+        //aX ?
+        if(left.isTerminal()) {
+            // ab
+            if(!right.isTerminal()) {
+                S a = left;
+                S b = map[right.getId()].a;
+                result = !a.equals(b) ? new Pair<S, S>(a,b) : null;
+            }
+        } // Ax or AX
+        else {
+            S a = map[left.getId()].b;
+            S b = right;
+            // Ab?
+            if(b.isTerminal()) {
+                result = !a.equals(b) ? new Pair<S, S>(a, b) : null;
+            } //AB
             else {
-                S a = map[node.getElement().getId()].b;
-                S b = node.getNext().getElement();
-                // Ab?
-                if(b.isTerminal()) {
-                    result = !a.equals(b) ? new Pair<S, S>(a, b) : null;
-                } //AB
-                else {
-                    result = !a.equals(map[b.getId()].a) ? new Pair<S, S>(a, map[b.getId()].a) : null;
-                }
+                result = !a.equals(map[b.getId()].a) ? new Pair<S, S>(a, map[b.getId()].a) : null;
             }
         }
         return Optional.ofNullable(result);
@@ -1097,35 +1327,80 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         // get first and last terminal for each non-terminal
         Pair<S, S>[] pairs = getFirstLastMappingArray();
 
-        // list of records of crossing pairs
-        List<GPairRecord<S,S>> recordList = new ArrayList<>();
-
         // scan for crossing pairs in the right order
-        slp.getOrderedProductions().stream().map(p -> p.getLeft()).forEach(nonTerminal -> consumeCrossingPairs(nonTerminal, recordList::add, pairs, predicate));
-        return recordList;
+        return gather(slp.getOrderedProductions(), (production, consumer) -> consumeCrossingPairs(production.getLeft(), consumer, pairs, predicate));
     }
 
     /**
-     * Returns a mapping Map : X -> (first(X), last(X)). It may happen that first(X) = last(X).
-     * Complexity: O(n + m)
+     * Gathers the records (pairs or blocks) of all productions in the order of the productions. In the parallel mode the productions
+     * are split into chunks, each chunk is gathered into its own buffer by a fork/join task and the buffers are concatenated
+     * in the order of the chunks, i.e. the result is equal to the result of the sequential gathering.
+     * Requirement: the gatherer does not change the grammar.
+     * Complexity: O(|G|)
      *
-     * @return a mapping Map : X -> (first(X), last(X))
+     * @param productions   the productions
+     * @param gatherer      the function that passes all records of a production to the consumer
+     * @param <T>           the type of the records
+     * @return all records of all productions
      */
-    private Pair<S, S>[] getFirstLastMappingArray() {
-        Pair<S, S>[] pairs = new Pair[maxNonTerminal+1];
-        Iterator<P> productions = slp.getOrderedProductions().descendingIterator();
-        while(productions.hasNext()) {
-            P production = productions.next();
-            S left = production.getLeft();
-            W right = production.getRight();
+    private <T> List<T> gather(final Collection<P> productions, final BiConsumer<P, Consumer<T>> gatherer) {
+        if(!parallelGathering || productions.size() <= GATHERING_CHUNK_SIZE) {
+            List<T> records = new ArrayList<>();
+            productions.forEach(production -> gatherer.accept(production, records::add));
+            return records;
+        }
 
-            Pair<S, S> pair = new Pair<>(right.findFirst(s -> true).get(), right.findLast(s -> true).get());
-            S a = pair.a.isTerminal() ? pair.a : pairs[pair.a.getId()].a;
-            S b = pair.b.isTerminal() ? pair.b : pairs[pair.b.getId()].b;
+        List<P> productionList = new ArrayList<>(productions);
+        List<List<T>> buffers = new ArrayList<>((productionList.size() + GATHERING_CHUNK_SIZE - 1) / GATHERING_CHUNK_SIZE);
+        for(int start = 0; start < productionList.size(); start += GATHERING_CHUNK_SIZE) {
+            buffers.add(new ArrayList<>());
+        }
 
-            pairs[left.getId()] = new Pair<>(a, b);
+        ForkJoinPool.commonPool().invoke(new GatheringTask<>(productionList, buffers, gatherer, 0, buffers.size()));
+
+        List<T> records = new ArrayList<>(buffers.stream().mapToInt(buffer -> buffer.size()).sum());
+        buffers.forEach(records::addAll);
+        return records;
+    }
+
+    /**
+     * The fork/join task gathering the records of the chunks [from;to) of productions, the records of chunk i are written
+     * into buffers.get(i) which is only accessed by the task of chunk i.
+     *
+     * @param <P> the type of the grammar production
+     * @param <T> the type of the records
+     */
+    private static class GatheringTask<P, T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<P> productions;
+        private final List<List<T>> buffers;
+        private final BiConsumer<P, Consumer<T>> gatherer;
+        private final int from;
+        private final int to;
+
+        private GatheringTask(final List<P> productions, final List<List<T>> buffers, final BiConsumer<P, Consumer<T>> gatherer, final int from, final int to) {
+            this.productions = productions;
+            this.buffers = buffers;
+            this.gatherer = gatherer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1) {
+                List<T> buffer = buffers.get(from);
+                int end = Math.min(productions.size(), (from + 1) * GATHERING_CHUNK_SIZE);
+                for(int i = from * GATHERING_CHUNK_SIZE; i < end; i++) {
+                    gatherer.accept(productions.get(i), buffer::add);
+                }
+            }
+            else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new GatheringTask<>(productions, buffers, gatherer, from, middle), new GatheringTask<>(productions, buffers, gatherer, middle, to));
+            }
         }
-        return pairs;
     }
 
     /**
@@ -1134,8 +1409,8 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
      *
      * @return a mapping Map : X -> (first(X), last(X))
      */
-    private Map<S, Pair<S, S>> getFirstLastMap() {
-        Map<S, Pair<S, S>> pairs = new HashMap<>();
+    private Pair<S, S>[] getFirstLastMappingArray() {
+        Pair<S, S>[] pairs = new Pair[maxNonTerminal+1];
         Iterator<P> productions = slp.getOrderedProductions().descendingIterator();
         while(productions.hasNext()) {
             P production = productions.next();
@@ -1143,10 +1418,10 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
             W right = production.getRight();
 
             Pair<S, S> pair = new Pair<>(right.findFirst(s -> true).get(), right.findLast(s -> true).get());
-            S a = pair.a.isTerminal() ? pair.a : pairs.get(pair.a).a;
-            S b = pair.b.isTerminal() ? pair.b : pairs.get(pair.b).b;
+            S a = pair.a.isTerminal() ? pair.a : pairs[pair.a.getId()].a;
+            S b = pair.b.isTerminal() ? pair.b : pairs[pair.b.getId()].b;
 
-            pairs.put(left, new Pair<>(a, b));
+            pairs[left.getId()] = new Pair<>(a, b);
         }
         return pairs;
     }
@@ -1210,6 +1485,17 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         }
     }
 
+    /**
+     * Pops all letter left that satisfy the first predicate and pops all letter right that satisfy the second predicate.
+     * In contrast to the other pop the created uncrossed pairs are not consumed, i.e. no records and no pointers are created for them.
+     *
+     * @param doPopLeft         the predicate that has to be satisfied to pop a letter left
+     * @param doPopRight        the predicate that has to be satisfied to pop a letter right
+     */
+    public void pop(final Predicate<S> doPopLeft, final Predicate<S> doPopRight) {
+        pop(phase, doPopLeft, doPopRight, null);
+    }
+
     /**
      * Pops all letter left that satisfy the first predicate and pops all letter right that satisfy the second predicate.
      * Furthermore all uncrossed pairs that contain only letters that are in the alphabet defined by alphabetSize
@@ -1218,7 +1504,7 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
      * @param phase      the size of the alphabet of the pairs that will be consumed
      * @param doPopLeft         the predicate that has to be satisfied to pop a letter left
      * @param doPopRight        the predicate that has to be satisfied to pop a letter right
-     * @param consumerFunction  the consumer function that specifies the consuming consumer by the pair
+     * @param consumerFunction  the consumer function that specifies the consuming consumer by the pair or null if the pairs are not consumed
      */
     public void pop(final int phase, final Predicate<S> doPopLeft, final Predicate<S> doPopRight,
                     final Function<Pair<S, S>, Consumer<GPairRecord<S, S>>> consumerFunction) {
@@ -1254,7 +1540,8 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         S head = production.getRight().findFirst(s -> !s.isEmpty()).get();
 
         production.getRight().deleteFirst();
-        occurrences.get(production.getLeft()).forEach(pointer -> leftReplace(head, pointer, phase, production, consumerFunction));
+        slp.getOccurrences(production.getLeft()).forEach(pointer -> leftReplace(head, pointer, phase, production, consumerFunction));
+        slp.invalidate(nonTerminal);
         if(production.getRight().isEmpty() && !slp.getAxioms().contains(production.getLeft())) {
             deleteProduction(production);
         }
@@ -1272,7 +1559,8 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         S tail = production.getRight().findLast(s -> !s.isEmpty()).get();
 
         production.getRight().deleteLast();
-        occurrences.get(production.getLeft()).forEach(pointer -> rightReplace(tail, pointer, phase, production, consumerFunction));
+        slp.getOccurrences(production.getLeft()).forEach(pointer -> rightReplace(tail, pointer, phase, production, consumerFunction));
+        slp.invalidate(nonTerminal);
         if(production.getRight().isEmpty() && !slp.getAxioms().contains(production.getLeft())) {
             deleteProduction(production);
         }
@@ -1316,7 +1604,6 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
 
     private void deleteProduction(final S left) {
         slp.deleteProduction(left);
-        occurrences.put(left, new ArrayList());
     }
 
     private void deleteProduction(final P production) {
@@ -1337,22 +1624,14 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
      * @param consumerFunction  the function that returns the consumer specfied by the pair that will be consumed
      */
     private void leftReplace(final S head, final Node<S> pointer, final int phase, final P production, final Function<Pair<S, S>, Consumer<GPairRecord<S, S>>> consumerFunction) {
-        Node<S> p = pointer;
-        p.insertPrevious(head);
-        if(p.getPrev().hasPrev()) {
-            p = p.getPrev().getPrev();
-            gatherPair(p, phase, consumerFunction, pointer.getElement());
+        // the pointer left to X stays valid if b is inserted, it is only created if a pair is consumed
+        S prev = pointer.getPrevElement();
+        if(prev != null) {
+            gatherPair(prev, head, pointer::getPrev, phase, consumerFunction, pointer.getElement());
         }
+        pointer.insertPrevious(head);
         if(production.getRight().isEmpty()) {
-            Node<S> prev = null;
-            if(pointer.hasPrev()) {
-                prev = pointer.getPrev();
-            }
-            pointer.remove();
-            // maybe we are in the situation aBb and B-> "" than we have to add the pair ab!
-            if(prev != null && prev.hasNext()) {
-                gatherPair(prev, phase, consumerFunction, pointer.getElement());
-            }
+            removeEmpty(pointer, phase, consumerFunction);
         }
     }
 
@@ -1370,41 +1649,59 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
      * @param consumerFunction  the function that returns the consumer specfied by the pair that will be consumed
      */
     private void rightReplace(final S tail, final Node<S> pointer, final int phase, final P production, final Function<Pair<S,S>, Consumer<GPairRecord<S, S>>> consumerFunction) {
-        Node<S> p = pointer;
-        p.insertNext(tail);
-        if(p.getNext().hasNext()) {
-            p = p.getNext();
-            gatherPair(p, phase, consumerFunction, pointer.getElement());
+        // the pointer to the inserted b is only created if a pair is consumed
+        S next = pointer.getNextElement();
+        pointer.insertNext(tail);
+        if(next != null) {
+            gatherPair(tail, next, pointer::getNext, phase, consumerFunction, pointer.getElement());
         }
         if(production.getRight().isEmpty()) {
-            Node<S> prev = null;
-            if(pointer.hasPrev()) {
-                prev = pointer.getPrev();
-            }
-            pointer.remove();
-            // maybe we are in the situation aBb and B-> "" than we have to add the pair ab!
-            if(prev != null && prev.hasNext()) {
-                gatherPair(prev, phase, consumerFunction, pointer.getElement());
-            }
+            removeEmpty(pointer, phase, consumerFunction);
         }
     }
 
     /**
-     * Consumes a pair if at the node there is a non-crossing pair consist of no fresh letters.
+     * Removes the occurrence of the non-terminal X -> epsilon and consumes the pair of the symbols surrounding X.
      * Complexity: O(1)
      *
-     * @param node           the node to the possible pair
-     * @param phase      the alphabet size of the old alphabet containing no fresh letters of the phase
+     * @param pointer           the pointer to X
+     * @param phase             the alphabet size of the old alphabet containing no fresh letters of the phase
      * @param consumerFunction  the function that returns the consumer specfied by the pair that will be consumed
      */
-    private void gatherPair(final Node<S> node, final int phase, final Function<Pair<S,S>, Consumer<GPairRecord<S, S>>> consumerFunction, final S targetNonTerminal) {
-        Pair<S, S> pair = new Pair<S, S>(node.getElement(), node.getNext().getElement());
-        if(wordProperties.isPair(node) && pair.a.getPhaseId() < phase && pair.b.getPhaseId() < phase) {
-            GPairRecord record = new GPairRecord(pair, node, false, appearances.get(targetNonTerminal));
+    private void removeEmpty(final Node<S> pointer, final int phase, final Function<Pair<S,S>, Consumer<GPairRecord<S, S>>> consumerFunction) {
+        S prev = pointer.getPrevElement();
+        S next = pointer.getNextElement();
+        Node<S> prevPointer = prev != null && next != null && isGatheredPair(prev, next, phase) ? pointer.getPrev() : null;
+        pointer.remove();
+        // maybe we are in the situation aBb and B-> "" than we have to add the pair ab!
+        if(prevPointer != null) {
+            gatherPair(prev, next, () -> prevPointer, phase, consumerFunction, pointer.getElement());
+        }
+    }
+
+    /**
+     * Consumes the pair ab if it is a non-crossing pair consist of no fresh letters, the pointer to a is only created
+     * if the pair is consumed.
+     * Complexity: O(1)
+     *
+     * @param a                 the left symbol of the possible pair
+     * @param b                 the right symbol of the possible pair
+     * @param node              the supplier of the pointer to a
+     * @param phase             the alphabet size of the old alphabet containing no fresh letters of the phase
+     * @param consumerFunction  the function that returns the consumer specfied by the pair that will be consumed or null
+     */
+    private void gatherPair(final S a, final S b, final Supplier<Node<S>> node, final int phase, final Function<Pair<S,S>, Consumer<GPairRecord<S, S>>> consumerFunction, final S targetNonTerminal) {
+        if(consumerFunction != null && isGatheredPair(a, b, phase)) {
+            Pair<S, S> pair = new Pair<S, S>(a, b);
+            GPairRecord<S, S> record = new GPairRecord<>(pair, node.get(), false, appearances.get(targetNonTerminal), targetNonTerminal);
             consumerFunction.apply(pair).accept(record);
         }
     }
 
+    private boolean isGatheredPair(final S a, final S b, final int phase) {
+        return wordProperties.isPair(a, b) && a.getPhaseId() < phase && b.getPhaseId() < phase;
+    }
+
     /**
      * Simple does the compressing. Here everything is already defined and we can be sure
      * that at the pointer position there is a non-crossing pair.
@@ -1416,7 +1713,8 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
     private void compressNonCrossingPair(final GPairRecord<S, S> record, final S symbol) {
         Node<S> node = record.node;
         node.setElement(symbol);
-        node.getNext().remove();
+        node.removeNext();
+        slp.invalidate(record.nonTerminal);
     }
 
     /**
@@ -1447,311 +1745,50 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
     }
 
     /**
-     * Gathers all blocks in a rhs(p) of a production. There is one consumer for short and one for long blocks, since we can not sort long blocks using RadixSort.
-     * We do not consider blocks of length = 1.
+     * Gathers all blocks in a rhs(p) of a production. We do not consider blocks of length = 1.
+     * Blocks of any length can be sorted by sortBlocks, since RadixSort works on long block lengths.
      *
      * Complexity: O(|rhs(p)|)
      * Requirement: We assume all blocks are uncrossed.
      *
-     * @param word                  rhs(p)
-     * @param shortBlockConsumer    consumer for short blocks
-     * @param longBlockConsumer    consumer for long blocks
-     * @param predicate             the predicate that has to hold to gather a certain block
+     * @param production    the production p
+     * @param blockConsumer consumer for the blocks
+     * @param predicate     the predicate that has to hold to gather a certain block
      */
-    private void consumeBlocks(final W word, final Consumer<BlockRecord<N, S>> shortBlockConsumer, final Consumer<BlockRecord<N, S>> longBlockConsumer, final Predicate<S> predicate) {
-        consumeBlocks(word, shortBlockConsumer, longBlockConsumer, predicate, false);
-    }
-
-    private List<Long> getBlockOccurrencePositions(final S terminal) {
-        Map<S, Long> weights = getNonTerminalWeights();
-        List<Long> occurrences = new ArrayList<>();
-        LinkedList<S> nonTerminals = new LinkedList<>();
-        LinkedList<Long> lweights = new LinkedList<>();
-        nonTerminals.addLast(text);
-        lweights.addLast(0l);
-
-        while(!nonTerminals.isEmpty()) {
-            S nt = nonTerminals.removeFirst();
-            long sum = lweights.removeFirst();
-
-            for (S letter : getProduction(nt).getRight()) {
-
-                if (terminal.getBlockId() == letter.getBlockId()) {
-                    if(letter.getWeight() >= terminal.getWeight()) {
-                        for(long i = 0; i < (letter.getWeight() - terminal.getWeight() + 1); i++) {
-                            occurrences.add(sum + i);
-                        }
-                    }
-                }
-
-                if (letter.isTerminal()) {
-                    sum += letter.getWeight();
-                } else if (!letter.isTerminal()) {
-                    nonTerminals.add(letter);
-                    lweights.add(sum);
-                    sum += weights.get(letter);
-                } else {
-                    throw new IllegalArgumentException("this letter is neither a terminal nor a non-terminal.");
-                }
-            }
-        }
-
-        return occurrences;
-    }
-
-    private List<Long> getNonBlockOccurrencePositions(final S terminal) {
-        Map<S, Long> weights = getNonTerminalWeights();
-        List<Long> occurrences = new ArrayList<>();
-        LinkedList<S> nonTerminals = new LinkedList<>();
-        LinkedList<Long> lweights = new LinkedList<>();
-        nonTerminals.addLast(text);
-        lweights.addLast(0l);
-
-        while(!nonTerminals.isEmpty()) {
-            S nt = nonTerminals.removeFirst();
-            long sum = lweights.removeFirst();
-
-            for (S letter : getProduction(nt).getRight()) {
-
-                if (terminal.equals(letter)) {
-                    occurrences.add(sum);
-                }
-
-                if (letter.isTerminal()) {
-                    sum += letter.getWeight();
-                } else if (!letter.isTerminal()) {
-                    nonTerminals.add(letter);
-                    lweights.add(sum);
-                    sum += weights.get(letter);
-                } else {
-                    throw new IllegalArgumentException("this letter is neither a terminal nor a non-terminal.");
-                }
-            }
-        }
-
-        return occurrences;
-    }
-
-    /**
-     * Returns a mapping : X -> occ where occ is the number of occurrences of terminal in val(X).
-     *
-     * @param terminal  the symbol which we calculate the occurrence mapping for.
-     * @return  mapping : X -> occ where occ is the number of occurrences of terminal in val(X).
-     */
-    private Map<S, Long> getPatternOccurrence(final S  terminal) {
-        Map<S, Long> occInNonTerminal = new HashMap<>();
-        if(matchingBlocks) {
-            Iterator<P> it = slp.getOrderedProductions().descendingIterator();
-            while (it.hasNext()) {
-                P production = it.next();
-                long ntOcc = production.getRight().stream().map(s -> {
-                    if(!s.isTerminal()) {
-                        return occInNonTerminal.get(s);
-                    }
-                    else if(s.getBlockId() == terminal.getBlockId() && s.getWeight() >= terminal.getWeight()) {
-                        return s.getWeight() - terminal.getWeight() + 1;
-                    }
-                    else {
-                        return 0L;
-                    }
-                }).reduce(0L, (a,b) -> a + b);
-                occInNonTerminal.put(production.getLeft(), ntOcc);
-            }
-        }
-        else {
-            Iterator<P> it = slp.getOrderedProductions().descendingIterator();
-            while (it.hasNext()) {
-                P production = it.next();
-                long ntOcc = production.getRight().stream().map(s -> !s.isTerminal() ? occInNonTerminal.get(s) : (s.equals(terminal) ? 1L : 0L)).reduce(0L, (a,b) -> a+b);
-                occInNonTerminal.put(production.getLeft(), ntOcc);
-            }
-        }
-
-
-        return occInNonTerminal;
-    }
-
-    private Optional<Long> getBlockOccurrencePosition(final S terminal, final long k) {
-        Map<S, Long> weights = getNonTerminalWeights();
-        Map<S, Long> occInNonTerminal = getPatternOccurrence(terminal);
-
-        long position = 0;
-        long occ = 0;
-        P production = slp.getProduction(text);
-        boolean goDeeper = true;
-
-        while(goDeeper && production != null) {
-            goDeeper = false;
-            for(S symbol : production.getRight()) {
-                if(symbol.getBlockId() == terminal.getBlockId()) {
-                    if(symbol.getWeight() >= terminal.getWeight()) {
-                        if(k <= occ + (symbol.getWeight() - terminal.getWeight() + 1)) {
-                            return Optional.of(position + (k - occ) - 1);
-                        }
-                    }
-                }
-
-                if(symbol.isTerminal()) {
-                    position += symbol.getWeight();
-                }
-                else {
-                    if(k - (occ + occInNonTerminal.get(symbol)) <= 0) {
-                        production = getProduction(symbol);
-                        goDeeper = true;
-                        break;
-                    }
-                    else {
-                        occ += occInNonTerminal.get(symbol);
-                        position += weights.get(symbol);
-                    }
-                }
-            }
-        }
-
-        if(occ != k) {
-            return Optional.empty();
-        }
-        else {
-            return Optional.of(position);
-        }
-    }
-
-    private Optional<Long> getNonBlockOccurrencePosition(final S terminal, final long k) {
-        Map<S, Long> weights = getNonTerminalWeights();
-        Map<S, Long> occInNonTerminal = getPatternOccurrence(terminal);
-
-        long position = 0;
-        long occ = 0;
-        P production = slp.getProduction(text);
-        boolean goDeeper = true;
-
-        while(goDeeper && production != null) {
-            goDeeper = false;
-            for(S symbol : production.getRight()) {
-                if(symbol.equals(terminal)) {
-                    occ++;
-                    if(k == occ) {
-                        return Optional.of(position);
-                    }
-                }
-
-                if(symbol.isTerminal()) {
-                    position += symbol.getWeight();
-                }
-                else {
-                    if(k - (occ + occInNonTerminal.get(symbol)) <= 0) {
-                        production = getProduction(symbol);
-                        goDeeper = true;
-                        break;
-                    }
-                    else {
-                        occ += occInNonTerminal.get(symbol);
-                        position += weights.get(symbol);
-                    }
-                }
-            }
-        }
-
-        if(occ != k) {
-            return Optional.empty();
-        }
-        else {
-            return Optional.of(position);
-        }
-    }
-
-    /**
-     * Returns the weight of all non-terminals. The weight is equals to |val(X_i)|.
-     * This could take exponential running time.
-     * Complexity: O(2^(|G|))
-     *
-     * @return the weight of all non-terminals
-     */
-    private Map<S, Long> getNonTerminalWeights() {
-
-        Map<S, Long> weights = new HashMap<>();
-        Iterator<P> productions = slp.getOrderedProductions().descendingIterator();
-
-        while(productions.hasNext()) {
-            S nonTerminal = productions.next().getLeft();
-            long sum = 0;
-            for(S letter : getProduction(nonTerminal).getRight()) {
-                if(letter.isTerminal()) {
-                    sum += letter.getWeight();
-                }
-                else if(!letter.isTerminal()) {
-                    sum += weights.get(letter);
-                }
-                else {
-                    throw new IllegalArgumentException("this letter is neither a terminal nor a non-terminal.");
-                }
-            }
-            weights.put(nonTerminal, sum);
-        }
-        return weights;
+    private void consumeBlocks(final P production, final Consumer<BlockRecord<N, S>> blockConsumer, final Predicate<S> predicate) {
+        consumeBlocks(production, blockConsumer, predicate, false);
     }
 
     /**
-     * Gathers all blocks in a rhs(p) of a production. There is one consumer for short and one for long blocks, since we can not sort long blocks using RadixSort.
+     * Gathers all blocks in a rhs(p) of a production.
      *
      * Complexity: O(|rhs(p)|)
      * Requirement: We assume all blocks are uncrossed.
      *
-     * @param word                  rhs(p)
-     * @param shortBlockConsumer    consumer for short blocks
-     * @param longBlockConsumer     consumer for long blocks
-     * @param predicate             the predicate that has to hold to gather a certain block
-     * @param singleton             true => we also consider blocks of length = 1, otherwise we do not consider them
+     * @param production    the production p
+     * @param blockConsumer consumer for the blocks
+     * @param predicate     the predicate that has to hold to gather a certain block
+     * @param singleton     true => we also consider blocks of length = 1, otherwise we do not consider them
      */
-    private void consumeBlocks(final W word, final Consumer<BlockRecord<N, S>> shortBlockConsumer, final Consumer<BlockRecord<N, S>> longBlockConsumer, final Predicate<S> predicate, final boolean singleton) {
-        Iterator<Node<S>> iterator = word.nodeIterator();
-
-        if(iterator.hasNext()) {
-            Node<S> node = iterator.next();
-            Node<S> current = node;
-            S symbol = node.getElement();
-            S next = symbol;
-            boolean shortBlock = true;
+    private void consumeBlocks(final P production, final Consumer<BlockRecord<N, S>> blockConsumer, final Predicate<S> predicate, final boolean singleton) {
+        ElementIterator<S> iterator = production.getRight().elementIterator();
 
+        while (iterator.hasNext()) {
+            S symbol = iterator.next();
             long blockLen = symbol.getLength();
 
-            while(iterator.hasNext()) {
-                Node<S> nextNode = iterator.next();
-                next = nextNode.getElement();
-
-                if(symbol.equals(next)) {
-                    blockLen += next.getLength();
-                    if(next.getLength() > 1) {
-                        shortBlock = false;
-                    }
-                }
-                else {
-                    // add the block
-                    if((blockLen > 1 || singleton) && predicate.test(symbol)) {
-                        BlockRecord<N, S> record = new BlockRecord<>(new Block<>(symbol, blockLen), current);
-                        if(shortBlock) {
-                            shortBlockConsumer.accept(record);
-                        }
-                        else {
-                            longBlockConsumer.accept(record);
-                        }
-                    }
+            // only the pointer to the first symbol of a consumed block is created
+            Node<S> node = null;
+            if((blockLen > 1 || singleton || (iterator.hasNext() && symbol.equals(iterator.peek()))) && predicate.test(symbol)) {
+                node = iterator.pointer();
+            }
 
-                    symbol = next;
-                    current = nextNode;
-                    blockLen = next.getLength();
-                    shortBlock = true;
-                }
+            while (iterator.hasNext() && symbol.equals(iterator.peek())) {
+                blockLen += iterator.next().getLength();
             }
 
-            if((blockLen > 1 || singleton) && predicate.test(symbol)) {
-                BlockRecord<N, S> record = new BlockRecord<>(new Block<>(symbol, blockLen), current);
-                if(shortBlock) {
-                    shortBlockConsumer.accept(record);
-                }
-                else {
-                    longBlockConsumer.accept(record);
-                }
+            if(node != null) {
+                blockConsumer.accept(new BlockRecord<>(new Block<>(symbol, blockLen), node, production.getLeft()));
             }
         }
     }
@@ -1774,274 +1811,12 @@ public class GenJez<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         }
     }
 
-    private S fixBlock(final Pair<S, S> pair, final long l, final S pattern) {
-
-        // pop the blocks containing p[1] so that we can compress these blocks
-        W wordRhs = slp.getProduction(pattern).getRight();
-
-        // get all a blocks
-        List<BlockRecord<N, S>> shortBlockRecords = new ArrayList<>();
-        List<BlockRecord<N, S>> longBlockRecords = new ArrayList<>();
-
-        // get all blocks
-        slp.getOrderedProductions().stream().forEach(production -> consumeBlocks(production.getRight(), shortBlockRecords::add, longBlockRecords::add, letter -> letter.equals(pair.a)));
-
-        sortBlocks(shortBlockRecords);
-        Collections.sort(longBlockRecords, blockComparator);
-        List<BlockRecord<N, S>> blockRecords = mergeBlocks(shortBlockRecords, longBlockRecords);
-
-        Iterator<BlockRecord<N, S>> iterator = blockRecords.iterator();
-        BlockRecord<N, S> lastRecord = null;
-        S letter = null;
-        S a_l = null;
-        while (iterator.hasNext()) {
-            BlockRecord<N, S> record = iterator.next();
-            long length = record.block.getLength();
-            if(length >= l && a_l == null) {
-                a_l = terminalAlphabet.createTerminal(phase, 1L, l * pair.a.getWeight(), record.block);
-            }
-
-            if(lastRecord == null || !lastRecord.equals(record)) {
-                if(length < l) {
-                    letter = terminalAlphabet.createTerminal(phase, 1L, record.block.getLength() * record.block.getLetter().getWeight(), record.block);
-                }
-                else if(length > l) {
-                    letter = terminalAlphabet.createTerminal(phase, 1L, record.block.getLength() - l, record.block);
-                }
-                lastRecord = record;
-            }
-
-            // for m <= l
-            if (length == l) {
-                replaceBlock(record, a_l);
-            }
-            else if (length < l) {
-                replaceBlock(record, letter);
-            } // for m > l
-            else {
-                Node<S> node = replaceBlock(record, letter);
-                node.insertNext(a_l);
-            }
-        }
-
-        return a_l;
-    }
-
-    /**
-     * The FixEndsSame from Jéz-Paper.
-     *
-     * @param pairs     first and last letter of each non-terminal
-     * @param pattern   the non-terminal of the pattern
-     * @param text      the non-terminal of the text
-     */
-    private void fixEndsSame(final Map<S, Pair<S, S>> pairs, final S pattern, final S text) {
-        Pair<S, S> pair = pairs.get(pattern);
-
-        popBlocks(prefix -> prefix.equals(pair.a), suffix -> suffix.equals(pair.b));
-        W patterRhs = slp.getProduction(pattern).getRight();
-
-        long l = patterRhs.deletePrefix(pair.a);
-        long r = patterRhs.deleteSuffix(pair.b);
-        assert l < Integer.MAX_VALUE-1;
-
-        S a_L = terminalAlphabet.createTerminal(phase, 1L, pair.a.getWeight() * l, new Block<S>(pair.a, (int)l));
-        S a_R = terminalAlphabet.createTerminal(phase, 1L, 0);
-
-        S a_1 = pair.a;
-
-        // special case: the pattern = a^k, we just have to do a block compression. After that the algorithm will terminate
-        if(r == 0) {
-            patterRhs.suspend(a_L);
-            compressBlocks(phase);
-            matchingBlocks = true;
-        }
-        else {
-            patterRhs.suspend(a_L);
-            patterRhs.append(a_R);
-            matchingBlocks = false;
-            assert pair.a == pair.b;
-
-            List<BlockRecord<N, S>> shortBlockRecords = new ArrayList<>();
-            List<BlockRecord<N, S>> longBlockRecords = new ArrayList<>();
-
-            // get all a blocks
-            slp.getProductions().stream().forEach(rule -> consumeBlocks(rule.getRight(), shortBlockRecords::add, longBlockRecords::add, letter -> letter.equals(pair.a), true));
-
-            // sort blocks
-            sortBlocks(shortBlockRecords);
-            Collections.sort(longBlockRecords, blockComparator);
-            List<BlockRecord<N, S>> blockRecords = mergeBlocks(shortBlockRecords, longBlockRecords);
-
-            // cases
-            if(l == r) {
-                Iterator<BlockRecord<N, S>> iterator = blockRecords.iterator();
-                BlockRecord<N, S> lastRecord = null;
-                S letter = null;
-                while (iterator.hasNext()) {
-                    BlockRecord<N, S> record = iterator.next();
-                    long length = record.block.getLength();
-                    if(length != l && (lastRecord == null || !lastRecord.equals(record))) {
-                        if(length < l) {
-                            letter = terminalAlphabet.createTerminal(phase, 1L, a_1.getWeight() * length, record.block);
-                        }
-                        else if(length > l) {
-                            letter = terminalAlphabet.createTerminal(phase, 1L, a_1.getWeight() * (length-l), record.block);
-                        }
-
-                        // similar to block compression
-                        lastRecord = record;
-                    }
-
-                    if (length < l) {
-                        replaceBlock(record, letter);
-                    } // a_Ra_L
-                    else if(length == l) {
-                        Node<S> node = replaceBlock(record, a_R);
-                        node.insertNext(a_L);
-                    }
-                    else {
-                        Node<S> node = replaceBlock(record, a_R);
-                        node.insertNext(letter);
-                        node.insertNext(a_L);
-                    }
-                }
-            }
-            else if(l < r) {
-                Iterator<BlockRecord<N, S>> iterator = blockRecords.iterator();
-                BlockRecord<N, S> lastRecord = null;
-                S letter = null;
-                while (iterator.hasNext()) {
-                    BlockRecord<N, S> record = iterator.next();
-                    long length = record.block.getLength();
-                    if(length != l && (lastRecord == null || !lastRecord.equals(record))) {
-                        if(length < l) {
-                            letter = terminalAlphabet.createTerminal(phase, 1L, a_1.getWeight() * length, record.block);
-                        }
-                        else if(length > l) {
-                            letter = terminalAlphabet.createTerminal(phase, 1L, a_1.getWeight() * (length-l), record.block);
-                        }
-                        // similar to block compression
-                        lastRecord = record;
-                    }
-
-                    if (length < l) {
-                        replaceBlock(record, letter);
-                    } // a_Ra_L
-                    else if(length == l) {
-                        replaceBlock(record, a_L);
-                    }
-                    else if(l < length && length < r) {
-                        Node<S> node = replaceBlock(record, letter);
-                        node.insertNext(a_L);
-                    }
-                    else {
-                        Node<S> node = replaceBlock(record, a_R);
-                        node.insertNext(a_L);
-                        node.insertNext(letter);
-                    }
-                }
-            }
-            else if(l > r){
-                Iterator<BlockRecord<N, S>> iterator = blockRecords.iterator();
-                BlockRecord lastRecord = null;
-                S letter = null;
-                while (iterator.hasNext()) {
-                    BlockRecord<N, S> record = iterator.next();
-                    long length = record.block.getLength();
-                    if(length != l && (lastRecord == null || !lastRecord.equals(record))) {
-                        if(length < l) {
-                            letter = terminalAlphabet.createTerminal(phase, 1L, a_1.getWeight() * length, record.block);
-                        }
-                        else if(length > l) {
-                            letter = terminalAlphabet.createTerminal(phase, 1L, a_1.getWeight() * (length-l), record.block);
-                        }
-
-                        // similar to block compression
-                        lastRecord = record;
-                    }
-
-                    if (length < r) {
-                        replaceBlock(record, letter);
-                    } // a_Ra_L
-                    else if(r <= length && length < l) {
-                        Node<S> node = replaceBlock(record, a_R);
-                        node.insertNext(letter);
-                    }
-                    else if(length == l) { // ERROR?
-                        Node<S> node = replaceBlock(record, a_R);
-                        node.insertNext(a_L);
-                    }
-                    else if(length > l) {
-                        Node<S> node = replaceBlock(record, a_R);
-                        node.insertNext(a_L);
-                        node.insertNext(letter);
-                    }
-                }
-            }
-
-            W rhsText = slp.getProduction(text).getRight();
-            Pair<S, S> textPair = new Pair<>(rhsText.getFirst(), rhsText.getLast());
-            if(textPair.b.equals(a_L)) {
-                rhsText.deleteLast();
-            }
-
-            if(textPair.a.equals(a_R)) {
-                rhsText.deleteFirst();
-            }
-
-            compressLeftSingleTonPairs(a_L);
-            compressRightSingleTonPairs(a_R);
-            if(r == 1 && r < l){
-                compressLeftSingleTonPairs(a_1);
-            }
-        }
-    }
-
     private void sortPairs(final List<GPairRecord<S, S>> pairs) {
         //Collections.sort(pairs, pairComparator);
-        RecordSort.sortGPairRecord(pairs);
+        RecordSort.sortGPairRecord(pairs, sorter);
     }
 
     private void sortBlocks(final List<BlockRecord<N, S>> blocks) {
-        //Collections.sort(blocks, blockComparator);
-        RecordSort.sortBlockRecords(blocks);
-    }
-
-    /**
-     * Merges two sorted lists together and return a sorted list containing all entries from both lists.
-     * Requirement: list1 and list2 are sorted.
-     *
-     * @param list1 the first list
-     * @param list2 the second list
-     *
-     * @return a sorted merged list.
-     */
-    private List<BlockRecord<N, S>> mergeBlocks(final List<BlockRecord<N, S>> list1, final List<BlockRecord<N, S>> list2) {
-        List<BlockRecord<N, S>> list = new ArrayList<>(list1.size() + list2.size());
-        Iterator<BlockRecord<N, S>> it1 = list1.iterator();
-        Iterator<BlockRecord<N, S>> it2 = list2.iterator();
-
-        BlockRecord<N, S> rec1 = null;
-        BlockRecord<N, S> rec2 = null;
-        while (it1.hasNext() || it2.hasNext() || rec1 != null || rec2 != null) {
-            if(it1.hasNext() && rec1 == null) {
-                rec1 = it1.next();
-            }
-
-            if(it2.hasNext() && rec2 == null) {
-                rec2 = it2.next();
-            }
-
-            if(rec2 == null || (rec1 != null && blockComparator.compare(rec1, rec2) < 0)) {
-                list.add(rec1);
-                rec1 = null;
-            }
-            else {
-                list.add(rec2);
-                rec2 = null;
-            }
-        }
-
-        return list;
+        RecordSort.sortBlockRecords(blocks, sorter);
     }
 }
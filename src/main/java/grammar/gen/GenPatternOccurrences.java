@@ -0,0 +1,405 @@
+package grammar.gen;
+
+import grammar.inter.IPatternOccurrences;
+import grammar.inter.IProduction;
+import grammar.inter.IReferencedWord;
+import grammar.inter.ISLP;
+import symbol.IJezSymbol;
+
+import java.util.*;
+
+/**
+ * The occurrences of a pattern in a text after the recompression for the pattern matching has finished, i.e. the pattern
+ * is a single letter c. The occurrences are not enumerated in advance, instead the structure stores for each non-terminal
+ * X the length |val(X)| and the number of occurrences in val(X). If the pattern is a block c = a^l, each block a^m of the
+ * text with m >= l contains m - l + 1 occurrences of the pattern with distance |val(a)|, these are represented as an
+ * arithmetic progression (see Progression).
+ * All queries descend the derivation tree of the text and skip all non-terminals whose subtree contains no occurrence or
+ * which are outside of the queried range.
+ *
+ * The structure is a read-only list of the positions (starting from 0) in ascending order, get(i) costs O(h * r),
+ * where h is the height of the SLP and r is the length of the longest right-hand side.
+ *
+ * @author Benedikt Zoennchen
+ *
+ * @param <N>   the type of the identifier of terminal and non-terminal symbols of the grammar
+ * @param <S>   the type of the terminal and non-terminal symbols of the grammar
+ * @param <W>   the type of the right-hand side of the grammar
+ * @param <P>   the type of the grammar production
+ */
+public class GenPatternOccurrences<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>, P extends IProduction<N, S, W>> extends AbstractList<Long> implements IPatternOccurrences {
+
+    /**
+     * The compressed SLP of the recompression.
+     */
+    private final ISLP<N, S, W, P> slp;
+
+    /**
+     * The non-terminal of the text.
+     */
+    private final S text;
+
+    /**
+     * The letter of the pattern.
+     */
+    private final S pattern;
+
+    /**
+     * The letter a if the pattern is a block a^l, i.e. it also occurs in each longer block of a, otherwise null.
+     */
+    private final S blockLetter;
+
+    /**
+     * A mapping : X -> |val(X)|.
+     */
+    private final Map<S, Long> lengths;
+
+    /**
+     * A mapping : X -> number of occurrences of the pattern in val(X).
+     */
+    private final Map<S, Long> counts;
+
+    /**
+     * Default constructor which computes the lengths and the number of occurrences bottom-up.
+     *
+     * Complexity: O(|G|)
+     *
+     * @param slp         the compressed SLP of the recompression
+     * @param text        the non-terminal of the text
+     * @param pattern     the letter of the pattern
+     * @param blockLetter the letter a if the pattern is a block a^l, otherwise null
+     */
+    GenPatternOccurrences(final ISLP<N, S, W, P> slp, final S text, final S pattern, final S blockLetter) {
+        this.slp = slp;
+        this.text = text;
+        this.pattern = pattern;
+        this.blockLetter = blockLetter;
+        this.lengths = new HashMap<>();
+        this.counts = new HashMap<>();
+
+        Iterator<P> productions = slp.getOrderedProductions().descendingIterator();
+        while (productions.hasNext()) {
+            P production = productions.next();
+            long length = 0;
+            long count = 0;
+            for(S letter : production.getRight()) {
+                length += length(letter);
+                count += count(letter);
+            }
+            lengths.put(production.getLeft(), length);
+            counts.put(production.getLeft(), count);
+        }
+    }
+
+    /**
+     * Returns the number of occurrences of the pattern in the text.
+     *
+     * Complexity: O(1)
+     *
+     * @return the number of occurrences of the pattern in the text
+     */
+    public long count() {
+        return counts.get(text);
+    }
+
+    /**
+     * Returns the number of occurrences of the pattern starting in the range [begin, end) of the text.
+     *
+     * Complexity: O(h * r)
+     *
+     * @param begin the inclusive begin of the range
+     * @param end   the exclusive end of the range
+     * @return the number of occurrences of the pattern starting in the range [begin, end)
+     */
+    @Override
+    public long count(final long begin, final long end) {
+        long last = Math.min(end, lengths.get(text));
+        return last <= begin ? 0 : countBefore(last) - countBefore(begin);
+    }
+
+    /**
+     * Returns the position of the (index+1)-th occurrence.
+     *
+     * Complexity: O(h * r)
+     *
+     * @param index the 0-based index of the occurrence
+     * @return the position of the (index+1)-th occurrence
+     */
+    public long getPosition(long index) {
+        if(index < 0 || index >= count()) {
+            throw new IndexOutOfBoundsException("there is no occurrence with the index " + index + ".");
+        }
+
+        long position = 0;
+        S left = text;
+        while (true) {
+            boolean descended = false;
+            for(S letter : slp.getProduction(left).getRight()) {
+                long count = count(letter);
+                if(index < count) {
+                    if(letter.isTerminal()) {
+                        return position + index * step();
+                    }
+                    left = letter;
+                    descended = true;
+                    break;
+                }
+                index -= count;
+                position += length(letter);
+            }
+
+            if(!descended) {
+                throw new IllegalStateException("the occurrence counts are inconsistent.");
+            }
+        }
+    }
+
+    @Override
+    public Long get(final int index) {
+        return getPosition(index);
+    }
+
+    @Override
+    public int size() {
+        return (int)Math.min(Integer.MAX_VALUE, count());
+    }
+
+    /**
+     * Returns a lazy iterator over all positions in ascending order.
+     *
+     * Complexity: O(h * r) for the first position, O(h * r) for each following position in the worst case.
+     *
+     * @return a lazy iterator over all positions in ascending order
+     */
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return iterator(0, lengths.get(text));
+    }
+
+    /**
+     * Returns a lazy iterator over all positions of the range [begin, end) in ascending order.
+     *
+     * @param begin the inclusive begin of the range
+     * @param end   the exclusive end of the range
+     * @return a lazy iterator over all positions of the range [begin, end) in ascending order
+     */
+    @Override
+    public PrimitiveIterator.OfLong iterator(final long begin, final long end) {
+        return new PositionIterator(progressionIterator(begin, end));
+    }
+
+    /**
+     * Returns a lazy iterator over all occurrences as arithmetic progressions in ascending order.
+     *
+     * @return a lazy iterator over all occurrences as arithmetic progressions
+     */
+    public Iterator<Progression> progressionIterator() {
+        return progressionIterator(0, lengths.get(text));
+    }
+
+    /**
+     * Returns a lazy iterator over all occurrences of the range [begin, end) as arithmetic progressions in ascending order.
+     *
+     * @param begin the inclusive begin of the range
+     * @param end   the exclusive end of the range
+     * @return a lazy iterator over all occurrences of the range [begin, end) as arithmetic progressions
+     */
+    public Iterator<Progression> progressionIterator(final long begin, final long end) {
+        return new ProgressionIterator(begin, Math.min(end, lengths.get(text)));
+    }
+
+    /**
+     * Returns the number of occurrences starting in front of the bound.
+     */
+    private long countBefore(final long bound) {
+        long result = 0;
+        long position = 0;
+        S left = text;
+        while (left != null) {
+            S next = null;
+            for(S letter : slp.getProduction(left).getRight()) {
+                if(position >= bound) {
+                    break;
+                }
+                long length = length(letter);
+                if(letter.isTerminal()) {
+                    result += Math.min(count(letter), ceilDiv(bound - position, step()));
+                }
+                else if(position + length <= bound) {
+                    result += counts.get(letter);
+                }
+                else {
+                    next = letter;
+                    break;
+                }
+                position += length;
+            }
+            left = next;
+        }
+        return result;
+    }
+
+    private long length(final S letter) {
+        return letter.isTerminal() ? letter.getWeight() : lengths.get(letter);
+    }
+
+    /**
+     * Returns the number of occurrences of the pattern in val(letter).
+     */
+    private long count(final S letter) {
+        if(!letter.isTerminal()) {
+            return counts.get(letter);
+        }
+        else if(blockLetter != null) {
+            // the blocks of a are the letters of the last phase with the same block id, or a itself
+            boolean isBlock = letter.equals(blockLetter) || (letter.getBlockId() == pattern.getBlockId() && letter.getPhaseId() == pattern.getPhaseId());
+            return isBlock && letter.getWeight() >= pattern.getWeight() ? (letter.getWeight() - pattern.getWeight()) / step() + 1 : 0;
+        }
+        else {
+            return letter.equals(pattern) ? 1 : 0;
+        }
+    }
+
+    /**
+     * Returns the distance of two occurrences inside of the same letter.
+     */
+    private long step() {
+        return blockLetter != null ? blockLetter.getWeight() : 1;
+    }
+
+    private static long ceilDiv(final long a, final long b) {
+        return (a + b - 1) / b;
+    }
+
+    /**
+     * The arithmetic progression first, first + step, ..., first + (length - 1) * step of positions.
+     */
+    public static class Progression {
+        private final long first;
+        private final long step;
+        private final long length;
+
+        private Progression(final long first, final long step, final long length) {
+            this.first = first;
+            this.step = step;
+            this.length = length;
+        }
+
+        public long getFirst() {
+            return first;
+        }
+
+        public long getStep() {
+            return step;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + first + ", " + (first + step) + ", ..., " + (first + (length - 1) * step) + "]";
+        }
+    }
+
+    /**
+     * A depth-first traversal of the derivation tree of the text with an explicit stack of depth O(h), subtrees outside of
+     * the range or without any occurrence are skipped.
+     */
+    private class ProgressionIterator implements Iterator<Progression> {
+        private final long begin;
+        private final long end;
+        private final Deque<Iterator<S>> symbols;
+        private final Deque<Long> positions;
+        private Progression next;
+
+        private ProgressionIterator(final long begin, final long end) {
+            this.begin = begin;
+            this.end = end;
+            this.symbols = new ArrayDeque<>();
+            this.positions = new ArrayDeque<>();
+            push(text, 0);
+        }
+
+        private void push(final S left, final long position) {
+            if(counts.get(left) > 0 && position < end && position + lengths.get(left) > begin) {
+                symbols.push(slp.getProduction(left).getRight().iterator());
+                positions.push(position);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !symbols.isEmpty()) {
+                Iterator<S> iterator = symbols.peek();
+                long position = positions.peek();
+                if(!iterator.hasNext() || position >= end) {
+                    symbols.pop();
+                    positions.pop();
+                    continue;
+                }
+
+                S letter = iterator.next();
+                positions.pop();
+                positions.push(position + length(letter));
+
+                if(letter.isTerminal()) {
+                    // the occurrences position + i * step for i in [from, to) are contained in the range
+                    long count = count(letter);
+                    long from = begin > position ? ceilDiv(begin - position, step()) : 0;
+                    long to = Math.min(count, ceilDiv(end - position, step()));
+                    if(from < to) {
+                        next = new Progression(position + from * step(), step(), to - from);
+                    }
+                }
+                else {
+                    push(letter, position);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Progression next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Progression progression = next;
+            next = null;
+            return progression;
+        }
+    }
+
+    /**
+     * Expands the arithmetic progressions into positions.
+     */
+    private static class PositionIterator implements PrimitiveIterator.OfLong {
+        private final Iterator<Progression> progressions;
+        private Progression progression;
+        private long index;
+
+        private PositionIterator(final Iterator<Progression> progressions) {
+            this.progressions = progressions;
+            this.progression = null;
+            this.index = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ((progression == null || index >= progression.length) && progressions.hasNext()) {
+                progression = progressions.next();
+                index = 0;
+            }
+            return progression != null && index < progression.length;
+        }
+
+        @Override
+        public long nextLong() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return progression.first + (index++) * progression.step;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package grammar.gen;
 
+import data.ElementIterator;
 import data.MyLinkedList;
 import data.Node;
 import grammar.inter.IReferencedWord;
@@ -31,6 +32,13 @@ public class GenPointedWord<N, S extends IJezSymbol<N>> implements IReferencedWo
      */
     private MyLinkedList<S> nodes;
 
+    /**
+     * Construct an empty word, symbols can be appended by append.
+     */
+    public GenPointedWord() {
+        this.nodes = new MyLinkedList<>();
+    }
+
     /**
      * The default constructor of a generic word, containing one symbol.
      *
@@ -60,6 +68,16 @@ public class GenPointedWord<N, S extends IJezSymbol<N>> implements IReferencedWo
         this.nodes = nodes;
     }
 
+    /**
+     * Construct a copy of the word, the copy shares the symbols with the word until one of both is changed (copy-on-write).
+     * Complexity: O(1)
+     *
+     * @param word the copied word
+     */
+    protected GenPointedWord(final GenPointedWord<N, S> word) {
+        this.nodes = word.nodes.clone();
+    }
+
     @Override
     public long getPrefixLenPrefix(final S letter) {
         return nodes.prefixLen(l -> l.equals(letter), l -> l.getLength());
@@ -117,17 +135,27 @@ public class GenPointedWord<N, S extends IJezSymbol<N>> implements IReferencedWo
 
     @Override
     public List<Node<S>> findAllPointers(final Predicate<S> pred) {
-        return nodeStream().filter(node -> pred.test(node.getElement())).collect(Collectors.toList());
+        return nodes.findAllPointers(pred);
+    }
+
+    @Override
+    public ElementIterator<S> elementIterator() {
+        return nodes.elementIterator();
+    }
+
+    @Override
+    public int pointerCount() {
+        return nodes.pointerCount();
     }
 
     @Override
     public S get(int i) {
-        return nodes.get(i).getElement();
+        return nodes.getElement(i);
     }
 
     @Override
     public Stream<S> stream() {
-        return nodes.stream().map(node -> node.getElement());
+        return nodes.elementStream();
     }
 
     @Override
@@ -137,7 +165,7 @@ public class GenPointedWord<N, S extends IJezSymbol<N>> implements IReferencedWo
 
     @Override
     public IReferencedWord<N, S> clone() {
-        return new GenPointedWord<>(nodes.clone());
+        return new GenPointedWord<>(this);
     }
 
     @Override
@@ -152,29 +180,24 @@ public class GenPointedWord<N, S extends IJezSymbol<N>> implements IReferencedWo
 
     @Override
     public List<Node<S>> findAllNodes(Predicate<S> pred) {
-        return nodeStream().filter(node -> pred.test(node.getElement())).collect(Collectors.toList());
+        return nodes.findAllPointers(pred);
     }
 
     @Override
     public Optional<S> findLast(final Predicate<S> pred) {
-        Optional<Node<S>> optNode = nodes.findLast(pred);
-        if(optNode.isPresent()) {
-            return Optional.of(optNode.get().getElement());
-        }
-        else {
-            return Optional.empty();
+        Iterator<S> iterator = nodes.descendingElementIterator();
+        while (iterator.hasNext()) {
+            S symbol = iterator.next();
+            if(pred.test(symbol)) {
+                return Optional.of(symbol);
+            }
         }
+        return Optional.empty();
     }
 
     @Override
     public Optional<S> findFirst(Predicate<S> pred) {
-        Optional<Node<S>> optNode = nodes.findFirst(pred);
-        if(optNode.isPresent()) {
-            return Optional.of(optNode.get().getElement());
-        }
-        else {
-            return Optional.empty();
-        }
+        return stream().filter(pred).findFirst();
     }
 
     @Override
@@ -237,7 +260,7 @@ public class GenPointedWord<N, S extends IJezSymbol<N>> implements IReferencedWo
 
     @Override
     public boolean isSingleton() {
-        return !nodes.isEmpty() && nodes.getHead().getNext() == null;
+        return nodes.size() == 1;
     }
 
     @Override
@@ -248,7 +271,7 @@ public class GenPointedWord<N, S extends IJezSymbol<N>> implements IReferencedWo
     @Override
     public S getFirst() {
         if(!nodes.isEmpty()) {
-            return nodes.getHead().getElement();
+            return nodes.elementIterator().next();
         }
         return null;
     }
@@ -256,7 +279,7 @@ public class GenPointedWord<N, S extends IJezSymbol<N>> implements IReferencedWo
     @Override
     public S getLast() {
         if(!nodes.isEmpty()) {
-            return nodes.getTail().getElement();
+            return nodes.descendingElementIterator().next();
         }
         return null;
     }
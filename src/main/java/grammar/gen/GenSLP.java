@@ -1,5 +1,6 @@
 package grammar.gen;
 
+import data.Node;
 import grammar.inter.ICFG;
 import grammar.inter.IReferencedWord;
 import grammar.inter.IProduction;
@@ -9,6 +10,8 @@ import symbol.IJezSymbol;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A generic implementation of a SLP, note that an SLP can represents more than one
@@ -40,15 +43,28 @@ public class GenSLP<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
     private Map<S, Set<S>> predecessors;
 
     /**
-     * A mapping : X -> |val(X)|
+     * A mapping : X -> prefix index of rhs(X). The index of X is only present if the indices of all non-terminals
+     * of rhs(X) are present.
      */
-    private Map<S, Long> lengthMap;
+    private Map<S, PrefixIndex<S>> prefixIndices;
+
+    /**
+     * A mapping : X -> list of pointers to all occurrences of X in the right-hand sides. It is computed together with
+     * the order, the pointers of X are dropped if X gets deleted and the pointers inside of rhs(X) are dropped from the
+     * lists of the children of X. Removed pointers are dropped lazily.
+     */
+    private Map<S, List<Node<S>>> occurrences;
 
     /**
      * A topological order of the non-terminal symbols.
      */
     private LinkedList<P> orderedProductions;
 
+    /**
+     * True if there are deleted productions which are still part of the order.
+     */
+    private boolean orderContainsDeleted;
+
     /**
      * The set of axioms.
      */
@@ -75,7 +91,7 @@ public class GenSLP<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
     }
 
     private void init(final Map<S, P> produtions, final Set<S> axioms) {
-        this.lengthMap = new HashMap<>();
+        this.prefixIndices = new HashMap<>();
         for(Map.Entry<S, P> entry : produtions.entrySet()) {
             if(!entry.getKey().equals(entry.getValue().getLeft())) {
                 throw new IllegalArgumentException("the production map is not well defined.");
@@ -108,11 +124,66 @@ public class GenSLP<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         return produtions.containsKey(left);
     }
 
+    /**
+     * Returns the topological order of the productions. Deleted productions are removed from the order lazily, i.e. the
+     * first call after deletions creates a new list, iterators over the old list remain valid.
+     *
+     * Complexity: O(1) if there was no deletion since the last call, otherwise O(n)
+     *
+     * @return a topological ordered list of production
+     */
     @Override
     public LinkedList<P> getOrderedProductions() {
+        if(orderContainsDeleted) {
+            LinkedList<P> order = new LinkedList<>();
+            for(P production : orderedProductions) {
+                if(produtions.get(production.getLeft()) == production) {
+                    order.add(production);
+                }
+            }
+            orderedProductions = order;
+            orderContainsDeleted = false;
+        }
         return orderedProductions;
     }
 
+    /**
+     * Returns the pointers to all occurrences of the non-terminal in the right-hand sides. The pointers are gathered
+     * when the SLP is constructed, pointers which are added later by changing right-hand sides have to be registered
+     * by addOccurrence. Pointers which were removed from their right-hand side are dropped.
+     *
+     * Complexity: O(number of pointers)
+     *
+     * @param nonTerminal a non-terminal of the SLP
+     * @return the pointers to all occurrences of the non-terminal
+     */
+    @Override
+    public List<Node<S>> getOccurrences(final S nonTerminal) {
+        List<Node<S>> pointers = occurrences.get(nonTerminal);
+        if(pointers == null) {
+            return Collections.emptyList();
+        }
+        pointers.removeIf(Node::isRemoved);
+        return Collections.unmodifiableList(pointers);
+    }
+
+    /**
+     * Registers the pointer to an occurrence of a non-terminal Y which was inserted into rhs(left), i.e. left becomes a
+     * predecessor of Y. The order is kept, therefore Y has to be derivable from left before the change, e.g. if a
+     * non-terminal of left is replaced by its right-hand side.
+     *
+     * Complexity: O(1)
+     *
+     * @param left      the non-terminal of the changed production
+     * @param pointer   the pointer to the inserted occurrence of the non-terminal
+     */
+    @Override
+    public void addOccurrence(final S left, final Node<S> pointer) {
+        S nonTerminal = pointer.getElement();
+        predecessors.computeIfAbsent(nonTerminal, x -> new HashSet<>()).add(left);
+        occurrences.computeIfAbsent(nonTerminal, x -> new ArrayList<>()).add(pointer);
+    }
+
     @Override
     public P getProduction(S symbol) {
         return produtions.get(symbol);
@@ -146,10 +217,52 @@ public class GenSLP<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         return Collections.unmodifiableSet(axioms);
     }
 
+    /**
+     * Deletes the production of the non-terminal and updates the predecessors and the occurrences, i.e. left is no longer
+     * a predecessor of the symbols of its right-hand side and the pointers of rhs(left) are no longer occurrences of these symbols.
+     * The production is removed from the order lazily.
+     *
+     * Complexity: O(|rhs(left)| + o + a), where o is the number of occurrences of the non-terminals of rhs(left) and
+     * a is the number of ancestors of left which have a prefix index
+     *
+     * @param left a non-terminal of this SLP
+     */
     @Override
     public void deleteProduction(S left) {
-        produtions.remove(left);
+        invalidate(left);
+        P production = produtions.remove(left);
         predecessors.remove(left);
+        occurrences.remove(left);
+        if(production != null) {
+            // the pointers of rhs(left) grouped by their non-terminal (compared by identity, since nodes are equal if their elements are equal)
+            Map<S, Set<Node<S>>> pointers = new HashMap<>();
+            for(Node<S> pointer : production.getRight().findAllPointers(symbol -> !symbol.isTerminal())) {
+                pointers.computeIfAbsent(pointer.getElement(), x -> Collections.newSetFromMap(new IdentityHashMap<>())).add(pointer);
+            }
+
+            for(Map.Entry<S, Set<Node<S>>> entry : pointers.entrySet()) {
+                if(predecessors.containsKey(entry.getKey())) {
+                    predecessors.get(entry.getKey()).remove(left);
+                }
+                if(occurrences.containsKey(entry.getKey())) {
+                    occurrences.get(entry.getKey()).removeIf(entry.getValue()::contains);
+                }
+            }
+            orderContainsDeleted = true;
+        }
+    }
+
+    @Override
+    public void invalidate(final S left) {
+        Deque<S> stack = new ArrayDeque<>();
+        stack.push(left);
+        while (!stack.isEmpty()) {
+            S nonTerminal = stack.pop();
+            // if there is no index of X there is no index of any ancestor of X
+            if(prefixIndices.remove(nonTerminal) != null && predecessors.containsKey(nonTerminal)) {
+                predecessors.get(nonTerminal).forEach(stack::push);
+            }
+        }
     }
 
     /**
@@ -163,10 +276,88 @@ public class GenSLP<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
     @Override
     public List<S> value(final S left) {
         LinkedList<S> linkedLetters = new LinkedList<>();
-        deptFirst(left, linkedLetters::add);
+        iterator(left).forEachRemaining(linkedLetters::add);
         return linkedLetters;
     }
 
+    /**
+     * Returns a lazy iterator over val(left) which decompresses the current productions using an explicit stack
+     * of depth O(h), where h is the height of the SLP. In contrast to the other streaming methods this iterator does not
+     * use the length index, so it can be used while the recompression changes the productions.
+     *
+     * Complexity: O(1) amortized for each symbol if there are no empty productions.
+     *
+     * @param left  the non-terminal or terminal symbol
+     * @return a lazy iterator over val(left)
+     */
+    @Override
+    public Iterator<S> iterator(final S left) {
+        return new DerivationIterator(left);
+    }
+
+    /**
+     * Returns a lazy iterator over the symbols val(left)[begin+1], ..., val(left)[end], i.e. over the 0-based range [begin, end).
+     * The iterator skips all subtrees in front of the range by the length index and uses an explicit stack of depth O(h).
+     *
+     * Complexity: O(h * log(r)) for the first symbol, O(1) amortized for each following symbol.
+     *
+     * @param left  a non-terminal of the SLP
+     * @param begin the inclusive 0-based begin of the range
+     * @param end   the exclusive 0-based end of the range
+     * @return a lazy iterator over the range [begin, end) of val(left)
+     */
+    @Override
+    public Iterator<S> iterator(final S left, final long begin, final long end) {
+        return new RangeIterator(left, begin, end);
+    }
+
+    /**
+     * Returns a splittable spliterator over val(left), the spliterator is split by positions using the length index.
+     * The length index of the sub-grammar of left is computed in advance, such that the spliterator can be traversed
+     * in parallel as long as the SLP is not changed.
+     *
+     * @param left  a non-terminal of the SLP
+     * @return a spliterator over val(left)
+     */
+    @Override
+    public Spliterator<S> spliterator(final S left) {
+        return new RangeSpliterator(left, 0, length(left));
+    }
+
+    @Override
+    public Stream<S> stream(final S left) {
+        return StreamSupport.stream(spliterator(left), false);
+    }
+
+    /**
+     * Returns a CharSequence view of val(left) which requires that all symbols are named by characters.
+     * The view decompresses nothing in advance, charAt costs O(h * log(r)).
+     *
+     * @param left  a non-terminal of the SLP
+     * @return a CharSequence view of val(left)
+     */
+    @Override
+    public CharSequence charSequence(final S left) {
+        return new WordSequence(left, 0, length(left));
+    }
+
+    /**
+     * Returns the word of the 0-based range [begin, end) of val(left), all subtrees outside of the range are skipped.
+     *
+     * Complexity: O(h * log(r) + (end - begin))
+     *
+     * @param left  a non-terminal of the SLP
+     * @param begin the inclusive 0-based begin of the range
+     * @param end   the exclusive 0-based end of the range
+     * @return the word of the range [begin, end) of val(left)
+     */
+    @Override
+    public String substring(final S left, final long begin, final long end) {
+        StringBuilder builder = new StringBuilder();
+        iterator(left, begin, end).forEachRemaining(symbol -> builder.append(symbol.getName()));
+        return builder.toString();
+    }
+
     @Override
     public List<?> word(final S left) {
         return value(left).stream().map(symbol -> symbol.getName()).collect(Collectors.toList());
@@ -174,9 +365,8 @@ public class GenSLP<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
 
     @Override
     public String toString(final S left) {
-        List<?> chars = word(left);
         StringBuilder builder = new StringBuilder();
-        chars.forEach(c -> builder.append(c));
+        iterator(left).forEachRemaining(symbol -> builder.append(symbol.getName()));
         return builder.toString();
     }
 
@@ -184,8 +374,7 @@ public class GenSLP<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
     public String toString() {
         StringBuilder builder = new StringBuilder();
         for(S axiom : axioms) {
-            List<?> chars = word(axiom);
-            chars.forEach(c -> builder.append(c));
+            iterator(axiom).forEachRemaining(symbol -> builder.append(symbol.getName()));
             builder.append("\n");
         }
         if(builder.charAt(builder.length()-1) == '\n') {
@@ -197,28 +386,41 @@ public class GenSLP<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
 
     @Override
     public GenSLP<N, S, W, P> clone() {
-        Map<S, P> clonedProductions = new HashMap<>();
-        Set<S> clonedAxioms = new HashSet<>();
-
-        for(Map.Entry<S, P> entry : produtions.entrySet()) {
-            P clonedProduction = (P)entry.getValue().clone();
-            clonedProductions.put(clonedProduction.getLeft(), clonedProduction);
-        }
-
-        for(S axiom : axioms) {
-            clonedAxioms.add((S) axiom.clone());
-        }
-
-        return new GenSLP<>(clonedProductions, axioms);
+        return create(cloneProductions(), axioms);
     }
 
+    /**
+     * Returns a copy of the SLP without any non-trivial epsilon-productions. The order and the occurrences are
+     * computed only once for the copy.
+     *
+     * Complexity: O(|G|)
+     *
+     * @return a copy of the SLP without any non-trivial epsilon-productions
+     */
     @Override
     public ISLP<N, S, W, P> eliminateEpsilon() {
-        GenSLP<N, S, W, P> clone = this.clone();
         GenCFGOp<N, S, W, P, ICFG<N, S, W, P>, ISLP<N, S, W, P>> genCFGOp = new GenCFGOp<>();
-        clone.produtions = genCFGOp.eliminateEpsilon(clone.produtions, clone.axioms);
-        clone.init(clone.produtions, clone.axioms);
-        return clone;
+        return create(genCFGOp.eliminateEpsilon(cloneProductions(), axioms), axioms);
+    }
+
+    /**
+     * Creates a SLP of the same type as this SLP, used by clone and eliminateEpsilon.
+     *
+     * @param produtions    the map of slp-productions
+     * @param axioms        the set of axioms
+     * @return a SLP of the same type as this SLP
+     */
+    protected GenSLP<N, S, W, P> create(final Map<S, P> produtions, final Set<S> axioms) {
+        return new GenSLP<>(produtions, axioms);
+    }
+
+    private Map<S, P> cloneProductions() {
+        Map<S, P> clonedProductions = new HashMap<>();
+        for(Map.Entry<S, P> entry : produtions.entrySet()) {
+            P clonedProduction = (P)entry.getValue().clone();
+            clonedProductions.put(clonedProduction.getLeft(), clonedProduction);
+        }
+        return clonedProductions;
     }
 
     @Override
@@ -226,22 +428,7 @@ public class GenSLP<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         if(!containsProduction(left)) {
             throw new IllegalArgumentException(left + " is not a non-terminal of this SLP.");
         }
-
-        if(lengthMap.containsKey(left)) {
-            return lengthMap.get(left);
-        }
-        else {
-            Iterator<P> descendingIterator = orderedProductions.descendingIterator();
-            while (descendingIterator.hasNext()) {
-                P production = descendingIterator.next();
-                long terminalLength = production.getRight().stream().filter(s -> s.isTerminal()).count();
-                long nonTerminalLength = production.getRight().stream().filter(s -> !s.isTerminal()).map(s -> lengthMap.get(s)).reduce(0L, (a, b) -> a + b);
-                long productionLength = terminalLength + nonTerminalLength;
-                lengthMap.put(production.getLeft(), productionLength);
-            }
-        }
-
-        return length(left);
+        return getPrefixIndex(left).length();
     }
 
     @Override
@@ -250,44 +437,91 @@ public class GenSLP<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
             throw new IllegalArgumentException(left + " is not a non-terminal of this SLP.");
         }
         if(changed) {
-            lengthMap = new HashMap<>();
+            invalidate(left);
         }
         return length(left);
     }
 
+    /**
+     * Returns the jez symbol val(left)[k] by descending the derivation tree, the child containing the position is found
+     * by a binary search over the prefix index of each production.
+     *
+     * Complexity: O(h * log(r)), where h is the height of the SLP and r is the length of the longest right-hand side
+     *
+     * @param left  a non-terminal of the SLP
+     * @param k     a position with 1 <= k <= |val(left)|
+     * @return the jez symbol val(left)[k].
+     */
     @Override
     public S get(final S left, long k) {
         if(k < 1 || k > length(left)) {
             throw new IllegalArgumentException("the terminal does not exist");
         }
-        long position = 0;
-        P production = getProduction(left);
-        boolean goDeeper = true;
 
-        while (goDeeper && production != null) {
-            goDeeper = false;
-            for(S symbol : production.getRight()) {
+        S symbol = left;
+        while (!symbol.isTerminal()) {
+            PrefixIndex<S> index = getPrefixIndex(symbol);
+            int i = index.find(k);
+            k -= index.start(i);
+            symbol = index.symbols.get(i);
+        }
+        return symbol;
+    }
+
+    /**
+     * Returns the jez symbols val(left)[k_1], ..., val(left)[k_m] in the order of the positions. The positions are sorted
+     * and resolved by a single descent of the derivation tree which splits the sorted positions among the children, i.e.
+     * positions sharing a subtree share the path to that subtree.
+     *
+     * Complexity: O(m log(m) + t * log(r)), where t is the number of visited nodes of the derivation tree, t <= m * h
+     *
+     * @param left      a non-terminal of the SLP
+     * @param positions positions k_1, ..., k_m with 1 <= k_i <= |val(left)|
+     * @return the jez symbols val(left)[k_1], ..., val(left)[k_m]
+     */
+    @Override
+    public List<S> get(final S left, final long[] positions) {
+        long length = length(left);
+        long[] sorted = positions.clone();
+        Arrays.sort(sorted);
+        if(sorted.length > 0 && (sorted[0] < 1 || sorted[sorted.length-1] > length)) {
+            throw new IllegalArgumentException("the terminal does not exist");
+        }
+
+        Object[] resolved = new Object[sorted.length];
+        Deque<Range<S>> stack = new ArrayDeque<>();
+        if(sorted.length > 0) {
+            stack.push(new Range<>(left, 0, 0, sorted.length));
+        }
+
+        while (!stack.isEmpty()) {
+            Range<S> range = stack.pop();
+            PrefixIndex<S> index = getPrefixIndex(range.nonTerminal);
+            int lo = range.lo;
+            while (lo < range.hi) {
+                int i = index.find(sorted[lo] - range.offset);
+                long end = range.offset + index.ends[i];
+                int hi = lo + 1;
+                while (hi < range.hi && sorted[hi] <= end) {
+                    hi++;
+                }
+
+                S symbol = index.symbols.get(i);
                 if(symbol.isTerminal()) {
-                    position++;
-                    if(position == k) {
-                        return symbol;
-                    }
+                    Arrays.fill(resolved, lo, hi, symbol);
                 }
                 else {
-                    if(position + length(symbol) >= k) {
-                        production = getProduction(symbol);
-                        goDeeper = true;
-                        break;
-                    }
-                    else {
-                        position += length(symbol);
-                    }
+                    stack.push(new Range<>(symbol, range.offset + index.start(i), lo, hi));
                 }
+                lo = hi;
             }
         }
 
-        // this should never happen
-        return null;
+        List<S> symbols = new ArrayList<>(positions.length);
+        for(long position : positions) {
+            symbols.add((S) resolved[Arrays.binarySearch(sorted, position)]);
+        }
+        return symbols;
     }
 
     @Override
@@ -303,104 +537,435 @@ public class GenSLP<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S>,
         return axioms.iterator().next();
     }
 
-    private void deptFirst(final S letter, final Consumer<S> consumer) {
-        if(letter != null) {
-            if(letter.isTerminal()) {
-                consumer.accept(letter);
+    /**
+     * Returns the prefix index of the non-terminal, all missing indices of the sub-grammar of the non-terminal are computed
+     * bottom-up using an explicit stack.
+     *
+     * Complexity: O(size of the sub-grammar without an index)
+     *
+     * @param left  a non-terminal of the SLP
+     * @return the prefix index of the non-terminal
+     */
+    private PrefixIndex<S> getPrefixIndex(final S left) {
+        PrefixIndex<S> index = prefixIndices.get(left);
+        if(index != null) {
+            return index;
+        }
+
+        Deque<S> stack = new ArrayDeque<>();
+        stack.push(left);
+        while (!stack.isEmpty()) {
+            S nonTerminal = stack.peek();
+            if(prefixIndices.containsKey(nonTerminal)) {
+                stack.pop();
+                continue;
             }
-            else {
-                if(!containsProduction(letter)) {
-                    throw new IllegalArgumentException(letter + "is neither a terminal nor a non-terminal of this SLP.");
-                }
-                P production = getProduction(letter);
-                W rhs = production.getRight();
-                for(S l : rhs) {
-                    deptFirst(l, consumer);
+
+            if(!containsProduction(nonTerminal)) {
+                throw new IllegalArgumentException(nonTerminal + " is not a non-terminal of this SLP.");
+            }
+
+            W right = getProduction(nonTerminal).getRight();
+            boolean ready = true;
+            for(S symbol : right) {
+                if(!symbol.isTerminal() && !prefixIndices.containsKey(symbol)) {
+                    stack.push(symbol);
+                    ready = false;
                 }
             }
+
+            if(ready) {
+                stack.pop();
+                prefixIndices.put(nonTerminal, new PrefixIndex<>(right, prefixIndices));
+            }
         }
+        return prefixIndices.get(left);
     }
 
     /**
-     * Complexity: O(size of non-terminal alphabet)
+     * Computes the predecessors, the occurrences and the topological order (by Kahn's algorithm) in a single pass over the
+     * right-hand sides, the number of occurrences of X is the in-degree of X.
+     *
+     * Complexity: O(|G|)
      */
     private void init() {
-        // initial predecessor map
-        this.predecessors = getAllPredecessors();
-        GenCFGOp<N, S, W, P, ?, ?> genCFG = new GenCFGOp<>();
-        LinkedList<S> nonTerminalOrder = genCFG.getOrder(this.getProductions());
+        this.predecessors = new HashMap<>();
+        this.occurrences = new HashMap<>();
+        this.orderContainsDeleted = false;
+
+        for(P production : produtions.values()) {
+            S left = production.getLeft();
+            predecessors.computeIfAbsent(left, x -> new HashSet<>());
+            occurrences.computeIfAbsent(left, x -> new ArrayList<>());
+
+            // only the occurrences of non-terminals require a pointer
+            for(Node<S> node : production.getRight().findAllPointers(symbol -> !symbol.isTerminal())) {
+                S symbol = node.getElement();
+                predecessors.computeIfAbsent(symbol, x -> new HashSet<>()).add(left);
+                occurrences.computeIfAbsent(symbol, x -> new ArrayList<>()).add(node);
+            }
+        }
 
+        // mapping X -> number of occurrences of X in right-hand sides of productions which are not yet ordered
+        Map<S, Integer> inDegrees = new HashMap<>();
+        Deque<S> queue = new ArrayDeque<>();
         this.orderedProductions = new LinkedList<>();
-        for(S nonTerminal : nonTerminalOrder) {
-            this.orderedProductions.add(getProduction(nonTerminal));
+
+        for(S left : produtions.keySet()) {
+            int inDegree = occurrences.get(left).size();
+            if(inDegree == 0) {
+                queue.add(left);
+            }
+            else {
+                inDegrees.put(left, inDegree);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            P production = produtions.get(queue.poll());
+            orderedProductions.add(production);
+            for(S symbol : production.getRight()) {
+                if(!symbol.isTerminal() && produtions.containsKey(symbol)) {
+                    int inDegree = inDegrees.get(symbol) - 1;
+                    inDegrees.put(symbol, inDegree);
+                    if(inDegree == 0) {
+                        queue.add(symbol);
+                    }
+                }
+            }
         }
-         //       getOrder();
+
         if(orderedProductions.size() < produtions.keySet().size()) {
             throw new IllegalArgumentException("the production set does not form a well defined slp.");
         }
     }
 
     /**
-     * The first element is like axiom -> aABd...
-     * Complexity: O(|G| * log|G|)
-     * @return
+     * The prefix index of a right-hand side X_1 ... X_r, i.e. the symbols and their cumulative lengths
+     * ends[i] = |val(X_1 ... X_{i+1})|.
+     *
+     * @param <S> the type of the terminal and non-terminal symbols of the grammar
      */
-    private LinkedList<P> getOrder() {
-        LinkedList<P> orderedList = new LinkedList<>();
-        //Map<Letter, Integer> deleteCounter = new HashMap<>();
-        Map<S, Integer> deleteCounters = new HashMap<>();
+    private static class PrefixIndex<S extends IJezSymbol<?>> {
+        private final List<S> symbols;
+        private final long[] ends;
+
+        private PrefixIndex(final Iterable<S> right, final Map<S, PrefixIndex<S>> prefixIndices) {
+            this.symbols = new ArrayList<>();
+            right.forEach(symbols::add);
+            this.ends = new long[symbols.size()];
+            long end = 0;
+            for(int i = 0; i < ends.length; i++) {
+                S symbol = symbols.get(i);
+                end += symbol.isTerminal() ? 1 : prefixIndices.get(symbol).length();
+                ends[i] = end;
+            }
+        }
+
+        private long length() {
+            return ends.length == 0 ? 0 : ends[ends.length-1];
+        }
+
+        private long start(final int i) {
+            return i == 0 ? 0 : ends[i-1];
+        }
+
+        /**
+         * Returns the smallest i such that position k is contained in val(X_{i+1}).
+         *
+         * Complexity: O(log(r))
+         *
+         * @param k a position with 1 <= k <= length()
+         * @return the smallest i such that ends[i] >= k
+         */
+        private int find(final long k) {
+            int lo = 0;
+            int hi = ends.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if(ends[mid] >= k) {
+                    hi = mid;
+                }
+                else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+    }
 
-        // O(|G|)
-        LinkedList<P> startSymbols = getProductions().stream()
-                .filter(p -> predecessors.get(p.getLeft()).isEmpty())
-                .collect(Collectors.toCollection(LinkedList::new));
+    /**
+     * A range [lo, hi) of sorted positions which are contained in val(nonTerminal) shifted by offset.
+     *
+     * @param <S> the type of the terminal and non-terminal symbols of the grammar
+     */
+    private static class Range<S> {
+        private final S nonTerminal;
+        private final long offset;
+        private final int lo;
+        private final int hi;
+
+        private Range(final S nonTerminal, final long offset, final int lo, final int hi) {
+            this.nonTerminal = nonTerminal;
+            this.offset = offset;
+            this.lo = lo;
+            this.hi = hi;
+        }
+    }
 
-        while(!startSymbols.isEmpty()) {
-            P production = startSymbols.pollFirst();
-            orderedList.add(production);
+    /**
+     * An iterator over val(X) using the current productions, the stack contains the iterators of all right-hand sides
+     * of the path from X to the current symbol.
+     */
+    private class DerivationIterator implements Iterator<S> {
+        private final Deque<Iterator<S>> stack;
+        private S next;
+
+        private DerivationIterator(final S left) {
+            this.stack = new ArrayDeque<>();
+            this.stack.push(Collections.singletonList(left).iterator());
+            advance();
+        }
 
-            // here comes maybe the log|G| into play
-            Set<S> set = new HashSet<>();
-            for(S rightLetter : production.getRight().findAll(symbol -> !symbol.isTerminal())) {
-                if(!set.contains(rightLetter)) {
-                    if (!deleteCounters.containsKey(rightLetter)) {
-                        deleteCounters.put(rightLetter, new Integer(0));
+        private void advance() {
+            next = null;
+            while (!stack.isEmpty()) {
+                Iterator<S> top = stack.peek();
+                if(!top.hasNext()) {
+                    stack.pop();
+                }
+                else {
+                    S symbol = top.next();
+                    if(symbol.isTerminal()) {
+                        next = symbol;
+                        return;
                     }
-                    set.add(rightLetter);
-                    deleteCounters.put(rightLetter, deleteCounters.get(rightLetter)+1);
-                    // all edges "deleted"
-                    if(deleteCounters.get(rightLetter) == predecessors.get(rightLetter).size()) {
-                        startSymbols.add(produtions.get(rightLetter));
+
+                    if(!containsProduction(symbol)) {
+                        throw new IllegalArgumentException(symbol + "is neither a terminal nor a non-terminal of this SLP.");
                     }
+                    stack.push(getProduction(symbol).getRight().iterator());
                 }
             }
         }
 
-        return orderedList;
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public S next() {
+            if(next == null) {
+                throw new NoSuchElementException();
+            }
+            S symbol = next;
+            advance();
+            return symbol;
+        }
     }
 
     /**
-     * Complexity: O(|G|)
-     * @return
+     * An iterator over the range [begin, end) of val(X) using the length index, the stack contains the prefix indices
+     * of the path from X to the current symbol together with the index of the next child.
      */
-    private Map<S, Set<S>> getAllPredecessors() {
-        // initial list
-        Map<S, Set<S>> predecessorMap = new HashMap<>();
+    private class RangeIterator implements Iterator<S> {
+        private final Deque<Frame<S>> stack;
+        private long remaining;
+        private S next;
+
+        private RangeIterator(final S left, final long begin, final long end) {
+            if(begin < 0 || end < begin || end > length(left)) {
+                throw new IllegalArgumentException("the range [" + begin + ", " + end + ") is not contained in val(" + left + ").");
+            }
+            this.stack = new ArrayDeque<>();
+            this.remaining = end - begin;
+
+            if(remaining > 0) {
+                // descend to the first symbol of the range: O(h * log(r))
+                S symbol = left;
+                long k = begin + 1;
+                while (!symbol.isTerminal()) {
+                    PrefixIndex<S> index = getPrefixIndex(symbol);
+                    int i = index.find(k);
+                    k -= index.start(i);
+                    stack.push(new Frame<>(index, i + 1));
+                    symbol = index.symbols.get(i);
+                }
+                next = symbol;
+            }
+        }
+
+        private void advance() {
+            while (true) {
+                Frame<S> frame = stack.peek();
+                if(frame.next >= frame.index.symbols.size()) {
+                    stack.pop();
+                    continue;
+                }
+
+                int i = frame.next++;
+                S symbol = frame.index.symbols.get(i);
+                if(symbol.isTerminal()) {
+                    next = symbol;
+                    return;
+                }
+                // skip empty non-terminals
+                if(frame.index.ends[i] > frame.index.start(i)) {
+                    stack.push(new Frame<>(getPrefixIndex(symbol), 0));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
 
-        for(P production : getProductions()) {
-            if(!predecessorMap.containsKey(production.getLeft())) {
-                predecessorMap.put(production.getLeft(), new HashSet<S>());
+        @Override
+        public S next() {
+            if(remaining <= 0) {
+                throw new NoSuchElementException();
             }
+            S symbol = next;
+            remaining--;
+            if(remaining > 0) {
+                advance();
+            }
+            return symbol;
+        }
+    }
 
-            for(S symbol : production.getRight()) {
-                if(!symbol.isTerminal()) {
-                    if(!predecessorMap.containsKey(symbol)) {
-                        predecessorMap.put(symbol, new HashSet<S>());
-                    }
-                    predecessorMap.get(symbol).add(production.getLeft());
+    /**
+     * A spliterator over the range [begin, end) of val(X), which splits the range in halves.
+     */
+    private class RangeSpliterator implements Spliterator<S> {
+
+        /**
+         * the smallest range which will be split.
+         */
+        private static final long MIN_SPLIT_SIZE = 1 << 10;
+
+        private final S left;
+        private long begin;
+        private final long end;
+        private Iterator<S> iterator;
+
+        private RangeSpliterator(final S left, final long begin, final long end) {
+            // compute the whole length index in advance such that a parallel traversal does not change it
+            getPrefixIndex(left);
+            this.left = left;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super S> action) {
+            if(begin >= end) {
+                return false;
+            }
+            if(iterator == null) {
+                iterator = iterator(left, begin, end);
+            }
+            begin++;
+            action.accept(iterator.next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super S> action) {
+            if(begin < end) {
+                if(iterator == null) {
+                    iterator = iterator(left, begin, end);
                 }
+                begin = end;
+                iterator.forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator<S> trySplit() {
+            if(end - begin < MIN_SPLIT_SIZE) {
+                return null;
+            }
+            long mid = begin + (end - begin) / 2;
+            Spliterator<S> prefix = new RangeSpliterator(left, begin, mid);
+            begin = mid;
+            iterator = null;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - begin;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
+    /**
+     * A CharSequence view of the range [begin, end) of val(X).
+     */
+    private class WordSequence implements CharSequence {
+        private final S left;
+        private final long begin;
+        private final long end;
+
+        private WordSequence(final S left, final long begin, final long end) {
+            if(end - begin > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("the word is too long for a CharSequence.");
+            }
+            this.left = left;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return (int)(end - begin);
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if(index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException("index " + index + " is not contained in [0, " + length() + ").");
+            }
+            Object name = get(left, begin + index + 1).getName();
+            if(!(name instanceof Character)) {
+                throw new IllegalArgumentException(name + " is not a character.");
             }
+            return (Character) name;
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            if(start < 0 || end < start || end > length()) {
+                throw new IndexOutOfBoundsException("[" + start + ", " + end + ") is not contained in [0, " + length() + ").");
+            }
+            return new WordSequence(left, begin + start, begin + end);
+        }
+
+        @Override
+        public String toString() {
+            return substring(left, begin, end);
+        }
+    }
+
+    /**
+     * The prefix index of a non-terminal on the stack of a RangeIterator and the index of its next child.
+     *
+     * @param <S> the type of the terminal and non-terminal symbols of the grammar
+     */
+    private static class Frame<S extends IJezSymbol<?>> {
+        private final PrefixIndex<S> index;
+        private int next;
+
+        private Frame(final PrefixIndex<S> index, final int next) {
+            this.index = index;
+            this.next = next;
         }
-        return predecessorMap;
     }
 }
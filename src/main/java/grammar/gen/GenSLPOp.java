@@ -1,9 +1,14 @@
 package grammar.gen;
 
+import data.Node;
 import grammar.inter.*;
 import morphismEq.gen.GenMorphismEQSolver;
 import morphismEq.morphisms.PeriodicMorphism;
 import symbol.IJezSymbol;
+import utils.KarpRabin;
+import utils.LongIndexSet;
+import utils.Pair;
+import utils.PositionRange;
 import utils.Triple;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
@@ -31,6 +36,78 @@ public class GenSLPOp<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S
 
     private static Logger logger = LogManager.getLogger(GenSLPOp.class);
 
+    /**
+     * The strategies of the equality test of two SLP-compressed words.
+     */
+    public enum EqualityMode {
+        /**
+         * the equality is decided by the recompression.
+         */
+        EXACT,
+
+        /**
+         * the equality is decided by Karp-Rabin fingerprints, unequal words might be considered as equal with a probability of at most N / (2^61 - 1).
+         */
+        FINGERPRINT,
+
+        /**
+         * words with different fingerprints are rejected immediately, the equality of all other words is decided by the recompression.
+         */
+        FINGERPRINT_THEN_EXACT
+    }
+
+    /**
+     * the strategy of the equality test.
+     */
+    private EqualityMode equalityMode = EqualityMode.EXACT;
+
+    /**
+     * the random base of the Karp-Rabin fingerprints.
+     */
+    private final long fingerprintBase = 2 + (long)(Math.random() * (KarpRabin.MOD - 3));
+
+    /**
+     * the maximal length of patterns which are matched together by the dictionary matching, longer patterns are matched by the recompression.
+     */
+    private int dictionaryPatternLength = 256;
+
+    /**
+     * Returns the strategy of the equality test.
+     *
+     * @return the strategy of the equality test
+     */
+    public EqualityMode getEqualityMode() {
+        return equalityMode;
+    }
+
+    /**
+     * Sets the strategy of the equality test.
+     *
+     * @param equalityMode the strategy of the equality test
+     */
+    public void setEqualityMode(final EqualityMode equalityMode) {
+        this.equalityMode = equalityMode;
+    }
+
+    /**
+     * Returns the maximal length of patterns which are matched together by the dictionary matching.
+     *
+     * @return the maximal length of patterns which are matched together by the dictionary matching
+     */
+    public int getDictionaryPatternLength() {
+        return dictionaryPatternLength;
+    }
+
+    /**
+     * Sets the maximal length of patterns which are matched together by the dictionary matching, longer patterns are
+     * matched one by one by the recompression.
+     *
+     * @param dictionaryPatternLength the maximal length of patterns which are matched together by the dictionary matching
+     */
+    public void setDictionaryPatternLength(final int dictionaryPatternLength) {
+        this.dictionaryPatternLength = dictionaryPatternLength;
+    }
+
     /**
      * Let G be the CFG and G' be the SLP. The method checks whether L(G) is of the same period as L(G').
      *
@@ -88,18 +165,20 @@ public class GenSLPOp<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S
     }
 
     /**
-     * Computes all positions of all occurrences of pattern in text. Since there can be exponential many (in size of the grammars)
-     * occurrences this may require exponential time.
+     * Computes all occurrences of pattern in text. Since there can be exponential many (in size of the grammars)
+     * occurrences, they are not enumerated: the result contains the number of occurrences in each non-terminal of the
+     * compressed text, it enumerates the positions lazily in ascending order and answers range queries. Block occurrences
+     * are represented as arithmetic progressions.
      *
-     * Complexity: exponential
+     * Complexity:  O((n+m)^2log(n+m)), where n is the size of the grammar of text and m is the size of the grammar of the pattern.
      * Requirement: SLPs text and pattern are singletons.
      *
      * @param text      SLP of the text
      * @param pattern   SLP of the pattern
      * @param factory   creator factory for renaming non-terminals
-     * @return  a list of all positions of all occurrences of the pattern in the text
+     * @return  the occurrences of the pattern in the text
      */
-    public List<Long> matchingAll(final Z text, final Z pattern, final ICFGCreatorFactory<N, S, W, P, C, Z> factory) {
+    public GenPatternOccurrences<N, S, W, P> matchingAll(final Z text, final Z pattern, final ICFGCreatorFactory<N, S, W, P, C, Z> factory) {
         if(!text.isSingleton() || !pattern.isSingleton()) {
             throw new IllegalArgumentException("the matchingAll operation requires two singleton SLPs.");
         }
@@ -107,14 +186,91 @@ public class GenSLPOp<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S
         Triple<Z, Set<S>, Set<S>> triple = merge(text, pattern, factory, true, false);
         GenJez<N, S, W, P> jez = new GenJez(triple.a, triple.b.iterator().next(), triple.c.iterator().next(), true, factory);
         jez.execute();
-        List<Long> occurrences = jez.getPatternOccurrencePositions();
+        return jez.getPatternOccurrences();
+    }
+
+    /**
+     * Computes all occurrences of pattern in text by the recompression on the primitive grammar representation
+     * (see GenArrayJez). The SLPs will neither be copied nor changed, the occurrences are not enumerated in advance.
+     *
+     * Complexity:  O(n+m) for each phase, where n is the size of the grammar of text and m is the size of the grammar of the pattern.
+     * Requirement: SLPs text and pattern are singletons and the pattern is not the empty word.
+     *
+     * @param text      SLP of the text
+     * @param pattern   SLP of the pattern
+     * @return  the occurrences of the pattern in the text
+     */
+    public GenArrayJez<N, S, W, P>.PatternOccurrences matchingAllCompact(final Z text, final Z pattern) {
+        if(!text.isSingleton() || !pattern.isSingleton()) {
+            throw new IllegalArgumentException("the matchingAll operation requires two singleton SLPs.");
+        }
+
+        GenArrayJez<N, S, W, P> jez = new GenArrayJez<>(text, pattern);
+        return jez.getPatternOccurrences();
+    }
+
+    /**
+     * Computes all occurrences of each pattern in the text. The patterns are processed in length buckets: patterns longer
+     * than the text do not occur, patterns of length at most dictionaryPatternLength are matched together by a single pass
+     * over the text grammar (see GenDictionaryMatching) and only the remaining patterns are matched one by one by the
+     * recompression on the primitive grammar representation (see matchingAllCompact). The empty pattern occurs at each position 0, 1, ..., |text|. Like for a single pattern, the positions
+     * are not enumerated in advance.
+     *
+     * Complexity: O(|T| * m + d) for the short patterns, where m is the length of the longest short pattern and d is the
+     * total length of the short patterns, and O(|T|) for the first access to the occurrences of a short pattern. Each
+     * position costs O(h * (r + l)), where h is the height of T, r is the length of its longest right-hand side and l is
+     * the maximal number of local occurrences of the pattern in a non-terminal (see GenDictionaryMatching).
+     * The long patterns are not grouped: each of the k long patterns runs its own recompression of the text, i.e. they cost
+     * O(k * M), where M is the cost of matchingAllCompact for a single pattern.
+     * Requirement: the SLP text and all pattern SLPs are singletons.
+     *
+     * @param text      SLP of the text
+     * @param patterns  SLPs of the patterns
+     * @return  a list containing for each pattern its occurrences in the text
+     */
+    public List<IPatternOccurrences> matchingAll(final Z text, final List<Z> patterns) {
+        if(!text.isSingleton() || patterns.stream().anyMatch(pattern -> !pattern.isSingleton())) {
+            throw new IllegalArgumentException("the matchingAll operation requires singleton SLPs.");
+        }
+
+        long textLength = text.length(text.getAxiom());
+        List<IPatternOccurrences> occurrences = new ArrayList<>(Collections.nCopies(patterns.size(), null));
+        List<Integer> shortPatterns = new ArrayList<>();
+        List<List<N>> shortPatternWords = new ArrayList<>();
+
+        for(int i = 0; i < patterns.size(); i++) {
+            Z pattern = patterns.get(i);
+            long patternLength = pattern.length(pattern.getAxiom());
+            if(patternLength > textLength) {
+                occurrences.set(i, new PositionRange(0, 0));
+            }
+            else if(patternLength <= dictionaryPatternLength) {
+                List<N> word = new ArrayList<>((int)patternLength);
+                pattern.iterator(pattern.getAxiom()).forEachRemaining(symbol -> word.add(symbol.getName()));
+                shortPatterns.add(i);
+                shortPatternWords.add(word);
+            }
+            else {
+                occurrences.set(i, matchingAllCompact(text, pattern));
+            }
+        }
+
+        if(!shortPatterns.isEmpty()) {
+            GenDictionaryMatching<N, S, W, P> dictionaryMatching = new GenDictionaryMatching<>(shortPatternWords);
+            List<IPatternOccurrences> shortOccurrences = dictionaryMatching.matchingAll(text, text.getAxiom());
+            for(int i = 0; i < shortPatterns.size(); i++) {
+                occurrences.set(shortPatterns.get(i), shortOccurrences.get(i));
+            }
+        }
+
+        logger.info("matched " + shortPatterns.size() + " of " + patterns.size() + " patterns by the dictionary matching.");
         return occurrences;
     }
 
     /**
      * Computes the position of the k-th occurrence of the pattern in the text.
      *
-     * Complexity:  O((n+m)^2log(n+m)), where n is the size of the grammar of text and m is the site of the grammar of the pattern.
+     * Complexity:  O((n+m)^2log(n+m)), where n is the size of the grammar of text and m is the size of the grammar of the pattern.
      * Requirement: SLPs text and pattern are singletons.
      *
      * @param text      SLP of the text
@@ -139,7 +295,7 @@ public class GenSLPOp<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S
     /**
      * Checks if prefix is a prefix of u.
      *
-     * Complexity:  O((n+m)^2log(n+m)), where n is the size of the grammar of text and m is the site of the grammar of the pattern.
+     * Complexity:  O((n+m)^2log(n+m)), where n is the size of the grammar of text and m is the size of the grammar of the pattern.
      * Requirement: SLPs u and prefix are singletons.
      *
      * @param u         a fully compressed word
@@ -417,7 +573,8 @@ public class GenSLPOp<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S
     }
 
     /**
-     * Test whether two singleton SLP i.e. two SLP-compressed words are equal.
+     * Test whether two singleton SLP i.e. two SLP-compressed words are equal. Depending on the equality mode the
+     * fingerprints of the words are compared before (or instead of) the recompression.
      *
      * Requirement: both SLPs are singleton sets, if distinctNonTerminals is true then the SLP share no common non-terminals.
      *
@@ -430,7 +587,16 @@ public class GenSLPOp<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S
      */
     public boolean equals(final Z slp1, final Z slp2, final ICFGCreatorFactory<N, S, W, P, C, Z> factory, final boolean immutable, final boolean distinctNonTerminals) {
         if(slp1.isSingleton() && slp2.isSingleton()) {
-            Triple<Z, Set<S>, Set<S>> triple = merge(slp1, slp2, factory, immutable, distinctNonTerminals);
+            if(equalityMode != EqualityMode.EXACT) {
+                if(!equalsFingerprint(slp1, slp2)) {
+                    return false;
+                }
+                else if(equalityMode == EqualityMode.FINGERPRINT) {
+                    return true;
+                }
+            }
+
+            Triple<Z, Set<S>, Set<S>> triple = distinctNonTerminals ? merge(slp1, slp2, factory, immutable, true) : mergeHashConsed(slp1, slp2, factory, immutable);
             GenJez<? extends N, S, W, P> jez = new GenJez(triple.a, factory);
             return jez.isEquals();
         }
@@ -439,6 +605,171 @@ public class GenSLPOp<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S
         }
     }
 
+    /**
+     * Test whether two singleton SLP i.e. two SLP-compressed words have the same length and the same Karp-Rabin fingerprint.
+     * Equal words have always equal fingerprints, unequal words have equal fingerprints with a probability of at most N / (2^61 - 1),
+     * where N is the length of the words. The SLPs will neither be copied nor changed.
+     *
+     * Requirement: both SLPs are singleton sets.
+     *
+     * Complexity: O(|G|)
+     *
+     * @param slp1  the first SLP-compressed word
+     * @param slp2  the second SLP-compressed word
+     * @return false => the two SLP-compressed words are not equal, true => they are equal with high probability
+     */
+    public boolean equalsFingerprint(final Z slp1, final Z slp2) {
+        if(!slp1.isSingleton() || !slp2.isSingleton()) {
+            throw new IllegalArgumentException("this method requires two singleton slp's.");
+        }
+
+        if(slp1.length() != slp2.length()) {
+            return false;
+        }
+
+        // the letters of both words have to be mapped injectively
+        Map<S, Long> letters = new HashMap<>();
+        return fingerprint(slp1, letters) == fingerprint(slp2, letters);
+    }
+
+    /**
+     * Computes the Karp-Rabin fingerprint of the word of the singleton SLP bottom-up, i.e. for each non-terminal X the pair
+     * (fp(val(X)), b^|val(X)|) is computed from the pairs of the symbols of rhs(X).
+     *
+     * Complexity: O(|G|)
+     *
+     * @param slp       a singleton SLP
+     * @param letters   the mapping : letter -> value of the letter, new letters will be added
+     * @return the fingerprint of the word of the SLP
+     */
+    private long fingerprint(final Z slp, final Map<S, Long> letters) {
+        // X -> (fp(val(X)), b^|val(X)|)
+        Map<S, long[]> fingerprints = new HashMap<>();
+        Iterator<P> descendingIterator = slp.getOrderedProductions().descendingIterator();
+        while (descendingIterator.hasNext()) {
+            P production = descendingIterator.next();
+            long fingerprint = 0;
+            long power = 1;
+            for(S symbol : production.getRight()) {
+                if(symbol.isTerminal()) {
+                    Long letter = letters.get(symbol);
+                    if(letter == null) {
+                        letter = letters.size() + 1L;
+                        letters.put(symbol, letter);
+                    }
+                    fingerprint = KarpRabin.add(KarpRabin.multiply(fingerprint, fingerprintBase), letter);
+                    power = KarpRabin.multiply(power, fingerprintBase);
+                }
+                else {
+                    long[] child = fingerprints.get(symbol);
+                    fingerprint = KarpRabin.add(KarpRabin.multiply(fingerprint, child[1]), child[0]);
+                    power = KarpRabin.multiply(power, child[1]);
+                }
+            }
+            fingerprints.put(production.getLeft(), new long[]{fingerprint, power});
+        }
+        return fingerprints.get(slp.getAxiom())[0];
+    }
+
+    /**
+     * Test whether two singleton SLP i.e. two SLP-compressed words are equal by the recompression on the primitive
+     * grammar representation (see GenArrayJez). The SLPs will neither be copied nor changed and they may share non-terminals.
+     *
+     * Requirement: both SLPs are singleton sets.
+     *
+     * @param slp1  the first SLP-compressed word
+     * @param slp2  the second SLP-compressed word
+     * @return true => the two SLP-compressed words are equal, false => they are not equal
+     */
+    public boolean equalsCompact(final Z slp1, final Z slp2) {
+        if(slp1.isSingleton() && slp2.isSingleton()) {
+            GenArrayJez<N, S, W, P> jez = new GenArrayJez<>(Arrays.asList(slp1, slp2));
+            return jez.isEquals();
+        }
+        else {
+            throw new IllegalArgumentException("this method requires two singleton slp's.");
+        }
+    }
+
+    /**
+     * Tests for each pair of singleton SLPs whether the two SLP-compressed words are equal. All words are compressed by one
+     * recompression on the primitive grammar representation (see GenArrayJez) instead of one recompression for each pair.
+     * The SLPs will neither be copied nor changed, an SLP contained in multiple pairs is translated only once.
+     *
+     * Requirement: all SLPs are singleton sets.
+     *
+     * @param pairs the pairs of SLP-compressed words
+     * @return i -> true if and only if the two words of the i-th pair are equal
+     */
+    public List<Boolean> equalsAll(final List<Pair<Z, Z>> pairs) {
+        List<Z> slps = new ArrayList<>(2 * pairs.size());
+        for(Pair<Z, Z> pair : pairs) {
+            slps.add(pair.a);
+            slps.add(pair.b);
+        }
+
+        int[] classes = getEqualityClasses(slps);
+        List<Boolean> result = new ArrayList<>(pairs.size());
+        for(int i = 0; i < pairs.size(); i++) {
+            result.add(classes[2 * i] == classes[2 * i + 1]);
+        }
+        return result;
+    }
+
+    /**
+     * Partitions singleton SLPs into classes of equal SLP-compressed words by one recompression on the primitive grammar
+     * representation (see GenArrayJez). The SLPs will neither be copied nor changed.
+     *
+     * Requirement: all SLPs are singleton sets.
+     *
+     * @param slps the SLP-compressed words
+     * @return the classes of equal words, the classes and their elements are in the order of their first occurrence in slps
+     */
+    public List<List<Z>> partition(final List<Z> slps) {
+        int[] classes = getEqualityClasses(slps);
+        Map<Integer, List<Z>> partition = new LinkedHashMap<>();
+        for(int i = 0; i < slps.size(); i++) {
+            partition.computeIfAbsent(classes[i], key -> new ArrayList<>()).add(slps.get(i));
+        }
+        return new ArrayList<>(partition.values());
+    }
+
+    /**
+     * Computes the equality classes of the words of singleton SLPs, identical SLP objects are translated only once.
+     *
+     * @param slps the SLP-compressed words
+     * @return i -> the smallest index j such that the j-th word is equal to the i-th word
+     */
+    private int[] getEqualityClasses(final List<Z> slps) {
+        Map<Z, Integer> indices = new IdentityHashMap<>();
+        List<Z> distinctSLPs = new ArrayList<>();
+        int[] slpIndex = new int[slps.size()];
+        for(int i = 0; i < slps.size(); i++) {
+            Z slp = slps.get(i);
+            if(!slp.isSingleton()) {
+                throw new IllegalArgumentException("this method requires singleton slp's.");
+            }
+            if(!indices.containsKey(slp)) {
+                indices.put(slp, distinctSLPs.size());
+                distinctSLPs.add(slp);
+            }
+            slpIndex[i] = indices.get(slp);
+        }
+
+        int[] distinctClasses = new GenArrayJez<N, S, W, P>(distinctSLPs).getEqualityClasses();
+        int[] firstIndex = new int[distinctSLPs.size()];
+        Arrays.fill(firstIndex, -1);
+        int[] classes = new int[slps.size()];
+        for(int i = 0; i < slps.size(); i++) {
+            int representative = distinctClasses[slpIndex[i]];
+            if(firstIndex[representative] == -1) {
+                firstIndex[representative] = i;
+            }
+            classes[i] = firstIndex[representative];
+        }
+        return classes;
+    }
+
     /**
      * Merges the grammar of two SLPs such that the languages are merged i.e. let G be the grammar of the first SLP and
      * G' be the grammar of the second SLP. This method creates a new SLP G'' such that L(G'') = L(G) union L(G').
@@ -457,7 +788,8 @@ public class GenSLPOp<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S
         Z freshSLP1 = slp1;
         Z freshSLP2 = slp2;
 
-        if(immutable) {
+        // renaming creates new productions, therefore a copy is only required if we do not rename.
+        if(immutable && distinctNonTerminals) {
             freshSLP1 = cfgCreator.copy(freshSLP1);
             freshSLP2 = cfgCreator.copy(freshSLP2);
         }
@@ -480,6 +812,224 @@ public class GenSLPOp<N, S extends IJezSymbol<N>, W extends IReferencedWord<N, S
         return new Triple<>(finalSLP, freshSLP1.getAxioms(), freshSLP2.getAxioms());
     }
 
+    /**
+     * Merges the grammar of two singleton SLPs like merge does, but all non-terminals are renamed and identical right-hand sides
+     * are hash-consed into one non-terminal, i.e. sub-grammars which are shared by both SLPs (or occur multiple times in one SLP)
+     * are represented only once. The axioms are never shared. The SLPs will neither be copied nor changed, the result consists
+     * of new productions only, therefore it can be changed by destructive algorithms like the recompression.
+     *
+     * Complexity: O(|G| + |G'|) expected
+     *
+     * @param slp1      the first SLP
+     * @param slp2      the second SLP
+     * @param factory   the a creator factory to get access to a create for introducing fresh non-terminals
+     * @return a grammar of two SLPs representing the union of the two SLPs
+     */
+    public Triple<Z, Set<S>, Set<S>> mergeHashConsed(final Z slp1, final Z slp2, final ICFGCreatorFactory<N, S, W, P, C, Z> factory) {
+        return mergeHashConsed(slp1, slp2, factory, true);
+    }
+
+    /**
+     * Merges the grammar of two singleton SLPs like mergeHashConsed(slp1, slp2, factory) does. If the SLPs are mutable
+     * the right-hand side of each new production is the right-hand side of the production it was created from, rewritten in place,
+     * instead of a new word, i.e. the SLPs will be destroyed.
+     *
+     * Complexity: O(|G| + |G'|) expected
+     *
+     * @param slp1      the first SLP
+     * @param slp2      the second SLP
+     * @param factory   the a creator factory to get access to a create for introducing fresh non-terminals
+     * @param immutable true => the SLPs will neither be copied nor changed, otherwise the right-hand sides of the SLPs will be reused
+     * @return a grammar of two SLPs representing the union of the two SLPs
+     */
+    public Triple<Z, Set<S>, Set<S>> mergeHashConsed(final Z slp1, final Z slp2, final ICFGCreatorFactory<N, S, W, P, C, Z> factory, final boolean immutable) {
+        ICFGCreator<N, S, W, P, C, Z> cfgCreator = factory.create(slp1, slp1);
+        RightHandSideTable rightHandSides = new RightHandSideTable();
+        Map<S, P> allProductions = new HashMap<>();
+
+        Set<S> axioms1 = hashCons(slp1, cfgCreator, rightHandSides, allProductions, immutable);
+        Set<S> axioms2 = hashCons(slp2, cfgCreator, rightHandSides, allProductions, immutable);
+
+        Set<S> allAxioms = new HashSet<>(axioms1);
+        allAxioms.addAll(axioms2);
+        return new Triple<>(cfgCreator.createSLP(allProductions, allAxioms), axioms1, axioms2);
+    }
+
+    /**
+     * Returns a new SLP equivalent to the slp in which identical right-hand sides are hash-consed into one non-terminal
+     * i.e. the new SLP is the minimal DAG of the derivation tree up to the productions of the axioms. All non-terminals
+     * will be renamed, the slp will neither be copied nor changed.
+     *
+     * Complexity: O(|G|) expected
+     *
+     * @param slp           the SLP
+     * @param cfgCreator    the creator for introducing fresh non-terminals
+     * @return a new hash-consed SLP equivalent to the slp
+     */
+    public Z hashCons(final Z slp, final ICFGCreator<N, S, W, P, C, Z> cfgCreator) {
+        Map<S, P> productions = new HashMap<>();
+        Set<S> axioms = hashCons(slp, cfgCreator, new RightHandSideTable(), productions, true);
+        return cfgCreator.createSLP(productions, axioms);
+    }
+
+    /**
+     * Adds the hash-consed productions of the slp to the productions by traversing the slp bottom-up, i.e. the right-hand side of
+     * each production is known after the replacement of its non-terminals and a new non-terminal is only introduced if the
+     * right-hand side is not contained in the table. Axioms will always get their own new non-terminal. The right-hand side is
+     * looked up symbol by symbol via its packed prefix keys, i.e. a list of the right-hand side is only built for a new production.
+     * If the slp is mutable, the right-hand side of a new production is the old right-hand side in which the non-terminals are
+     * replaced in place. A right-hand side might be shared by productions of both SLPs, therefore it may already contain new non-terminals.
+     *
+     * Complexity: O(|G|) expected
+     *
+     * @param slp               the SLP
+     * @param cfgCreator        the creator for introducing fresh non-terminals
+     * @param rightHandSides    the table: right-hand side -> non-terminal
+     * @param productions       the hash-consed productions so far
+     * @param immutable         true => the slp will not be changed, otherwise its right-hand sides will be reused
+     * @return the new axioms of the slp
+     */
+    private Set<S> hashCons(final Z slp, final ICFGCreator<N, S, W, P, C, Z> cfgCreator, final RightHandSideTable rightHandSides, final Map<S, P> productions, final boolean immutable) {
+        // non-terminal of the slp -> index of its new non-terminal
+        Map<S, Integer> replacement = new HashMap<>();
+        Set<S> axioms = slp.getAxioms();
+        Set<S> newAxioms = new HashSet<>();
+
+        Iterator<P> descendingIterator = slp.getOrderedProductions().descendingIterator();
+        while (descendingIterator.hasNext()) {
+            P production = descendingIterator.next();
+            int index;
+
+            if(axioms.contains(production.getLeft())) {
+                S left = cfgCreator.createFreshNonTerminal();
+                newAxioms.add(left);
+                productions.put(left, cfgCreator.createProduction(left, replace(production, replacement, rightHandSides, cfgCreator, immutable)));
+                index = rightHandSides.addNonTerminal(left);
+            }
+            else {
+                int prefix = RightHandSideTable.EMPTY;
+                for(S symbol : production.getRight()) {
+                    prefix = rightHandSides.append(prefix, symbol.isTerminal() ? rightHandSides.terminalCode(symbol) : 2 * index(symbol, replacement, rightHandSides));
+                }
+
+                index = rightHandSides.getNonTerminal(prefix);
+                if(index < 0) {
+                    S left = cfgCreator.createFreshNonTerminal();
+                    productions.put(left, cfgCreator.createProduction(left, replace(production, replacement, rightHandSides, cfgCreator, immutable)));
+                    index = rightHandSides.addNonTerminal(left);
+                    rightHandSides.setNonTerminal(prefix, index);
+                }
+            }
+            replacement.put(production.getLeft(), index);
+        }
+        return newAxioms;
+    }
+
+    private W replace(final P production, final Map<S, Integer> replacement, final RightHandSideTable rightHandSides, final ICFGCreator<N, S, W, P, C, Z> cfgCreator, final boolean immutable) {
+        W word = production.getRight();
+
+        // a right-hand side can be reused only once, since the new productions will be changed independently.
+        if(!immutable && rightHandSides.reusedWords.add(word)) {
+            for(Node<S> node : word.findAllPointers(symbol -> !symbol.isTerminal())) {
+                node.setElement(rightHandSides.nonTerminals.get(index(node.getElement(), replacement, rightHandSides)));
+            }
+            return word;
+        }
+        else {
+            List<S> right = new ArrayList<>();
+            for(S symbol : word) {
+                right.add(symbol.isTerminal() ? symbol : rightHandSides.nonTerminals.get(index(symbol, replacement, rightHandSides)));
+            }
+            return cfgCreator.createWord(right);
+        }
+    }
+
+    /**
+     * Returns the index of the new non-terminal of the non-terminal, which is either a non-terminal of the slp or already a new non-terminal.
+     */
+    private int index(final S nonTerminal, final Map<S, Integer> replacement, final RightHandSideTable rightHandSides) {
+        Integer index = replacement.get(nonTerminal);
+        return index != null ? index : rightHandSides.indices.get(nonTerminal);
+    }
+
+    /**
+     * The table of hash-consed right-hand sides. A right-hand side is a path in a trie of its prefixes, where each prefix is numbered
+     * by a LongIndexSet of the packed keys (index of the prefix without its last symbol, code of the last symbol). A terminal
+     * is coded by 2 * (its number) + 1, a new non-terminal by 2 * (its index), therefore no right-hand side has to be materialized
+     * for a lookup.
+     */
+    private class RightHandSideTable {
+
+        /**
+         * the index of the empty prefix.
+         */
+        private static final int EMPTY = 0;
+
+        private final LongIndexSet prefixes;
+
+        private final Map<S, Integer> terminalCodes;
+
+        /**
+         * index -> new non-terminal.
+         */
+        private final List<S> nonTerminals;
+
+        /**
+         * new non-terminal -> index.
+         */
+        private final Map<S, Integer> indices;
+
+        /**
+         * the right-hand sides of the SLPs that are reused by new productions (compared by identity).
+         */
+        private final Set<W> reusedWords;
+
+        /**
+         * index of a prefix -> index of the non-terminal of this right-hand side + 1 (0 marks no non-terminal).
+         */
+        private int[] nonTerminalOfPrefix;
+
+        private RightHandSideTable() {
+            this.prefixes = new LongIndexSet();
+            this.terminalCodes = new HashMap<>();
+            this.nonTerminals = new ArrayList<>();
+            this.indices = new HashMap<>();
+            this.reusedWords = Collections.newSetFromMap(new IdentityHashMap<>());
+            this.nonTerminalOfPrefix = new int[16];
+            this.prefixes.add(Long.MIN_VALUE);
+        }
+
+        private int terminalCode(final S terminal) {
+            Integer code = terminalCodes.get(terminal);
+            if(code == null) {
+                code = 2 * terminalCodes.size() + 1;
+                terminalCodes.put(terminal, code);
+            }
+            return code;
+        }
+
+        private int append(final int prefix, final int code) {
+            return prefixes.add(((long)prefix << 32) | code);
+        }
+
+        private int addNonTerminal(final S nonTerminal) {
+            nonTerminals.add(nonTerminal);
+            indices.put(nonTerminal, nonTerminals.size() - 1);
+            return nonTerminals.size() - 1;
+        }
+
+        private int getNonTerminal(final int prefix) {
+            return prefix < nonTerminalOfPrefix.length ? nonTerminalOfPrefix[prefix] - 1 : -1;
+        }
+
+        private void setNonTerminal(final int prefix, final int index) {
+            if(prefix >= nonTerminalOfPrefix.length) {
+                nonTerminalOfPrefix = Arrays.copyOf(nonTerminalOfPrefix, Math.max(2 * nonTerminalOfPrefix.length, prefix + 1));
+            }
+            nonTerminalOfPrefix[prefix] = index + 1;
+        }
+    }
+
     /**
      * Tests whether all words defined by the SLP are equals.
      *
@@ -20,7 +20,7 @@ public class ReferencedWordProperties<N, S extends IJezSymbol<N>, W extends IRef
      * @return true if there is a proper pair equal to pair at the pointer node
      */
     public boolean isPairAt(final Node<S> node, final Pair<S, S> pair) {
-        return node.hasNext() && node.getElement().equals(pair.a) && node.getNext().getElement().equals(pair.b);
+        return node.hasNext() && node.getElement().equals(pair.a) && node.getNextElement().equals(pair.b);
     }
 
     /**
@@ -30,8 +30,18 @@ public class ReferencedWordProperties<N, S extends IJezSymbol<N>, W extends IRef
      * @return true if there is any proper pair at the pointer position, otherwise false
      */
     public boolean isPair(final Node<S> node) {
-        return node.hasNext() && !node.getElement().equals(node.getNext().getElement())
-                && node.getElement().isTerminal() && node.getNext().getElement().isTerminal();
+        return node.hasNext() && isPair(node.getElement(), node.getNextElement());
+    }
+
+    /**
+     * Returns true if the two neighbouring symbols a and b form a proper pair, i.e. two different terminals.
+     *
+     * @param a the left symbol
+     * @param b the right symbol
+     * @return true if a and b form a proper pair, otherwise false
+     */
+    public boolean isPair(final S a, final S b) {
+        return !a.equals(b) && a.isTerminal() && b.isTerminal();
     }
 
     /**
@@ -41,9 +51,7 @@ public class ReferencedWordProperties<N, S extends IJezSymbol<N>, W extends IRef
      * @return true if there is a crossing pair at the pointer position, otherwise false
      */
     public boolean isNonCrossingPair(final Node<S> node) {
-        return node.hasNext()
-                && node.getElement().isTerminal() && node.getNext().getElement().isTerminal()
-                && !node.getElement().equals(node.getNext().getElement());
+        return node.hasNext() && isPair(node.getElement(), node.getNextElement());
     }
 
     /**
@@ -54,7 +62,7 @@ public class ReferencedWordProperties<N, S extends IJezSymbol<N>, W extends IRef
      * @return true if there are two equal terminal symbols at and left to the pointer position
      */
     public boolean isNonCompressedBlockAt(final Node<S> node) {
-        return node.getElement().isTerminal() && node.hasNext() && node.getElement().equals(node.getNext().getElement());
+        return node.getElement().isTerminal() && node.hasNext() && node.getElement().equals(node.getNextElement());
     }
 
     /**
@@ -0,0 +1,21 @@
+package grammar.impl;
+
+import grammar.gen.GenArrayJez;
+import grammar.inter.ISLP;
+import symbol.IJezSymbol;
+
+import java.util.List;
+
+/**
+ * The standard implementation of GenArrayJez.
+ *
+ * @author Benedikt Zoennchen
+ *
+ * @param <N> the type of terminal and non-terminal symbols.
+ */
+public class ArrayJez<N> extends GenArrayJez<N, IJezSymbol<N>, JezWord<N>, Production<N>> {
+
+    public ArrayJez(final List<? extends ISLP<N, IJezSymbol<N>, JezWord<N>, Production<N>>> slps) {
+        super(slps);
+    }
+}
@@ -25,7 +25,7 @@ public class CFGCreator<N> implements ICFGCreator<N, IJezSymbol<N>, JezWord<N>,
     /**
      * A SLP representing the emtpy word.
      */
-    private SLP<N> emptyWord = null;
+    private volatile SLP<N> emptyWord = null;
 
     /**
      * The default constructor constructing a frehs creator.
@@ -34,6 +34,16 @@ public class CFGCreator<N> implements ICFGCreator<N, IJezSymbol<N>, JezWord<N>,
         symbolIJezSymbolFactory = new JezSymbolFactory<>();
     }
 
+    /**
+     * A constructor constructing a fresh creator, which can be shared by multiple threads if concurrent is true.
+     * A shared creator can be used e.g. to create base grammars which are used by concurrent equivalence queries.
+     *
+     * @param concurrent true => the creator uses a thread-safe symbol factory, otherwise the creator is not thread-safe
+     */
+    public CFGCreator(final boolean concurrent) {
+        symbolIJezSymbolFactory = new JezSymbolFactory<>(concurrent);
+    }
+
     /**
      * A Constructor to construct a creator that is initialized by the non-terminals contained in any CFG inside the list of CFGs.
      *
@@ -190,13 +200,13 @@ public class CFGCreator<N> implements ICFGCreator<N, IJezSymbol<N>, JezWord<N>,
 
     @Override
     public Set<Production<N>> copyProductions(final Set<Production<N>> productions) {
-        return productions.stream().map(p -> createProduction(p.getLeft().clone(), createWord(p.getRight().stream().map(s -> s.clone()).collect(Collectors.toList())))).collect(Collectors.toSet());
+        return productions.stream().map(p -> createProduction(p.getLeft().clone(), p.getRight().clone())).collect(Collectors.toSet());
     }
 
     @Override
     public Map<IJezSymbol<N>, Production<N>> copyProductions(final Map<IJezSymbol<N>, Production<N>> productions) {
         return productions.entrySet().stream()
-                .map(entry -> createProduction(entry.getKey(), createWord(entry.getValue().getRight().stream().map(s -> s.clone()).collect(Collectors.toList()))))
+                .map(entry -> createProduction(entry.getKey(), entry.getValue().getRight().clone()))
                 .collect(Collectors.toMap(prd -> prd.getLeft(), prd -> prd));
     }
 
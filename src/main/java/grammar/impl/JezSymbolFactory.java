@@ -7,27 +7,43 @@ import utils.Block;
 import utils.Pair;
 
 import java.lang.ref.WeakReference;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A JezSymbolFactory has two tasks. First of all it contains non-terminal and terminal IJezSymbols identified by
  * its name i.e. a terminal and a non-terminal alphabet. Therefore we can use the factory to get a jez symbols for certain names. The second task is
  * to support a changing phase alphabet of jez symbol of the last and the current jez phase. This will be used by the recompression algorithm only.
  *
+ * By default the factory is not thread-safe. In concurrent mode the factory can be shared by multiple threads, e.g. by a creator of base
+ * grammars which is used by concurrent equivalence queries: the ids of each alphabet are allocated by an atomic counter, the symbols
+ * are published by a ConcurrentHashMap and each name is bound to its symbol atomically, therefore ids stay dense and unique without
+ * any lock.
+ *
  * @author Benedikt Zoennchen
  *
  * @param <T> the type of terminal and non-terminal symbols.
  */
 public class JezSymbolFactory<T> implements IJezSymbolFactory<T, IJezSymbol<T>, JezWord<T>, Production<T>> {
 
-    private List<IJezSymbol<T>> terminalAlphabet;
-    private List<IJezSymbol<T>> phaseAlphabet;
-    private List<IJezSymbol<T>> nonTerminalAlphabet;
-    private HashMap<T,WeakReference<IJezSymbol<T>>> baseSymbols;
-    private long phase;
+    /**
+     * The alphabet of the current phase, the phase number is part of the alphabet such that the phase and its alphabet
+     * are always replaced together.
+     */
+    private final AtomicReference<Alphabet> phaseAlphabet;
+    private final Alphabet nonTerminalAlphabet;
+    private final Map<T,WeakReference<IJezSymbol<T>>> baseSymbols;
+
+    /**
+     * true => the factory can be shared by multiple threads.
+     */
+    private final boolean concurrent;
 
     /**
      * The constructor with an non-terminal alphabet containing jez-symbols of id [maxNonTerminal]
@@ -47,17 +63,33 @@ public class JezSymbolFactory<T> implements IJezSymbolFactory<T, IJezSymbol<T>,
      * The default constructor creating empty alphabets.
      */
     public JezSymbolFactory() {
-        terminalAlphabet = new ArrayList<>();
-        phaseAlphabet = new ArrayList<>();
-        nonTerminalAlphabet = new ArrayList<>();
-        baseSymbols = new HashMap<>();
-        phase = 0;
+        this(false);
+    }
+
+    /**
+     * A constructor creating empty alphabets.
+     *
+     * @param concurrent true => the factory can be shared by multiple threads, otherwise it is not thread-safe
+     */
+    public JezSymbolFactory(final boolean concurrent) {
+        this.concurrent = concurrent;
+        phaseAlphabet = new AtomicReference<>(new Alphabet(0));
+        nonTerminalAlphabet = new Alphabet(0);
+        baseSymbols = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+    }
+
+    /**
+     * Returns true if the factory can be shared by multiple threads, false otherwise.
+     *
+     * @return true if the factory can be shared by multiple threads, false otherwise
+     */
+    public boolean isConcurrent() {
+        return concurrent;
     }
 
     @Override
     public void nextPhase() {
-        phase++;
-        phaseAlphabet = new ArrayList<>();
+        phaseAlphabet.updateAndGet(alphabet -> new Alphabet(alphabet.phase + 1));
     }
 
     @Override
@@ -72,9 +104,7 @@ public class JezSymbolFactory<T> implements IJezSymbolFactory<T, IJezSymbol<T>,
 
     @Override
     public IJezSymbol<T> createFreshNonTerminal() {
-        JezSymbol jezSymbol = new JezSymbol(nonTerminalAlphabet.size(), false, null, 0, 1L, 1L);
-        nonTerminalAlphabet.add(jezSymbol);
-        return jezSymbol;
+        return nonTerminalAlphabet.add(false, null, 1L, 1L);
     }
 
     @Override
@@ -119,36 +149,38 @@ public class JezSymbolFactory<T> implements IJezSymbolFactory<T, IJezSymbol<T>,
     }
 
     public List<IJezSymbol<T>> getAlphabet(final int phase) {
-        if(phase != this.phase) {
-            throw new IllegalArgumentException("unsynchonized phase.");
-        }
-        return phaseAlphabet;
+        return getPhaseAlphabet(phase);
     }
 
-    private IJezSymbol<T> createTerminal(final boolean terminal, final T name, int phase, long length, long weight) {
-        if(terminal && phase != this.phase) {
+    /**
+     * Returns the alphabet of the current phase.
+     *
+     * @param phase the phase the caller expects to be the current one
+     * @return the alphabet of the current phase
+     * @throws IllegalArgumentException if the phase is not the current phase
+     */
+    private Alphabet getPhaseAlphabet(final int phase) {
+        Alphabet alphabet = phaseAlphabet.get();
+        if(phase != alphabet.phase) {
             throw new IllegalArgumentException("unsynchonized phase.");
         }
+        return alphabet;
+    }
 
-        List<IJezSymbol<T>> alphabet;
-        if(terminal) {
-            alphabet = getAlphabet(phase);
+    private IJezSymbol<T> createTerminal(final boolean terminal, final T name, int phase, long length, long weight) {
+        if(!terminal) {
+            return createNonTerminal(name, phase, length, weight);
         }
         else {
-            alphabet = nonTerminalAlphabet;
+            return getPhaseAlphabet(phase).add(terminal, name, length, weight);
         }
-        JezSymbol jezSymbol = new JezSymbol(alphabet.size(), terminal, name, phase, length, weight);
-        alphabet.add(jezSymbol);
-        return jezSymbol;
     }
 
-    private IJezSymbol<T> createNonTerminal(final boolean terminal, final T name, int phase, long length, long weight) {
+    private IJezSymbol<T> createNonTerminal(final T name, int phase, long length, long weight) {
         if(phase != 0) {
             new IllegalArgumentException("your not allowed to createTerminal non-terminals in a phase != 0.");
         }
-        JezSymbol jezSymbol = new JezSymbol(nonTerminalAlphabet.size(), terminal, name, phase, length, weight);
-        nonTerminalAlphabet.add(jezSymbol);
-        return jezSymbol;
+        return nonTerminalAlphabet.add(false, name, length, weight);
     }
 
     @Override
@@ -158,33 +190,84 @@ public class JezSymbolFactory<T> implements IJezSymbolFactory<T, IJezSymbol<T>,
 
     @Override
     public List<IJezSymbol<T>> getNonTerminals() {
-        return Collections.unmodifiableList(nonTerminalAlphabet);
+        return nonTerminalAlphabet;
     }
 
     /**
-     * Creates a new named state with the given name.
+     * Returns the symbol of the given name and creates it if there is no such symbol. In concurrent mode the binding of
+     * the name is atomic, therefore a symbol (and its id) is created only once per name even if multiple threads look
+     * it up at the same time.
      *
-     * @param name name of the new state
-     * @return a new named state
+     * @param name      name of the symbol
+     * @param terminal  true => the symbol is a terminal, otherwise it is a non-terminal
+     * @return a new named symbol or the known symbol of the name
      */
-    @SuppressWarnings("unchecked")
     private IJezSymbol<T> lookup(T name, boolean terminal) {
         WeakReference<IJezSymbol<T>> ref = baseSymbols.get(name); //lookup if we know this state
-
-        // this cast is safe because if we find a NamedState for
-        // the name, its type parameter is the type of the name
         IJezSymbol<T> s = (ref!=null)?ref.get():null;
-        if (s==null) {
-            if(terminal) {
-                s = createTerminal(terminal, name, 0, 1L, 1L);
+        if (s != null) {
+            return s;
+        }
+
+        // the strong reference keeps the symbol alive until it is returned
+        List<IJezSymbol<T>> symbol = new ArrayList<>(1);
+        baseSymbols.compute(name, (key, known) -> {
+            IJezSymbol<T> knownSymbol = (known!=null)?known.get():null;
+            if(knownSymbol == null) {
+                knownSymbol = terminal ? createTerminal(terminal, name, 0, 1L, 1L) : createNonTerminal(name, 0, 1L, 1L);
+                known = new WeakReference<>(knownSymbol);
+            }
+            symbol.add(knownSymbol);
+            return known;
+        });
+        return symbol.get(0);
+    }
+
+    /**
+     * An alphabet of symbols whose ids are dense, i.e. the ids of the alphabet are 0, 1, ..., size()-1. The ids are allocated
+     * by an atomic counter, in concurrent mode a symbol is visible by get() as soon as its creation returned. The alphabet
+     * is unmodifiable from the outside.
+     */
+    private final class Alphabet extends AbstractList<IJezSymbol<T>> {
+
+        private final int phase;
+        private final AtomicInteger ids;
+        private final List<IJezSymbol<T>> symbols;
+        private final Map<Integer, IJezSymbol<T>> concurrentSymbols;
+
+        private Alphabet(final int phase) {
+            this.phase = phase;
+            this.ids = new AtomicInteger(0);
+            this.symbols = concurrent ? null : new ArrayList<>();
+            this.concurrentSymbols = concurrent ? new ConcurrentHashMap<>() : null;
+        }
+
+        /**
+         * Creates a new symbol whose id is the next id of the alphabet and adds it to the alphabet.
+         */
+        private IJezSymbol<T> add(final boolean terminal, final T name, long length, long weight) {
+            int id = ids.getAndIncrement();
+            JezSymbol<T> jezSymbol = new JezSymbol<>(id, terminal, name, phase, length, weight);
+            if(concurrent) {
+                concurrentSymbols.put(id, jezSymbol);
             }
             else {
-                s = createNonTerminal(terminal, name, 0, 1L, 1L);
+                symbols.add(jezSymbol);
             }
-            baseSymbols.put(name, new WeakReference<>(s));
-            return s;
-        } else {
-            return s;
+            return jezSymbol;
+        }
+
+        @Override
+        public IJezSymbol<T> get(final int index) {
+            if(index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + size());
+            }
+            return concurrent ? concurrentSymbols.get(index) : symbols.get(index);
+        }
+
+        @Override
+        public int size() {
+            return ids.get();
         }
     }
 }
@@ -1,7 +1,6 @@
 package grammar.impl;
 
 import grammar.gen.GenPointedWord;
-import grammar.inter.IReferencedWord;
 import symbol.IJezSymbol;
 
 import java.util.List;
@@ -14,6 +13,10 @@ import java.util.List;
  * @param <N> the type of terminal and non-terminal symbols.
  */
 public class JezWord<N> extends GenPointedWord<N, IJezSymbol<N>> {
+    public JezWord() {
+        super();
+    }
+
     public JezWord(final IJezSymbol<N> symbol) {
         super(symbol);
     }
@@ -22,9 +25,12 @@ public class JezWord<N> extends GenPointedWord<N, IJezSymbol<N>> {
         super(symbols);
     }
 
+    private JezWord(final JezWord<N> word) {
+        super(word);
+    }
+
     @Override
-    public IReferencedWord<N, IJezSymbol<N>> clone() {
-        IReferencedWord<N, IJezSymbol<N>> clone = super.clone();
-        return new JezWord<>(clone.findAll(s -> true));
+    public JezWord<N> clone() {
+        return new JezWord<>(this);
     }
 }
@@ -24,7 +24,11 @@ public class SLP<N> extends GenSLP<N, IJezSymbol<N>, JezWord<N>, Production<N>>
 
     @Override
     public SLP<N> clone() {
-        GenSLP<N, IJezSymbol<N>, JezWord<N>, Production<N>> genSLP = super.clone();
-        return new SLP<>(genSLP.getProductions(), genSLP.getAxioms());
+        return (SLP<N>) super.clone();
+    }
+
+    @Override
+    protected SLP<N> create(final Map<IJezSymbol<N>, Production<N>> produtions, final Set<IJezSymbol<N>> axioms) {
+        return new SLP<>(produtions, axioms);
     }
 }
@@ -203,7 +203,8 @@ public interface ICFGCreator<
     IJezSymbolFactory<N, S, W, P> getSymbolFactory();
 
     /**
-     * Copies a set of productions.
+     * Copies a set of productions. The right-hand sides of the copies share their symbols with the base productions
+     * until one of them is changed (copy-on-write), i.e. the copy is in O(number of productions).
      *
      * @param productions the base productions
      * @return a set containing copies of the base productions
@@ -211,7 +212,8 @@ public interface ICFGCreator<
     Set<P> copyProductions(final Set<P> productions);
 
     /**
-     * Copies a set of productions.
+     * Copies a set of productions. The right-hand sides of the copies share their symbols with the base productions
+     * until one of them is changed (copy-on-write), i.e. the copy is in O(number of productions).
      *
      * @param productions the base productions
      * @return a map containing copies of the base productions
@@ -0,0 +1,55 @@
+package grammar.inter;
+
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+/**
+ * The occurrences of a pattern in a compressed text, i.e. a read-only list of the positions (starting from 0) in ascending
+ * order. Since there can be exponential many occurrences, the positions are not enumerated in advance, they are computed
+ * on demand by the get- and iterator-methods.
+ *
+ * @author Benedikt Zoennchen
+ */
+public interface IPatternOccurrences extends List<Long> {
+
+    /**
+     * Returns the number of occurrences of the pattern in the text, size() is this number cut to Integer.MAX_VALUE.
+     *
+     * @return the number of occurrences of the pattern in the text
+     */
+    long count();
+
+    /**
+     * Returns the number of occurrences of the pattern starting in the range [begin, end) of the text.
+     *
+     * @param begin the inclusive begin of the range
+     * @param end   the exclusive end of the range
+     * @return the number of occurrences of the pattern starting in the range [begin, end)
+     */
+    long count(final long begin, final long end);
+
+    /**
+     * Returns the position of the (index+1)-th occurrence.
+     *
+     * @param index the 0-based index of the occurrence
+     * @return the position of the (index+1)-th occurrence
+     */
+    long getPosition(final long index);
+
+    /**
+     * Returns a lazy iterator over all positions in ascending order.
+     *
+     * @return a lazy iterator over all positions in ascending order
+     */
+    @Override
+    PrimitiveIterator.OfLong iterator();
+
+    /**
+     * Returns a lazy iterator over all positions of the range [begin, end) in ascending order.
+     *
+     * @param begin the inclusive begin of the range
+     * @param end   the exclusive end of the range
+     * @return a lazy iterator over all positions of the range [begin, end) in ascending order
+     */
+    PrimitiveIterator.OfLong iterator(final long begin, final long end);
+}
@@ -0,0 +1,20 @@
+package grammar.inter;
+
+import utils.PhaseStatistics;
+
+/**
+ * A IPhaseListener will be informed by the recompression after each phase, e.g. to find the dominating stage of the
+ * recompression or to observe the number of phases.
+ *
+ * @author Benedikt Zoennchen
+ */
+@FunctionalInterface
+public interface IPhaseListener {
+
+    /**
+     * Will be called at the end of each phase of the recompression.
+     *
+     * @param statistics the statistics of the finished phase
+     */
+    void onPhase(final PhaseStatistics statistics);
+}
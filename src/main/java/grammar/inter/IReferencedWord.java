@@ -1,5 +1,6 @@
 package grammar.inter;
 
+import data.ElementIterator;
 import data.Node;
 import symbol.IJezSymbol;
 
@@ -33,6 +34,20 @@ public interface IReferencedWord<N, S extends IJezSymbol<N>> extends IWord<S> {
      */
     Iterator<Node<S>> nodeIterator();
 
+    /**
+     * A iterator to iterate over the symbols of this word that creates a pointer only for the symbols whose pointer is requested.
+     *
+     * @return a iterator to iterate over the symbols of this word
+     */
+    ElementIterator<S> elementIterator();
+
+    /**
+     * Returns the number of pointers that were requested for symbols of this word.
+     *
+     * @return the number of pointers of this word
+     */
+    int pointerCount();
+
     /**
      * Returns a List of pointers pointing to symbols of this word satisfying the predicate condition.
      *
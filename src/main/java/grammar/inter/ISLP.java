@@ -1,10 +1,14 @@
 package grammar.inter;
 
+import data.Node;
 import symbol.IJezSymbol;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Stream;
 
 /**
  * A SLP i.e. a CFG that is acyclic and that contains for each non-terminal only one production.
@@ -63,6 +67,24 @@ public interface ISLP<N, S extends IJezSymbol<? extends N>, W extends IReference
      */
     void deleteProduction(final S left);
 
+    /**
+     * Returns the pointers to all occurrences of the non-terminal in the right-hand sides of this SLP. This will be used
+     * only by the recompression algorithm.
+     *
+     * @param nonTerminal a non-terminal of this SLP
+     * @return the pointers to all occurrences of the non-terminal
+     */
+    List<Node<S>> getOccurrences(final S nonTerminal);
+
+    /**
+     * Registers the pointer to an occurrence of a non-terminal which was inserted into the right-hand side of the production
+     * of left. The non-terminal has to be derivable from left before the change, such that the order of the productions is kept.
+     *
+     * @param left      the non-terminal of the changed production
+     * @param pointer   the pointer to the inserted occurrence of the non-terminal
+     */
+    void addOccurrence(final S left, final Node<S> pointer);
+
     /**
      * Returns a list of jez symbols defining the word val(X). If X is a non-terminal
      * val(X) is the word generated by X otherwise the list just contain the terminal X.
@@ -81,6 +103,58 @@ public interface ISLP<N, S extends IJezSymbol<? extends N>, W extends IReference
      */
     List<?> word(final S left);
 
+    /**
+     * Returns a lazy iterator over val(X), the word is decompressed on the fly.
+     *
+     * @param left  the non-terminal or terminal symbol
+     * @return a lazy iterator over val(X)
+     */
+    Iterator<S> iterator(final S left);
+
+    /**
+     * Returns a lazy iterator over the 0-based range [begin, end) of val(X).
+     *
+     * @param left  a non-terminal of the SLP
+     * @param begin the inclusive begin of the range
+     * @param end   the exclusive end of the range
+     * @return a lazy iterator over the range [begin, end) of val(X)
+     */
+    Iterator<S> iterator(final S left, final long begin, final long end);
+
+    /**
+     * Returns a splittable spliterator over val(X).
+     *
+     * @param left  a non-terminal of the SLP
+     * @return a splittable spliterator over val(X)
+     */
+    Spliterator<S> spliterator(final S left);
+
+    /**
+     * Returns a lazy stream of val(X).
+     *
+     * @param left  a non-terminal of the SLP
+     * @return a lazy stream of val(X)
+     */
+    Stream<S> stream(final S left);
+
+    /**
+     * Returns a CharSequence view of val(X), all symbols have to be named by characters.
+     *
+     * @param left  a non-terminal of the SLP
+     * @return a CharSequence view of val(X)
+     */
+    CharSequence charSequence(final S left);
+
+    /**
+     * Returns the word of the 0-based range [begin, end) of val(X).
+     *
+     * @param left  a non-terminal of the SLP
+     * @param begin the inclusive begin of the range
+     * @param end   the exclusive end of the range
+     * @return the word of the range [begin, end) of val(X)
+     */
+    String substring(final S left, final long begin, final long end);
+
     /**
      * returns val(S).toString().
      *
@@ -106,7 +180,8 @@ public interface ISLP<N, S extends IJezSymbol<? extends N>, W extends IReference
      * Returns the length of the non-terminal X i.e. |val(X)|.
      *
      * @param left      the non-terminal
-     * @param changed   true => recompute the lengths, we require this since the recompression algorithm changes the SLP. Otherwise no recompution takes place.
+     * @param changed   true => the production of X was changed, i.e. the length of X and of all non-terminals deriving X will be recomputed (see invalidate).
+     *                  Changes of other productions have to be reported by invalidate. Otherwise no recompution takes place.
      * @return the length of the non-terminal X i.e. |val(X)|
      */
     long length(final S left, final boolean changed);
@@ -136,4 +211,22 @@ public interface ISLP<N, S extends IJezSymbol<? extends N>, W extends IReference
      * @return the jez symbol val(left)[k].
      */
     S get(final S left, long k);
+
+    /**
+     * Returns the jez symbols val(left)[k_1], ..., val(left)[k_m] in the order of the positions.
+     *
+     * @param left      a non-terminal of the SLP
+     * @param positions positions k_1, ..., k_m with 1 <= k_i <= |val(left)|
+     * @return the jez symbols val(left)[k_1], ..., val(left)[k_m]
+     */
+    List<S> get(final S left, final long[] positions);
+
+    /**
+     * Informs the SLP that the right-hand side of the production of left was changed. The lengths of left and of all
+     * non-terminals deriving left will be recomputed by the next query, all other lengths are kept.
+     * A non-terminal which is introduced to the right-hand side by the change has to be registered by addOccurrence.
+     *
+     * @param left the non-terminal of the changed production
+     */
+    void invalidate(final S left);
 }
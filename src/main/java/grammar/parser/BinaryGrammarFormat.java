@@ -0,0 +1,56 @@
+package grammar.parser;
+
+/**
+ * The constants of the binary grammar format. A file of this format consists of
+ *
+ * header:          magic (4 bytes 'S' 'L' 'P' 'G'), version (1 byte), kind (1 byte, SLP or CFG)
+ * symbol table:    #terminals, followed by each terminal as its name, its length and its weight, where the name is stored as
+ *                  length + 1 and UTF-8 bytes. A terminal without a name (e.g. a letter of a recompressed SLP) is stored as 0
+ *                  followed by the index of its letter, all terminals of the same letter but of different lengths share this index
+ * non-terminals:   #non-terminals, #axioms, followed by the indices of the axioms
+ * productions:     #productions, followed by each production as index of the left-hand side, length of the right-hand side
+ *                  and the codes of the right-hand side, where the code of a symbol is (index << 1) | 1 for terminals and
+ *                  (index << 1) for non-terminals
+ *
+ * Version 1 stores the names of the terminals as length and UTF-8 bytes only, i.e. all terminals are named and of length
+ * and weight 1, the reader still supports it.
+ *
+ * All numbers are unsigned varints (7 bits per byte, least significant group first). The productions of a SLP are stored in
+ * topological order, i.e. each production is stored after the productions of the non-terminals of its right-hand side.
+ *
+ * @author Benedikt Zoennchen
+ */
+final class BinaryGrammarFormat {
+
+    static final byte[] MAGIC = new byte[]{'S', 'L', 'P', 'G'};
+
+    static final byte VERSION = 2;
+
+    static final byte VERSION_1 = 1;
+
+    static final byte SLP = 0;
+
+    static final byte CFG = 1;
+
+    private BinaryGrammarFormat() {}
+
+    static long terminalCode(final int index) {
+        return ((long)index << 1) | 1L;
+    }
+
+    static long nonTerminalCode(final int index) {
+        return ((long)index << 1);
+    }
+
+    static boolean isTerminal(final long code) {
+        return (code & 1L) == 1L;
+    }
+
+    static int index(final long code) {
+        long index = code >>> 1;
+        if(index > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("the symbol code " + Long.toUnsignedString(code) + " is out of range.");
+        }
+        return (int)index;
+    }
+}
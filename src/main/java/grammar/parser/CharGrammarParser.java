@@ -3,10 +3,18 @@ package grammar.parser;
 import grammar.impl.Production;
 import grammar.impl.CFG;
 import grammar.impl.CFGCreator;
+import grammar.impl.JezWord;
 import grammar.impl.SLP;
 import symbol.IJezSymbol;
 import utils.Pair;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -20,12 +28,50 @@ import java.util.*;
  * character will be interpreted as a non-terminal and each lower case character as a terminal
  * symbol. The left-hand side of the first production will be the axiom of the CFG or the SLP.
  *
+ * Large grammars can be parsed from a Reader or a ReadableByteChannel. These grammars are parsed in a streaming fashion
+ * i.e. character by character, without holding the text in memory. The streaming parser accepts the same productions as
+ * the parsing of strings, i.e. white spaces are only allowed around the arrow and at the beginning and the end of a line,
+ * but it ignores empty lines. Additionally it accepts numbered non-terminals [k], where k is the decimal code of a character
+ * which is not a lower case character, e.g.
+ *
+ * [0] -> a[1]B
+ * [1] -> ba
+ * ...
+ *
+ * The non-terminal [k] is the non-terminal named by the character of code k, e.g. [65] is the same non-terminal as A.
+ * Therefore non-terminals can be named by characters which can not be written literally e.g. white spaces, '-', '[' or ']'.
+ * Grammars with more than 2^16 non-terminals have to be stored by the binary grammar format (see BinaryGrammarFormat).
+ *
  * @author Benedikt Zoennchen
  */
 public class CharGrammarParser {
 
+    private static Logger logger = LogManager.getLogger(CharGrammarParser.class);
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The states of the streaming parser.
+     */
+    private enum State {LEFT, LEFT_NUMBER, ARROW_BEGIN, ARROW_END, RIGHT_BEGIN, RIGHT, RIGHT_NUMBER, RIGHT_END}
+
     private CFGCreator<Character> cfgCreator;
 
+    /**
+     * The number of productions parsed by the last streaming parse.
+     */
+    private long parsedProductions;
+
+    /**
+     * The number of characters parsed by the last streaming parse.
+     */
+    private long parsedCharacters;
+
+    /**
+     * The running time in nanoseconds of the last streaming parse.
+     */
+    private long parseNanos;
+
     public CharGrammarParser(final CFGCreator<Character> cfgCreator) {
         this.cfgCreator = cfgCreator;
     }
@@ -46,7 +92,7 @@ public class CharGrammarParser {
         String[] productions = code.split("\n");
 
         for(int i = 0; i < productions.length; i++) {
-            String[] production = productions[i].split("->");
+            String[] production = productions[i].split("->", -1);
 
             if(production.length != 2) {
                 error();
@@ -61,6 +107,9 @@ public class CharGrammarParser {
 
 
             for(char c : production[1].trim().toCharArray()) {
+                if(Character.isWhitespace(c)) {
+                    error();
+                }
                 right.add(cfgCreator.lookupSymbol(c, Character.isLowerCase(c)));
             }
             set.add(cfgCreator.createProduction(left, cfgCreator.createWord(right)));
@@ -77,7 +126,7 @@ public class CharGrammarParser {
         String[] productions = code.split("\n");
 
         for(int i = 0; i < productions.length; i++) {
-            String[] production = productions[i].split("->");
+            String[] production = productions[i].split("->", -1);
 
             if(production.length != 2) {
                 error();
@@ -92,6 +141,9 @@ public class CharGrammarParser {
 
 
             for(char c : production[1].trim().toCharArray()) {
+                if(Character.isWhitespace(c)) {
+                    error();
+                }
                 right.add(cfgCreator.lookupSymbol(c, Character.isLowerCase(c)));
             }
             set.add(cfgCreator.createProduction(left, cfgCreator.createWord(right)));
@@ -99,6 +151,248 @@ public class CharGrammarParser {
         return set;
     }
 
+    /**
+     * Parses the text of the reader into a CFG, the reader will not be closed.
+     *
+     * Complexity: O(n), where n is the length of the text
+     *
+     * @param reader the reader of the text
+     * @return the CFG defined by the text
+     * @throws IOException if the reader can not be read
+     */
+    public CFG<Character> create(final Reader reader) throws IOException {
+        Pair<Set<Production<Character>>, Set<IJezSymbol<Character>>> grammarPair = createGrammar(reader);
+        return cfgCreator.createCFG(grammarPair.a, grammarPair.b);
+    }
+
+    /**
+     * Parses the UTF-8 encoded text of the channel into a CFG, the channel will not be closed.
+     *
+     * Complexity: O(n), where n is the length of the text
+     *
+     * @param channel the channel of the text
+     * @return the CFG defined by the text
+     * @throws IOException if the channel can not be read
+     */
+    public CFG<Character> create(final ReadableByteChannel channel) throws IOException {
+        return create(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE));
+    }
+
+    /**
+     * Parses the text of the reader into a SLP, the reader will not be closed.
+     *
+     * Complexity: O(n), where n is the length of the text
+     *
+     * @param reader the reader of the text
+     * @return the SLP defined by the text
+     * @throws IOException if the reader can not be read
+     */
+    public SLP<Character> createSLP(final Reader reader) throws IOException {
+        Pair<Set<Production<Character>>, Set<IJezSymbol<Character>>> grammarPair = createGrammar(reader);
+        return cfgCreator.createSLP(grammarPair.a, grammarPair.b);
+    }
+
+    /**
+     * Parses the UTF-8 encoded text of the channel into a SLP, the channel will not be closed.
+     *
+     * Complexity: O(n), where n is the length of the text
+     *
+     * @param channel the channel of the text
+     * @return the SLP defined by the text
+     * @throws IOException if the channel can not be read
+     */
+    public SLP<Character> createSLP(final ReadableByteChannel channel) throws IOException {
+        return createSLP(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE));
+    }
+
+    /**
+     * Returns the number of productions parsed by the last streaming parse.
+     *
+     * @return the number of productions parsed by the last streaming parse
+     */
+    public long getParsedProductions() {
+        return parsedProductions;
+    }
+
+    /**
+     * Returns the number of characters parsed by the last streaming parse.
+     *
+     * @return the number of characters parsed by the last streaming parse
+     */
+    public long getParsedCharacters() {
+        return parsedCharacters;
+    }
+
+    /**
+     * Returns the running time in nanoseconds of the last streaming parse.
+     *
+     * @return the running time in nanoseconds of the last streaming parse
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * Parses the text of the reader character by character. The symbols are appended directly to the right-hand side
+     * of the current production, therefore no line or part of a line will be copied. A numbered non-terminal [k] is
+     * looked up by the creator like any other non-terminal.
+     *
+     * @param reader the reader of the text
+     * @return the productions and the axiom defined by the text
+     * @throws IOException if the reader can not be read
+     */
+    private Pair<Set<Production<Character>>, Set<IJezSymbol<Character>>> createGrammar(final Reader reader) throws IOException {
+        long start = System.nanoTime();
+        Set<Production<Character>> set = new HashSet<>();
+        Set<IJezSymbol<Character>> axioms = new HashSet<>();
+        char[] buffer = new char[BUFFER_SIZE];
+        long characters = 0;
+
+        State state = State.LEFT;
+        IJezSymbol<Character> left = null;
+        JezWord<Character> right = null;
+        long number = -1;
+
+        // true => the last symbol of the right-hand side is the character '-', i.e. a following '>' would be an arrow
+        boolean dash = false;
+
+        int n;
+        while ((n = reader.read(buffer)) != -1) {
+            characters += n;
+            for(int i = 0; i < n; i++) {
+                char c = buffer[i];
+                if(c == '\n') {
+                    state = endOfLine(state, left, right, set, axioms);
+                    continue;
+                }
+                boolean whiteSpace = Character.isWhitespace(c);
+                switch (state) {
+                    case LEFT:
+                        if(c == '[') {
+                            number = -1;
+                            state = State.LEFT_NUMBER;
+                        }
+                        else if(!whiteSpace) {
+                            left = cfgCreator.lookupSymbol(c, false);
+                            state = State.ARROW_BEGIN;
+                        }
+                        break;
+                    case LEFT_NUMBER:
+                        if(c == ']') {
+                            left = lookupNumbered(number);
+                            state = State.ARROW_BEGIN;
+                        }
+                        else {
+                            number = appendDigit(number, c);
+                        }
+                        break;
+                    case ARROW_BEGIN:
+                        if(c == '-') {
+                            state = State.ARROW_END;
+                        }
+                        else if(!whiteSpace) {
+                            error();
+                        }
+                        break;
+                    case ARROW_END:
+                        if(c != '>') {
+                            error();
+                        }
+                        right = new JezWord<>();
+                        dash = false;
+                        state = State.RIGHT_BEGIN;
+                        break;
+                    case RIGHT_BEGIN:
+                        if(whiteSpace) {
+                            break;
+                        }
+                        // c is the first symbol of the right-hand side
+                        state = State.RIGHT;
+                    case RIGHT:
+                        if(whiteSpace) {
+                            state = State.RIGHT_END;
+                        }
+                        else if(c == '[') {
+                            number = -1;
+                            state = State.RIGHT_NUMBER;
+                        }
+                        else if(c == '>' && dash) {
+                            error();
+                        }
+                        else {
+                            right.append(cfgCreator.lookupSymbol(c, Character.isLowerCase(c)));
+                        }
+                        dash = c == '-';
+                        break;
+                    case RIGHT_NUMBER:
+                        if(c == ']') {
+                            right.append(lookupNumbered(number));
+                            state = State.RIGHT;
+                        }
+                        else {
+                            number = appendDigit(number, c);
+                        }
+                        break;
+                    case RIGHT_END:
+                        if(!whiteSpace) {
+                            error();
+                        }
+                        break;
+                }
+            }
+        }
+        endOfLine(state, left, right, set, axioms);
+
+        parsedProductions = set.size();
+        parsedCharacters = characters;
+        parseNanos = System.nanoTime() - start;
+        logger.info("parsed " + parsedProductions + " productions (" + parsedCharacters + " characters) in " + (parseNanos / 1000000) + " ms, "
+                + "throughput: " + (long)(parsedCharacters / Math.max(parseNanos / 1.0e9, 1.0e-9)) + " characters/s");
+        return new Pair<>(set, axioms);
+    }
+
+    private State endOfLine(final State state, final IJezSymbol<Character> left, final JezWord<Character> right,
+                            final Set<Production<Character>> set, final Set<IJezSymbol<Character>> axioms) {
+        if(state == State.RIGHT_BEGIN || state == State.RIGHT || state == State.RIGHT_END) {
+            set.add(cfgCreator.createProduction(left, right));
+            if(axioms.isEmpty()) {
+                axioms.add(left);
+            }
+        }
+        else if(state != State.LEFT) {
+            error();
+        }
+        return State.LEFT;
+    }
+
+    /**
+     * Returns the non-terminal [number], i.e. the non-terminal named by the character of code number.
+     */
+    private IJezSymbol<Character> lookupNumbered(final long number) {
+        if(number < 0) {
+            throw new IllegalArgumentException("could not parse grammar, a numbered non-terminal [] has no number.");
+        }
+        char name = (char)number;
+        if(Character.isLowerCase(name)) {
+            throw new IllegalArgumentException("could not parse grammar, the numbered non-terminal [" + number + "] is the terminal " + name + ".");
+        }
+        return cfgCreator.lookupSymbol(name, false);
+    }
+
+    /**
+     * Appends the decimal digit c to the number, where -1 represents the empty number.
+     */
+    private long appendDigit(final long number, final char c) {
+        if(c < '0' || c > '9') {
+            throw new IllegalArgumentException("could not parse grammar, " + c + " is not a digit of a numbered non-terminal.");
+        }
+        long value = Math.max(number, 0);
+        if(value > (Character.MAX_VALUE - (c - '0')) / 10) {
+            throw new IllegalArgumentException("could not parse grammar, the number of a numbered non-terminal exceeds " + (int)Character.MAX_VALUE + ".");
+        }
+        return 10 * value + (c - '0');
+    }
+
     private void error() throws IllegalFormatException {
         throw new IllegalArgumentException("could not parse grammar.");
     }
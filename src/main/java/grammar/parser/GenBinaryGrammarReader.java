@@ -0,0 +1,325 @@
+package grammar.parser;
+
+import grammar.inter.*;
+import symbol.IJezSymbol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Loads grammars of the binary grammar format (see BinaryGrammarFormat). The file is memory-mapped and the grammar is decoded
+ * directly from the mapped buffer in a single pass, i.e. there is no intermediate copy of the file on the heap. Files larger
+ * than 2 GB are mapped segment by segment. The decoding is eager: all productions are created before the grammar is returned,
+ * the mapped file is not accessed afterwards.
+ * Named terminals are looked up by the creator, terminals without a name (e.g. the letters of a recompressed SLP) are fresh
+ * terminals of the creator and non-terminals are fresh non-terminals of the creator.
+ *
+ * @author Benedikt Zoennchen
+ *
+ * @param <N> the type of the identifier of terminal and non-terminal symbols of the grammar
+ * @param <S> the type of the terminal and non-terminal symbols of the grammar
+ * @param <W> the type of the right-hand side of the grammar
+ * @param <P> the type of the grammar production
+ * @param <C> the type of the CFG
+ * @param <Z> the type of the SLP
+ */
+public class GenBinaryGrammarReader<
+        N,
+        S extends IJezSymbol<N>,
+        W extends IReferencedWord<N, S>,
+        P extends IProduction<N, S, W>,
+        C extends ICFG<N, S, W, P>,
+        Z extends ISLP<N, S, W, P>> {
+
+    /**
+     * The maximal number of bytes which are mapped at once.
+     */
+    private static final long SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    /**
+     * The creator of the loaded grammars.
+     */
+    private final ICFGCreator<N, S, W, P, C, Z> cfgCreator;
+
+    /**
+     * Decodes the name of a terminal.
+     */
+    private final Function<String, ? extends N> nameDecoder;
+
+    /**
+     * Default constructor.
+     *
+     * @param cfgCreator    the creator of the loaded grammars
+     * @param nameDecoder   decodes the name of a terminal
+     */
+    public GenBinaryGrammarReader(final ICFGCreator<N, S, W, P, C, Z> cfgCreator, final Function<String, ? extends N> nameDecoder) {
+        this.cfgCreator = cfgCreator;
+        this.nameDecoder = nameDecoder;
+    }
+
+    /**
+     * Loads the SLP stored in the file.
+     *
+     * Complexity: O(|G|)
+     *
+     * @param path the path of the file
+     * @return the SLP stored in the file
+     * @throws IOException if the file can not be read
+     */
+    public Z readSLP(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readSLP(new Input(channel));
+        }
+    }
+
+    /**
+     * Loads the SLP stored in the buffer, starting at the position of the buffer.
+     *
+     * Complexity: O(|G|)
+     *
+     * @param buffer the buffer
+     * @return the SLP stored in the buffer
+     */
+    public Z readSLP(final ByteBuffer buffer) {
+        try {
+            return readSLP(new Input(buffer));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Loads the CFG stored in the file.
+     *
+     * Complexity: O(|G|)
+     *
+     * @param path the path of the file
+     * @return the CFG stored in the file
+     * @throws IOException if the file can not be read
+     */
+    public C readCFG(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readCFG(new Input(channel));
+        }
+    }
+
+    /**
+     * Loads the CFG stored in the buffer, starting at the position of the buffer.
+     *
+     * Complexity: O(|G|)
+     *
+     * @param buffer the buffer
+     * @return the CFG stored in the buffer
+     */
+    public C readCFG(final ByteBuffer buffer) {
+        try {
+            return readCFG(new Input(buffer));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private Z readSLP(final Input input) throws IOException {
+        Grammar grammar = read(input, BinaryGrammarFormat.SLP);
+        Map<S, P> productions = new HashMap<>();
+        for(P production : grammar.productions) {
+            if(productions.put(production.getLeft(), production) != null) {
+                throw new IllegalArgumentException("the non-terminal " + production.getLeft() + " has more than one production.");
+            }
+        }
+        return cfgCreator.createSLP(productions, grammar.axioms);
+    }
+
+    private C readCFG(final Input input) throws IOException {
+        Grammar grammar = read(input, BinaryGrammarFormat.CFG);
+        return cfgCreator.createCFG(new HashSet<>(grammar.productions), grammar.axioms);
+    }
+
+    private Grammar read(final Input input, final byte kind) throws IOException {
+        for(byte b : BinaryGrammarFormat.MAGIC) {
+            if(input.readByte() != b) {
+                throw new IllegalArgumentException("the input is not of the binary grammar format.");
+            }
+        }
+
+        byte version = input.readByte();
+        if(version != BinaryGrammarFormat.VERSION && version != BinaryGrammarFormat.VERSION_1) {
+            throw new IllegalArgumentException("unsupported version " + version + " of the binary grammar format.");
+        }
+
+        if(input.readByte() != kind) {
+            throw new IllegalArgumentException("the input does not contain a " + (kind == BinaryGrammarFormat.SLP ? "SLP" : "CFG") + ".");
+        }
+
+        int numberOfTerminals = input.readIndex();
+        List<S> terminals = new ArrayList<>(numberOfTerminals);
+        Map<Integer, S> unnamedLetters = new HashMap<>();
+        for(int i = 0; i < numberOfTerminals; i++) {
+            if(version == BinaryGrammarFormat.VERSION_1) {
+                terminals.add(cfgCreator.lookupSymbol(nameDecoder.apply(input.readString(input.readIndex())), true));
+            }
+            else {
+                terminals.add(readTerminal(input, unnamedLetters));
+            }
+        }
+
+        int numberOfNonTerminals = input.readIndex();
+        List<S> nonTerminals = new ArrayList<>(numberOfNonTerminals);
+        for(int i = 0; i < numberOfNonTerminals; i++) {
+            nonTerminals.add(cfgCreator.createFreshNonTerminal());
+        }
+
+        int numberOfAxioms = input.readIndex();
+        Set<S> axioms = new HashSet<>();
+        for(int i = 0; i < numberOfAxioms; i++) {
+            axioms.add(get(nonTerminals, input.readIndex()));
+        }
+
+        int numberOfProductions = input.readIndex();
+        List<P> productions = new ArrayList<>(numberOfProductions);
+        for(int i = 0; i < numberOfProductions; i++) {
+            S left = get(nonTerminals, input.readIndex());
+            int length = input.readIndex();
+            List<S> right = new ArrayList<>(length);
+            for(int j = 0; j < length; j++) {
+                long code = input.readVarint();
+                right.add(get(BinaryGrammarFormat.isTerminal(code) ? terminals : nonTerminals, BinaryGrammarFormat.index(code)));
+            }
+            productions.add(cfgCreator.createProduction(left, cfgCreator.createWord(right)));
+        }
+
+        return new Grammar(productions, axioms);
+    }
+
+    /**
+     * Decodes a terminal of the symbol table, i.e. its name or the index of its unnamed letter, its length and its weight.
+     * All terminals of the same unnamed letter share one fresh terminal of the creator.
+     *
+     * @param input             the input
+     * @param unnamedLetters    index -> the fresh terminal of the unnamed letter
+     * @return the decoded terminal
+     */
+    private S readTerminal(final Input input, final Map<Integer, S> unnamedLetters) throws IOException {
+        int nameLength = input.readIndex();
+        N name = nameLength > 0 ? nameDecoder.apply(input.readString(nameLength - 1)) : null;
+        int index = nameLength > 0 ? -1 : input.readIndex();
+        long length = input.readVarint();
+        long weight = input.readVarint();
+
+        S letter;
+        if(nameLength > 0) {
+            letter = cfgCreator.lookupSymbol(name, true);
+        }
+        else {
+            letter = unnamedLetters.get(index);
+            if(letter == null) {
+                letter = cfgCreator.getSymbolFactory().createTerminal(0, 1L, weight);
+                unnamedLetters.put(index, letter);
+            }
+        }
+
+        if(length < 1 || weight != letter.getWeight()) {
+            throw new IllegalArgumentException("the terminal " + letter + " of length " + length + " and weight " + weight + " is inconsistent.");
+        }
+        return length == 1 ? letter : cfgCreator.getSymbolFactory().createTerminal(letter, length);
+    }
+
+    private static <S> S get(final List<S> symbols, final int index) {
+        if(index < 0 || index >= symbols.size()) {
+            throw new IllegalArgumentException("the symbol index " + index + " is out of range.");
+        }
+        return symbols.get(index);
+    }
+
+    /**
+     * The decoded parts of a grammar.
+     */
+    private class Grammar {
+        private final List<P> productions;
+        private final Set<S> axioms;
+
+        private Grammar(final List<P> productions, final Set<S> axioms) {
+            this.productions = productions;
+            this.axioms = axioms;
+        }
+    }
+
+    /**
+     * A sequential input over a buffer or a file channel which is mapped segment by segment.
+     */
+    private static class Input {
+        private final FileChannel channel;
+        private ByteBuffer buffer;
+        private long offset;
+
+        private Input(final ByteBuffer buffer) {
+            this.channel = null;
+            this.buffer = buffer;
+        }
+
+        private Input(final FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.offset = 0;
+            this.buffer = map();
+        }
+
+        private ByteBuffer map() throws IOException {
+            long size = Math.min(SEGMENT_SIZE, channel.size() - offset);
+            ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            offset += size;
+            return segment;
+        }
+
+        private byte readByte() throws IOException {
+            if(!buffer.hasRemaining()) {
+                if(channel == null || offset >= channel.size()) {
+                    throw new IllegalArgumentException("unexpected end of the input.");
+                }
+                buffer = map();
+            }
+            return buffer.get();
+        }
+
+        private long readVarint() throws IOException {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if(shift >= 64) {
+                    throw new IllegalArgumentException("malformed varint.");
+                }
+                b = readByte();
+                value |= (long)(b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private int readIndex() throws IOException {
+            long value = readVarint();
+            if(value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("the number " + Long.toUnsignedString(value) + " is too large.");
+            }
+            return (int)value;
+        }
+
+        private String readString(final int length) throws IOException {
+            byte[] bytes = new byte[length];
+            if(buffer.remaining() >= bytes.length) {
+                buffer.get(bytes);
+            }
+            else {
+                for(int i = 0; i < bytes.length; i++) {
+                    bytes[i] = readByte();
+                }
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package grammar.parser;
+
+import grammar.inter.ICFG;
+import grammar.inter.IProduction;
+import grammar.inter.IReferencedWord;
+import grammar.inter.ISLP;
+import symbol.IJezSymbol;
+import utils.Pair;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Writes grammars in the binary grammar format (see BinaryGrammarFormat) which can be loaded by the GenBinaryGrammarReader.
+ * Non-terminals are stored by their index only, terminals by their name which is encoded by the name encoder, their length
+ * and their weight. Terminals without a name, e.g. the letters of a recompressed SLP, are stored by the index of their letter.
+ *
+ * @author Benedikt Zoennchen
+ *
+ * @param <N> the type of the identifier of terminal and non-terminal symbols of the grammar
+ */
+public class GenBinaryGrammarWriter<N> {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Encodes the name of a terminal as string.
+     */
+    private final Function<? super N, String> nameEncoder;
+
+    /**
+     * Default constructor.
+     *
+     * @param nameEncoder encodes the name of a terminal as string
+     */
+    public GenBinaryGrammarWriter(final Function<? super N, String> nameEncoder) {
+        this.nameEncoder = nameEncoder;
+    }
+
+    /**
+     * Writes the SLP into the file.
+     *
+     * Complexity: O(|G|)
+     *
+     * @param slp   the SLP
+     * @param path  the path of the file
+     * @throws IOException if the file can not be written
+     */
+    public <S extends IJezSymbol<N>, W extends IReferencedWord<N, S>, P extends IProduction<N, S, W>> void writeSLP(final ISLP<N, S, W, P> slp, final Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE)) {
+            writeSLP(slp, out);
+        }
+    }
+
+    /**
+     * Writes the SLP into the output stream. The productions will be written in topological order, the stream will not be closed.
+     *
+     * Complexity: O(|G|)
+     *
+     * @param slp   the SLP
+     * @param out   the output stream
+     * @throws IOException if the stream can not be written
+     */
+    public <S extends IJezSymbol<N>, W extends IReferencedWord<N, S>, P extends IProduction<N, S, W>> void writeSLP(final ISLP<N, S, W, P> slp, final OutputStream out) throws IOException {
+        List<P> productions = new ArrayList<>(slp.getOrderedProductions());
+        Collections.reverse(productions);
+        write(BinaryGrammarFormat.SLP, productions, slp.getAxioms(), out);
+    }
+
+    /**
+     * Writes the CFG into the file.
+     *
+     * Complexity: O(|G|)
+     *
+     * @param cfg   the CFG
+     * @param path  the path of the file
+     * @throws IOException if the file can not be written
+     */
+    public <S extends IJezSymbol<N>, W extends IReferencedWord<N, S>, P extends IProduction<N, S, W>> void writeCFG(final ICFG<N, S, W, P> cfg, final Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE)) {
+            writeCFG(cfg, out);
+        }
+    }
+
+    /**
+     * Writes the CFG into the output stream, the stream will not be closed.
+     *
+     * Complexity: O(|G|)
+     *
+     * @param cfg   the CFG
+     * @param out   the output stream
+     * @throws IOException if the stream can not be written
+     */
+    public <S extends IJezSymbol<N>, W extends IReferencedWord<N, S>, P extends IProduction<N, S, W>> void writeCFG(final ICFG<N, S, W, P> cfg, final OutputStream out) throws IOException {
+        write(BinaryGrammarFormat.CFG, cfg.getProductions(), cfg.getAxioms(), out);
+    }
+
+    private <S extends IJezSymbol<N>, W extends IReferencedWord<N, S>, P extends IProduction<N, S, W>> void write(
+            final byte kind, final Collection<P> productions, final Set<S> axioms, final OutputStream out) throws IOException {
+
+        // symbol -> index, non-terminals are indexed in the order of their first occurrence as left-hand side.
+        // Symbols are equal regardless of their length, therefore terminals are indexed by the symbol and its length.
+        Map<Pair<S, Long>, Integer> terminals = new LinkedHashMap<>();
+        Map<S, Integer> nonTerminals = new HashMap<>();
+        Map<S, Integer> unnamedLetters = new HashMap<>();
+
+        for(P production : productions) {
+            index(production.getLeft(), nonTerminals);
+        }
+
+        for(S axiom : axioms) {
+            index(axiom, nonTerminals);
+        }
+
+        for(P production : productions) {
+            for(S symbol : production.getRight()) {
+                if(symbol.isTerminal()) {
+                    index(new Pair<>(symbol, symbol.getLength()), terminals);
+                }
+                else {
+                    index(symbol, nonTerminals);
+                }
+            }
+        }
+
+        out.write(BinaryGrammarFormat.MAGIC);
+        out.write(BinaryGrammarFormat.VERSION);
+        out.write(kind);
+
+        writeVarint(terminals.size(), out);
+        for(Pair<S, Long> terminal : terminals.keySet()) {
+            if(terminal.a.getName() != null) {
+                byte[] name = nameEncoder.apply(terminal.a.getName()).getBytes(StandardCharsets.UTF_8);
+                writeVarint(name.length + 1L, out);
+                out.write(name);
+            }
+            else {
+                writeVarint(0, out);
+                index(terminal.a, unnamedLetters);
+                writeVarint(unnamedLetters.get(terminal.a), out);
+            }
+            writeVarint(terminal.b, out);
+            writeVarint(terminal.a.getWeight(), out);
+        }
+
+        writeVarint(nonTerminals.size(), out);
+        writeVarint(axioms.size(), out);
+        for(S axiom : axioms) {
+            writeVarint(nonTerminals.get(axiom), out);
+        }
+
+        writeVarint(productions.size(), out);
+        for(P production : productions) {
+            writeVarint(nonTerminals.get(production.getLeft()), out);
+
+            writeVarint(production.getRight().length(), out);
+            for(S symbol : production.getRight()) {
+                if(symbol.isTerminal()) {
+                    writeVarint(BinaryGrammarFormat.terminalCode(terminals.get(new Pair<>(symbol, symbol.getLength()))), out);
+                }
+                else {
+                    writeVarint(BinaryGrammarFormat.nonTerminalCode(nonTerminals.get(symbol)), out);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private static <S> void index(final S symbol, final Map<S, Integer> indices) {
+        if(!indices.containsKey(symbol)) {
+            indices.put(symbol, indices.size());
+        }
+    }
+
+    private static void writeVarint(long value, final OutputStream out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int)value);
+    }
+}
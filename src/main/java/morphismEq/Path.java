@@ -16,6 +16,15 @@ public class Path<S extends NaturalSymbol> implements Iterable<IGrammarEdge<S>>{
         stack = new LinkedList<>();
     }
 
+    /**
+     * Copy constructor, the copy does not change if the path changes.
+     *
+     * @param path the copied path
+     */
+    public Path(final Path<S> path) {
+        stack = new LinkedList<>(path.stack);
+    }
+
     public void addEdge(final IGrammarEdge<S> edge) {
         this.stack.add(edge);
     }
@@ -19,6 +19,17 @@ public class PlandowskiPath<S extends NaturalSymbol> implements Iterable<IGramma
         this.edges = new Path();
     }
 
+    /**
+     * Copy constructor, the copy does not change if the path or one of its tree-paths changes.
+     *
+     * @param plandowskiPath the copied Plandowski-path
+     */
+    public PlandowskiPath(final PlandowskiPath<S> plandowskiPath) {
+        this.treePaths = new LinkedList<>();
+        plandowskiPath.treePaths.forEach(path -> this.treePaths.add(new Path<>(path)));
+        this.edges = new Path<>(plandowskiPath.edges);
+    }
+
     public void addEdges(final IGrammarEdge<S> edge) {
         if(edges.length()+1 == treePaths.size()) {
             this.edges.addEdge(edge);
@@ -12,10 +12,14 @@ import morphismEq.Path;
 import morphismEq.TreeNode;
 import morphismEq.morphisms.IMorphism;
 import symbol.IJezSymbol;
+import utils.Pair;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -132,6 +136,31 @@ public class GenMorphismEQSolver<
      */
     private Z2 emptyWord;
 
+    /**
+     * true => the subtrees of the Plandowski-path search are explored in parallel, false => they are explored sequentially.
+     */
+    private boolean parallel = false;
+
+    /**
+     * The first pair of morphed test words (in the order of the sequential traversal) which are not equal.
+     */
+    private Pair<Z2, Z2> counterExample;
+
+    /**
+     * The maximal number of cached images per morphism, a value <= 0 means the cache is unbounded.
+     */
+    private int imageCacheSize = 0;
+
+    /**
+     * morphism -> (symbol -> the morphed shortest word of the symbol), valid for one run of the solver.
+     */
+    private Map<IMorphism<Z1, Z2>, Map<S1, Z2>> images;
+
+    /**
+     * The creator of the morphed test words of one run of the solver, all cached images have distinct non-terminals of this creator.
+     */
+    private ICFGCreator<N2, S2, W2, P2, C2, Z2> wordCreator;
+
     /**
      * Default constructor of the solver.
      *
@@ -163,6 +192,56 @@ public class GenMorphismEQSolver<
         this.init();
     }
 
+    /**
+     * Returns true if the subtrees of the Plandowski-path search are explored in parallel, false otherwise.
+     *
+     * @return true if the subtrees of the Plandowski-path search are explored in parallel, false otherwise
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets the parallel mode. In parallel mode each subtree of the Plandowski-path search is explored by its own task of
+     * the common fork/join pool. The results of the subtrees are merged in the order of the sequential traversal, therefore
+     * the counterexample is the same as in sequential mode. A counterexample cancels the exploration of all later subtrees.
+     *
+     * @param parallel true => the subtrees are explored in parallel, false => they are explored sequentially
+     */
+    public void setParallel(final boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns the first pair of morphed test words (in the order of the sequential traversal) which are not equal, if the
+     * last test found one.
+     *
+     * @return the first pair of morphed test words which are not equal
+     */
+    public Optional<Pair<Z2, Z2>> getCounterExample() {
+        return Optional.ofNullable(counterExample);
+    }
+
+    /**
+     * Returns the maximal number of cached images per morphism, a value <= 0 means the cache is unbounded.
+     *
+     * @return the maximal number of cached images per morphism
+     */
+    public int getImageCacheSize() {
+        return imageCacheSize;
+    }
+
+    /**
+     * Bounds the number of cached images per morphism. If the bound is exceeded the least recently used image will be evicted
+     * and recomputed if it is used again. A value <= 0 means the cache is unbounded, i.e. each image is computed exactly once
+     * per run of the solver.
+     *
+     * @param imageCacheSize the maximal number of cached images per morphism
+     */
+    public void setImageCacheSize(final int imageCacheSize) {
+        this.imageCacheSize = imageCacheSize;
+    }
+
     public boolean equivalentOnMorphisms(final IMorphism<Z1, Z2> morphism1, final IMorphism<Z1, Z2> morphism2) {
         logger.info(
                 "start test set generation\n" +
@@ -176,7 +255,35 @@ public class GenMorphismEQSolver<
     }
 
     private boolean equals(final IMorphism<Z1, Z2> morphism1, final IMorphism<Z1, Z2> morphism2) {
-        return equals(new PlandowskiPath(), morphism1, morphism2);
+        counterExample = null;
+        images = new IdentityHashMap<>();
+        wordCreator = destSLPCreatorFactory.create();
+        if(parallel) {
+            counterExample = ForkJoinPool.commonPool().invoke(new SubtreeTask(null, 0, new PlandowskiPath<>(), null, morphism1, morphism2));
+            if(counterExample != null) {
+                logger.debug(counterExample.a + "!=" + counterExample.b);
+            }
+            return counterExample == null;
+        }
+        else {
+            return equals(new PlandowskiPath(), morphism1, morphism2);
+        }
+    }
+
+    /**
+     * Tests whether the two morphed test words are equal and remembers them if they are not.
+     *
+     * @param word1 the first morphed test word
+     * @param word2 the second morphed test word
+     * @return true if the two words are equal, false otherwise
+     */
+    private boolean test(final Z2 word1, final Z2 word2) {
+        boolean test = slpOp.equals(word1, word2, destSLPCreatorFactory, true, false);
+        if(!test) {
+            logger.debug(word1 + "!=" + word2);
+            counterExample = new Pair<>(word1, word2);
+        }
+        return test;
     }
 
     /**
@@ -232,10 +339,7 @@ public class GenMorphismEQSolver<
                         //logger.debug(word1);
                         //logger.debug(word2);
 
-                        boolean test = slpOp.equals(word1, word2, destSLPCreatorFactory, true, false);
-                        if(!test) {
-                            logger.debug(word1 + "!=" + word2);
-                        }
+                        boolean test = test(word1, word2);
 
                         // 3. remove tree
                         plandowskiPath.removeLastTreePath();
@@ -281,18 +385,74 @@ public class GenMorphismEQSolver<
 
         List<Z2> concateWord = word.stream()
                 .map(node -> node.getElement())
-                .map(symbol -> shortestWords.get(symbol))
-                .map(slp -> morphism.apply(slp))
+                .map(symbol -> getImage(symbol, morphism))
                 .collect(Collectors.toList());
 
         if(concateWord.isEmpty()) {
             return emptyWord;
         }
         else {
-            return slpOp.concatenate(concateWord, destSLPCreatorFactory);
+            return splice(concateWord);
         }
     }
 
+    /**
+     * Returns the morphed shortest word of the symbol. The image is computed only if it is not cached, the non-terminals of
+     * a new image are replaced by fresh non-terminals of the word creator such that all cached images are distinct.
+     *
+     * @param symbol    a non-terminal of the grammar or the terminal node
+     * @param morphism  the morphism
+     * @return the morphed shortest word of the symbol
+     */
+    private Z2 getImage(final S1 symbol, final IMorphism<Z1, Z2> morphism) {
+        Map<S1, Z2> morphismImages = images.computeIfAbsent(morphism, m -> createImageCache());
+        Z2 image = morphismImages.get(symbol);
+        if(image == null) {
+            image = wordCreator.freshNonTerminals(morphism.apply(shortestWords.get(symbol)), new HashMap<>());
+            morphismImages.put(symbol, image);
+        }
+        return image;
+    }
+
+    /**
+     * Creates the image cache of a morphism which is bounded by the image cache size using the LRU strategy.
+     *
+     * @return the image cache of a morphism
+     */
+    private Map<S1, Z2> createImageCache() {
+        if(imageCacheSize <= 0) {
+            return new HashMap<>();
+        }
+        else {
+            return new LinkedHashMap<S1, Z2>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<S1, Z2> eldest) {
+                    return size() > imageCacheSize;
+                }
+            };
+        }
+    }
+
+    /**
+     * Splices cached images into a new SLP representing their concatenation. In contrast to the concatenation of SLPOp the images
+     * are neither copied nor renamed since the non-terminals of different images are distinct and the images are never modified:
+     * the new SLP shares their productions and only the production of its new axiom is created.
+     *
+     * Complexity: O(|G_1| + ... + |G_k|), where G_1, ..., G_k are the spliced images
+     *
+     * @param concateWord a non-empty list of cached images
+     * @return a SLP representing the concatenation of the images
+     */
+    private Z2 splice(final List<Z2> concateWord) {
+        S2 axiom = wordCreator.createFreshNonTerminal();
+        P2 production = wordCreator.createProduction(axiom, wordCreator.createWord(concateWord.stream().map(slp -> slp.getAxiom()).collect(Collectors.toList())));
+
+        Map<S2, P2> slpProductions = new HashMap<>();
+        slpProductions.put(axiom, production);
+        concateWord.forEach(slp -> slpProductions.putAll(slp.getSLPProductions()));
+        return wordCreator.createSLP(slpProductions, axiom);
+    }
+
     /**
      * Initializes the data structure i.e. all trees, SLPs representing shortest words and the grammar graph which is a multi-directed graph.
      */
@@ -433,4 +593,154 @@ public class GenMorphismEQSolver<
         }
         return neighbours;
     }
+
+    /**
+     * Explores the subtree of the Plandowski-path search below a Plandowski-edge: the task tests the test word of the
+     * Plandowski-path ending with the edge and forks one task for each extension of the path. The results of the extensions
+     * are joined in the order of the sequential traversal, therefore the task returns the first counterexample of its
+     * subtree in this order. The root task has no edge and explores the whole search. The test words are generated
+     * one at a time since the morphisms are not thread-safe, the SLP equality tests run in parallel.
+     */
+    private class SubtreeTask extends RecursiveTask<Pair<Z2, Z2>> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * the task of the parent subtree, null for the root task.
+         */
+        private final SubtreeTask parent;
+
+        /**
+         * the index of the subtree among the subtrees of the parent in the order of the sequential traversal.
+         */
+        private final int index;
+
+        private final PlandowskiPath<S1> plandowskiPath;
+
+        /**
+         * the end of the last Plandowski-edge, null for the root task.
+         */
+        private final S1 neighbour;
+
+        private final IMorphism<Z1, Z2> morphism1;
+        private final IMorphism<Z1, Z2> morphism2;
+
+        /**
+         * the smallest index of a child subtree which contains a counterexample.
+         */
+        private final AtomicInteger firstFailure = new AtomicInteger(Integer.MAX_VALUE);
+
+        private SubtreeTask(
+                final SubtreeTask parent,
+                final int index,
+                final PlandowskiPath<S1> plandowskiPath,
+                final S1 neighbour,
+                final IMorphism<Z1, Z2> morphism1,
+                final IMorphism<Z1, Z2> morphism2) {
+            this.parent = parent;
+            this.index = index;
+            this.plandowskiPath = plandowskiPath;
+            this.neighbour = neighbour;
+            this.morphism1 = morphism1;
+            this.morphism2 = morphism2;
+        }
+
+        @Override
+        protected Pair<Z2, Z2> compute() {
+            Pair<Z2, Z2> result = explore();
+            if(result != null && parent != null) {
+                parent.firstFailure.accumulateAndGet(index, Math::min);
+            }
+            return result;
+        }
+
+        /**
+         * Returns true if a subtree which is explored before this subtree in the sequential traversal contains a
+         * counterexample, i.e. the result of this subtree is not required.
+         *
+         * @return true if the result of this subtree is not required, false otherwise
+         */
+        private boolean isObsolete() {
+            return parent != null && (parent.firstFailure.get() < index || parent.isObsolete());
+        }
+
+        private Pair<Z2, Z2> explore() {
+            if(isObsolete()) {
+                return null;
+            }
+
+            if(neighbour != null) {
+                Path<S1> finalPath = new Path<>();
+                if(!neighbour.equals(terminalNode)) {
+                    finalPath.addEdge(adjazenzmatrix[neighbour.getId()][terminalNode.getId()]);
+                }
+
+                plandowskiPath.addTreePath(finalPath);
+                Z2 word1;
+                Z2 word2;
+                synchronized (GenMorphismEQSolver.this) {
+                    word1 = generateSLP(plandowskiPath, morphism1);
+                    word2 = generateSLP(plandowskiPath, morphism2);
+                }
+                plandowskiPath.removeLastTreePath();
+
+                if(isObsolete()) {
+                    return null;
+                }
+
+                if(!slpOp.equals(word1, word2, destSLPCreatorFactory, true, false)) {
+                    return new Pair<>(word1, word2);
+                }
+
+                // go only deeper if the last plandowskiy edge do not end at the terminal node T!
+                if(neighbour.equals(terminalNode)) {
+                    return null;
+                }
+            }
+
+            List<SubtreeTask> children = createChildren();
+
+            // fork in reverse order such that this thread explores the first subtree first
+            for(int i = children.size() - 1; i >= 0; i--) {
+                children.get(i).fork();
+            }
+
+            for(int i = 0; i < children.size(); i++) {
+                Pair<Z2, Z2> result = children.get(i).join();
+                if(result != null) {
+                    for(int j = i + 1; j < children.size(); j++) {
+                        children.get(j).cancel(false);
+                    }
+                    return result;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Creates the tasks of all extensions of the Plandowski-path in the order of the sequential traversal.
+         *
+         * @return the tasks of all extensions of the Plandowski-path
+         */
+        private List<SubtreeTask> createChildren() {
+            List<SubtreeTask> children = new ArrayList<>();
+            if(plandowskiPath.length() < 6) {
+                SpanningTree<S1> tree = plandowskiPath.isEmpty() ? trees[baseCFG.getAxiom().getId()] : trees[plandowskiPath.tail().getId()];
+
+                for(Path<S1> path : tree) {
+                    S1 node = path.isEmpty() ? tree.getRoot().get() : path.tail();
+                    int nodeId = node.getId();
+
+                    if(multiEdges.containsKey(node)) {
+                        for(IGrammarEdge<S1> edge : multiEdges.get(node)) {
+                            PlandowskiPath<S1> childPath = new PlandowskiPath<>(plandowskiPath);
+                            childPath.addTreePath(new Path<>(path));
+                            childPath.addEdges(adjazenzmatrix[nodeId][edge.getEnd().getId()]);
+                            children.add(new SubtreeTask(this, children.size(), childPath, edge.getEnd(), morphism1, morphism2));
+                        }
+                    }
+                }
+            }
+            return children;
+        }
+    }
 }
@@ -16,9 +16,15 @@ public class BlockRecord<N, S extends IJezSymbol<? extends N>> {
     public final Block<S> block;
     public final Node<S> node;
 
-    public BlockRecord(final Block<S> block, final Node<S> node) {
+    /**
+     * the left-hand side of the production containing the block occurrence.
+     */
+    public final S left;
+
+    public BlockRecord(final Block<S> block, final Node<S> node, final S left) {
         this.block = block;
         this.node = node;
+        this.left = left;
     }
 
     public boolean equals(final PairRecord record) {
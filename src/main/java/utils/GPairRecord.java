@@ -18,10 +18,21 @@ public class GPairRecord<S, T> extends PairRecord<S, T> {
     public final boolean crossing;
     public final long appearences;
 
+    /**
+     * a non-terminal X such that the occurrence is part of rhs(X) or of the right-hand side of an ancestor of X, i.e.
+     * invalidating X covers a change at the occurrence (null if there is no pointer).
+     */
+    public final S nonTerminal;
+
     public GPairRecord(final Pair<S, T> pair, final Node<S> node, final boolean crossing, final long appearences) {
+        this(pair, node, crossing, appearences, null);
+    }
+
+    public GPairRecord(final Pair<S, T> pair, final Node<S> node, final boolean crossing, final long appearences, final S nonTerminal) {
         super(pair, node);
         this.crossing = crossing;
         this.appearences = appearences;
+        this.nonTerminal = nonTerminal;
     }
 
     public boolean isCrossingPair() {
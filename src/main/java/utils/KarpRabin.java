@@ -0,0 +1,66 @@
+package utils;
+
+/**
+ * Helper class for Karp-Rabin fingerprints, i.e. polynomial hashes modulo the Mersenne prime 2^61 - 1.
+ * The fingerprint of a word w_1 ... w_n is w_1 * b^(n-1) + ... + w_n * b^0 mod p for a random base b, therefore
+ * the fingerprint of the concatenation uv is fp(u) * b^|v| + fp(v). Two different words of length at most n
+ * have the same fingerprint with probability at most n / p.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class KarpRabin {
+
+    /**
+     * the Mersenne prime 2^61 - 1.
+     */
+    public static final long MOD = (1L << 61) - 1;
+
+    private static final long MASK30 = (1L << 30) - 1;
+
+    private static final long MASK31 = (1L << 31) - 1;
+
+    /**
+     * Returns a * b mod p for 0 <= a, b < p without overflow.
+     *
+     * Complexity: O(1)
+     *
+     * @param a the first factor
+     * @param b the second factor
+     * @return a * b mod p
+     */
+    public static long multiply(final long a, final long b) {
+        long au = a >>> 31;
+        long ad = a & MASK31;
+        long bu = b >>> 31;
+        long bd = b & MASK31;
+        long mid = ad * bu + au * bd;
+        long midu = mid >>> 30;
+        long midd = mid & MASK30;
+        return reduce(au * bu * 2 + midu + (midd << 31) + ad * bd);
+    }
+
+    /**
+     * Returns a + b mod p for 0 <= a, b < p.
+     *
+     * Complexity: O(1)
+     *
+     * @param a the first summand
+     * @param b the second summand
+     * @return a + b mod p
+     */
+    public static long add(final long a, final long b) {
+        long sum = a + b;
+        return sum >= MOD ? sum - MOD : sum;
+    }
+
+    /**
+     * Returns x mod p for an unsigned x < 2^63.
+     *
+     * @param x the number
+     * @return x mod p
+     */
+    private static long reduce(final long x) {
+        long result = (x >>> 61) + (x & MOD);
+        return result >= MOD ? result - MOD : result;
+    }
+}
@@ -0,0 +1,128 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash set of primitive long keys which assigns each key its insertion index, i.e. the keys are
+ * numbered 0, 1, 2, ... in the order they are added. The set does not support the removal of keys.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class LongIndexSet {
+
+    /**
+     * The open-addressing table of insertion indices + 1 (0 marks an empty slot), the length is a power of 2.
+     */
+    private int[] table;
+
+    /**
+     * The keys in their insertion order.
+     */
+    private long[] keys;
+
+    private int size;
+
+    public LongIndexSet() {
+        this.table = new int[16];
+        this.keys = new long[8];
+        this.size = 0;
+    }
+
+    /**
+     * Adds the key if it is not contained.
+     *
+     * Complexity: O(1) amortized
+     *
+     * @param key the key
+     * @return the insertion index of the key
+     */
+    public int add(final long key) {
+        int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        while (table[slot] != 0) {
+            if(keys[table[slot] - 1] == key) {
+                return table[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if(size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * keys.length);
+        }
+        keys[size++] = key;
+        table[slot] = size;
+
+        // load factor 1/2
+        if(2 * size > table.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    /**
+     * Returns the insertion index of the key, or -1 if the key is not contained.
+     *
+     * Complexity: O(1) expected
+     *
+     * @param key the key
+     * @return the insertion index of the key, or -1 if the key is not contained
+     */
+    public int indexOf(final long key) {
+        int mask = table.length - 1;
+        for(int slot = hash(key) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            if(keys[table[slot] - 1] == key) {
+                return table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tests whether the key is contained.
+     *
+     * @param key the key
+     * @return true if the key is contained, otherwise false
+     */
+    public boolean contains(final long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns the key with the insertion index.
+     *
+     * @param index the insertion index
+     * @return the key with the insertion index
+     */
+    public long get(final int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("there is no key with the index " + index + ".");
+        }
+        return keys[index];
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        table = new int[2 * table.length];
+        int mask = table.length - 1;
+        for(int i = 0; i < size; i++) {
+            int slot = hash(keys[i]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+
+    private static int hash(final long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,142 @@
+package utils;
+
+/**
+ * The statistics of a single phase of the recompression, i.e. the size of the grammar and the alphabet, the number of
+ * pair and block occurrences and the time spent in the different stages of the phase.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class PhaseStatistics {
+
+    /**
+     * the number of the phase (starting at 1).
+     */
+    public final int phase;
+
+    /**
+     * the number of symbols of all right-hand sides at the end of the phase.
+     */
+    public final long grammarSize;
+
+    /**
+     * the size of the alphabet at the beginning of the phase.
+     */
+    public final int alphabetSize;
+
+    /**
+     * the number of gathered occurrences of crossing pairs.
+     */
+    public final long crossingPairOccurrences;
+
+    /**
+     * the number of gathered occurrences of non-crossing pairs.
+     */
+    public final long nonCrossingPairOccurrences;
+
+    /**
+     * the number of compressed block occurrences.
+     */
+    public final long compressedBlocks;
+
+    /**
+     * the nanoseconds spent in the block compression.
+     */
+    public final long blockCompressionNanos;
+
+    /**
+     * the nanoseconds spent in the compression of non-crossing pairs.
+     */
+    public final long nonCrossingPairCompressionNanos;
+
+    /**
+     * the nanoseconds spent in the compression of crossing pairs (or in the greedy pair compression).
+     */
+    public final long crossingPairCompressionNanos;
+
+    /**
+     * the nanoseconds spent in the renaming of the letters of the phase.
+     */
+    public final long renamingNanos;
+
+    public PhaseStatistics(final int phase,
+                           final long grammarSize,
+                           final int alphabetSize,
+                           final long crossingPairOccurrences,
+                           final long nonCrossingPairOccurrences,
+                           final long compressedBlocks,
+                           final long blockCompressionNanos,
+                           final long nonCrossingPairCompressionNanos,
+                           final long crossingPairCompressionNanos,
+                           final long renamingNanos) {
+        this.phase = phase;
+        this.grammarSize = grammarSize;
+        this.alphabetSize = alphabetSize;
+        this.crossingPairOccurrences = crossingPairOccurrences;
+        this.nonCrossingPairOccurrences = nonCrossingPairOccurrences;
+        this.compressedBlocks = compressedBlocks;
+        this.blockCompressionNanos = blockCompressionNanos;
+        this.nonCrossingPairCompressionNanos = nonCrossingPairCompressionNanos;
+        this.crossingPairCompressionNanos = crossingPairCompressionNanos;
+        this.renamingNanos = renamingNanos;
+    }
+
+    public int getPhase() {
+        return phase;
+    }
+
+    public long getGrammarSize() {
+        return grammarSize;
+    }
+
+    public int getAlphabetSize() {
+        return alphabetSize;
+    }
+
+    public long getCrossingPairOccurrences() {
+        return crossingPairOccurrences;
+    }
+
+    public long getNonCrossingPairOccurrences() {
+        return nonCrossingPairOccurrences;
+    }
+
+    public long getCompressedBlocks() {
+        return compressedBlocks;
+    }
+
+    public long getBlockCompressionNanos() {
+        return blockCompressionNanos;
+    }
+
+    public long getNonCrossingPairCompressionNanos() {
+        return nonCrossingPairCompressionNanos;
+    }
+
+    public long getCrossingPairCompressionNanos() {
+        return crossingPairCompressionNanos;
+    }
+
+    public long getRenamingNanos() {
+        return renamingNanos;
+    }
+
+    /**
+     * Returns the overall nanoseconds spent in the measured stages of the phase.
+     *
+     * @return the overall nanoseconds spent in the measured stages of the phase
+     */
+    public long getNanos() {
+        return blockCompressionNanos + nonCrossingPairCompressionNanos + crossingPairCompressionNanos + renamingNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "phase " + phase + ": |G| = " + grammarSize + ", |Sigma| = " + alphabetSize
+                + ", crossing pair occurrences = " + crossingPairOccurrences + ", non-crossing pair occurrences = " + nonCrossingPairOccurrences
+                + ", blocks = " + compressedBlocks
+                + ", blocks [ns] = " + blockCompressionNanos
+                + ", non-crossing pairs [ns] = " + nonCrossingPairCompressionNanos
+                + ", crossing pairs [ns] = " + crossingPairCompressionNanos
+                + ", renaming [ns] = " + renamingNanos;
+    }
+}
@@ -0,0 +1,87 @@
+package utils;
+
+import grammar.inter.IPatternOccurrences;
+
+import java.util.AbstractList;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * The occurrences begin, begin + 1, ..., end - 1, e.g. the occurrences of the empty pattern or no occurrence at all.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class PositionRange extends AbstractList<Long> implements IPatternOccurrences {
+
+    private final long begin;
+
+    private final long end;
+
+    /**
+     * Default constructor.
+     *
+     * @param begin the inclusive first position
+     * @param end   the exclusive last position
+     */
+    public PositionRange(final long begin, final long end) {
+        if(end < begin) {
+            throw new IllegalArgumentException("the end " + end + " is smaller than the begin " + begin + ".");
+        }
+        this.begin = begin;
+        this.end = end;
+    }
+
+    @Override
+    public long count() {
+        return end - begin;
+    }
+
+    @Override
+    public long getPosition(final long index) {
+        if(index < 0 || index >= count()) {
+            throw new IndexOutOfBoundsException("there is no occurrence with the index " + index + ".");
+        }
+        return begin + index;
+    }
+
+    @Override
+    public Long get(final int index) {
+        return getPosition(index);
+    }
+
+    @Override
+    public int size() {
+        return (int)Math.min(Integer.MAX_VALUE, count());
+    }
+
+    @Override
+    public long count(final long begin, final long end) {
+        return Math.max(0, Math.min(end, this.end) - Math.max(begin, this.begin));
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return iterator(begin, end);
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator(final long begin, final long end) {
+        final long last = Math.min(end, this.end);
+        return new PrimitiveIterator.OfLong() {
+            private long next = Math.max(begin, PositionRange.this.begin);
+
+            @Override
+            public boolean hasNext() {
+                return next < last;
+            }
+
+            @Override
+            public long nextLong() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return next++;
+            }
+        };
+    }
+}
@@ -0,0 +1,236 @@
+package utils;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * A stable least significant digit RadixSort for lists which works on primitive keys. In contrast to RadixSort the keys are extracted
+ * only once into a long-array, the sort permutes an int-array of indices and the permutation is applied in place to the list
+ * by following its cycles. All scratch buffers are kept by the instance and will be reused by the next sort, therefore a
+ * sort does not allocate any memory as long as the list is not larger than all lists sorted before. An instance must not be
+ * shared by multiple threads.
+ *
+ * A digit consists of 16 bits (8 bits for small lists), digits above the largest key are skipped.
+ * All keys have to be non-negative.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class PrimitiveRadixSort {
+
+    /**
+     * the number of elements such that 16-bit digits are used instead of 8-bit digits.
+     */
+    private static final int LARGE = 1 << 14;
+
+    /**
+     * index i -> the position of the element (before the sort) which will be at position i.
+     */
+    private int[] index;
+
+    /**
+     * the scratch buffer of the index.
+     */
+    private int[] tmpIndex;
+
+    /**
+     * position -> the primary key of the element at this position (before the sort).
+     */
+    private long[] keys;
+
+    /**
+     * position -> the secondary key of the element at this position (before the sort).
+     */
+    private long[] secondaryKeys;
+
+    /**
+     * the counters of the digits.
+     */
+    private final int[] count;
+
+    /**
+     * Default constructor.
+     */
+    public PrimitiveRadixSort() {
+        this.index = new int[0];
+        this.tmpIndex = new int[0];
+        this.keys = new long[0];
+        this.secondaryKeys = new long[0];
+        this.count = new int[1 << 16];
+    }
+
+    /**
+     * Sorts the list in ascending order of the keys.
+     *
+     * Complexity: O(d*(n + 2^b)), where b is the number of bits of a digit and d <= 64/b is the number of digits of the largest key
+     *
+     * @param list  the list that will be sorted
+     * @param f     a function that maps an element to its non-negative key
+     * @param <T>   the type of the elements of the list
+     */
+    public <T> void sort(final List<T> list, final ToLongFunction<? super T> f) {
+        sort(list, f, false);
+    }
+
+    /**
+     * Sorts the list by the keys.
+     *
+     * Complexity: O(d*(n + 2^b)), where b is the number of bits of a digit and d <= 64/b is the number of digits of the largest key
+     *
+     * @param list          the list that will be sorted
+     * @param f             a function that maps an element to its non-negative key
+     * @param descending    true => sort descending order, otherwise ascending order
+     * @param <T>           the type of the elements of the list
+     */
+    public <T> void sort(final List<T> list, final ToLongFunction<? super T> f, final boolean descending) {
+        int n = list.size();
+        if(n <= 1) {
+            return;
+        }
+
+        ensureCapacity(n);
+        long max = extract(list, f, keys, descending);
+        initIndex(n);
+        sortIndex(keys, n, max);
+        apply(list, n);
+    }
+
+    /**
+     * Sorts the list lexicographically by (primary key, secondary key), i.e. first by the primary key in ascending order and elements
+     * of equal primary keys by their secondary key.
+     *
+     * Complexity: O(d*(n + 2^b)), where b is the number of bits of a digit and d <= 128/b is the number of digits of the largest keys
+     *
+     * @param list                  the list that will be sorted
+     * @param primary               a function that maps an element to its non-negative primary key
+     * @param secondary             a function that maps an element to its non-negative secondary key
+     * @param secondaryDescending   true => elements of equal primary keys are sorted in descending order of the secondary key
+     * @param <T>                   the type of the elements of the list
+     */
+    public <T> void sort(final List<T> list, final ToLongFunction<? super T> primary, final ToLongFunction<? super T> secondary, final boolean secondaryDescending) {
+        int n = list.size();
+        if(n <= 1) {
+            return;
+        }
+
+        ensureCapacity(n);
+        long max = extract(list, primary, keys, false);
+        long secondaryMax = extract(list, secondary, secondaryKeys, secondaryDescending);
+        initIndex(n);
+
+        // the sort of the index is stable, so the secondary order is kept for equal primary keys
+        sortIndex(secondaryKeys, n, secondaryMax);
+        sortIndex(keys, n, max);
+        apply(list, n);
+    }
+
+    /**
+     * Extracts the keys of all elements and returns the largest key.
+     *
+     * @param list          the list
+     * @param f             a function that maps an element to its non-negative key
+     * @param target        the array the keys will be written into
+     * @param descending    true => the keys are replaced by (max - key), i.e. the ascending order of the keys is the descending order
+     * @param <T>           the type of the elements of the list
+     * @return the largest key of target
+     */
+    private <T> long extract(final List<T> list, final ToLongFunction<? super T> f, final long[] target, final boolean descending) {
+        int n = list.size();
+        long max = 0;
+        for(int i = 0; i < n; i++) {
+            long key = f.applyAsLong(list.get(i));
+            if(key < 0) {
+                throw new IllegalArgumentException("negative key " + key + " of " + list.get(i) + ".");
+            }
+            target[i] = key;
+            max = Math.max(max, key);
+        }
+
+        if(descending) {
+            for(int i = 0; i < n; i++) {
+                target[i] = max - target[i];
+            }
+        }
+        return max;
+    }
+
+    private void initIndex(final int n) {
+        for(int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+    }
+
+    /**
+     * Sorts the first n entries of the index by the keys of the positions they refer to, the sort is stable.
+     *
+     * @param keys  position -> key
+     * @param n     the number of elements
+     * @param max   the largest key
+     */
+    private void sortIndex(final long[] keys, final int n, final long max) {
+        int bits = n >= LARGE ? 16 : 8;
+        int digits = 1 << bits;
+        int mask = digits - 1;
+
+        for(int shift = 0; shift < 64 && (max >>> shift) != 0; shift += bits) {
+            for(int d = 0; d < digits; d++) {
+                count[d] = 0;
+            }
+
+            for(int i = 0; i < n; i++) {
+                count[(int)(keys[index[i]] >>> shift) & mask]++;
+            }
+
+            for(int d = 1; d < digits; d++) {
+                count[d] += count[d-1];
+            }
+
+            for(int i = n - 1; i >= 0; i--) {
+                tmpIndex[--count[(int)(keys[index[i]] >>> shift) & mask]] = index[i];
+            }
+
+            int[] swap = index;
+            index = tmpIndex;
+            tmpIndex = swap;
+        }
+    }
+
+    /**
+     * Rearranges the list in place such that the element at position index[i] moves to position i by following the cycles
+     * of the permutation. Processed entries of the index are marked by their complement.
+     *
+     * Complexity: O(n)
+     *
+     * @param list  the list
+     * @param n     the number of elements
+     * @param <T>   the type of the elements of the list
+     */
+    private <T> void apply(final List<T> list, final int n) {
+        for(int i = 0; i < n; i++) {
+            if(index[i] < 0) {
+                continue;
+            }
+
+            T first = list.get(i);
+            int j = i;
+            while (true) {
+                int k = index[j];
+                index[j] = ~k;
+                if(k == i) {
+                    list.set(j, first);
+                    break;
+                }
+                list.set(j, list.get(k));
+                j = k;
+            }
+        }
+    }
+
+    private void ensureCapacity(final int n) {
+        if(index.length < n) {
+            index = new int[n];
+            tmpIndex = new int[n];
+            keys = new long[n];
+            secondaryKeys = new long[n];
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package utils;
+
+/**
+ * The statistics of a reduction of two N2W transducers into a CFG, i.e. the number of candidate productions which were
+ * probed by the joins and the number of productions which were emitted.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class ReductionStatistics {
+
+    /**
+     * the number of co-reachable state pairs.
+     */
+    public final long coreachablePairs;
+
+    /**
+     * the number of non-terminals (q1, p1, q2, p2) which derive some word.
+     */
+    public final long productiveNonTerminals;
+
+    /**
+     * the number of probed combinations of an opening and a closing rule of both transducers.
+     */
+    public final long terminalCandidates;
+
+    /**
+     * the number of emitted productions containing terminals.
+     */
+    public final long terminalProductions;
+
+    /**
+     * the number of probed concatenations of two non-terminals.
+     */
+    public final long betweenCandidates;
+
+    /**
+     * the number of emitted productions concatenating two non-terminals.
+     */
+    public final long betweenProductions;
+
+    /**
+     * the number of emitted epsilon productions.
+     */
+    public final long epsilonProductions;
+
+    public ReductionStatistics(final long coreachablePairs,
+                               final long productiveNonTerminals,
+                               final long terminalCandidates,
+                               final long terminalProductions,
+                               final long betweenCandidates,
+                               final long betweenProductions,
+                               final long epsilonProductions) {
+        this.coreachablePairs = coreachablePairs;
+        this.productiveNonTerminals = productiveNonTerminals;
+        this.terminalCandidates = terminalCandidates;
+        this.terminalProductions = terminalProductions;
+        this.betweenCandidates = betweenCandidates;
+        this.betweenProductions = betweenProductions;
+        this.epsilonProductions = epsilonProductions;
+    }
+
+    @Override
+    public String toString() {
+        return "coreachable pairs: " + coreachablePairs +
+                ", productive non-terminals: " + productiveNonTerminals +
+                ", terminal productions: " + terminalProductions + " / " + terminalCandidates + " candidates" +
+                ", between productions: " + betweenProductions + " / " + betweenCandidates + " candidates" +
+                " (unindexed: " + coreachablePairs * coreachablePairs * coreachablePairs + ")" +
+                ", epsilon productions: " + epsilonProductions;
+    }
+}
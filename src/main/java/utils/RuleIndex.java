@@ -0,0 +1,117 @@
+package utils;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * An immutable index of rules by (state, key), where the states and the keys (e.g. the input symbols) are compiled to
+ * dense ids. The rules are sorted by their state (counting sort) and the rules of each state are sorted by their key,
+ * i.e. the rules of a state form a contiguous range [begin(q), end(q)) in which the rules with the same key are adjacent.
+ *
+ * @author Benedikt Zoennchen
+ *
+ * @param <R> the type of the rules
+ */
+public class RuleIndex<R> {
+
+    private final List<R> rules;
+    private final int[] keys;
+    private final int[] offsets;
+
+    /**
+     * Default constructor.
+     *
+     * Complexity: O(n * log(n)), where n is the number of rules
+     *
+     * @param rules             the rules
+     * @param numberOfStates    the number of states
+     * @param state             rule -> the dense id of the state of the rule in [0, numberOfStates)
+     * @param key               rule -> the non-negative key of the rule
+     */
+    public RuleIndex(final Collection<R> rules, final int numberOfStates, final ToIntFunction<R> state, final ToIntFunction<R> key) {
+        List<R> unsorted = new ArrayList<>(rules);
+        int[] states = new int[unsorted.size()];
+        this.offsets = new int[numberOfStates + 1];
+
+        for(int i = 0; i < unsorted.size(); i++) {
+            states[i] = state.applyAsInt(unsorted.get(i));
+            if(states[i] < 0 || states[i] >= numberOfStates) {
+                throw new IllegalArgumentException("the rule " + unsorted.get(i) + " has an unknown state.");
+            }
+            offsets[states[i] + 1]++;
+        }
+        for(int q = 0; q < numberOfStates; q++) {
+            offsets[q + 1] += offsets[q];
+        }
+
+        // counting sort by the state, each entry is (key, index of the rule) to sort the ranges by the key
+        long[] entries = new long[unsorted.size()];
+        int[] next = Arrays.copyOf(offsets, numberOfStates);
+        for(int i = 0; i < unsorted.size(); i++) {
+            int k = key.applyAsInt(unsorted.get(i));
+            if(k < 0) {
+                throw new IllegalArgumentException("the rule " + unsorted.get(i) + " has a negative key.");
+            }
+            entries[next[states[i]]++] = ((long)k << 32) | i;
+        }
+
+        this.rules = new ArrayList<>(unsorted.size());
+        this.keys = new int[unsorted.size()];
+        for(int q = 0; q < numberOfStates; q++) {
+            Arrays.sort(entries, offsets[q], offsets[q + 1]);
+        }
+        for(int i = 0; i < entries.length; i++) {
+            keys[i] = (int)(entries[i] >>> 32);
+            this.rules.add(unsorted.get((int)entries[i]));
+        }
+    }
+
+    /**
+     * Returns the inclusive begin of the range of the rules of the state.
+     *
+     * @param state the dense id of the state
+     * @return the inclusive begin of the range of the rules of the state
+     */
+    public int begin(final int state) {
+        return offsets[state];
+    }
+
+    /**
+     * Returns the exclusive end of the range of the rules of the state.
+     *
+     * @param state the dense id of the state
+     * @return the exclusive end of the range of the rules of the state
+     */
+    public int end(final int state) {
+        return offsets[state + 1];
+    }
+
+    /**
+     * Returns the key of the rule at the index.
+     *
+     * @param index the index of the rule
+     * @return the key of the rule at the index
+     */
+    public int key(final int index) {
+        return keys[index];
+    }
+
+    /**
+     * Returns the rule at the index.
+     *
+     * @param index the index of the rule
+     * @return the rule at the index
+     */
+    public R get(final int index) {
+        return rules.get(index);
+    }
+
+    /**
+     * Returns the number of rules.
+     *
+     * @return the number of rules
+     */
+    public int size() {
+        return rules.size();
+    }
+}
@@ -0,0 +1,306 @@
+package utils;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * A set of pairs (q1, q2) of states of two automata or transducers. The states are compiled to dense ids and each pair
+ * is stored as the key id(q1) * |Q_2| + id(q2) in an open-addressing hash set of primitive longs (see LongIndexSet), i.e.
+ * there is no allocation for adding or probing a pair. The pairs are numbered in their insertion order, which is used as
+ * the queue of the exploration of the product (see explore).
+ *
+ * The set is a read-only Set of Pair(q1, q2), pairs are only created if the set is iterated.
+ *
+ * @author Benedikt Zoennchen
+ *
+ * @param <Q> the type of the states
+ */
+public class StatePairs<Q> extends AbstractSet<Pair<Q, Q>> {
+
+    private final List<Q> states1;
+    private final List<Q> states2;
+    private final Map<Q, Integer> ids1;
+    private final Map<Q, Integer> ids2;
+
+    private final LongIndexSet pairs;
+
+    /**
+     * Default constructor.
+     *
+     * @param states1   the states of the first automaton
+     * @param states2   the states of the second automaton
+     */
+    public StatePairs(final Collection<Q> states1, final Collection<Q> states2) {
+        this.states1 = new ArrayList<>(states1);
+        this.states2 = new ArrayList<>(states2);
+        this.ids1 = index(this.states1);
+        this.ids2 = index(this.states2);
+        this.pairs = new LongIndexSet();
+    }
+
+    /**
+     * Returns the dense id of a state of the first automaton, or -1 if the state is unknown.
+     *
+     * @param q1 a state of the first automaton
+     * @return the dense id of the state
+     */
+    public int id1(final Q q1) {
+        Integer id = ids1.get(q1);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the dense id of a state of the second automaton, or -1 if the state is unknown.
+     *
+     * @param q2 a state of the second automaton
+     * @return the dense id of the state
+     */
+    public int id2(final Q q2) {
+        Integer id = ids2.get(q2);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the number of states of the first automaton.
+     *
+     * @return the number of states of the first automaton
+     */
+    public int numberOfStates1() {
+        return states1.size();
+    }
+
+    /**
+     * Returns the number of states of the second automaton.
+     *
+     * @return the number of states of the second automaton
+     */
+    public int numberOfStates2() {
+        return states2.size();
+    }
+
+    /**
+     * Adds the pair (q1, q2).
+     *
+     * Complexity: O(1) amortized
+     *
+     * @param q1    a state of the first automaton
+     * @param q2    a state of the second automaton
+     * @return true if the pair was not contained, otherwise false
+     */
+    public boolean add(final Q q1, final Q q2) {
+        int id1 = id1(q1);
+        int id2 = id2(q2);
+        if(id1 < 0 || id2 < 0) {
+            throw new IllegalArgumentException("the pair (" + q1 + ", " + q2 + ") contains an unknown state.");
+        }
+        return add(id1, id2);
+    }
+
+    /**
+     * Tests whether the pair (q1, q2) is contained.
+     *
+     * Complexity: O(1) expected
+     *
+     * @param q1    a state of the first automaton
+     * @param q2    a state of the second automaton
+     * @return true if the pair is contained, otherwise false
+     */
+    public boolean contains(final Q q1, final Q q2) {
+        int id1 = id1(q1);
+        int id2 = id2(q2);
+        return indexOf(id1, id2) >= 0;
+    }
+
+    /**
+     * Adds the pair of the dense ids (id1, id2).
+     *
+     * Complexity: O(1) amortized
+     *
+     * @param id1   the dense id of a state of the first automaton
+     * @param id2   the dense id of a state of the second automaton
+     * @return true if the pair was not contained, otherwise false
+     */
+    public boolean add(final int id1, final int id2) {
+        int size = pairs.size();
+        return pairs.add(key(id1, id2)) == size;
+    }
+
+    /**
+     * Returns the insertion index of the pair of the dense ids (id1, id2), or -1 if the pair is not contained.
+     *
+     * Complexity: O(1) expected
+     *
+     * @param id1   the dense id of a state of the first automaton, or -1
+     * @param id2   the dense id of a state of the second automaton, or -1
+     * @return the insertion index of the pair, or -1 if the pair is not contained
+     */
+    public int indexOf(final int id1, final int id2) {
+        return id1 >= 0 && id2 >= 0 ? pairs.indexOf(key(id1, id2)) : -1;
+    }
+
+    /**
+     * Returns the dense id of the first state of the pair with the insertion index.
+     *
+     * @param index the insertion index of the pair
+     * @return the dense id of the first state of the pair
+     */
+    public int getFirstId(final int index) {
+        return (int)(pairs.get(index) / states2.size());
+    }
+
+    /**
+     * Returns the dense id of the second state of the pair with the insertion index.
+     *
+     * @param index the insertion index of the pair
+     * @return the dense id of the second state of the pair
+     */
+    public int getSecondId(final int index) {
+        return (int)(pairs.get(index) % states2.size());
+    }
+
+    /**
+     * Returns the state of the first automaton with the dense id.
+     *
+     * @param id1 the dense id of a state of the first automaton
+     * @return the state of the first automaton with the dense id
+     */
+    public Q getState1(final int id1) {
+        return states1.get(id1);
+    }
+
+    /**
+     * Returns the state of the second automaton with the dense id.
+     *
+     * @param id2 the dense id of a state of the second automaton
+     * @return the state of the second automaton with the dense id
+     */
+    public Q getState2(final int id2) {
+        return states2.get(id2);
+    }
+
+    /**
+     * Returns the first state of the pair with the insertion index.
+     *
+     * @param index the insertion index of the pair
+     * @return the first state of the pair
+     */
+    public Q getFirst(final int index) {
+        return states1.get(getFirstId(index));
+    }
+
+    /**
+     * Returns the second state of the pair with the insertion index.
+     *
+     * @param index the insertion index of the pair
+     * @return the second state of the pair
+     */
+    public Q getSecond(final int index) {
+        return states2.get(getSecondId(index));
+    }
+
+    /**
+     * Explores the product of two automata starting with the pairs contained so far: for each pair (q1, q2) the rules of q1
+     * and the rules of q2 are joined by their keys (e.g. the input symbol), for each joined pair of rules the consumer adds
+     * the successor pairs. The pairs are processed in their insertion order, i.e. breadth-first.
+     *
+     * Complexity: O(p * d + j), where p is the number of pairs, d is the maximal number of rules of a state (the cost of
+     * a merge join) and j is the number of joined pairs of rules
+     *
+     * @param rules1        the rules of the first automaton indexed by the dense ids of their source states
+     * @param rules2        the rules of the second automaton indexed by the dense ids of their source states
+     * @param successors    adds the successor pairs of two joined rules
+     * @param <R>           the type of the rules
+     */
+    public <R> void explore(final RuleIndex<R> rules1, final RuleIndex<R> rules2, final BiConsumer<R, R> successors) {
+        for(int next = 0; next < pairs.size(); next++) {
+            int q1 = getFirstId(next);
+            int q2 = getSecondId(next);
+
+            // merge join of the rules sorted by their keys
+            int i = rules1.begin(q1);
+            int iEnd = rules1.end(q1);
+            int j = rules2.begin(q2);
+            int jEnd = rules2.end(q2);
+
+            while (i < iEnd && j < jEnd) {
+                int key1 = rules1.key(i);
+                int key2 = rules2.key(j);
+                if(key1 < key2) {
+                    i++;
+                }
+                else if(key1 > key2) {
+                    j++;
+                }
+                else {
+                    int i2 = i;
+                    while (i2 < iEnd && rules1.key(i2) == key1) {
+                        i2++;
+                    }
+                    int j2 = j;
+                    while (j2 < jEnd && rules2.key(j2) == key2) {
+                        j2++;
+                    }
+                    for(int k1 = i; k1 < i2; k1++) {
+                        for(int k2 = j; k2 < j2; k2++) {
+                            successors.accept(rules1.get(k1), rules2.get(k2));
+                        }
+                    }
+                    i = i2;
+                    j = j2;
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        if(!(o instanceof Pair)) {
+            return false;
+        }
+        Pair<?, ?> pair = (Pair<?, ?>) o;
+        Integer id1 = ids1.get(pair.a);
+        Integer id2 = ids2.get(pair.b);
+        return id1 != null && id2 != null && pairs.contains(key(id1, id2));
+    }
+
+    @Override
+    public Iterator<Pair<Q, Q>> iterator() {
+        return new Iterator<Pair<Q, Q>>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < pairs.size();
+            }
+
+            @Override
+            public Pair<Q, Q> next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Pair<Q, Q> pair = new Pair<>(getFirst(index), getSecond(index));
+                index++;
+                return pair;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return pairs.size();
+    }
+
+    private long key(final int id1, final int id2) {
+        return (long)id1 * states2.size() + id2;
+    }
+
+    private static <Q> Map<Q, Integer> index(final List<Q> states) {
+        Map<Q, Integer> ids = new HashMap<>();
+        for(Q state : states) {
+            if(ids.put(state, ids.size()) != null) {
+                throw new IllegalArgumentException("the state " + state + " is contained twice.");
+            }
+        }
+        return ids;
+    }
+}
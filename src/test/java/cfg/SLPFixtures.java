@@ -0,0 +1,155 @@
+package cfg;
+
+import grammar.impl.CFGCreator;
+import grammar.impl.Production;
+import grammar.impl.SLP;
+import grammar.parser.CharGrammarParser;
+import symbol.IJezSymbol;
+
+import java.util.*;
+
+/**
+ * Shared SLP fixtures of the grammar tests.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class SLPFixtures {
+
+    /**
+     * A small SLP with nested non-terminals, blocks and repeated non-terminals.
+     */
+    public static final String CODE =
+            "S -> aBaDD \n" +
+            "B -> bAb \n" +
+            "A -> aCa \n" +
+            "C -> cDc \n" +
+            "D -> FgF \n" +
+            "F -> fffef";
+
+    private SLPFixtures() {}
+
+    /**
+     * Creates the SLP of CODE.
+     */
+    public static SLP<Character> createCodeSLP(final CFGCreator<Character> cfgCreator) {
+        return new CharGrammarParser(cfgCreator).createSLP(CODE);
+    }
+
+    /**
+     * Creates a random word of at least length letters which consists of blocks of a, b and c of length at most 4.
+     */
+    public static List<IJezSymbol<Character>> createRandomBlocks(final CFGCreator<Character> cfgCreator, final Random random, final int length) {
+        List<IJezSymbol<Character>> word = new ArrayList<>();
+        while (word.size() < length) {
+            IJezSymbol<Character> letter = cfgCreator.lookupSymbol((char)('a' + random.nextInt(3)), true);
+            for(int i = random.nextInt(4); i >= 0; i--) {
+                word.add(letter);
+            }
+        }
+        return word;
+    }
+
+    /**
+     * Creates a random word of exactly length letters which consists of blocks of a, b and c of length at most 4.
+     */
+    public static String createRandomWord(final Random random, final int length) {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < length) {
+            char letter = (char)('a' + random.nextInt(3));
+            for(int i = random.nextInt(4); i >= 0 && builder.length() < length; i--) {
+                builder.append(letter);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Creates a balanced SLP of a random word consisting of blocks, see createRandomBlocks.
+     */
+    public static SLP<Character> createRandomSLP(final CFGCreator<Character> cfgCreator, final Random random, final int length) {
+        return createBalanced(cfgCreator, createRandomBlocks(cfgCreator, random, length));
+    }
+
+    /**
+     * Creates a balanced SLP of the non-empty word.
+     */
+    public static SLP<Character> createBalanced(final CFGCreator<Character> cfgCreator, final String word) {
+        List<IJezSymbol<Character>> letters = new ArrayList<>();
+        for(char letter : word.toCharArray()) {
+            letters.add(cfgCreator.lookupSymbol(letter, true));
+        }
+        return createBalanced(cfgCreator, letters);
+    }
+
+    /**
+     * Creates a balanced SLP of the non-empty word, i.e. its height is logarithmic in the length of the word.
+     */
+    public static SLP<Character> createBalanced(final CFGCreator<Character> cfgCreator, final List<IJezSymbol<Character>> word) {
+        Map<IJezSymbol<Character>, Production<Character>> productions = new HashMap<>();
+        List<IJezSymbol<Character>> level = word;
+        do {
+            List<IJezSymbol<Character>> nextLevel = new ArrayList<>();
+            for(int i = 0; i < level.size(); i += 2) {
+                IJezSymbol<Character> x = cfgCreator.createFreshNonTerminal();
+                productions.put(x, i + 1 < level.size() ? cfgCreator.createProduction(x, level.get(i), level.get(i + 1)) : cfgCreator.createProduction(x, level.get(i)));
+                nextLevel.add(x);
+            }
+            level = nextLevel;
+        } while (level.size() > 1);
+        return cfgCreator.createSLP(productions, level.get(0));
+    }
+
+    /**
+     * Creates an SLP of the non-empty word by splitting each factor longer than 3 at a random position, equal factors share
+     * their non-terminal.
+     */
+    public static SLP<Character> createRandomSplit(final CFGCreator<Character> cfgCreator, final Random random, final String word) {
+        Map<IJezSymbol<Character>, Production<Character>> productions = new HashMap<>();
+        IJezSymbol<Character> axiom = createRandomSplit(cfgCreator, random, word, productions, new HashMap<>());
+        return cfgCreator.createSLP(productions, axiom);
+    }
+
+    private static IJezSymbol<Character> createRandomSplit(
+            final CFGCreator<Character> cfgCreator,
+            final Random random,
+            final String word,
+            final Map<IJezSymbol<Character>, Production<Character>> productions,
+            final Map<String, IJezSymbol<Character>> factors) {
+        if(factors.containsKey(word)) {
+            return factors.get(word);
+        }
+
+        List<IJezSymbol<Character>> right = new ArrayList<>();
+        if(word.length() <= 3) {
+            for(char letter : word.toCharArray()) {
+                right.add(cfgCreator.lookupSymbol(letter, true));
+            }
+        }
+        else {
+            int split = 1 + random.nextInt(word.length() - 1);
+            right.add(createRandomSplit(cfgCreator, random, word.substring(0, split), productions, factors));
+            right.add(createRandomSplit(cfgCreator, random, word.substring(split), productions, factors));
+        }
+
+        IJezSymbol<Character> nonTerminal = cfgCreator.createFreshNonTerminal();
+        productions.put(nonTerminal, cfgCreator.createProduction(nonTerminal, cfgCreator.createWord(right)));
+        factors.put(word, nonTerminal);
+        return nonTerminal;
+    }
+
+    /**
+     * Creates an SLP of the word base^(2^depth) by squaring.
+     */
+    @SafeVarargs
+    public static SLP<Character> createPower(final CFGCreator<Character> cfgCreator, final int depth, final IJezSymbol<Character>... base) {
+        Map<IJezSymbol<Character>, Production<Character>> productions = new HashMap<>();
+        IJezSymbol<Character> x = cfgCreator.createFreshNonTerminal();
+        productions.put(x, cfgCreator.createProduction(x, base));
+        for(int i = 0; i < depth; i++) {
+            IJezSymbol<Character> next = cfgCreator.createFreshNonTerminal();
+            productions.put(next, cfgCreator.createProduction(next, x, x));
+            x = next;
+        }
+        return cfgCreator.createSLP(productions, x);
+    }
+}
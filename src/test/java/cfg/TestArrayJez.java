@@ -0,0 +1,136 @@
+package cfg;
+
+import grammar.impl.*;
+import grammar.parser.CharGrammarParser;
+import symbol.IJezSymbol;
+import utils.Pair;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the equivalence of SLP-compressed words by the recompression on the primitive grammar representation.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestArrayJez {
+
+    @Test
+    public void testEqualityOf2SLPs() {
+        String grammar1 = "S -> aBaaaBaaaB \n B -> eCCCee \n C -> c";
+        String grammar2 = "A -> aDaaaDaaaD \n D -> eECee \n C -> c \n E -> CC";
+        String grammar3 = "A -> aDaaaDaaaD \n D -> eECee \n C -> c \n E -> CCC";
+
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        SLP<Character> slp1 = parser.createSLP(grammar1);
+        SLP<Character> slp2 = parser.createSLP(grammar2);
+        SLP<Character> slp3 = parser.createSLP(grammar3);
+        SLPOp<Character> slpOp = new SLPOp<>();
+        assertTrue(slpOp.equalsCompact(slp1, slp2));
+        assertFalse(slpOp.equalsCompact(slp1, slp3));
+
+        // the SLPs are not changed
+        assertTrue(slpOp.equals(slp1, slp2, factory));
+    }
+
+    @Test
+    public void testEquality() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+
+        String code =
+                "S -> AB \n" +
+                "A -> CD \n" +
+                "B -> EF \n" +
+                "C -> GH \n" +
+                "D -> IJ \n" +
+                "E -> KL \n" +
+                "F -> MN \n" +
+                "G -> g \n" +
+                "H -> h \n" +
+                "I -> i \n" +
+                "J -> j \n" +
+                "K -> k \n" +
+                "L -> llllkm \n" +
+                "M -> m \n" +
+                "N -> n \n" +
+                "V -> ghiXmn \n"+
+                "X -> Zllllkm \n"+
+                "Z -> jk \n" +
+                "W -> ghiYmn \n"+
+                "Y -> Zlllllkm \n";
+
+        Set<Production<Character>> productionSet = parser.createProductions(code);
+        Set<IJezSymbol<Character>> axioms = new HashSet<>();
+        axioms.add(cfgCreator.lookupSymbol('V', false));
+        axioms.add(cfgCreator.lookupSymbol('S', false));
+        assertTrue(new ArrayJez<>(Collections.singletonList(cfgCreator.createSLP(productionSet, axioms))).isEquals());
+
+        axioms.add(cfgCreator.lookupSymbol('W', false));
+        assertFalse(new ArrayJez<>(Collections.singletonList(cfgCreator.createSLP(productionSet, axioms))).isEquals());
+    }
+
+    @Test
+    public void testPartition() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp<>();
+        Random random = new Random(1);
+
+        List<String> words = Arrays.asList("abababab", "aaaaaaaaab", "abababab", "ab", "aaaaaaaaab", "cab", "a", "abababab", "abababa");
+        List<SLP<Character>> slps = new ArrayList<>();
+        for(String word : words) {
+            slps.add(SLPFixtures.createRandomSplit(cfgCreator, random, word));
+        }
+
+        List<List<SLP<Character>>> partition = slpOp.partition(slps);
+        assertTrue(partition.size() == 6);
+        assertTrue(partition.get(0).equals(Arrays.asList(slps.get(0), slps.get(2), slps.get(7))));
+        assertTrue(partition.get(1).equals(Arrays.asList(slps.get(1), slps.get(4))));
+
+        List<Pair<SLP<Character>, SLP<Character>>> pairs = new ArrayList<>();
+        for(int i = 0; i < slps.size(); i++) {
+            for(int j = 0; j < slps.size(); j++) {
+                pairs.add(new Pair<>(slps.get(i), slps.get(j)));
+            }
+        }
+
+        List<Boolean> equals = slpOp.equalsAll(pairs);
+        for(int k = 0; k < pairs.size(); k++) {
+            assertTrue(equals.get(k) == words.get(k / slps.size()).equals(words.get(k % slps.size())));
+        }
+    }
+
+    /**
+     * Compares differently compressed random words of a small alphabet with long blocks and many repetitions.
+     */
+    @Test
+    public void testRandomEquality() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp<>();
+        Random random = new Random(0);
+
+        for(int i = 0; i < 500; i++) {
+            String word = SLPFixtures.createRandomWord(random, 1 + random.nextInt(200));
+            char[] letters = word.toCharArray();
+            int k = random.nextInt(letters.length);
+            letters[k] = letters[k] == 'a' ? 'b' : 'a';
+            String other = new String(letters);
+
+            SLP<Character> slp1 = SLPFixtures.createRandomSplit(cfgCreator, random, word);
+            SLP<Character> slp2 = SLPFixtures.createRandomSplit(cfgCreator, random, word);
+            SLP<Character> slp3 = SLPFixtures.createRandomSplit(cfgCreator, random, other);
+
+            assertTrue(slpOp.equalsCompact(slp1, slp2));
+            assertFalse(slpOp.equalsCompact(slp1, slp3));
+            assertTrue(slpOp.equalsCompact(slp1, slp3) == slpOp.equals(slp1, slp3, factory));
+        }
+    }
+}
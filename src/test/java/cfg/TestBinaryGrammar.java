@@ -0,0 +1,189 @@
+package cfg;
+
+import grammar.impl.*;
+import grammar.inter.ISLP;
+import grammar.parser.CharGrammarParser;
+import grammar.parser.GenBinaryGrammarReader;
+import grammar.parser.GenBinaryGrammarWriter;
+import symbol.IJezSymbol;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the binary grammar format.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestBinaryGrammar {
+
+    @Test
+    public void testSLP() throws IOException {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        SLP<Character> slp = parser.createSLP(SLPFixtures.CODE);
+
+        Path path = Files.createTempFile("slp", ".bin");
+        try {
+            new GenBinaryGrammarWriter<Character>(c -> String.valueOf(c)).writeSLP(slp, path);
+
+            CFGCreator<Character> otherCreator = new CFGCreator<>();
+            SLP<Character> loaded = new GenBinaryGrammarReader<>(otherCreator, s -> s.charAt(0)).readSLP(path);
+
+            assertTrue(loaded.getProductions().size() == slp.getProductions().size());
+            assertTrue(loaded.toString(loaded.getAxiom()).equals(slp.toString(slp.getAxiom())));
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testCFG() throws IOException {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        CFG<Character> cfg = parser.create(
+                "S -> aSb \n" +
+                "S -> ab \n" +
+                "S -> A \n" +
+                "A -> ");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GenBinaryGrammarWriter<Character>(c -> String.valueOf(c)).writeCFG(cfg, out);
+
+        CFG<Character> loaded = new GenBinaryGrammarReader<>(cfgCreator, s -> s.charAt(0)).readCFG(ByteBuffer.wrap(out.toByteArray()));
+        assertTrue(loaded.getProductions().size() == 4);
+        assertTrue(loaded.getAxioms().size() == 1);
+        assertTrue(loaded.getProductions(loaded.getAxiom()).size() == 3);
+        assertTrue(terminals(loaded).equals(terminals(cfg)));
+    }
+
+    @Test
+    public void testRecompressedSLP() throws IOException {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp<>();
+
+        SLP<Character> slp1 = SLPFixtures.createRandomSLP(cfgCreator, new Random(1), 2000);
+        SLP<Character> slp2 = SLPFixtures.createRandomSLP(cfgCreator, new Random(1), 2000);
+        SLP<Character> merged = slpOp.merge(slp1, slp2, factory, false, false).a;
+
+        // store the SLP after the first phase, i.e. it contains unnamed letters of weight > 1
+        Jez<Character> recompression = new Jez(merged, factory);
+        List<byte[]> bytes = new ArrayList<>();
+        List<List<List<List<Long>>>> words = new ArrayList<>();
+        recompression.addPhaseListener(statistics -> {
+            if(bytes.isEmpty()) {
+                ISLP<Character, IJezSymbol<Character>, JezWord<Character>, Production<Character>> slp = recompression.getSlp();
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try {
+                    new GenBinaryGrammarWriter<Character>(c -> String.valueOf(c)).writeSLP(slp, out);
+                }
+                catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                bytes.add(out.toByteArray());
+                words.add(words(slp));
+            }
+        });
+        assertTrue(recompression.isEquals());
+        assertEquals(1, bytes.size());
+        assertTrue(words.get(0).stream().flatMap(word -> word.stream()).anyMatch(letter -> letter.get(2) > 1));
+
+        SLP<Character> loaded = new GenBinaryGrammarReader<>(new CFGCreator<>(), s -> s.charAt(0)).readSLP(ByteBuffer.wrap(bytes.get(0)));
+        assertEquals(words.get(0), words(loaded));
+    }
+
+    @Test
+    public void testTerminalLength() throws IOException {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        IJezSymbol<Character> a = cfgCreator.lookupSymbol('a', true);
+        IJezSymbol<Character> b = cfgCreator.lookupSymbol('b', true);
+
+        // S -> a^3 x b A, A -> b a where x is an unnamed letter of weight 2
+        IJezSymbol<Character> unnamed = cfgCreator.getSymbolFactory().createTerminal(0, 1L, 2L);
+        IJezSymbol<Character> axiom = cfgCreator.createFreshNonTerminal();
+        IJezSymbol<Character> nonTerminal = cfgCreator.createFreshNonTerminal();
+        Map<IJezSymbol<Character>, Production<Character>> productions = new HashMap<>();
+        productions.put(axiom, cfgCreator.createProduction(axiom, cfgCreator.getSymbolFactory().createTerminal(a, 3L), unnamed, b, nonTerminal));
+        productions.put(nonTerminal, cfgCreator.createProduction(nonTerminal, b, a));
+        SLP<Character> slp = cfgCreator.createSLP(productions, axiom);
+        List<List<Long>> word = words(slp).get(0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GenBinaryGrammarWriter<Character>(c -> String.valueOf(c)).writeSLP(slp, out);
+        SLP<Character> loaded = new GenBinaryGrammarReader<>(new CFGCreator<>(), s -> s.charAt(0)).readSLP(ByteBuffer.wrap(out.toByteArray()));
+
+        assertEquals(word, words(loaded).get(0));
+        assertEquals(3L, (long)word.get(0).get(1));
+        assertEquals(2L, (long)word.get(1).get(2));
+        assertTrue(loaded.getProduction(loaded.getAxiom()).getRight().findAll(s -> s.isTerminal() && s.getName() == null).size() == 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongKind() throws IOException {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        SLP<Character> slp = new CharGrammarParser(cfgCreator).createSLP(SLPFixtures.CODE);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GenBinaryGrammarWriter<Character>(c -> String.valueOf(c)).writeSLP(slp, out);
+        new GenBinaryGrammarReader<>(cfgCreator, s -> s.charAt(0)).readCFG(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOversizedSymbolCode() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        // one terminal 'a', one non-terminal which is the axiom, one production X -> code, where code >> 1 exceeds Integer.MAX_VALUE
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[]{'S', 'L', 'P', 'G', 1, 0}, 0, 6);
+        out.write(new byte[]{1, 1, 'a'}, 0, 3);
+        out.write(new byte[]{1, 1, 0}, 0, 3);
+        out.write(new byte[]{1, 0, 1}, 0, 3);
+        out.write(new byte[]{(byte)0x81, (byte)0x80, (byte)0x80, (byte)0x80, (byte)0x80, 0x01}, 0, 6);
+
+        new GenBinaryGrammarReader<>(cfgCreator, s -> s.charAt(0)).readSLP(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    /**
+     * Returns the words of the axioms where each letter is given by (index of its first occurrence, length, weight), i.e.
+     * the words are independent of the ids of the letters.
+     */
+    private static List<List<List<Long>>> words(final ISLP<Character, IJezSymbol<Character>, JezWord<Character>, Production<Character>> slp) {
+        Map<IJezSymbol<Character>, Long> letters = new HashMap<>();
+        List<List<List<Long>>> words = new ArrayList<>();
+        for(IJezSymbol<Character> axiom : slp.getAxioms().stream().sorted((a, b) -> Integer.compare(a.getId(), b.getId())).collect(Collectors.toList())) {
+            List<List<Long>> word = new ArrayList<>();
+            for(IJezSymbol<Character> letter : slp.value(axiom)) {
+                long index = letters.computeIfAbsent(letter, l -> (long)letters.size());
+                List<Long> canonical = new ArrayList<>();
+                canonical.add(index);
+                canonical.add(letter.getLength());
+                canonical.add(letter.getWeight());
+                word.add(canonical);
+            }
+            words.add(word);
+        }
+        return words;
+    }
+
+    private static Set<IJezSymbol<Character>> terminals(final CFG<Character> cfg) {
+        return cfg.getProductions().stream()
+                .flatMap(p -> p.getRight().stream())
+                .filter(s -> s.isTerminal())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,127 @@
+package cfg;
+
+import grammar.impl.*;
+import grammar.parser.CharGrammarParser;
+import symbol.IJezSymbol;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the concurrent mode of the symbol factory.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestConcurrentSymbolFactory {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void testConcurrentSymbols() throws InterruptedException, ExecutionException {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>(true);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<IJezSymbol<Character>>>> futures = new ArrayList<>();
+
+        for(int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                List<IJezSymbol<Character>> symbols = new ArrayList<>();
+                for(int i = 0; i < 1000; i++) {
+                    symbols.add(cfgCreator.lookupSymbol((char)('a' + (i % 26)), true));
+                    symbols.add(cfgCreator.createFreshNonTerminal());
+                }
+                return symbols;
+            }));
+        }
+
+        Map<Character, IJezSymbol<Character>> terminals = new HashMap<>();
+        Set<Integer> nonTerminalIds = new HashSet<>();
+        for(Future<List<IJezSymbol<Character>>> future : futures) {
+            for(IJezSymbol<Character> symbol : future.get()) {
+                if(symbol.isTerminal()) {
+                    // each name is interned exactly once
+                    IJezSymbol<Character> known = terminals.putIfAbsent(symbol.getName(), symbol);
+                    assertTrue(known == null || known == symbol);
+                }
+                else {
+                    assertTrue(nonTerminalIds.add(symbol.getId()));
+                }
+            }
+        }
+        executor.shutdown();
+
+        // the ids are unique and dense
+        assertTrue(terminals.size() == 26);
+        assertTrue(terminals.values().stream().map(s -> s.getId()).collect(Collectors.toSet()).equals(IntStream.range(0, 26).boxed().collect(Collectors.toSet())));
+        assertTrue(nonTerminalIds.equals(IntStream.range(0, THREADS * 1000).boxed().collect(Collectors.toSet())));
+        assertTrue(cfgCreator.getSymbolFactory().getMaxNonterminal() == THREADS * 1000);
+    }
+
+    @Test
+    public void testConcurrentPhaseAlphabet() throws InterruptedException, ExecutionException {
+        JezSymbolFactory<Character> symbolFactory = new JezSymbolFactory<>(true);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        for(int phase = 0; phase < 10; phase++) {
+            final int current = phase;
+            List<Future<List<IJezSymbol<Character>>>> futures = new ArrayList<>();
+            for(int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    List<IJezSymbol<Character>> symbols = new ArrayList<>();
+                    for(int i = 0; i < 500; i++) {
+                        symbols.add(symbolFactory.createTerminal(current, 1L, 1L));
+                    }
+                    return symbols;
+                }));
+            }
+
+            Set<Integer> ids = new HashSet<>();
+            for(Future<List<IJezSymbol<Character>>> future : futures) {
+                for(IJezSymbol<Character> symbol : future.get()) {
+                    assertTrue(symbol.getPhaseId() == current);
+                    assertTrue(ids.add(symbol.getId()));
+                }
+            }
+
+            // the ids of each phase are unique and dense and the alphabet contains exactly the created symbols
+            assertTrue(ids.equals(IntStream.range(0, THREADS * 500).boxed().collect(Collectors.toSet())));
+            assertTrue(symbolFactory.getMax(current) == THREADS * 500);
+            for(int id = 0; id < THREADS * 500; id++) {
+                assertTrue(symbolFactory.getAlphabet(current).get(id).getId() == id);
+            }
+            symbolFactory.nextPhase();
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testConcurrentEquality() throws InterruptedException, ExecutionException {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = new CFGCreator<>(true);
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        SLPOp<Character> slpOp = new SLPOp<>();
+
+        // shared base grammars
+        SLP<Character> slp1 = parser.createSLP("S -> AAb \nA -> aBa \nB -> cc");
+        SLP<Character> slp2 = parser.createSLP("S -> CCb \nC -> aDa \nD -> cc");
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for(int t = 0; t < 4 * THREADS; t++) {
+            final boolean equal = t % 2 == 0;
+            futures.add(executor.submit(() -> {
+                SLP<Character> other = equal ? slp2 : slpOp.concatenate(slp2, cfgCreator.oneProduction('a'), factory);
+                return slpOp.equals(slp1, other, factory, true, false) == equal;
+            }));
+        }
+
+        for(Future<Boolean> future : futures) {
+            assertTrue(future.get());
+        }
+        executor.shutdown();
+    }
+}
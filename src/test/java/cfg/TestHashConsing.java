@@ -0,0 +1,99 @@
+package cfg;
+
+import grammar.impl.*;
+import grammar.parser.CharGrammarParser;
+import symbol.IJezSymbol;
+import utils.Triple;
+import org.junit.Test;
+
+import java.util.*;
+
+import static junit.framework.TestCase.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the hash-consing of SLPs.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestHashConsing {
+
+    @Test
+    public void testHashCons() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        SLPOp<Character> slpOp = new SLPOp<>();
+
+        // A, C and E as well as B and D define the same right-hand side after hash-consing
+        String code =
+                "S -> BD \n" +
+                "B -> AC \n" +
+                "D -> CE \n" +
+                "A -> ab \n" +
+                "C -> ab \n" +
+                "E -> ab";
+
+        SLP<Character> slp = parser.createSLP(code);
+        SLP<Character> hashConsed = slpOp.hashCons(slp, cfgCreator);
+
+        assertTrue(hashConsed.getProductions().size() == 3);
+        assertTrue(hashConsed.toString(hashConsed.getAxiom()).equals(slp.toString(slp.getAxiom())));
+
+        // the original SLP is unchanged
+        assertTrue(slp.getProductions().size() == 6);
+    }
+
+    @Test
+    public void testMergeHashConsed() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        SLPOp<Character> slpOp = new SLPOp<>();
+
+        SLP<Character> slp1 = parser.createSLP("S -> AAb \nA -> aBa \nB -> cc");
+        SLP<Character> slp2 = parser.createSLP("S -> CCb \nC -> aDa \nD -> cc");
+        SLP<Character> slp3 = parser.createSLP("S -> CCa \nC -> aDa \nD -> cc");
+
+        // the sub-grammars of A and C are shared
+        Triple<SLP<Character>, Set<IJezSymbol<Character>>, Set<IJezSymbol<Character>>> triple = slpOp.mergeHashConsed(slp1, slp2, factory);
+        assertTrue(triple.a.getProductions().size() == 4);
+        assertTrue(triple.a.getAxioms().size() == 2);
+        assertFalse(triple.b.equals(triple.c));
+
+        assertTrue(slpOp.equals(slp1, slp2, factory, true, false));
+        assertFalse(slpOp.equals(slp1, slp3, factory, true, false));
+        assertTrue(slpOp.equals(slp1, slp1, factory, true, false));
+
+        // the original SLPs are unchanged
+        assertTrue(slp1.toString(slp1.getAxiom()).equals("acca" + "acca" + "b"));
+        assertTrue(slp2.toString(slp2.getAxiom()).equals("acca" + "acca" + "b"));
+    }
+
+    @Test
+    public void testMutableMergeHashConsed() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        SLPOp<Character> slpOp = new SLPOp<>();
+
+        SLP<Character> slp1 = parser.createSLP("S -> AAb \nA -> aBa \nB -> cc");
+        SLP<Character> slp2 = parser.createSLP("S -> CCb \nC -> aDa \nD -> cc");
+        Set<Object> rightHandSides = Collections.newSetFromMap(new IdentityHashMap<>());
+        slp1.getProductions().forEach(production -> rightHandSides.add(production.getRight()));
+
+        // the right-hand sides of slp1 are reused, the shared sub-grammar of slp2 is dropped
+        Triple<SLP<Character>, Set<IJezSymbol<Character>>, Set<IJezSymbol<Character>>> triple = slpOp.mergeHashConsed(slp1, slp2, factory, false);
+        assertTrue(triple.a.getProductions().size() == 4);
+        assertTrue(triple.a.getProductions().stream().filter(production -> rightHandSides.contains(production.getRight())).count() == 3);
+        for(IJezSymbol<Character> axiom : triple.a.getAxioms()) {
+            assertTrue(triple.a.toString(axiom).equals("acca" + "acca" + "b"));
+        }
+
+        // both SLPs consist of the same productions
+        SLP<Character> slp3 = parser.createSLP("S -> CCa \nC -> aDa \nD -> cc");
+        assertTrue(slpOp.equals(slp3, slp3, factory, false, false));
+
+        assertTrue(slpOp.equals(parser.createSLP("S -> AAb \nA -> aBa \nB -> cc"), parser.createSLP("S -> CCb \nC -> aDa \nD -> cc"), factory, false, false));
+        assertFalse(slpOp.equals(parser.createSLP("S -> AAb \nA -> aBa \nB -> cc"), parser.createSLP("S -> CCa \nC -> aDa \nD -> cc"), factory, false, false));
+    }
+}
@@ -1,19 +1,30 @@
 package cfg;
 
+import grammar.gen.GenArrayJez;
+import grammar.gen.GenPatternOccurrences;
+import grammar.inter.IPatternOccurrences;
 import grammar.impl.CFGCreator;
 import grammar.impl.CFGCreatorFactory;
+import grammar.impl.JezWord;
 import grammar.impl.Production;
+import grammar.impl.SLP;
 import grammar.impl.SLPOp;
 import grammar.parser.CharGrammarParser;
 import symbol.IJezSymbol;
+import utils.PositionRange;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.PrimitiveIterator;
+import java.util.Random;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertTrue;
 
@@ -94,4 +105,323 @@ public class TestMatching {
     }
 
 
+    @Test
+    public void testDictionaryMatching() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        SLPOp<Character> slpOp = new SLPOp();
+
+        String text =
+                "T -> bbbbbbAbbbbbabfcbbb \n" +
+                "A -> aaBaa \n" +
+                "B -> bbaaaCDab \n" +
+                "C -> babaE \n" +
+                "D -> bbbaa \n" +
+                "E -> aabRbb \n" +
+                "R -> abaaab \n";
+
+        SLP<Character> textSLP = parser.createSLP(text);
+        String word = textSLP.toString(textSLP.getAxiom());
+
+        List<String> words = Arrays.asList("aaababaaab", "b", "ab", "aa", "bbb", "aaababaaab", "fc", "aabbaaababaaabbbbaa", "x", word, word + "a");
+        List<SLP<Character>> patterns = new ArrayList<>();
+        for(String pattern : words) {
+            patterns.add(parser.createSLP("P -> " + pattern));
+        }
+
+        // the two longest patterns are matched by the recompression
+        slpOp.setDictionaryPatternLength(10);
+        List<IPatternOccurrences> occurrences = slpOp.matchingAll(textSLP, patterns);
+
+        assertTrue(occurrences.size() == words.size());
+        for(int i = 0; i < words.size(); i++) {
+            List<Long> expected = naiveMatchingAll(word, words.get(i));
+            assertTrue(occurrences.get(i).equals(expected));
+            assertTrue(occurrences.get(i).count() == expected.size());
+            for(int k = 0; k < expected.size(); k++) {
+                assertTrue(occurrences.get(i).getPosition(k) == expected.get(k));
+            }
+        }
+        assertTrue(occurrences.get(0).equals(Arrays.asList(10L, 16L)));
+    }
+
+    @Test
+    public void testLongPatternDictionaryMatching() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp();
+        Random random = new Random(5);
+
+        // the patterns longer than the default dictionaryPatternLength are matched by the recompression
+        String word = SLPFixtures.createRandomWord(random, 3000);
+        String period = word.substring(0, 300);
+        word = word + period + period + word.substring(1000, 1400);
+        List<String> words = Arrays.asList(period, period + period, word.substring(1000, 1400), word.substring(2500, 2800) + "a", word.substring(100, 110), "ab");
+        List<SLP<Character>> patterns = new ArrayList<>();
+        for(String pattern : words) {
+            patterns.add(SLPFixtures.createBalanced(cfgCreator, pattern));
+        }
+
+        List<IPatternOccurrences> occurrences = slpOp.matchingAll(SLPFixtures.createBalanced(cfgCreator, word), patterns);
+
+        // a mixed dictionary: four long patterns and two short patterns of the dictionary matching
+        assertTrue(words.stream().filter(pattern -> pattern.length() > slpOp.getDictionaryPatternLength()).count() == 4);
+        assertTrue(words.stream().filter(pattern -> pattern.length() <= slpOp.getDictionaryPatternLength()).count() == 2);
+        for(int i = 0; i < words.size(); i++) {
+            List<Long> expected = naiveMatchingAll(word, words.get(i));
+            assertTrue(occurrences.get(i).equals(expected));
+            assertTrue(occurrences.get(i).count() == expected.size());
+        }
+    }
+
+    @Test
+    public void testLazyDictionaryMatching() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        SLPOp<Character> slpOp = new SLPOp();
+
+        // a^(2^40), the occurrences can not be enumerated
+        SLP<Character> textSLP = SLPFixtures.createPower(cfgCreator, 40, cfgCreator.lookupSymbol('a', true));
+        long length = 1L << 40;
+        List<SLP<Character>> patterns = Arrays.asList(parser.createSLP("P -> aa"), parser.createSLP("P -> "), parser.createSLP("P -> ab"));
+        List<IPatternOccurrences> occurrences = slpOp.matchingAll(textSLP, patterns);
+
+        assertTrue(occurrences.get(0).count() == length - 1);
+        assertTrue(occurrences.get(0).getPosition(length / 2) == length / 2);
+        assertTrue(occurrences.get(0).getPosition(length - 2) == length - 2);
+        PrimitiveIterator.OfLong iterator = occurrences.get(0).iterator();
+        for(long position = 0; position < 100; position++) {
+            assertTrue(iterator.nextLong() == position);
+        }
+
+        // the empty pattern occurs at each position
+        assertTrue(occurrences.get(1).count() == length + 1);
+        assertTrue(occurrences.get(1).getPosition(length) == length);
+        assertTrue(occurrences.get(2).isEmpty());
+
+        // random texts and patterns, including the empty pattern
+        Random random = new Random(3);
+        for(int i = 0; i < 20; i++) {
+            String word = SLPFixtures.createRandomWord(random, 200 + random.nextInt(200));
+            List<String> words = new ArrayList<>();
+            patterns = new ArrayList<>();
+            for(int j = 0; j < 10; j++) {
+                int begin = random.nextInt(word.length() - 8);
+                String pattern = j == 0 ? "" : (j % 3 == 0 ? SLPFixtures.createRandomWord(random, 1 + random.nextInt(6)) : word.substring(begin, begin + 1 + random.nextInt(8)));
+                words.add(pattern);
+                patterns.add(pattern.isEmpty() ? parser.createSLP("P -> ") : SLPFixtures.createBalanced(cfgCreator, pattern));
+            }
+
+            occurrences = slpOp.matchingAll(SLPFixtures.createBalanced(cfgCreator, word), patterns);
+            assertTrue(occurrences.get(0).equals(new PositionRange(0, word.length() + 1)));
+            for(int j = 1; j < words.size(); j++) {
+                List<Long> expected = naiveMatchingAll(word, words.get(j));
+                assertTrue(occurrences.get(j).equals(expected));
+                for(int k = 0; k < expected.size(); k++) {
+                    assertTrue(occurrences.get(j).get(k).equals(expected.get(k)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLazyOccurrences() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        SLPOp<Character> slpOp = new SLPOp();
+
+        String text =
+                "T -> bbbbbbbbAbaAcAbbb \n" +
+                "A -> bbBbb \n" +
+                "B -> bbbb \n";
+
+        SLP<Character> textSLP = parser.createSLP(text);
+        String word = textSLP.toString(textSLP.getAxiom());
+        List<Long> expected = naiveMatchingAll(word, "bbb");
+
+        GenPatternOccurrences<Character, IJezSymbol<Character>, JezWord<Character>, Production<Character>> occurrences =
+                slpOp.matchingAll(textSLP, parser.createSLP("P -> bbb"), factory);
+
+        assertTrue(occurrences.count() == expected.size());
+        assertTrue(occurrences.equals(expected));
+
+        List<Long> iterated = new ArrayList<>();
+        occurrences.iterator().forEachRemaining((long position) -> iterated.add(position));
+        assertTrue(iterated.equals(expected));
+
+        // the blocks are not enumerated one by one
+        List<GenPatternOccurrences.Progression> progressions = new ArrayList<>();
+        occurrences.progressionIterator().forEachRemaining(progressions::add);
+        assertTrue(progressions.size() < expected.size());
+        assertTrue(progressions.stream().mapToLong(GenPatternOccurrences.Progression::getLength).sum() == expected.size());
+
+        for(long begin = 0; begin <= word.length(); begin += 3) {
+            for(long end = begin; end <= word.length(); end += 5) {
+                final long b = begin;
+                final long e = end;
+                List<Long> range = new ArrayList<>();
+                occurrences.iterator(begin, end).forEachRemaining((long position) -> range.add(position));
+                assertTrue(range.equals(expected.stream().filter(position -> position >= b && position < e).collect(Collectors.toList())));
+                assertTrue(occurrences.count(begin, end) == range.size());
+            }
+        }
+    }
+
+    @Test
+    public void testFixedEndsMatching() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp();
+
+        String word = "bbbbaaabbbaccccaaaaaaabbbaaaaabbbbbcaaaccccccabbbbccccbbaaaaaaacccccccaaccbacccc";
+        List<Long> occurrences = slpOp.matchingAll(SLPFixtures.createBalanced(cfgCreator, word), SLPFixtures.createBalanced(cfgCreator, "ccaaaa"), factory);
+        assertTrue(occurrences.equals(Arrays.asList(13L)));
+
+        List<List<String>> cases = Arrays.asList(Arrays.asList("baba", "baba"), Arrays.asList("aaba", "aba"), Arrays.asList("bababa", "baba"), Arrays.asList("aab", "ab"), Arrays.asList("cccccccabbcccccaaccccaac", "babbb"));
+        for(List<String> c : cases) {
+            List<Long> positions = slpOp.matchingAll(SLPFixtures.createBalanced(cfgCreator, c.get(0)), SLPFixtures.createBalanced(cfgCreator, c.get(1)), factory);
+            assertTrue(positions.equals(naiveMatchingAll(c.get(0), c.get(1))));
+        }
+    }
+
+    @Test
+    public void testRandomMatching() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp();
+        Random random = new Random(7);
+
+        for(int i = 0; i < 300; i++) {
+            String word = SLPFixtures.createRandomWord(random, 1 + random.nextInt(80));
+            int begin = random.nextInt(word.length());
+            String pattern = i % 3 == 0 ? SLPFixtures.createRandomWord(random, 1 + random.nextInt(6)) : word.substring(begin, begin + 1 + random.nextInt(Math.min(12, word.length() - begin)));
+
+            List<Long> expected = naiveMatchingAll(word, pattern);
+            List<Long> occurrences = slpOp.matchingAll(SLPFixtures.createBalanced(cfgCreator, word), SLPFixtures.createBalanced(cfgCreator, pattern), factory);
+            assertTrue(occurrences.equals(expected));
+        }
+    }
+
+    @Test
+    public void testCompactMatching() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        SLPOp<Character> slpOp = new SLPOp();
+
+        String text =
+                "T -> bbbbbbAbbbbbabfcbbb \n" +
+                "A -> aaBaa \n" +
+                "B -> bbaaaCDab \n" +
+                "C -> babaE \n" +
+                "D -> bbbaa \n" +
+                "E -> aabRbb \n" +
+                "R -> abaaab \n";
+
+        SLP<Character> textSLP = parser.createSLP(text);
+        String word = textSLP.toString(textSLP.getAxiom());
+
+        List<Long> occurrences = slpOp.matchingAllCompact(textSLP, parser.createSLP("P -> aaAB \n A -> abab \n B -> aaab"));
+        assertTrue(occurrences.equals(Arrays.asList(10L, 16L)));
+
+        List<String> words = Arrays.asList("aaababaaab", "b", "ab", "aa", "bbb", "bbbbb", "fc", "aabbaaababaaabbbbaa", "x", word, word + "a");
+        for(String pattern : words) {
+            GenArrayJez<Character, IJezSymbol<Character>, JezWord<Character>, Production<Character>>.PatternOccurrences compactOccurrences =
+                    slpOp.matchingAllCompact(textSLP, parser.createSLP("P -> " + pattern));
+            List<Long> expected = naiveMatchingAll(word, pattern);
+
+            assertTrue(compactOccurrences.equals(expected));
+            assertTrue(compactOccurrences.count() == expected.size());
+            List<Long> iterated = new ArrayList<>();
+            compactOccurrences.iterator().forEachRemaining((long position) -> iterated.add(position));
+            assertTrue(iterated.equals(expected));
+        }
+    }
+
+    @Test
+    public void testCompactBlockMatching() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        SLPOp<Character> slpOp = new SLPOp();
+
+        SLP<Character> textSLP = parser.createSLP("T -> bbbbbbbbAb \n A -> bbBbb \n B -> bbbb \n");
+        List<Long> occurrences = slpOp.matchingAllCompact(textSLP, parser.createSLP("P -> bbbAb \n A -> bbb"));
+        assertTrue(occurrences.size() == 11 && occurrences.get(0) == 0l && occurrences.get(10) == 10l);
+    }
+
+    @Test
+    public void testRandomCompactMatching() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp();
+        Random random = new Random(11);
+
+        for(int i = 0; i < 300; i++) {
+            String word = SLPFixtures.createRandomWord(random, 1 + random.nextInt(80));
+            int begin = random.nextInt(word.length());
+            String pattern = i % 3 == 0 ? SLPFixtures.createRandomWord(random, 1 + random.nextInt(6)) : word.substring(begin, begin + 1 + random.nextInt(Math.min(12, word.length() - begin)));
+
+            List<Long> expected = naiveMatchingAll(word, pattern);
+            List<Long> occurrences = slpOp.matchingAllCompact(SLPFixtures.createBalanced(cfgCreator, word), SLPFixtures.createBalanced(cfgCreator, pattern));
+            assertTrue(occurrences.equals(expected));
+        }
+    }
+
+    @Test
+    public void testRangeOccurrences() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp();
+        Random random = new Random(13);
+
+        // the patterns longer than 8 are matched by the recompression
+        slpOp.setDictionaryPatternLength(8);
+
+        for(int i = 0; i < 20; i++) {
+            String word = SLPFixtures.createRandomWord(random, 50 + random.nextInt(100));
+            List<String> words = new ArrayList<>();
+            List<SLP<Character>> patterns = new ArrayList<>();
+            for(int j = 0; j < 6; j++) {
+                int begin = random.nextInt(word.length() - 20);
+                // the empty pattern, short patterns of the dictionary matching and long patterns of the recompression
+                String pattern = j == 0 ? "" : word.substring(begin, begin + 1 + random.nextInt(j % 2 == 0 ? 4 : 20));
+                words.add(pattern);
+                patterns.add(pattern.isEmpty() ? new CharGrammarParser(cfgCreator).createSLP("P -> ") : SLPFixtures.createBalanced(cfgCreator, pattern));
+            }
+
+            SLP<Character> textSLP = SLPFixtures.createBalanced(cfgCreator, word);
+            List<IPatternOccurrences> occurrences = slpOp.matchingAll(textSLP, patterns);
+            for(int j = 0; j < words.size(); j++) {
+                List<Long> expected = j == 0 ? new PositionRange(0, word.length() + 1) : naiveMatchingAll(word, words.get(j));
+                assertRange(occurrences.get(j), expected, word.length());
+                if(j > 0) {
+                    assertRange(slpOp.matchingAllCompact(textSLP, patterns.get(j)), expected, word.length());
+                }
+            }
+        }
+    }
+
+    private static void assertRange(final IPatternOccurrences occurrences, final List<Long> expected, final long length) {
+        List<Long> bounds = Arrays.asList(-1L, 0L, 1L, length / 3, length / 2, length - 1, length, length + 1, Long.MAX_VALUE);
+        for(long begin : bounds) {
+            for(long end : bounds) {
+                List<Long> range = new ArrayList<>();
+                occurrences.iterator(begin, end).forEachRemaining((long position) -> range.add(position));
+                assertTrue(range.equals(expected.stream().filter(position -> position >= begin && position < end).collect(Collectors.toList())));
+                assertTrue(occurrences.count(begin, end) == range.size());
+            }
+        }
+    }
+
+    private static List<Long> naiveMatchingAll(final String text, final String pattern) {
+        List<Long> occurrences = new ArrayList<>();
+        for(int i = text.indexOf(pattern); i >= 0; i = text.indexOf(pattern, i + 1)) {
+            occurrences.add((long)i);
+        }
+        return occurrences;
+    }
 }
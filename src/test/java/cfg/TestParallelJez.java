@@ -0,0 +1,38 @@
+package cfg;
+
+import grammar.impl.*;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for testing that the parallel gathering of pairs and blocks does not change the recompression.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestParallelJez {
+
+    @Test
+    public void testParallelGathering() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp<>();
+
+        for(boolean equal : new boolean[]{true, false}) {
+            SLP<Character> slp1 = SLPFixtures.createRandomSLP(cfgCreator, new Random(1), 8000);
+            SLP<Character> slp2 = SLPFixtures.createRandomSLP(cfgCreator, new Random(equal ? 1 : 2), 8000);
+            SLP<Character> merged = slpOp.merge(slp1, slp2, factory, false, false).a;
+
+            Jez<Character> sequential = new Jez(merged, factory);
+            Jez<Character> parallel = new Jez(merged, factory);
+            parallel.setParallelGathering(true);
+
+            assertEquals(equal, sequential.isEquals());
+            assertEquals(equal, parallel.isEquals());
+            assertEquals(sequential.getPhase(), parallel.getPhase());
+            assertEquals(sequential.getSlp().toString(), parallel.getSlp().toString());
+        }
+    }
+}
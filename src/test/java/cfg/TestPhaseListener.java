@@ -0,0 +1,83 @@
+package cfg;
+
+import grammar.gen.GenJez;
+import grammar.impl.*;
+import grammar.parser.CharGrammarParser;
+import org.junit.Test;
+import symbol.IJezSymbol;
+import utils.PhaseStatistics;
+import utils.Triple;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the statistics reported to the phase listeners of the recompression.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestPhaseListener {
+
+    @Test
+    public void testPhaseStatistics() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp<>();
+
+        SLP<Character> slp1 = SLPFixtures.createRandomSLP(cfgCreator, new Random(1), 2000);
+        SLP<Character> slp2 = SLPFixtures.createRandomSLP(cfgCreator, new Random(1), 2000);
+        SLP<Character> merged = slpOp.merge(slp1, slp2, factory, false, false).a;
+
+        Jez<Character> recompression = new Jez(merged, factory);
+        List<PhaseStatistics> statistics = new ArrayList<>();
+        recompression.addPhaseListener(statistics::add);
+
+        assertTrue(recompression.isEquals());
+        assertEquals(recompression.getPhase(), statistics.size());
+
+        long compressedBlocks = 0;
+        long pairs = 0;
+        for(int i = 0; i < statistics.size(); i++) {
+            PhaseStatistics phaseStatistics = statistics.get(i);
+            assertEquals(i + 1, phaseStatistics.getPhase());
+            assertTrue(phaseStatistics.getAlphabetSize() > 0);
+            assertTrue(phaseStatistics.getNanos() >= 0);
+            compressedBlocks += phaseStatistics.getCompressedBlocks();
+            pairs += phaseStatistics.getCrossingPairOccurrences() + phaseStatistics.getNonCrossingPairOccurrences();
+        }
+
+        // the random words contain blocks and the balanced SLPs contain crossing pairs
+        assertTrue(compressedBlocks > 0);
+        assertTrue(pairs > 0);
+        assertTrue(statistics.stream().anyMatch(phaseStatistics -> phaseStatistics.getCrossingPairOccurrences() > 0));
+
+        // the recompression ends with one letter for each word
+        assertTrue(statistics.get(statistics.size() - 1).getGrammarSize() <= merged.getProductions().size());
+    }
+
+    @Test
+    public void testMatchingPhaseStatistics() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+        SLPOp<Character> slpOp = new SLPOp<>();
+
+        // the only occurrence of ab in the text is the crossing pair of T -> aA and A -> bc
+        SLP<Character> text = parser.createSLP("T -> aA \nA -> bc");
+        SLP<Character> pattern = parser.createSLP("P -> ab");
+        Triple<SLP<Character>, Set<IJezSymbol<Character>>, Set<IJezSymbol<Character>>> triple = slpOp.merge(text, pattern, factory, true, false);
+        GenJez<Character, IJezSymbol<Character>, JezWord<Character>, Production<Character>> recompression =
+                new GenJez(triple.a, triple.b.iterator().next(), triple.c.iterator().next(), true, factory);
+
+        List<PhaseStatistics> statistics = new ArrayList<>();
+        recompression.addPhaseListener(statistics::add);
+        recompression.execute();
+
+        assertEquals(Arrays.asList(0L), recompression.getPatternOccurrencePositions());
+        // ab and bc are non-crossing pairs, the pair ab of T -> aA is crossing
+        assertEquals(1, statistics.get(0).getCrossingPairOccurrences());
+        assertEquals(2, statistics.get(0).getNonCrossingPairOccurrences());
+    }
+}
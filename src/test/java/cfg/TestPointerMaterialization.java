@@ -0,0 +1,60 @@
+package cfg;
+
+import grammar.impl.*;
+import grammar.inter.ISLP;
+import org.junit.Test;
+import symbol.IJezSymbol;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing that the SLP and the recompression only create pointers to the symbols they keep.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestPointerMaterialization {
+
+    @Test
+    public void testPointersOfOnePhase() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp<>();
+
+        SLP<Character> slp1 = SLPFixtures.createRandomSLP(cfgCreator, new Random(1), 2000);
+        SLP<Character> slp2 = SLPFixtures.createRandomSLP(cfgCreator, new Random(1), 2000);
+        SLP<Character> merged = slpOp.merge(slp1, slp2, factory, false, false).a;
+
+        // the SLP only creates the pointers of the occurrences of non-terminals
+        Jez<Character> recompression = new Jez(merged, factory);
+        assertEquals(count(recompression.getSlp(), symbol -> !symbol.isTerminal()), pointers(recompression.getSlp()));
+
+        // after the first phase only the occurrences of non-terminals and of the letters introduced by compressions
+        // (of weight > 1) may have a pointer, i.e. the remaining letters of the last phase do not have one
+        List<Long> afterFirstPhase = new ArrayList<>();
+        recompression.addPhaseListener(statistics -> {
+            if(afterFirstPhase.isEmpty()) {
+                ISLP<Character, IJezSymbol<Character>, JezWord<Character>, Production<Character>> slp = recompression.getSlp();
+                afterFirstPhase.add(pointers(slp));
+                afterFirstPhase.add(count(slp, symbol -> !symbol.isTerminal() || symbol.getWeight() > 1));
+                afterFirstPhase.add(count(slp, symbol -> true));
+            }
+        });
+        assertTrue(recompression.isEquals());
+
+        long pointers = afterFirstPhase.get(0);
+        assertTrue(pointers <= afterFirstPhase.get(1));
+        assertTrue(pointers < afterFirstPhase.get(2));
+    }
+
+    private static long pointers(final ISLP<Character, IJezSymbol<Character>, JezWord<Character>, Production<Character>> slp) {
+        return slp.getProductions().stream().mapToLong(production -> production.getRight().pointerCount()).sum();
+    }
+
+    private static long count(final ISLP<Character, IJezSymbol<Character>, JezWord<Character>, Production<Character>> slp, final Predicate<IJezSymbol<Character>> predicate) {
+        return slp.getProductions().stream().mapToLong(production -> production.getRight().findAll(predicate).size()).sum();
+    }
+}
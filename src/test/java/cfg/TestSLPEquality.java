@@ -181,4 +181,83 @@ public class TestSLPEquality {
 
         assertTrue(cfgOp.equal(slp, factory));
     }
+
+    /**
+     * a^(2^40) is compared with (aa)^(2^39) and a^(2^40 - 1) b, i.e. the block lengths do not fit into an int.
+     */
+    @Test
+    public void testEqualityOfLongBlocks() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp<>();
+        IJezSymbol<Character> a = cfgCreator.lookupSymbol('a', true);
+        IJezSymbol<Character> b = cfgCreator.lookupSymbol('b', true);
+
+        SLP<Character> slp1 = SLPFixtures.createPower(cfgCreator, 40, a);
+        SLP<Character> slp2 = SLPFixtures.createPower(cfgCreator, 39, a, a);
+        SLP<Character> slp3 = SLPFixtures.createPower(cfgCreator, 39, a, a);
+
+        // a^(2^40 - 1) b
+        IJezSymbol<Character> axiom = cfgCreator.createFreshNonTerminal();
+        Map<IJezSymbol<Character>, Production<Character>> productions = new HashMap<>(slp3.getSLPProductions());
+        productions.put(axiom, cfgCreator.createProduction(axiom, slp3.getAxiom(), b));
+        slp3 = cfgCreator.createSLP(productions, axiom);
+        slp3 = slpOp.delete(slp3, 1, true, cfgCreator);
+
+        assertTrue(slpOp.equals(slp1, slp2, factory));
+        assertFalse(slpOp.equals(slp1, slp3, factory));
+    }
+
+    /**
+     * Compares equal and unequal words in all equality modes, equal words are represented by differently shaped SLPs.
+     */
+    @Test
+    public void testFingerprintEquality() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        SLPOp<Character> slpOp = new SLPOp<>();
+        IJezSymbol<Character> a = cfgCreator.lookupSymbol('a', true);
+        IJezSymbol<Character> b = cfgCreator.lookupSymbol('b', true);
+        Random random = new Random(7);
+
+        for(int i = 0; i < 20; i++) {
+            List<IJezSymbol<Character>> word = new ArrayList<>();
+            for(int j = 0; j < 200; j++) {
+                word.add(random.nextBoolean() ? a : b);
+            }
+            List<IJezSymbol<Character>> other = new ArrayList<>(word);
+            if(i % 2 == 1) {
+                int k = random.nextInt(other.size());
+                other.set(k, other.get(k) == a ? b : a);
+            }
+
+            SLP<Character> slp1 = SLPFixtures.createBalanced(cfgCreator, word);
+            SLP<Character> slp2 = createLinear(cfgCreator, other);
+            for(SLPOp.EqualityMode mode : SLPOp.EqualityMode.values()) {
+                slpOp.setEqualityMode(mode);
+                assertTrue(slpOp.equals(slp1, slp2, factory) == (i % 2 == 0));
+            }
+            assertTrue(slpOp.equalsFingerprint(slp1, slp2) == (i % 2 == 0));
+        }
+
+        // a^(2^40), (aa)^(2^39) and (ab)^(2^39)
+        slpOp.setEqualityMode(SLPOp.EqualityMode.FINGERPRINT);
+        SLP<Character> slp1 = SLPFixtures.createPower(cfgCreator, 40, a);
+        SLP<Character> slp2 = SLPFixtures.createPower(cfgCreator, 39, a, a);
+        SLP<Character> slp3 = SLPFixtures.createPower(cfgCreator, 39, a, b);
+        assertTrue(slpOp.equals(slp1, slp2, factory));
+        assertFalse(slpOp.equals(slp1, slp3, factory));
+    }
+
+    private static SLP<Character> createLinear(final CFGCreator<Character> cfgCreator, final List<IJezSymbol<Character>> word) {
+        Map<IJezSymbol<Character>, Production<Character>> productions = new HashMap<>();
+        IJezSymbol<Character> x = cfgCreator.createFreshNonTerminal();
+        productions.put(x, cfgCreator.createProduction(x, word.get(0)));
+        for(int i = 1; i < word.size(); i++) {
+            IJezSymbol<Character> next = cfgCreator.createFreshNonTerminal();
+            productions.put(next, cfgCreator.createProduction(next, x, word.get(i)));
+            x = next;
+        }
+        return cfgCreator.createSLP(productions, x);
+    }
 }
@@ -0,0 +1,99 @@
+package cfg;
+
+import data.Node;
+import grammar.impl.*;
+import grammar.parser.CharGrammarParser;
+import symbol.IJezSymbol;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the topological order and the occurrences maintained by SLPs.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestSLPOrder {
+
+    @Test
+    public void testOrder() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        SLP<Character> slp = new CharGrammarParser(cfgCreator).createSLP(SLPFixtures.CODE);
+        assertTopological(slp);
+        assertTrue(slp.getOrderedProductions().getFirst().getLeft().equals(slp.getAxiom()));
+    }
+
+    @Test
+    public void testOccurrences() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        SLP<Character> slp = new CharGrammarParser(cfgCreator).createSLP(SLPFixtures.CODE);
+        IJezSymbol<Character> d = slp.getProduction(slp.getAxiom()).getRight().findLast(s -> !s.isTerminal()).get();
+
+        // D occurs twice in rhs(S) and once in rhs(C)
+        assertTrue(slp.getOccurrences(d).size() == 3);
+        assertTrue(slp.getOccurrences(d).stream().allMatch(node -> node.getElement().equals(d)));
+        assertTrue(slp.getOccurrences(slp.getAxiom()).isEmpty());
+    }
+
+    @Test
+    public void testDeleteProduction() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        SLP<Character> slp = new CharGrammarParser(cfgCreator).createSLP("S -> AB \nA -> aC \nB -> Cb \nC -> c");
+        List<Production<Character>> order = slp.getOrderedProductions();
+        IJezSymbol<Character> a = slp.getProduction(slp.getAxiom()).getRight().findFirst(s -> !s.isTerminal()).get();
+
+        IJezSymbol<Character> c = slp.getProduction(a).getRight().findFirst(s -> !s.isTerminal()).get();
+
+        // replace A by its right-hand side in rhs(S) and delete A
+        Production<Character> production = slp.getProduction(a);
+        slp.getOccurrences(a).forEach(pointer -> {
+            production.getRight().forEach(symbol -> {
+                pointer.insertPrevious(symbol);
+                if(!symbol.isTerminal()) {
+                    slp.addOccurrence(slp.getAxiom(), pointer.getPrev());
+                }
+            });
+            pointer.remove();
+        });
+        slp.deleteProduction(a);
+
+        assertTrue(slp.getOccurrences(a).isEmpty());
+
+        // the occurrence of C in rhs(A) is replaced by the inserted occurrence in rhs(S)
+        assertTrue(slp.getOccurrences(c).size() == 2);
+        Node<IJezSymbol<Character>> inserted = slp.getProduction(slp.getAxiom()).getRight().findAllPointers(s -> s.equals(c)).get(0);
+        assertTrue(slp.getOccurrences(c).stream().anyMatch(pointer -> pointer == inserted));
+        assertTrue(slp.getOccurrences(c).stream().noneMatch(pointer -> pointer == production.getRight().findAllPointers(s -> s.equals(c)).get(0)));
+        assertTrue(!slp.getOrderedProductions().contains(production));
+        assertTrue(slp.getOrderedProductions().size() == 3);
+        assertTopological(slp);
+        assertTrue(slp.toString(slp.getAxiom()).equals("accb"));
+
+        // the old order remains unchanged
+        assertTrue(order.contains(production));
+    }
+
+    @Test
+    public void testEliminateEpsilon() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        SLP<Character> slp = new CharGrammarParser(cfgCreator).createSLP("S -> aAbB \nA -> \nB -> cA");
+        SLP<Character> epsilonFree = (SLP<Character>) slp.eliminateEpsilon();
+
+        assertTopological(epsilonFree);
+        assertTrue(epsilonFree.toString(epsilonFree.getAxiom()).equals("abc"));
+        assertTrue(slp.getProductions().size() == 3);
+    }
+
+    private static void assertTopological(final SLP<Character> slp) {
+        Set<IJezSymbol<Character>> visited = new HashSet<>();
+        for(Production<Character> production : slp.getOrderedProductions()) {
+            for(IJezSymbol<Character> symbol : production.getRight()) {
+                assertTrue(symbol.isTerminal() || !visited.contains(symbol));
+            }
+            visited.add(production.getLeft());
+        }
+        assertTrue(visited.size() == slp.getProductions().size());
+    }
+}
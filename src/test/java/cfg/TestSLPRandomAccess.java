@@ -0,0 +1,77 @@
+package cfg;
+
+import grammar.impl.*;
+import symbol.IJezSymbol;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the random access and the length queries of SLPs.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestSLPRandomAccess {
+
+    @Test
+    public void testGet() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        SLP<Character> slp = SLPFixtures.createCodeSLP(cfgCreator);
+        IJezSymbol<Character> axiom = slp.getAxiom();
+        List<IJezSymbol<Character>> value = slp.value(axiom);
+
+        assertTrue(slp.length(axiom) == value.size());
+        for(int k = 1; k <= value.size(); k++) {
+            assertTrue(slp.get(axiom, k).equals(value.get(k - 1)));
+        }
+    }
+
+    @Test
+    public void testBulkGet() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        SLP<Character> slp = SLPFixtures.createCodeSLP(cfgCreator);
+        IJezSymbol<Character> axiom = slp.getAxiom();
+        List<IJezSymbol<Character>> value = slp.value(axiom);
+
+        // unsorted positions containing duplicates
+        long[] positions = new long[2 * value.size()];
+        for(int i = 0; i < positions.length; i++) {
+            positions[i] = (i * 7L) % value.size() + 1;
+        }
+
+        List<IJezSymbol<Character>> symbols = slp.get(axiom, positions);
+        assertTrue(symbols.size() == positions.length);
+        for(int i = 0; i < positions.length; i++) {
+            assertTrue(symbols.get(i).equals(value.get((int)positions[i] - 1)));
+        }
+        assertTrue(slp.get(axiom, new long[0]).isEmpty());
+    }
+
+    @Test
+    public void testInvalidate() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        SLP<Character> slp = SLPFixtures.createCodeSLP(cfgCreator);
+        IJezSymbol<Character> axiom = slp.getAxiom();
+        IJezSymbol<Character> a = cfgCreator.lookupSymbol('A', false);
+        IJezSymbol<Character> d = cfgCreator.lookupSymbol('D', false);
+        IJezSymbol<Character> f = cfgCreator.lookupSymbol('F', false);
+
+        assertTrue(slp.length(axiom) == 41L);
+        assertTrue(slp.length(a) == 15L);
+        assertTrue(slp.length(d) == 11L);
+
+        // F -> fffefz
+        slp.getProduction(f).getRight().append(cfgCreator.lookupSymbol('z', true));
+        slp.invalidate(f);
+
+        assertTrue(slp.length(f) == 6L);
+        assertTrue(slp.length(d) == 13L);
+        assertTrue(slp.length(a) == 17L);
+        assertTrue(slp.length(axiom) == 47L);
+        assertTrue(slp.get(d, 6L).equals(cfgCreator.lookupSymbol('z', true)));
+        assertTrue(slp.toString(axiom).equals(slp.value(axiom).stream().map(s -> s.getName().toString()).collect(Collectors.joining())));
+    }
+}
@@ -0,0 +1,85 @@
+package cfg;
+
+import grammar.impl.*;
+import symbol.IJezSymbol;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the streaming decompression of SLPs.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestSLPStreaming {
+
+    @Test
+    public void testSubstring() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        SLP<Character> slp = SLPFixtures.createCodeSLP(cfgCreator);
+        IJezSymbol<Character> axiom = slp.getAxiom();
+        String word = slp.toString(axiom);
+
+        for(int begin = 0; begin <= word.length(); begin++) {
+            for(int end = begin; end <= word.length(); end++) {
+                assertTrue(slp.substring(axiom, begin, end).equals(word.substring(begin, end)));
+            }
+        }
+    }
+
+    @Test
+    public void testCharSequence() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        SLP<Character> slp = SLPFixtures.createCodeSLP(cfgCreator);
+        IJezSymbol<Character> axiom = slp.getAxiom();
+        String word = slp.toString(axiom);
+        CharSequence sequence = slp.charSequence(axiom);
+
+        assertTrue(sequence.length() == word.length());
+        for(int i = 0; i < word.length(); i++) {
+            assertTrue(sequence.charAt(i) == word.charAt(i));
+        }
+        assertTrue(sequence.subSequence(3, 20).toString().equals(word.substring(3, 20)));
+        assertTrue(sequence.subSequence(3, 20).subSequence(2, 5).toString().equals(word.substring(5, 8)));
+        assertTrue(sequence.toString().equals(word));
+    }
+
+    @Test
+    public void testSpliterator() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        IJezSymbol<Character> a = cfgCreator.lookupSymbol('a', true);
+        IJezSymbol<Character> b = cfgCreator.lookupSymbol('b', true);
+        SLP<Character> slp = SLPFixtures.createPower(cfgCreator, 14, a, b, a);
+        IJezSymbol<Character> axiom = slp.getAxiom();
+
+        String word = slp.toString(axiom);
+        String parallel = StreamSupport.stream(slp.spliterator(axiom), true).map(s -> s.getName().toString()).collect(Collectors.joining());
+        assertTrue(parallel.equals(word));
+        assertTrue(slp.stream(axiom).count() == slp.length(axiom));
+    }
+
+    @Test
+    public void testExponentialWord() {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        IJezSymbol<Character> a = cfgCreator.lookupSymbol('a', true);
+        IJezSymbol<Character> b = cfgCreator.lookupSymbol('b', true);
+
+        // (ab)^(2^50)
+        SLP<Character> slp = SLPFixtures.createPower(cfgCreator, 50, a, b);
+        IJezSymbol<Character> axiom = slp.getAxiom();
+        long length = slp.length(axiom);
+
+        assertTrue(slp.substring(axiom, length - 6, length).equals("ababab"));
+        assertTrue(slp.substring(axiom, (1L << 40) + 1, (1L << 40) + 4).equals("bab"));
+        assertTrue(slp.stream(axiom).limit(4).map(s -> s.getName().toString()).collect(Collectors.joining()).equals("abab"));
+
+        Iterator<IJezSymbol<Character>> iterator = slp.iterator(axiom);
+        for(int i = 0; i < 1000; i++) {
+            assertTrue(iterator.next().equals(i % 2 == 0 ? a : b));
+        }
+    }
+}
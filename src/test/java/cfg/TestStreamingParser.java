@@ -0,0 +1,165 @@
+package cfg;
+
+import grammar.impl.*;
+import grammar.parser.CharGrammarParser;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the streaming parser of textual grammars.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestStreamingParser {
+
+    @Test
+    public void testReader() throws IOException {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+
+        SLP<Character> slp = parser.createSLP(SLPFixtures.CODE);
+        SLP<Character> streamed = parser.createSLP(new StringReader(SLPFixtures.CODE));
+
+        assertTrue(streamed.getAxiom().equals(slp.getAxiom()));
+        assertTrue(streamed.getProductions().equals(slp.getProductions()));
+        assertTrue(parser.getParsedProductions() == 6);
+        assertTrue(parser.getParsedCharacters() == SLPFixtures.CODE.length());
+    }
+
+    @Test
+    public void testChannel() throws IOException {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+
+        String code = "\n" +
+                "S -> aSb \n" +
+                "\n" +
+                "S -> ab\r\n" +
+                "S -> \n";
+
+        CFG<Character> cfg = parser.create(Channels.newChannel(new ByteArrayInputStream(code.getBytes(StandardCharsets.UTF_8))));
+        assertTrue(cfg.getProductions().size() == 3);
+        assertTrue(cfg.getAxiom().equals(cfgCreator.lookupSymbol('S', false)));
+    }
+
+    @Test
+    public void testLargeGrammar() throws IOException {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+
+        // a chain of 26 non-terminals repeated many times, i.e. a lot of lines of the same grammar
+        StringBuilder builder = new StringBuilder("S -> A\n");
+        for(int i = 0; i < 100000; i++) {
+            char c = (char)('A' + (i % 25));
+            builder.append(c).append(" -> ").append(Character.toLowerCase(c)).append((char)(c + 1)).append('\n');
+        }
+        builder.append("Z -> z\n");
+
+        CFG<Character> cfg = parser.create(new StringReader(builder.toString()));
+        assertTrue(cfg.getProductions().size() == 27);
+        assertTrue(parser.getParsedCharacters() == builder.length());
+    }
+
+    @Test
+    public void testNumberedNonTerminals() throws IOException {
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+
+        // non-terminals named by characters which are no letters: [i] -> a[i+1] and [n] -> B, B -> b
+        int first = 0x3000;
+        int n = 1000;
+        StringBuilder builder = new StringBuilder();
+        for(int i = first; i < first + n; i++) {
+            builder.append('[').append(i).append("] -> a[").append(i + 1).append("]\n");
+        }
+        builder.append('[').append(first + n).append("] -> [66]\n");
+        builder.append("B -> b\n");
+
+        SLP<Character> slp = parser.createSLP(new StringReader(builder.toString()));
+        assertTrue(slp.getProductions().size() == n + 2);
+        assertTrue(slp.length() == n + 1);
+        assertTrue(slp.getAxiom().equals(cfgCreator.lookupSymbol((char)first, false)));
+        assertTrue(slp.getProduction(cfgCreator.lookupSymbol((char)(first + n), false)).getRight().get(0).equals(cfgCreator.lookupSymbol('B', false)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNumberedTerminal() throws IOException {
+        new CharGrammarParser(new CFGCreator<>()).create(new StringReader("[97] -> a"));
+    }
+
+    @Test
+    public void testSameProductions() throws IOException {
+        String[] codes = {
+                "S->ab",
+                "  S  ->  ab  ",
+                "S -> ab\r",
+                "S -> -a>",
+                "S -> ",
+                "S ->"
+        };
+
+        for(String code : codes) {
+            CFGCreator<Character> cfgCreator = new CFGCreator<>();
+            CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+            assertTrue(code, parser.create(new StringReader(code)).getProductions().equals(parser.create(code).getProductions()));
+        }
+    }
+
+    @Test
+    public void testSameErrors() throws IOException {
+        String[] codes = {
+                "S -> ab\nAB -> a",
+                "S - > ab",
+                "S -> a->b",
+                "S -> ->ab",
+                "S -> a -> b",
+                "S -> a b",
+                "S -> a\tb",
+                "S A -> ab",
+                "-> ab",
+                "S ab",
+                "S >- ab"
+        };
+
+        for(String code : codes) {
+            assertTrue(code, rejects(() -> new CharGrammarParser(new CFGCreator<>()).create(code)));
+            assertTrue(code, rejects(() -> new CharGrammarParser(new CFGCreator<>()).create(new StringReader(code))));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNumberError() throws IOException {
+        new CharGrammarParser(new CFGCreator<>()).create(new StringReader("[1a] -> a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNumberOverflow() throws IOException {
+        new CharGrammarParser(new CFGCreator<>()).create(new StringReader("[65536] -> a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testError() throws IOException {
+        new CharGrammarParser(new CFGCreator<>()).create(new StringReader("S -> ab\nAB -> a"));
+    }
+
+    private interface Parse {
+        void run() throws IOException;
+    }
+
+    private static boolean rejects(final Parse parse) throws IOException {
+        try {
+            parse.run();
+            return false;
+        }
+        catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+}
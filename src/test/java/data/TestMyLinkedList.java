@@ -0,0 +1,230 @@
+package data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the size tracking and the unrolled chunks of MyLinkedList.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestMyLinkedList {
+
+    @Test
+    public void testSize() {
+        MyLinkedList<Character> list = new MyLinkedList<>(Arrays.asList('a', 'b', 'c', 'd'));
+        assertTrue(list.size() == 4);
+
+        Node<Character> b = list.get(1);
+        b.insertNext('x');
+        b.insertPrevious('y');
+        list.addFirst('z');
+        assertTrue(list.size() == 7);
+        assertTrue(list.toString().equals("zaybxcd"));
+
+        b.remove();
+        list.removeHead();
+        list.removeTail();
+        assertTrue(list.size() == 4);
+        assertTrue(list.toString().equals("ayxc"));
+
+        assertTrue(list.removeAll(c -> c == 'y' || c == 'c') == 2);
+        assertTrue(list.size() == 2);
+
+        Iterator<Node<Character>> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+        assertTrue(list.size() == 0);
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testGet() {
+        MyLinkedList<Integer> list = new MyLinkedList<>();
+        for(int i = 0; i < 101; i++) {
+            list.add(i);
+        }
+
+        for(int i = 0; i < 101; i++) {
+            assertTrue(list.get(i).getElement() == i);
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        new MyLinkedList<>(Arrays.asList('a', 'b')).get(2);
+    }
+
+    @Test
+    public void testSplit() {
+        MyLinkedList<Character> list = new MyLinkedList<>(Arrays.asList('a', 'b', 'C', 'd', 'E', 'f'));
+        MyLinkedList<Character> first = list.split(c -> Character.isUpperCase(c));
+
+        assertTrue(first.size() == 3);
+        assertTrue(first.toString().equals("abC"));
+        assertTrue(list.size() == 3);
+        assertTrue(list.toString().equals("dEf"));
+    }
+
+    @Test
+    public void testRemoveAfterSplit() {
+        MyLinkedList<Character> list = new MyLinkedList<>(Arrays.asList('a', 'b', 'C', 'd', 'E', 'f'));
+        MyLinkedList<Character> first = list.split(c -> Character.isUpperCase(c));
+
+        // the nodes of the first part belong to the first part
+        first.getHead().getNext().remove();
+        first.removeHead();
+        assertTrue(first.size() == 1);
+        assertTrue(first.toString().equals("C"));
+        assertTrue(list.size() == 3);
+
+        first.getTail().remove();
+        assertTrue(first.isEmpty() && first.size() == 0);
+        assertTrue(list.getHead().getElement() == 'd');
+
+        list.getHead().insertPrevious('x');
+        list.getTail().remove();
+        assertTrue(list.size() == 3);
+        assertTrue(list.toString().equals("xdE"));
+        assertTrue(list.get(2).getElement() == 'E');
+    }
+
+    @Test
+    public void testStablePointers() {
+        MyLinkedList<Integer> list = new MyLinkedList<>();
+        for(int i = 0; i < 1000; i++) {
+            list.add(i);
+        }
+
+        // the pointers survive the splits and merges of the chunks
+        Node<Integer> node = list.get(500);
+        assertTrue(node == list.get(500));
+        for(int i = 0; i < 100; i++) {
+            node.insertPrevious(-1);
+            node.insertNext(-2);
+        }
+        assertTrue(node.getElement() == 500 && node == list.get(600));
+        assertTrue(list.removeAll(e -> e < 0) == 200);
+        assertTrue(list.removeAll(e -> e % 10 != 0) == 900);
+        assertTrue(node.getElement() == 500 && node == list.get(50));
+        assertTrue(node.getPrev().getElement() == 490 && node.getNext().getElement() == 510);
+
+        // a removed pointer keeps its element
+        node.remove();
+        assertTrue(node.getElement() == 500 && !node.hasNext() && !node.hasPrev());
+        assertTrue(list.size() == 99 && list.get(50).getElement() == 510);
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(1);
+        MyLinkedList<Integer> list = new MyLinkedList<>();
+        List<Integer> expected = new ArrayList<>();
+        Map<Integer, Node<Integer>> pointers = new HashMap<>();
+        int fresh = 0;
+
+        for(int i = 0; i < 20000; i++) {
+            int operation = random.nextInt(10);
+            if(expected.isEmpty() || operation < 2) {
+                if(random.nextBoolean()) {
+                    list.add(fresh);
+                    expected.add(fresh++);
+                }
+                else {
+                    list.addFirst(fresh);
+                    expected.add(0, fresh++);
+                }
+            }
+            else {
+                int index = random.nextInt(expected.size());
+                Node<Integer> node = list.get(index);
+                assertTrue(node.getElement().equals(expected.get(index)));
+                pointers.put(node.getElement(), node);
+
+                if(operation < 5) {
+                    node.insertNext(fresh);
+                    expected.add(index + 1, fresh++);
+                }
+                else if(operation < 7) {
+                    node.insertPrevious(fresh);
+                    expected.add(index, fresh++);
+                }
+                else if(operation < 9) {
+                    pointers.remove(node.getElement());
+                    node.remove();
+                    expected.remove(index);
+                }
+                else {
+                    int bound = expected.get(index);
+                    assertTrue(list.removePrefix(e -> e != bound, e -> 1L) == index);
+                    expected.subList(0, index).clear();
+                }
+            }
+
+            assertTrue(list.size() == expected.size());
+        }
+
+        assertTrue(list.toList().equals(expected));
+        for(Map.Entry<Integer, Node<Integer>> entry : pointers.entrySet()) {
+            if(expected.contains(entry.getKey())) {
+                Node<Integer> node = entry.getValue();
+                int index = expected.indexOf(entry.getKey());
+                assertTrue(node.getElement().equals(entry.getKey()));
+                assertTrue(node == list.get(index));
+                assertTrue(node.hasNext() == index + 1 < expected.size());
+            }
+        }
+
+        List<Integer> descending = new ArrayList<>();
+        list.descendingElementIterator().forEachRemaining(e -> descending.add(0, e));
+        assertTrue(descending.equals(expected));
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        MyLinkedList<Integer> list = new MyLinkedList<>();
+        for(int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        Node<Integer> node = list.get(50);
+
+        // the clones share the chunks until they are changed
+        MyLinkedList<Integer> clone = list.clone();
+        MyLinkedList<Integer> cloneOfClone = clone.clone();
+        assertTrue(clone.equals(list) && clone.pointerCount() == 0);
+
+        clone.get(10).setElement(-1);
+        clone.removeTail();
+        assertTrue(clone.size() == 99 && clone.getElement(10) == -1);
+        assertTrue(list.size() == 100 && list.getElement(10) == 10);
+        assertTrue(cloneOfClone.size() == 100 && cloneOfClone.getElement(10) == 10);
+
+        // the pointers of the cloned list move into its copy
+        node.setElement(-2);
+        node.insertNext(-3);
+        assertTrue(node == list.get(50) && list.getElement(51) == -3 && list.size() == 101);
+        assertTrue(cloneOfClone.getElement(50) == 50 && cloneOfClone.size() == 100);
+
+        // an element iterator of a clone continues on the copied chunks
+        ElementIterator<Integer> iterator = cloneOfClone.elementIterator();
+        while (iterator.hasNext()) {
+            int element = iterator.next();
+            if(element % 2 == 0) {
+                iterator.set(-element);
+            }
+        }
+        assertTrue(cloneOfClone.getElement(98) == -98 && cloneOfClone.getElement(99) == 99);
+        assertTrue(list.getElement(98) == 97 && clone.getElement(98) == 98);
+    }
+}
@@ -3,8 +3,7 @@ package dfa;
 import DFA.impl.std.*;
 import org.junit.Test;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 import static org.junit.Assert.assertTrue;
 
@@ -68,4 +67,129 @@ public class TestDFAEquality {
         assertTrue(dfaOp.isEquals(dfa, dfa2));
     }
 
+    @Test
+    public void testDistinguishingWord() {
+        StdDFACreator creator = new StdDFACreator();
+        StdDFASymbol a = creator.createSymbol('a');
+        StdDFASymbol b = creator.createSymbol('b');
+
+        // (ab)*
+        StdDFAState q0 = creator.createState();
+        StdDFAState q1 = creator.createState();
+        Set<StdDFARule> rules = new HashSet<>();
+        rules.add(creator.createRule(q0, q1, a));
+        rules.add(creator.createRule(q1, q0, b));
+        StdDFA dfa = creator.create(rules, q0, new HashSet<>(Arrays.asList(q0)));
+
+        // (ab)*, where the state p1 also reads a
+        StdDFAState p0 = creator.createState();
+        StdDFAState p1 = creator.createState();
+        StdDFAState p2 = creator.createState();
+        Set<StdDFARule> rules2 = new HashSet<>();
+        rules2.add(creator.createRule(p0, p1, a));
+        rules2.add(creator.createRule(p1, p0, b));
+        rules2.add(creator.createRule(p1, p2, a));
+        StdDFA dfa2 = creator.create(rules2, p0, new HashSet<>(Arrays.asList(p0)));
+
+        DFAOp dfaOp = new DFAOp();
+        assertTrue(!dfaOp.isEquals(dfa, dfa2));
+        assertTrue(dfaOp.isEquals(dfa, dfa));
+
+        // a missing transition is not equivalent to a transition into a dead state
+        List<StdDFASymbol> word = dfaOp.getDistinguishingWord(dfa, dfa2).get();
+        assertTrue(word.equals(Arrays.asList(a, a)));
+        assertTrue(!dfaOp.getDistinguishingWord(dfa2, dfa2).isPresent());
+    }
+
+    @Test
+    public void testRandomEquality() {
+        StdDFACreator creator = new StdDFACreator();
+        DFAOp dfaOp = new DFAOp();
+        Random random = new Random(5);
+        List<StdDFASymbol> symbols = Arrays.asList(creator.createSymbol('a'), creator.createSymbol('b'));
+
+        for(int i = 0; i < 500; i++) {
+            int n1 = 1 + random.nextInt(4);
+            int n2 = 1 + random.nextInt(4);
+            StdDFA dfa1 = createDFA(creator, symbols, random, n1);
+            StdDFA dfa2 = createDFA(creator, symbols, random, n2);
+
+            // a distinguishing word is at most as long as the number of states including the virtual sinks
+            Optional<List<StdDFASymbol>> shortest = findDistinguishingWord(dfa1, dfa2, symbols, n1 + n2 + 2);
+            Optional<List<StdDFASymbol>> word = dfaOp.getDistinguishingWord(dfa1, dfa2);
+
+            assertTrue(shortest.isPresent() == word.isPresent());
+            assertTrue(!word.isPresent() || distinguishes(dfa1, dfa2, word.get()));
+        }
+    }
+
+    private static StdDFA createDFA(final StdDFACreator creator, final List<StdDFASymbol> symbols, final Random random, final int n) {
+        List<StdDFAState> states = new ArrayList<>();
+        for(int i = 0; i < n; i++) {
+            states.add(creator.createState());
+        }
+
+        Set<StdDFARule> rules = new HashSet<>();
+        Set<StdDFAState> finalStates = new HashSet<>();
+        for(StdDFAState state : states) {
+            for(StdDFASymbol symbol : symbols) {
+                if(random.nextInt(4) > 0) {
+                    rules.add(creator.createRule(state, states.get(random.nextInt(n)), symbol));
+                }
+            }
+            if(random.nextBoolean()) {
+                finalStates.add(state);
+            }
+        }
+        return creator.create(rules, states.get(0), finalStates);
+    }
+
+    /**
+     * Returns the state reached by the word or null if the run is not defined.
+     */
+    private static StdDFAState run(final StdDFA dfa, final List<StdDFASymbol> word) {
+        StdDFAState state = dfa.getInitialState();
+        for(StdDFASymbol symbol : word) {
+            final StdDFAState src = state;
+            state = dfa.getRules().stream().filter(r -> r.getSrcState().equals(src) && r.getSymbol().equals(symbol)).map(r -> r.getDestState()).findAny().orElse(null);
+            if(state == null) {
+                return null;
+            }
+        }
+        return state;
+    }
+
+    private static boolean distinguishes(final StdDFA dfa1, final StdDFA dfa2, final List<StdDFASymbol> word) {
+        StdDFAState q1 = run(dfa1, word);
+        StdDFAState q2 = run(dfa2, word);
+        if(q1 == null || q2 == null) {
+            return q1 != q2;
+        }
+        return dfa1.getFinalStates().contains(q1) != dfa2.getFinalStates().contains(q2);
+    }
+
+    /**
+     * Tests all words up to the maximal length.
+     */
+    private static Optional<List<StdDFASymbol>> findDistinguishingWord(final StdDFA dfa1, final StdDFA dfa2, final List<StdDFASymbol> symbols, final int maxLength) {
+        List<List<StdDFASymbol>> words = new ArrayList<>();
+        words.add(new ArrayList<>());
+        for(int length = 0; length <= maxLength; length++) {
+            List<List<StdDFASymbol>> nextWords = new ArrayList<>();
+            for(List<StdDFASymbol> word : words) {
+                if(distinguishes(dfa1, dfa2, word)) {
+                    return Optional.of(word);
+                }
+                if(run(dfa1, word) != null && run(dfa2, word) != null) {
+                    for(StdDFASymbol symbol : symbols) {
+                        List<StdDFASymbol> nextWord = new ArrayList<>(word);
+                        nextWord.add(symbol);
+                        nextWords.add(nextWord);
+                    }
+                }
+            }
+            words = nextWords;
+        }
+        return Optional.empty();
+    }
 }
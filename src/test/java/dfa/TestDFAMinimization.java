@@ -0,0 +1,133 @@
+package dfa;
+
+import DFA.impl.std.*;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the minimization of DFAs.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestDFAMinimization {
+
+    @Test
+    public void testSimpleMinimization() {
+        StdDFACreator creator = new StdDFACreator();
+        DFAOp dfaOp = new DFAOp();
+
+        StdDFAState p0 = creator.createState();
+        StdDFAState p1 = creator.createState();
+        StdDFAState p2 = creator.createState();
+        StdDFAState p3 = creator.createState();
+        StdDFAState p4 = creator.createState();
+        StdDFAState p5 = creator.createState();
+        StdDFAState p6 = creator.createState();
+        StdDFAState p7 = creator.createState();
+        StdDFAState dead = creator.createState();
+        StdDFAState unreachable = creator.createState();
+
+        StdDFASymbol a = creator.createSymbol('a');
+        StdDFASymbol b = creator.createSymbol('b');
+
+        // (aab)*aa
+        Set<StdDFARule> rules = new HashSet<>();
+        rules.add(creator.createRule(p0, p1, a));
+        rules.add(creator.createRule(p1, p2, a));
+        rules.add(creator.createRule(p2, p3, b));
+        rules.add(creator.createRule(p3, p4, a));
+        rules.add(creator.createRule(p4, p5, a));
+        rules.add(creator.createRule(p5, p6, b));
+        rules.add(creator.createRule(p6, p7, a));
+        rules.add(creator.createRule(p7, p5, a));
+        rules.add(creator.createRule(p0, dead, b));
+        rules.add(creator.createRule(dead, dead, a));
+        rules.add(creator.createRule(unreachable, p0, a));
+
+        Set<StdDFAState> finalStates = new HashSet<>();
+        finalStates.add(p2);
+        finalStates.add(p5);
+
+        StdDFA dfa = creator.create(rules, p0, finalStates);
+        StdDFA minimal = dfaOp.minimize(dfa, creator);
+
+        // the dead state is kept since a missing transition is not equivalent to a transition into a dead state
+        assertTrue(minimal.getStates().size() == 5);
+        assertTrue(minimal.getRules().size() == 6);
+        assertTrue(minimal.getFinalStates().size() == 1);
+        assertTrue(dfaOp.isEquals(dfa, minimal));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTableOverflow() {
+        StdDFACreator creator = new StdDFACreator();
+        DFAOp dfaOp = new DFAOp();
+
+        // a chain of n states with n distinct symbols, i.e. n * n > Integer.MAX_VALUE transitions
+        int n = 50000;
+        StdDFAState first = creator.createState();
+        StdDFAState state = first;
+        Set<StdDFARule> rules = new HashSet<>();
+        for(int i = 0; i < n; i++) {
+            StdDFAState next = creator.createState();
+            rules.add(creator.createRule(state, next, creator.createSymbol((char)(i + 1))));
+            state = next;
+        }
+
+        dfaOp.minimize(creator.create(rules, first, new HashSet<>()), creator);
+    }
+
+    @Test
+    public void testDeadStates() {
+        StdDFACreator creator = new StdDFACreator();
+        DFAOp dfaOp = new DFAOp();
+
+        StdDFAState q0 = creator.createState();
+        StdDFAState q1 = creator.createState();
+        StdDFASymbol a = creator.createSymbol('a');
+
+        Set<StdDFARule> rules = new HashSet<>();
+        rules.add(creator.createRule(q0, q1, a));
+        rules.add(creator.createRule(q1, q0, a));
+
+        StdDFA minimal = dfaOp.minimize(creator.create(rules, q0, new HashSet<>()), creator);
+        assertTrue(minimal.getStates().size() == 1);
+        assertTrue(minimal.getRules().size() == 1);
+        assertTrue(minimal.getFinalStates().isEmpty());
+    }
+
+    @Test
+    public void testLargeMinimization() {
+        StdDFACreator creator = new StdDFACreator();
+        DFAOp dfaOp = new DFAOp();
+        StdDFASymbol a = creator.createSymbol('a');
+        StdDFASymbol b = creator.createSymbol('b');
+
+        // the words w such that |w|_a = 0 mod 3 represented by a cycle of n states
+        int n = 3 * 20000;
+        List<StdDFAState> states = new ArrayList<>();
+        for(int i = 0; i < n; i++) {
+            states.add(creator.createState());
+        }
+
+        Set<StdDFARule> rules = new HashSet<>();
+        Set<StdDFAState> finalStates = new HashSet<>();
+        for(int i = 0; i < n; i++) {
+            rules.add(creator.createRule(states.get(i), states.get((i + 1) % n), a));
+            rules.add(creator.createRule(states.get(i), states.get(i), b));
+            if(i % 3 == 0) {
+                finalStates.add(states.get(i));
+            }
+        }
+
+        StdDFA dfa = creator.create(rules, states.get(0), finalStates);
+        StdDFA minimal = dfaOp.minimize(dfa, creator);
+
+        assertTrue(minimal.getStates().size() == 3);
+        assertTrue(minimal.getRules().size() == 6);
+        assertTrue(minimal.getFinalStates().size() == 1);
+    }
+}
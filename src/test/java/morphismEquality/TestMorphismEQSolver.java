@@ -2,6 +2,7 @@ package morphismEquality;
 
 import grammar.impl.*;
 import morphismEq.morphisms.GenDefaultMorphism;
+import morphismEq.morphisms.IMorphism;
 import grammar.parser.CharGrammarParser;
 import morphismEq.impl.MorphismEQSolver;
 import symbol.IJezSymbol;
@@ -69,6 +70,71 @@ public class TestMorphismEQSolver {
     }
 
 
+    /**
+     * The parallel exploration has to find the same counterexample as the sequential exploration.
+     */
+    @Test
+    public void testParallelGraph() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        CFG<Character> cfg = createABStar(cfgCreator);
+
+        GenDefaultMorphism<Character> morphism1 = createMorphism(cfgCreator, "ab", "ba");
+        GenDefaultMorphism<Character> morphism2 = createMorphism(cfgCreator, "a", "bba");
+        GenDefaultMorphism<Character> morphism3 = createMorphism(cfgCreator, "a", "abb");
+
+        MorphismEQSolver<Character, Character> sequential = new MorphismEQSolver<>(cfg, cfgCreator, factory, new CFGCreatorFactory<>());
+        MorphismEQSolver<Character, Character> parallel = new MorphismEQSolver<>(cfg, cfgCreator, factory, new CFGCreatorFactory<>());
+        parallel.setParallel(true);
+
+        assertTrue(parallel.equivalentOnMorphisms(morphism1, morphism2));
+        assertFalse(parallel.getCounterExample().isPresent());
+
+        assertFalse(sequential.equivalentOnMorphisms(morphism1, morphism3));
+        assertFalse(parallel.equivalentOnMorphisms(morphism1, morphism3));
+        assertTrue(parallel.getCounterExample().get().a.toString().equals(sequential.getCounterExample().get().a.toString()));
+        assertTrue(parallel.getCounterExample().get().b.toString().equals(sequential.getCounterExample().get().b.toString()));
+    }
+
+    /**
+     * Each image of a morphism is computed at most once per run, a bounded image cache does not change the result.
+     */
+    @Test
+    public void testImageCache() {
+        CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
+        CFGCreator<Character> cfgCreator = factory.create();
+        CFG<Character> cfg = createABStar(cfgCreator);
+
+        GenDefaultMorphism<Character> morphism1 = createMorphism(cfgCreator, "ab", "ba");
+        GenDefaultMorphism<Character> morphism2 = createMorphism(cfgCreator, "a", "bba");
+        GenDefaultMorphism<Character> morphism3 = createMorphism(cfgCreator, "a", "abb");
+
+        // the distinct symbols are the non-terminals and the terminal node
+        int distinctSymbols = cfg.getNonTerminals().size() + 1;
+        int[] applications = new int[1];
+        IMorphism<SLP<Character>, SLP<Character>> counting1 = slp -> {
+            applications[0]++;
+            return morphism1.apply(slp);
+        };
+        IMorphism<SLP<Character>, SLP<Character>> counting2 = slp -> {
+            applications[0]++;
+            return morphism2.apply(slp);
+        };
+
+        MorphismEQSolver<Character, Character> morphismEQSolver = new MorphismEQSolver<>(cfg, cfgCreator, factory, new CFGCreatorFactory<>());
+        assertTrue(morphismEQSolver.equivalentOnMorphisms(counting1, counting2));
+        assertTrue(applications[0] <= 2 * distinctSymbols);
+
+        applications[0] = 0;
+        assertTrue(morphismEQSolver.equivalentOnMorphisms(counting1, counting1));
+        assertTrue(applications[0] <= distinctSymbols);
+
+        MorphismEQSolver<Character, Character> boundedSolver = new MorphismEQSolver<>(cfg, cfgCreator, factory, new CFGCreatorFactory<>());
+        boundedSolver.setImageCacheSize(1);
+        assertTrue(boundedSolver.equivalentOnMorphisms(morphism1, morphism2));
+        assertFalse(boundedSolver.equivalentOnMorphisms(morphism1, morphism3));
+    }
+
     @Test
     public void testSLPEqualityGraph() {
         CFGCreatorFactory<Character> factory = new CFGCreatorFactory<>();
@@ -177,4 +243,41 @@ public class TestMorphismEQSolver {
         assertTrue(morphismEQSolver.equivalentOnMorphisms(morphism1, morphism2));
         logger.info("Running time: " + (System.currentTimeMillis() - ms) + "[ms]");
     }
+
+    /**
+     * Creates the CFG of (ab)^* in weak CNF.
+     */
+    private static CFG<Character> createABStar(final CFGCreator<Character> cfgCreator) {
+        CharGrammarParser parser = new CharGrammarParser(cfgCreator);
+
+        String text =
+                "S -> abB \n" +
+                "B ->  \n" +
+                "B -> abB";
+
+        Set<Production<Character>> productions = parser.createProductions(text);
+        Set<IJezSymbol<Character>> axiom = new HashSet<>();
+        axiom.add(cfgCreator.lookupSymbol('S', false));
+
+        CFGOp<Character> cfgOp = new CFGOp<>();
+        return cfgCreator.createCFG(cfgOp.toWeakCNF(productions, axiom, cfgCreator), axiom);
+    }
+
+    /**
+     * Creates the morphism which maps a to imageOfA and b to imageOfB.
+     */
+    private static GenDefaultMorphism<Character> createMorphism(final CFGCreator<Character> cfgCreator, final String imageOfA, final String imageOfB) {
+        Map<IJezSymbol<Character>, List<IJezSymbol<Character>>> images = new HashMap<>();
+        images.put(cfgCreator.lookupSymbol('a', true), toWord(cfgCreator, imageOfA));
+        images.put(cfgCreator.lookupSymbol('b', true), toWord(cfgCreator, imageOfB));
+        return new GenDefaultMorphism<>(images::get);
+    }
+
+    private static List<IJezSymbol<Character>> toWord(final CFGCreator<Character> cfgCreator, final String word) {
+        List<IJezSymbol<Character>> letters = new ArrayList<>();
+        for(char letter : word.toCharArray()) {
+            letters.add(cfgCreator.lookupSymbol(letter, true));
+        }
+        return letters;
+    }
 }
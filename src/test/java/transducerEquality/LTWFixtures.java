@@ -0,0 +1,54 @@
+package transducerEquality;
+
+import LTW.impl.LTW;
+import LTW.impl.LTWCreator;
+import LTW.impl.LTWRule;
+import LTW.impl.RankedSymbol;
+import grammar.impl.CFGCreator;
+import grammar.impl.SLP;
+import symbol.StdState;
+
+import java.util.*;
+
+/**
+ * Shared LTW fixtures of the transducer tests.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class LTWFixtures {
+
+    private LTWFixtures() {}
+
+    /**
+     * Creates a random deterministic LTW with n states and empty output words, where each pair of a state and a symbol has
+     * a rule with a probability of (p-1)/p. If twoInitialStates is true, there is a second initial state, which takes over
+     * some rules of the symbol of arity 2 from the first one, i.e. both initial states read disjoint symbols.
+     */
+    public static LTW createRandomLTW(final LTWCreator ltwCreator, final CFGCreator<Character> cfgCreator, final Random random,
+                                      final List<RankedSymbol> symbols, final int n, final int p, final boolean twoInitialStates) {
+        List<StdState> states = new ArrayList<>();
+        for(int i = 0; i < n; i++) {
+            states.add(ltwCreator.createFreshState());
+        }
+        StdState secondInitialState = twoInitialStates ? ltwCreator.createFreshState() : null;
+
+        Set<LTWRule> rules = new HashSet<>();
+        for(StdState state : states) {
+            for(RankedSymbol symbol : symbols) {
+                if(random.nextInt(p) > 0) {
+                    StdState srcState = twoInitialStates && state == states.get(0) && symbol.getArity() == 2 && random.nextBoolean() ? secondInitialState : state;
+                    List<StdState> destStates = new ArrayList<>();
+                    List<SLP<Character>> outputWords = new ArrayList<>();
+                    outputWords.add(cfgCreator.emptyWord());
+                    for(int i = 0; i < symbol.getArity(); i++) {
+                        destStates.add(states.get(random.nextInt(n)));
+                        outputWords.add(cfgCreator.emptyWord());
+                    }
+                    boolean swap = random.nextBoolean();
+                    rules.add(ltwCreator.createRule(srcState, symbol, destStates, outputWords, i -> swap && symbol.getArity() == 2 ? 1 - i : i));
+                }
+            }
+        }
+        return twoInitialStates ? ltwCreator.createLTW(rules, new HashSet<>(Arrays.asList(states.get(0), secondInitialState))) : ltwCreator.createLTW(rules, states.get(0));
+    }
+}
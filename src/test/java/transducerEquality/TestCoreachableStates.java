@@ -0,0 +1,133 @@
+package transducerEquality;
+
+import LTW.gen.GenLTWOp;
+import LTW.impl.LTW;
+import LTW.impl.LTWCreator;
+import LTW.impl.LTWRule;
+import LTW.impl.RankedSymbol;
+import N2W.impl.std.*;
+import grammar.impl.CFGCreator;
+import org.junit.Test;
+import symbol.StdState;
+import utils.Pair;
+
+import java.util.*;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the computation of co-reachable state pairs of LTWs and N2Ws.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestCoreachableStates {
+
+    private static final List<RankedSymbol> SYMBOLS = Arrays.asList(new RankedSymbol('f', 2), new RankedSymbol('g', 1), new RankedSymbol('h', 0));
+
+    @Test
+    public void testPaperLTWs() {
+        LTWCreator ltwCreator = new LTWCreator();
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        GenLTWOp<Character, Character, Integer, RankedSymbol, StdState, LTWRule, LTW> ltwOp = new GenLTWOp<>();
+
+        LTW ltw1 = LTW.paperExampleLTW1(ltwCreator, cfgCreator);
+        LTW ltw2 = LTW.paperExampleLTW2(ltwCreator, cfgCreator);
+
+        Set<Pair<StdState, StdState>> coreachables = ltwOp.getCoreachableStates(ltw1, ltw2);
+        assertTrue(coreachables.equals(naiveCoreachableStates(ltw1, ltw2)));
+        assertTrue(new HashSet<>(coreachables).equals(coreachables));
+    }
+
+    @Test
+    public void testRandomLTWs() {
+        LTWCreator ltwCreator = new LTWCreator();
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        GenLTWOp<Character, Character, Integer, RankedSymbol, StdState, LTWRule, LTW> ltwOp = new GenLTWOp<>();
+        Random random = new Random(3);
+
+        for(int i = 0; i < 20; i++) {
+            LTW ltw1 = LTWFixtures.createRandomLTW(ltwCreator, cfgCreator, random, SYMBOLS, 50, 3, false);
+            LTW ltw2 = LTWFixtures.createRandomLTW(ltwCreator, cfgCreator, random, SYMBOLS, 50, 3, false);
+            assertTrue(ltwOp.getCoreachableStates(ltw1, ltw2).equals(naiveCoreachableStates(ltw1, ltw2)));
+        }
+    }
+
+    @Test
+    public void testLargeN2Ws() {
+        StdN2WOp n2WOp = new StdN2WOp();
+        int n = 10000;
+        StdN2W n2w1 = createChainN2W(n);
+        StdN2W n2w2 = createChainN2W(n);
+
+        // the i-th states of both chains are co-reachable
+        Set<Pair<StdState, StdState>> coreachables = n2WOp.getCoreachableStates(n2w1, n2w2);
+        assertTrue(coreachables.size() == n);
+
+        List<StdState> states1 = sortedStates(n2w1);
+        List<StdState> states2 = sortedStates(n2w2);
+        for(int i = 0; i < n; i++) {
+            assertTrue(coreachables.contains(new Pair<>(states1.get(i), states2.get(i))));
+            assertTrue(!coreachables.contains(new Pair<>(states1.get(i), states2.get((i + 1) % n))));
+        }
+    }
+
+    private static List<StdState> sortedStates(final StdN2W n2w) {
+        List<StdState> states = new ArrayList<>(n2w.getStates());
+        states.sort(Comparator.comparing(StdState::getName));
+        return states;
+    }
+
+    /**
+     * Creates a N2W with the states q_0, ..., q_{n-1} and the rules q_i -(<a)-> q_{i+1}, q_{i+1} -(a>)-> q_i.
+     */
+    private static StdN2W createChainN2W(final int n) {
+        StdCreator creator = new StdCreator();
+        StdNestedWord aOpen = creator.createNestedLetter('a', true);
+        StdNestedWord aClose = creator.createNestedLetter('a', false);
+
+        List<StdState> states = new ArrayList<>();
+        for(int i = 0; i < n; i++) {
+            states.add(creator.createFreshState());
+        }
+
+        Set<StdN2WRule> rules = new HashSet<>();
+        for(int i = 0; i + 1 < n; i++) {
+            StdStackSymbol stackSymbol = creator.createStackSymbol(states.get(i).getName());
+            rules.add(creator.createRule(states.get(i), states.get(i + 1), aOpen, stackSymbol, Arrays.asList(aOpen)));
+            rules.add(creator.createRule(states.get(i + 1), states.get(i), aClose, stackSymbol, Arrays.asList(aClose)));
+        }
+
+        return creator.createTransducer(rules, Collections.singleton(states.get(0)), Collections.singleton(states.get(0)));
+    }
+
+    /**
+     * Computes the co-reachable pairs by testing all pairs of rules of two states.
+     */
+    private static Set<Pair<StdState, StdState>> naiveCoreachableStates(final LTW m1, final LTW m2) {
+        Set<Pair<StdState, StdState>> coreachablePairs = new HashSet<>();
+        LinkedList<Pair<StdState, StdState>> heap = new LinkedList<>();
+        for(StdState q01 : m1.getInitialStates()) {
+            for(StdState q02 : m2.getInitialStates()) {
+                coreachablePairs.add(new Pair<>(q01, q02));
+                heap.add(new Pair<>(q01, q02));
+            }
+        }
+
+        while (!heap.isEmpty()) {
+            Pair<StdState, StdState> pair = heap.pop();
+            for(LTWRule rule1 : m1.getRules(pair.a)) {
+                for(LTWRule rule2 : m2.getRules(pair.b)) {
+                    if(rule1.getSymbol().equals(rule2.getSymbol())) {
+                        for(int i = 0; i < rule1.getSymbol().getArity(); i++) {
+                            Pair<StdState, StdState> next = new Pair<>(rule1.getDestStates().get(rule1.getInputPermutation().apply(i)), rule2.getDestStates().get(rule2.getInputPermutation().apply(i)));
+                            if(coreachablePairs.add(next)) {
+                                heap.add(next);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return coreachablePairs;
+    }
+}
@@ -0,0 +1,96 @@
+package transducerEquality;
+
+import DFA.impl.tree.TreeDFACreator;
+import DFA.impl.tree.TreeDFAOp;
+import LTW.gen.GenLTWOp;
+import LTW.impl.LTW;
+import LTW.impl.LTWCreator;
+import LTW.impl.LTWRule;
+import LTW.impl.RankedSymbol;
+import grammar.impl.CFGCreator;
+import org.junit.Test;
+import symbol.StdState;
+
+import java.util.*;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the on-the-fly domain equivalence test of LTWs.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestLTWDomain {
+
+    private static final List<RankedSymbol> SYMBOLS = Arrays.asList(new RankedSymbol('f', 2), new RankedSymbol('g', 1), new RankedSymbol('h', 0), new RankedSymbol('k', 0));
+
+    @Test
+    public void testPaperLTWs() {
+        LTWCreator ltwCreator = new LTWCreator();
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        GenLTWOp<Character, Character, Integer, RankedSymbol, StdState, LTWRule, LTW> ltwOp = new GenLTWOp<>();
+
+        LTW ltw1 = LTW.paperExampleLTW1(ltwCreator, cfgCreator);
+        LTW ltw2 = LTW.paperExampleLTW2(ltwCreator, cfgCreator);
+
+        assertTrue(ltwOp.isEqualLTWDomain(ltw1, ltw1));
+        assertTrue(ltwOp.isEqualLTWDomain(ltw1, ltw2) == isEqualDFADomain(ltwOp, ltwCreator, ltw1, ltw2));
+    }
+
+    @Test
+    public void testRandomLTWs() {
+        LTWCreator ltwCreator = new LTWCreator();
+        CFGCreator<Character> cfgCreator = new CFGCreator<>();
+        GenLTWOp<Character, Character, Integer, RankedSymbol, StdState, LTWRule, LTW> ltwOp = new GenLTWOp<>();
+        Random random = new Random(7);
+        int equalDomains = 0;
+
+        for(int i = 0; i < 300; i++) {
+            int n = 1 + random.nextInt(4);
+            LTW ltw1 = LTWFixtures.createRandomLTW(ltwCreator, cfgCreator, random, SYMBOLS, n, 4, true);
+            // a copy of ltw1 with other state names which reads (likely) less input
+            LTW ltw2 = i % 2 == 0 ? LTWFixtures.createRandomLTW(ltwCreator, cfgCreator, random, SYMBOLS, 1 + random.nextInt(4), 4, true) : renameAndDrop(ltwCreator, ltw1, random);
+
+            boolean equal = ltwOp.isEqualLTWDomain(ltw1, ltw2);
+            assertTrue(equal == isEqualDFADomain(ltwOp, ltwCreator, ltw1, ltw2));
+            assertTrue(ltwOp.isEqualLTWDomain(ltw1, ltw1));
+            equalDomains += equal ? 1 : 0;
+        }
+
+        // both results occur
+        assertTrue(equalDomains > 0 && equalDomains < 300);
+    }
+
+    private static boolean isEqualDFADomain(final GenLTWOp<Character, Character, Integer, RankedSymbol, StdState, LTWRule, LTW> ltwOp, final LTWCreator ltwCreator, final LTW ltw1, final LTW ltw2) {
+        TreeDFACreator<RankedSymbol, Integer, StdState> creator = new TreeDFACreator<>();
+        TreeDFAOp<RankedSymbol, Integer, StdState> treeDFAOp = new TreeDFAOp<>();
+        return treeDFAOp.isEquals(ltwOp.toDFA(ltw1, creator, ltwCreator), ltwOp.toDFA(ltw2, creator, ltwCreator));
+    }
+
+    /**
+     * Copies the LTW with fresh state names, where each rule is dropped with a probability of 1/8.
+     */
+    private static LTW renameAndDrop(final LTWCreator ltwCreator, final LTW ltw, final Random random) {
+        Map<StdState, StdState> renaming = new HashMap<>();
+        for(StdState state : ltw.getStates()) {
+            renaming.put(state, ltwCreator.createFreshState());
+        }
+
+        Set<LTWRule> rules = new HashSet<>();
+        for(LTWRule rule : ltw.getRules()) {
+            if(random.nextInt(8) > 0) {
+                List<StdState> destStates = new ArrayList<>();
+                for(StdState destState : rule.getDestStates()) {
+                    destStates.add(renaming.get(destState));
+                }
+                rules.add(ltwCreator.createRule(renaming.get(rule.getSrcState()), rule.getSymbol(), destStates, rule.getOutputWords(), rule.getInputPermutation()));
+            }
+        }
+
+        Set<StdState> initialStates = new HashSet<>();
+        for(StdState state : ltw.getInitialStates()) {
+            initialStates.add(renaming.get(state));
+        }
+        return ltwCreator.createLTW(rules, initialStates);
+    }
+}
@@ -0,0 +1,211 @@
+package transducerEquality;
+
+import N2W.impl.std.*;
+import grammar.impl.*;
+import org.junit.Test;
+import symbol.IJezSymbol;
+import symbol.StdState;
+import utils.Pair;
+import utils.Quadrupel;
+import utils.ReductionStatistics;
+import utils.StatePairs;
+
+import java.util.*;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for testing the construction of the grammar of parallel successful runs of 2 N2Ws.
+ *
+ * @author Benedikt Zoennchen
+ */
+public class TestN2WReduction {
+
+    @Test
+    public void testStatistics() {
+        StdReduction reduction = new StdReduction(new CFGCreatorFactory<>());
+        StdN2W n2W1 = StdN2W.exampleN2WLaurencePaper();
+        StdN2W n2W2 = StdN2W.exampleN2WLaurencePaper();
+
+        CFG<Object> cfg = reduction.N2WtoCFG(n2W1, n2W2);
+        ReductionStatistics statistics = reduction.getStatistics();
+
+        assertTrue(!cfg.getProductions(cfg.getAxiom()).isEmpty());
+        assertTrue(statistics.terminalProductions > 0);
+        assertTrue(statistics.terminalProductions <= statistics.terminalCandidates);
+        assertTrue(statistics.betweenProductions <= statistics.betweenCandidates);
+        assertTrue(statistics.betweenCandidates < statistics.coreachablePairs * statistics.coreachablePairs * statistics.coreachablePairs);
+    }
+
+    @Test
+    public void testParallel() {
+        StdReduction reduction = new StdReduction(new CFGCreatorFactory<>());
+        StdN2W n2W1 = StdN2W.exampleN2WLaurencePaper();
+        StdN2W n2W2 = StdN2W.exampleN2WLaurencePaper();
+
+        CFG<Object> cfg = reduction.N2WtoCFG(n2W1, n2W2);
+        ReductionStatistics statistics = reduction.getStatistics();
+
+        reduction.setParallel(true);
+        CFG<Object> parallelCfg = reduction.N2WtoCFG(n2W1, n2W2);
+        ReductionStatistics parallelStatistics = reduction.getStatistics();
+
+        assertTrue(cfg.getProductions().size() == parallelCfg.getProductions().size());
+        assertTrue(statistics.toString().equals(parallelStatistics.toString()));
+    }
+
+    /**
+     * The indexed joins only drop useless productions, i.e. the language of parallel successful runs (up to a length) is the
+     * language of the previous construction, which combines all rules and all triples of co-reachable pairs.
+     */
+    @Test
+    public void testLanguageOfRandomN2Ws() {
+        Random random = new Random(11);
+        int nonEmpty = 0;
+        for(int i = 0; i < 60; i++) {
+            StdN2W n2W1 = createN2W(random, 2 + random.nextInt(3));
+            StdN2W n2W2 = random.nextBoolean() ? createN2W(random, 2 + random.nextInt(3)) : n2W1;
+
+            StdReduction reduction = new StdReduction(new CFGCreatorFactory<>());
+            CFG<Object> cfg = reduction.N2WtoCFG(n2W1, n2W2);
+            Set<String> words = words(cfg.getProductions(), cfg.getAxioms());
+            assertTrue(words.equals(words(previousN2WtoCFG(n2W1, n2W2), Collections.singleton(PREVIOUS_AXIOM))));
+            nonEmpty += words.isEmpty() ? 0 : 1;
+        }
+
+        // both, empty and non-empty languages occur
+        assertTrue(nonEmpty > 0 && nonEmpty < 60);
+    }
+
+    /**
+     * the maximal length of the compared words.
+     */
+    private static final int MAX_LENGTH = 8;
+
+    private static final String PREVIOUS_AXIOM = "S";
+
+    /**
+     * Creates a N2W with k states which copies its input, where each opening rule pushes its start state.
+     */
+    private static StdN2W createN2W(final Random random, final int k) {
+        StdCreator creator = new StdCreator();
+        List<StdState> states = new ArrayList<>();
+        for(int i = 0; i < k; i++) {
+            states.add(creator.createState(i));
+        }
+
+        Set<StdN2WRule> rules = new HashSet<>();
+        for(StdState q : states) {
+            for(char a : new char[]{'a', 'b'}) {
+                if(random.nextInt(4) > 0) {
+                    StdNestedWord opening = creator.createNestedLetter(a, true);
+                    rules.add(creator.createRule(q, states.get(random.nextInt(k)), opening, creator.createStackSymbol(q.getName()), Arrays.asList(opening)));
+                }
+                for(StdState g : states) {
+                    if(random.nextInt(3) > 0) {
+                        StdNestedWord closing = creator.createNestedLetter(a, false);
+                        rules.add(creator.createRule(q, g, closing, creator.createStackSymbol(g.getName()), Arrays.asList(closing)));
+                    }
+                }
+            }
+        }
+        return creator.createTransducer(rules, Collections.singleton(states.get(0)), new HashSet<>(states.subList(0, 1 + random.nextInt(k))));
+    }
+
+    /**
+     * The previous construction of the grammar of parallel successful runs (without the transformation into weak CNF).
+     */
+    private static Set<Production<Object>> previousN2WtoCFG(final StdN2W n2W1, final StdN2W n2W2) {
+        CFGCreator<Object> cfgCreator = new CFGCreator<>();
+        StatePairs<StdState> coreachables = new StdN2WOp().getCoreachableStates(n2W1, n2W2);
+        IJezSymbol<Object> axiom = cfgCreator.lookupSymbol(PREVIOUS_AXIOM, false);
+        Set<Production<Object>> productions = new HashSet<>();
+
+        for(StdN2WRule opR1 : n2W1.getOpeningRules()) {
+            for(StdN2WRule clR1 : n2W1.getClosingRules()) {
+                for(StdN2WRule opR2 : n2W2.getOpeningRules()) {
+                    for(StdN2WRule clR2 : n2W2.getClosingRules()) {
+                        Character letter = opR1.getNestedWord().getElement();
+                        if(!letter.equals(clR1.getNestedWord().getElement()) || !letter.equals(opR2.getNestedWord().getElement()) || !letter.equals(clR2.getNestedWord().getElement())
+                                || !opR1.getStackSymbol().equals(clR1.getStackSymbol()) || !opR2.getStackSymbol().equals(clR2.getStackSymbol())
+                                || !coreachables.contains(opR1.getEndState(), opR2.getEndState()) || !coreachables.contains(clR1.getStartState(), clR2.getStartState())) {
+                            continue;
+                        }
+
+                        List<IJezSymbol<Object>> word = Arrays.asList(
+                                cfgCreator.lookupSymbol(new Pair<>(opR1, opR2), true),
+                                cfgCreator.lookupSymbol(new Quadrupel<>(opR1.getEndState(), clR1.getStartState(), opR2.getEndState(), clR2.getStartState()), false),
+                                cfgCreator.lookupSymbol(new Pair<>(clR1, clR2), true));
+
+                        if(n2W1.getInitialStates().contains(opR1.getStartState()) && n2W1.getFinalStates().contains(clR1.getEndState())
+                                && n2W2.getInitialStates().contains(opR2.getStartState()) && n2W2.getFinalStates().contains(clR2.getEndState())) {
+                            productions.add(cfgCreator.createProduction(axiom, cfgCreator.createWord(word)));
+                        }
+
+                        if(coreachables.contains(opR1.getStartState(), opR2.getStartState()) && coreachables.contains(clR1.getEndState(), clR2.getEndState())) {
+                            IJezSymbol<Object> left = cfgCreator.lookupSymbol(new Quadrupel<>(opR1.getStartState(), clR1.getEndState(), opR2.getStartState(), clR2.getEndState()), false);
+                            productions.add(cfgCreator.createProduction(left, cfgCreator.createWord(word)));
+                        }
+                    }
+                }
+            }
+        }
+
+        for(Pair<StdState, StdState> coreach1 : coreachables) {
+            for(Pair<StdState, StdState> coreach2 : coreachables) {
+                for(Pair<StdState, StdState> coreach3 : coreachables) {
+                    IJezSymbol<Object> left = cfgCreator.lookupSymbol(new Quadrupel<>(coreach1.a, coreach2.a, coreach1.b, coreach2.b), false);
+                    IJezSymbol<Object> nt1 = cfgCreator.lookupSymbol(new Quadrupel<>(coreach1.a, coreach3.a, coreach1.b, coreach3.b), false);
+                    IJezSymbol<Object> nt2 = cfgCreator.lookupSymbol(new Quadrupel<>(coreach3.a, coreach2.a, coreach3.b, coreach2.b), false);
+                    productions.add(cfgCreator.createProduction(left, cfgCreator.createWord(Arrays.asList(nt1, nt2))));
+                }
+            }
+        }
+
+        for(StdState q1 : n2W1.getStates()) {
+            for(StdState q2 : n2W2.getStates()) {
+                IJezSymbol<Object> left = cfgCreator.lookupSymbol(new Quadrupel<>(q1, q1, q2, q2), false);
+                productions.add(cfgCreator.createProduction(left, cfgCreator.createWord(new ArrayList<>())));
+            }
+        }
+        return productions;
+    }
+
+    /**
+     * Computes all words of length at most MAX_LENGTH derivable from the axioms by a fixed point iteration, a terminal is
+     * represented by the string of its name.
+     */
+    private static Set<String> words(final Set<Production<Object>> productions, final Set<?> axioms) {
+        Map<IJezSymbol<Object>, Set<List<String>>> words = new HashMap<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for(Production<Object> production : productions) {
+                Set<List<String>> current = Collections.singleton(Collections.emptyList());
+                for(IJezSymbol<Object> symbol : production.getRight()) {
+                    Set<List<String>> symbolWords = symbol.isTerminal() ? Collections.singleton(Collections.singletonList(symbol.getName().toString())) : words.getOrDefault(symbol, Collections.emptySet());
+                    Set<List<String>> next = new HashSet<>();
+                    for(List<String> prefix : current) {
+                        for(List<String> suffix : symbolWords) {
+                            if(prefix.size() + suffix.size() <= MAX_LENGTH) {
+                                List<String> word = new ArrayList<>(prefix);
+                                word.addAll(suffix);
+                                next.add(word);
+                            }
+                        }
+                    }
+                    current = next;
+                }
+                changed |= words.computeIfAbsent(production.getLeft(), x -> new HashSet<>()).addAll(current);
+            }
+        }
+
+        Set<String> result = new HashSet<>();
+        for(Map.Entry<IJezSymbol<Object>, Set<List<String>>> entry : words.entrySet()) {
+            if(axioms.contains(entry.getKey()) || axioms.contains(entry.getKey().getName())) {
+                entry.getValue().forEach(word -> result.add(word.toString()));
+            }
+        }
+        return result;
+    }
+}